@@ -33,7 +33,6 @@ public class JsonRpcMessageReceiver implements WebSocketMessageReceiver {
   private final RequestDispatcher requestDispatcher;
   private final ResponseDispatcher responseDispatcher;
   private final JsonRpcErrorTransmitter errorTransmitter;
-  private final JsonRpcQualifier jsonRpcQualifier;
   private final JsonRpcUnmarshaller jsonRpcUnmarshaller;
   private final RequestProcessor requestProcessor;
 
@@ -42,13 +41,11 @@ public class JsonRpcMessageReceiver implements WebSocketMessageReceiver {
       RequestDispatcher requestDispatcher,
       ResponseDispatcher responseDispatcher,
       JsonRpcErrorTransmitter errorTransmitter,
-      JsonRpcQualifier jsonRpcQualifier,
       JsonRpcUnmarshaller jsonRpcUnmarshaller,
       RequestProcessor requestProcessor) {
     this.requestDispatcher = requestDispatcher;
     this.responseDispatcher = responseDispatcher;
     this.errorTransmitter = errorTransmitter;
-    this.jsonRpcQualifier = jsonRpcQualifier;
     this.jsonRpcUnmarshaller = jsonRpcUnmarshaller;
     this.requestProcessor = requestProcessor;
   }
@@ -61,42 +58,31 @@ public class JsonRpcMessageReceiver implements WebSocketMessageReceiver {
     checkArgument(!message.isEmpty(), "Message must not be empty");
 
     LOGGER.debug("Receiving message: " + message + ", from endpoint: " + endpointId);
-    if (!jsonRpcQualifier.isValidJson(message)) {
-      String error = "An error occurred on the server while parsing the JSON text";
-      errorTransmitter.transmit(endpointId, new JsonRpcException(-32700, error));
+
+    List<Object> messages;
+    try {
+      messages = jsonRpcUnmarshaller.unmarshalBatch(message);
+    } catch (JsonRpcException e) {
+      LOGGER.debug("Can't parse message: {}", e.getMessage());
+      errorTransmitter.transmit(endpointId, e);
+      return;
     }
 
-    List<String> messages = jsonRpcUnmarshaller.unmarshalArray(message);
-    for (String innerMessage : messages) {
-      if (jsonRpcQualifier.isJsonRpcRequest(innerMessage)) {
-        requestProcessor.process(() -> processRequest(endpointId, innerMessage));
-      } else if (jsonRpcQualifier.isJsonRpcResponse(innerMessage)) {
-        processResponse(endpointId, innerMessage);
+    for (Object innerMessage : messages) {
+      if (innerMessage instanceof JsonRpcRequest) {
+        JsonRpcRequest request = (JsonRpcRequest) innerMessage;
+        requestProcessor.process(() -> processRequest(endpointId, request));
       } else {
-        processError();
+        responseDispatcher.dispatch(endpointId, (JsonRpcResponse) innerMessage);
       }
     }
   }
 
-  private void processError() {
-    String error = "Something wen't wrong during incoming websocket message parsing";
-    IllegalStateException exception = new IllegalStateException(error);
-    LOGGER.error(error, exception);
-    throw exception;
-  }
-
-  private void processResponse(String endpointId, String innerMessage) {
-    JsonRpcResponse response = jsonRpcUnmarshaller.unmarshalResponse(innerMessage);
-    responseDispatcher.dispatch(endpointId, response);
-  }
-
-  private void processRequest(String endpointId, String innerMessage) {
-    JsonRpcRequest request = null;
+  private void processRequest(String endpointId, JsonRpcRequest request) {
     try {
-      request = jsonRpcUnmarshaller.unmarshalRequest(innerMessage);
       requestDispatcher.dispatch(endpointId, request);
     } catch (JsonRpcException e) {
-      if (request == null || request.getId() == null) {
+      if (request.getId() == null) {
         errorTransmitter.transmit(endpointId, e);
       } else {
         errorTransmitter.transmit(
@@ -38,4 +38,17 @@ public interface JsonRpcUnmarshaller {
    * @return JSON RPC response entity
    */
   JsonRpcResponse unmarshalResponse(String message);
+
+  /**
+   * Creates requests and responses out of a plain text message that contains a single JSON RPC
+   * structure or a batch of them. Unlike the combination of the other methods, message is parsed
+   * only once.
+   *
+   * @param message plain text message
+   * @return {@link JsonRpcRequest} and {@link JsonRpcResponse} entities in the order they appear in
+   *     the message
+   * @throws JsonRpcException with code -32700 if message is not a valid JSON or with code -32600
+   *     if it contains a structure that is neither request nor response
+   */
+  List<Object> unmarshalBatch(String message);
 }
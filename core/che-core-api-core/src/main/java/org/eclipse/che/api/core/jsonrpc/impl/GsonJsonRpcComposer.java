@@ -13,9 +13,9 @@ package org.eclipse.che.api.core.jsonrpc.impl;
 import static java.util.Collections.emptyList;
 import static org.eclipse.che.api.core.jsonrpc.commons.JsonRpcUtils.cast;
 
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.inject.Singleton;
+import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcComposer;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcParams;
@@ -44,10 +44,11 @@ public class GsonJsonRpcComposer implements JsonRpcComposer {
     return composeMany(type, result.getMany());
   }
 
+  /** Binds JSON tree directly to DTO, without serializing it to text and parsing it again. */
   private <T> T composeOne(Class<T> type, Object paramObject) {
     if (paramObject instanceof JsonElement) {
       JsonElement jsonElement = (JsonElement) paramObject;
-      return DtoFactory.getInstance().createDtoFromJson(jsonElement.toString(), type);
+      return DtoFactory.getInstance().createDtoFromJson(jsonElement, type);
     }
 
     return cast(paramObject);
@@ -59,12 +60,11 @@ public class GsonJsonRpcComposer implements JsonRpcComposer {
     }
 
     if (paramsList.get(0) instanceof JsonElement) {
-      JsonArray jsonArray = new JsonArray();
-      for (int i = 0; i < paramsList.size(); i++) {
-        JsonElement jsonElement = (JsonElement) paramsList.get(i);
-        jsonArray.set(i, jsonElement);
+      List<T> result = new ArrayList<>(paramsList.size());
+      for (Object param : paramsList) {
+        result.add(DtoFactory.getInstance().createDtoFromJson((JsonElement) param, type));
       }
-      return DtoFactory.getInstance().createListDtoFromJson(jsonArray.toString(), type);
+      return result;
     }
 
     return cast(paramsList);
@@ -17,13 +17,19 @@ import static java.util.Collections.singletonList;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcError;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcParams;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
@@ -72,13 +78,100 @@ public class GsonJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
     return new JsonRpcResponse(id, result, error);
   }
 
+  /**
+   * Reads the message with a streaming reader, only values of {@code params}, {@code result} and
+   * {@code error} are read into trees, which are bound to DTOs later by {@link
+   * GsonJsonRpcComposer} without serializing them back to text.
+   */
+  @Override
+  public List<Object> unmarshalBatch(String message) {
+    checkNotNull(message, "Message must not be null");
+    checkArgument(!message.isEmpty(), "Message must not be empty");
+
+    try {
+      JsonReader reader = new JsonReader(new StringReader(message));
+      reader.setLenient(true);
+
+      List<Object> result;
+      if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+        result = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+          result.add(readMessage(reader));
+        }
+        reader.endArray();
+      } else {
+        result = singletonList(readMessage(reader));
+      }
+      return result;
+    } catch (IOException | IllegalStateException | JsonParseException e) {
+      throw new JsonRpcException(
+          -32700, "An error occurred on the server while parsing the JSON text");
+    }
+  }
+
+  private Object readMessage(JsonReader reader) throws IOException {
+    String id = null;
+    String method = null;
+    JsonElement params = null;
+    JsonElement result = null;
+    JsonElement error = null;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "id":
+          id = readId(reader);
+          break;
+        case "method":
+          method = reader.nextString();
+          break;
+        case "params":
+          params = jsonParser.parse(reader);
+          break;
+        case "result":
+          result = jsonParser.parse(reader);
+          break;
+        case "error":
+          error = jsonParser.parse(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if (method != null) {
+      return new JsonRpcRequest(id, method, params == null ? null : toParams(params));
+    }
+    if ((result == null) != (error == null)) {
+      return new JsonRpcResponse(
+          id,
+          result == null ? null : toResult(result),
+          error == null ? null : toError(error.getAsJsonObject()));
+    }
+    throw new JsonRpcException(-32600, "Message is neither JSON RPC request nor response");
+  }
+
+  private String readId(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+    return reader.nextString();
+  }
+
   private JsonRpcError getError(JsonObject response) {
     if (!response.has("error")) {
       return null;
     }
 
-    int code = response.get("error").getAsJsonObject().get("code").getAsInt();
-    String errorMessage = response.get("error").getAsJsonObject().get("message").getAsString();
+    return toError(response.get("error").getAsJsonObject());
+  }
+
+  private JsonRpcError toError(JsonObject error) {
+    int code = error.get("code").getAsInt();
+    String errorMessage = error.get("message").getAsString();
     return new JsonRpcError(code, errorMessage);
   }
 
@@ -87,7 +180,10 @@ public class GsonJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
       return null;
     }
 
-    JsonElement jsonElement = response.get("result");
+    return toResult(response.get("result"));
+  }
+
+  private JsonRpcResult toResult(JsonElement jsonElement) {
     if (!jsonElement.isJsonArray()) {
       return new JsonRpcResult(getInnerItem(jsonElement));
     }
@@ -108,7 +204,10 @@ public class GsonJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
       return null;
     }
 
-    JsonElement jsonElement = jsonObject.get("params");
+    return toParams(jsonObject.get("params"));
+  }
+
+  private JsonRpcParams toParams(JsonElement jsonElement) {
     if (!jsonElement.isJsonArray()) {
       return new JsonRpcParams(getInnerItem(jsonElement));
     }
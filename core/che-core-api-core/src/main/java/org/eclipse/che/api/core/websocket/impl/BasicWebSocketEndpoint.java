@@ -18,6 +18,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 import javax.websocket.CloseReason;
 import javax.websocket.OnClose;
 import javax.websocket.OnError;
@@ -63,8 +64,17 @@ public abstract class BasicWebSocketEndpoint {
 
     session.setMaxIdleTimeout(0);
 
-    registry.add(combinedEndpointId, session);
-    reSender.resend(combinedEndpointId);
+    // missed frames must be queued before the messages transmitted to the new session
+    Lock lock = reSender.getEndpointLock(combinedEndpointId);
+    lock.lock();
+    try {
+      registry.add(combinedEndpointId, session);
+      Map<String, String> queryParamsMap = getQueryParamsMap(session.getQueryString());
+      reSender.resend(
+          combinedEndpointId, queryParamsMap.get("streamId"), getLastSequence(queryParamsMap));
+    } finally {
+      lock.unlock();
+    }
     sessionMessagesBuffer.put(session, new StringBuffer());
   }
 
@@ -147,6 +157,22 @@ public abstract class BasicWebSocketEndpoint {
         .orElse(identificationService.getCombinedId(getEndpointId(), clientId));
   }
 
+  /**
+   * Returns number of frames of the stream received by the client before reconnection or -1 if
+   * unknown.
+   */
+  private long getLastSequence(Map<String, String> queryParamsMap) {
+    String lastSequence = queryParamsMap.get("lastSeq");
+    if (lastSequence != null) {
+      try {
+        return Long.parseLong(lastSequence);
+      } catch (NumberFormatException x) {
+        LOG.warn("Illegal value of the last received message sequence number: {}", lastSequence);
+      }
+    }
+    return -1;
+  }
+
   private Map<String, String> getQueryParamsMap(String queryParamsString) {
     Map<String, String> queryParamsMap = new HashMap<>();
 
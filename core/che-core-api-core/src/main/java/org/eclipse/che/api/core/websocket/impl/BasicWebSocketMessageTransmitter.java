@@ -12,12 +12,17 @@ package org.eclipse.che.api.core.websocket.impl;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
-import java.io.IOException;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.websocket.Session;
 import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
+import org.eclipse.che.api.core.websocket.impl.OutboundMessageQueue.OverflowPolicy;
+import org.eclipse.che.commons.schedule.ScheduleDelay;
 import org.slf4j.Logger;
 
 /**
@@ -25,24 +30,51 @@ import org.slf4j.Logger;
  * session is not opened adds messages to re-sender to try to send them when session will be opened
  * again.
  *
+ * <p>Messages are not sent in the transmitting thread, each session has its own bounded queue of
+ * outgoing messages which is sent asynchronously, see {@link OutboundMessageQueue}, so a slow
+ * client doesn't delay messages of the other clients. Messages are not queued while a session of
+ * the endpoint is being opened, so they follow the messages re-sent to the new session.
+ *
  * @author Dmitry Kuleshov
  */
 @Singleton
 public class BasicWebSocketMessageTransmitter implements WebSocketMessageTransmitter {
   private static final Logger LOG = getLogger(BasicWebSocketMessageTransmitter.class);
 
+  private final Map<Session, OutboundMessageQueue> queues = new ConcurrentHashMap<>();
+
   private final WebSocketSessionRegistry registry;
   private final MessagesReSender reSender;
+  private final int queueSize;
+  private final int batchSize;
+  private final OverflowPolicy overflowPolicy;
 
   @Inject
   public BasicWebSocketMessageTransmitter(
-      WebSocketSessionRegistry registry, MessagesReSender reSender) {
+      WebSocketSessionRegistry registry,
+      MessagesReSender reSender,
+      @Named("che.websocket.outbound.queue_size") int queueSize,
+      @Named("che.websocket.outbound.batch_size") int batchSize,
+      @Named("che.websocket.outbound.overflow_policy") String overflowPolicy) {
     this.registry = registry;
     this.reSender = reSender;
+    this.queueSize = queueSize;
+    this.batchSize = batchSize;
+    this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.toUpperCase());
   }
 
   @Override
-  public synchronized void transmit(String endpointId, String message) {
+  public void transmit(String endpointId, String message) {
+    Lock lock = reSender.getEndpointLock(endpointId);
+    lock.lock();
+    try {
+      doTransmit(endpointId, message);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void doTransmit(String endpointId, String message) {
     Optional<Session> sessionOptional = registry.get(endpointId);
 
     if (!sessionOptional.isPresent()) {
@@ -52,15 +84,42 @@ public class BasicWebSocketMessageTransmitter implements WebSocketMessageTransmi
     if (!sessionOptional.isPresent() || !sessionOptional.get().isOpen()) {
       LOG.debug("Session is not registered or closed, adding message to pending");
 
+      sessionOptional.ifPresent(queues::remove);
       reSender.add(endpointId, message);
     } else {
-      LOG.debug("Session registered and open, sending message");
+      LOG.debug("Session registered and open, queueing message");
+
+      queues
+          .computeIfAbsent(
+              sessionOptional.get(),
+              session ->
+                  new OutboundMessageQueue(
+                      registry.get(session).orElse(endpointId),
+                      session,
+                      reSender,
+                      queueSize,
+                      batchSize,
+                      overflowPolicy))
+          .offer(message);
+    }
+  }
+
+  @ScheduleDelay(initialDelay = 60, delay = 60)
+  void cleanClosedSessions() {
+    queues.values().removeIf(queue -> !queue.isOpen());
 
-      try {
-        sessionOptional.get().getBasicRemote().sendText(message);
-      } catch (IOException e) {
-        LOG.error("Error while trying to send a message to a basic websocket remote endpoint", e);
-      }
+    if (LOG.isDebugEnabled()) {
+      queues.forEach(
+          (session, queue) ->
+              LOG.debug(
+                  "Outgoing queue of session {}: size {}, max size {}, sent {}, dropped {}, "
+                      + "average send latency {}ms",
+                  session.getId(),
+                  queue.size(),
+                  queue.getMaxSize(),
+                  queue.getSentMessages(),
+                  queue.getDroppedMessages(),
+                  queue.getAverageSendLatencyMillis()));
     }
   }
 }
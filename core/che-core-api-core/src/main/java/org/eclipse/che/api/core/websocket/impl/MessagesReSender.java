@@ -10,85 +10,291 @@
  */
 package org.eclipse.che.api.core.websocket.impl;
 
-import com.google.common.collect.EvictingQueue;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import com.google.common.base.Utf8;
+import com.google.common.util.concurrent.Striped;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
-import javax.websocket.Session;
+import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
 import org.eclipse.che.commons.schedule.ScheduleDelay;
+import org.slf4j.Logger;
 
 /**
- * Instance is responsible for re-sending messages that were not sent during the period when WEB
- * SOCKET session was closed. If session is closed during re-send process it stops and left messages
- * will be re-sent as WEB SOCKET session becomes open again.
+ * Instance is responsible for re-sending messages that were not received by a WEB SOCKET endpoint
+ * because its session was closed.
+ *
+ * <p>Each frame sent to an endpoint gets the next sequence number of the endpoint and is kept in
+ * the backlog of the endpoint for a limited time. Client that counts received frames identifies the
+ * stream of frames it counts with {@code streamId} query parameter and passes the count as {@code
+ * lastSeq} query parameter when it reconnects, then only the frames it missed are sent again,
+ * including the frames that were lost while the connection was being broken. Numbering of the
+ * frames is bound to the stream, when a session is opened for another stream, e.g. client has
+ * reset its counter, or the backlog doesn't contain all the missed frames, only the frames which
+ * sending wasn't completed are sent again, the backlog is cleared and the numbering continues from
+ * the count of the client. Messages that were transmitted while the session was closed are sent
+ * after the frames.
  *
  * @author Dmitry Kuleshov
  */
 @Singleton
 public class MessagesReSender {
 
-  private static final int MAX_MESSAGES = 100;
+  private static final Logger LOG = getLogger(MessagesReSender.class);
+
+  private static final int ENDPOINT_LOCKS = 64;
 
-  private final WebSocketSessionRegistry registry;
+  private final Provider<WebSocketMessageTransmitter> transmitter;
+  private final int maxMessages;
+  private final long maxBytes;
+  private final long maxAgeMillis;
 
-  private final Map<String, Queue<DelayedMessage>> delayedMessageRegistry =
-      new ConcurrentHashMap<>();
+  private final Map<String, Backlog> backlogs = new ConcurrentHashMap<>();
+  private final Striped<Lock> endpointLocks = Striped.lock(ENDPOINT_LOCKS);
 
   @Inject
-  public MessagesReSender(WebSocketSessionRegistry registry) {
-    this.registry = registry;
+  public MessagesReSender(
+      Provider<WebSocketMessageTransmitter> transmitter,
+      @Named("che.websocket.backlog.max_messages") int maxMessages,
+      @Named("che.websocket.backlog.max_bytes") long maxBytes,
+      @Named("che.websocket.backlog.max_age_ms") long maxAgeMillis) {
+    this.transmitter = transmitter;
+    this.maxMessages = maxMessages;
+    this.maxBytes = maxBytes;
+    this.maxAgeMillis = maxAgeMillis;
+  }
+
+  /**
+   * Returns lock which guards transmission of messages to the endpoint. It is held while a session
+   * of the endpoint is registered and the missed frames are re-sent, so messages transmitted
+   * meanwhile are queued after the re-sent ones.
+   */
+  Lock getEndpointLock(String endpointId) {
+    return endpointLocks.get(endpointId);
   }
 
   @ScheduleDelay(initialDelay = 60, delay = 60)
   void cleanStaleMessages() {
-    long currentTimeMillis = System.currentTimeMillis();
+    long expiredBefore = System.currentTimeMillis() - maxAgeMillis;
 
-    delayedMessageRegistry
-        .values()
-        .forEach(it -> it.removeIf(m -> currentTimeMillis - m.timeMillis > 60_000));
-
-    delayedMessageRegistry.values().removeIf(Queue::isEmpty);
+    for (String endpointId : backlogs.keySet()) {
+      backlogs.computeIfPresent(
+          endpointId, (id, backlog) -> backlog.removeOlderThan(expiredBefore) ? null : backlog);
+    }
   }
 
+  /** Adds a message that can't be sent because session of the endpoint is not opened. */
   public void add(String endpointId, String message) {
+    backlogs.compute(
+        endpointId,
+        (id, backlog) -> {
+          Backlog result = backlog == null ? new Backlog() : backlog;
+          result.addPending(message, maxMessages, maxBytes);
+          return result;
+        });
+  }
 
-    delayedMessageRegistry
-        .computeIfAbsent(endpointId, k -> EvictingQueue.create(MAX_MESSAGES))
-        .offer(new DelayedMessage(message));
+  /**
+   * Records a frame which is being sent to the endpoint.
+   *
+   * @return recorded frame, it must be marked as delivered when sending is completed
+   */
+  SentFrame sent(String endpointId, String payload) {
+    SentFrame[] frame = new SentFrame[1];
+    backlogs.compute(
+        endpointId,
+        (id, backlog) -> {
+          Backlog result = backlog == null ? new Backlog() : backlog;
+          frame[0] = result.addFrame(payload, maxMessages, maxBytes);
+          return result;
+        });
+    return frame[0];
   }
 
+  /** Re-sends frames which sending wasn't completed and messages added while session was closed. */
   public void resend(String endpointId) {
-    Queue<DelayedMessage> delayedMessages = delayedMessageRegistry.remove(endpointId);
+    resend(endpointId, null, -1);
+  }
+
+  /**
+   * Re-sends frames following the last received one and messages added while session was closed.
+   *
+   * @param streamId identifier of the stream of frames counted by the client, or {@code null} if
+   *     the client doesn't count frames
+   * @param lastSequence sequence number of the last frame of the stream received by the client, or
+   *     a negative value if it is unknown
+   */
+  public void resend(String endpointId, String streamId, long lastSequence) {
+    List<String> messages = new ArrayList<>();
+    backlogs.compute(
+        endpointId,
+        (id, backlog) -> {
+          Backlog result = backlog == null ? new Backlog() : backlog;
+          messages.addAll(result.rewind(streamId, lastSequence));
+          return result;
+        });
+
+    if (!messages.isEmpty()) {
+      LOG.debug("Re-sending {} messages to endpoint {}", messages.size(), endpointId);
+
+      WebSocketMessageTransmitter messageTransmitter = transmitter.get();
+      messages.forEach(it -> messageTransmitter.transmit(endpointId, it));
+    }
+  }
+
+  /** Returns size of the message encoded in UTF-8. */
+  private static int sizeOf(String message) {
+    try {
+      return Utf8.encodedLength(message);
+    } catch (IllegalArgumentException x) {
+      // unpaired surrogates are replaced on encoding, the size is bounded by 3 bytes per char
+      return message.length() * 3;
+    }
+  }
+
+  /** Frame sent to a session of an endpoint. */
+  static class SentFrame {
+
+    private final long sequence;
+    private final long timeMillis;
+    private final String payload;
+    private final int bytes;
+    private volatile boolean delivered;
 
-    if (delayedMessages == null || delayedMessages.isEmpty()) {
-      return;
+    private SentFrame(long sequence, String payload) {
+      this.sequence = sequence;
+      this.payload = payload;
+      this.bytes = sizeOf(payload);
+      this.timeMillis = System.currentTimeMillis();
+    }
+
+    long getSequence() {
+      return sequence;
+    }
+
+    /** Marks frame as successfully sent. */
+    void delivered() {
+      delivered = true;
+    }
+  }
+
+  /**
+   * Frames and pending messages of a single endpoint, guarded by the map of backlogs. Backlog is
+   * limited by number of frames, number of pending messages and their total size in bytes, the
+   * oldest entries are dropped first.
+   */
+  private static class Backlog {
+
+    private final Deque<SentFrame> frames = new ArrayDeque<>();
+    private final Deque<DelayedMessage> pending = new ArrayDeque<>();
+
+    private String streamId;
+    private long lastSequence;
+    private long lastActivity = System.currentTimeMillis();
+    private long bytes;
+
+    void addPending(String message, int maxMessages, long maxBytes) {
+      if (pending.size() >= maxMessages) {
+        removeFirstPending();
+      }
+      DelayedMessage delayed = new DelayedMessage(message);
+      pending.add(delayed);
+      bytes += delayed.bytes;
+      lastActivity = System.currentTimeMillis();
+      trimToSize(maxBytes);
+    }
+
+    SentFrame addFrame(String payload, int maxMessages, long maxBytes) {
+      if (frames.size() >= maxMessages) {
+        removeFirstFrame();
+      }
+      SentFrame frame = new SentFrame(++lastSequence, payload);
+      frames.add(frame);
+      bytes += frame.bytes;
+      lastActivity = frame.timeMillis;
+      trimToSize(maxBytes);
+      return frame;
     }
 
-    Optional<Session> sessionOptional = registry.get(endpointId);
+    /** Drops the oldest frames and messages until their total size fits, keeps the newest one. */
+    private void trimToSize(long maxBytes) {
+      while (bytes > maxBytes && frames.size() + pending.size() > 1) {
+        if (pending.isEmpty()
+            || (!frames.isEmpty() && frames.peek().timeMillis <= pending.peek().timeMillis)) {
+          removeFirstFrame();
+        } else {
+          removeFirstPending();
+        }
+      }
+    }
 
-    if (!sessionOptional.isPresent()) {
-      return;
+    private void removeFirstFrame() {
+      bytes -= frames.poll().bytes;
     }
 
-    Queue<DelayedMessage> backingQueue = EvictingQueue.create(delayedMessages.size());
-    while (!delayedMessages.isEmpty()) {
-      backingQueue.offer(delayedMessages.poll());
+    private void removeFirstPending() {
+      bytes -= pending.poll().bytes;
     }
 
-    Session session = sessionOptional.get();
-    for (DelayedMessage delayedMessage : backingQueue) {
-      if (session.isOpen()) {
-        session.getAsyncRemote().sendText(delayedMessage.message);
+    /**
+     * Removes frames and messages which must be sent again and returns them in the original order.
+     * When the last received frame of the numbered stream is known and all the following frames are
+     * still in the backlog, sequence is rewound, so the frames get the same numbers when they are
+     * sent again. Otherwise the frames are numbered for the given stream from now on, following the
+     * count of the client.
+     */
+    List<String> rewind(String stream, long lastReceived) {
+      List<String> messages = new ArrayList<>();
+      SentFrame first = frames.peekFirst();
+      long firstKept = first == null ? lastSequence + 1 : first.sequence;
+      if (stream != null
+          && stream.equals(streamId)
+          && lastReceived >= 0
+          && lastReceived <= lastSequence
+          && firstKept <= lastReceived + 1) {
+        while (!frames.isEmpty() && frames.peekLast().sequence > lastReceived) {
+          SentFrame frame = frames.pollLast();
+          bytes -= frame.bytes;
+          messages.add(0, frame.payload);
+        }
+        lastSequence = lastReceived;
       } else {
-        delayedMessages.add(delayedMessage);
+        while (!frames.isEmpty()) {
+          SentFrame frame = frames.poll();
+          bytes -= frame.bytes;
+          if (!frame.delivered) {
+            messages.add(frame.payload);
+          }
+        }
+        streamId = stream;
+        lastSequence = Math.max(lastReceived, 0);
+      }
+      while (!pending.isEmpty()) {
+        DelayedMessage delayed = pending.poll();
+        bytes -= delayed.bytes;
+        messages.add(delayed.message);
       }
+      return messages;
     }
 
-    if (!delayedMessages.isEmpty()) {
-      delayedMessageRegistry.put(endpointId, delayedMessages);
+    /** Removes stale frames and messages, returns {@code true} if backlog is not used anymore. */
+    boolean removeOlderThan(long timeMillis) {
+      while (!frames.isEmpty() && frames.peek().timeMillis < timeMillis) {
+        removeFirstFrame();
+      }
+      while (!pending.isEmpty() && pending.peek().timeMillis < timeMillis) {
+        removeFirstPending();
+      }
+      return frames.isEmpty() && pending.isEmpty() && lastActivity < timeMillis;
     }
   }
 
@@ -96,9 +302,11 @@ public class MessagesReSender {
 
     private final long timeMillis;
     private final String message;
+    private final int bytes;
 
     private DelayedMessage(String message) {
       this.message = message;
+      this.bytes = sizeOf(message);
       this.timeMillis = System.currentTimeMillis();
     }
   }
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.websocket.impl;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import javax.websocket.CloseReason;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import org.eclipse.che.api.core.websocket.impl.MessagesReSender.SentFrame;
+import org.slf4j.Logger;
+
+/**
+ * Bounded queue of outgoing messages of a single WEB SOCKET session. Messages are sent with the
+ * asynchronous remote of the session one at a time, so neither the transmitting threads nor the
+ * other sessions wait for a slow client. Messages that are queued while the previous send is in
+ * progress are sent together as a JSON RPC batch (an array of JSON RPC objects) when batching is
+ * enabled.
+ *
+ * <p>When the queue is full, either the oldest queued message is dropped or the session is closed
+ * depending on the overflow policy. Each sent frame is recorded by the {@link MessagesReSender},
+ * so it can be sent again after reconnection, messages that can't be sent because the session is
+ * closed are passed to it as well.
+ */
+class OutboundMessageQueue {
+
+  private static final Logger LOG = getLogger(OutboundMessageQueue.class);
+
+  /** What to do with a new message when the queue is full. */
+  enum OverflowPolicy {
+    /** Drop the oldest queued message. */
+    DROP,
+    /** Close the session, client reconnects and gets the pending messages from re-sender. */
+    DISCONNECT
+  }
+
+  private final String endpointId;
+  private final Session session;
+  private final MessagesReSender reSender;
+  private final int capacity;
+  private final int batchSize;
+  private final OverflowPolicy overflowPolicy;
+
+  private final Deque<String> messages = new ArrayDeque<>();
+  private final LongAdder sentMessages = new LongAdder();
+  private final LongAdder droppedMessages = new LongAdder();
+  private final LongAdder sends = new LongAdder();
+  private final LongAdder sendNanos = new LongAdder();
+
+  private boolean sending;
+  private boolean inSendText;
+  private boolean completedInline;
+  private int maxSize;
+
+  OutboundMessageQueue(
+      String endpointId,
+      Session session,
+      MessagesReSender reSender,
+      int capacity,
+      int batchSize,
+      OverflowPolicy overflowPolicy) {
+    this.endpointId = endpointId;
+    this.session = session;
+    this.reSender = reSender;
+    this.capacity = capacity;
+    this.batchSize = Math.max(batchSize, 1);
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  /** Queues the message and starts sending if the queue is not being sent already. */
+  void offer(String message) {
+    synchronized (this) {
+      if (messages.size() >= capacity) {
+        if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+          LOG.warn(
+              "Outgoing queue of endpoint '{}' is full ({} messages), closing the session",
+              endpointId,
+              messages.size());
+          messages.add(message);
+          close();
+          return;
+        }
+        messages.poll();
+        droppedMessages.increment();
+        LOG.debug("Outgoing queue of endpoint '{}' is full, dropping a message", endpointId);
+      }
+      messages.add(message);
+      maxSize = Math.max(maxSize, messages.size());
+      if (sending) {
+        return;
+      }
+      sending = true;
+    }
+    drain();
+  }
+
+  /**
+   * Sends queued messages until the queue is empty or a send doesn't complete immediately, in which
+   * case draining is continued by the completion handler. This avoids unbounded recursion when the
+   * container completes sends in the calling thread.
+   */
+  private void drain() {
+    while (true) {
+      List<String> batch;
+      synchronized (this) {
+        if (!session.isOpen()) {
+          sending = false;
+          passToReSender();
+          return;
+        }
+        if (messages.isEmpty()) {
+          sending = false;
+          return;
+        }
+        batch = pollBatch();
+        inSendText = true;
+        completedInline = false;
+      }
+      send(batch);
+      synchronized (this) {
+        inSendText = false;
+        if (!completedInline) {
+          return;
+        }
+      }
+    }
+  }
+
+  private void send(List<String> batch) {
+    String payload = batch.size() == 1 ? batch.get(0) : '[' + String.join(",", batch) + ']';
+    SentFrame frame = reSender.sent(endpointId, payload);
+    long start = System.nanoTime();
+    try {
+      session.getAsyncRemote().sendText(payload, result -> onSent(result, frame, batch, start));
+    } catch (RuntimeException x) {
+      LOG.error("Error while trying to send a message to endpoint '{}'", endpointId, x);
+      onCompleted();
+    }
+  }
+
+  private void onSent(SendResult result, SentFrame frame, List<String> batch, long start) {
+    sends.increment();
+    sendNanos.add(System.nanoTime() - start);
+    if (result.isOK()) {
+      frame.delivered();
+      sentMessages.add(batch.size());
+    } else {
+      // frame is not marked as delivered, so it is sent again after reconnection
+      LOG.error(
+          "Error while trying to send a message to endpoint '{}'",
+          endpointId,
+          result.getException());
+    }
+    if (onCompleted()) {
+      drain();
+    }
+  }
+
+  /** Returns {@code true} if draining must be continued by the caller. */
+  private synchronized boolean onCompleted() {
+    if (inSendText) {
+      completedInline = true;
+      return false;
+    }
+    return true;
+  }
+
+  /** Polls the next message or several messages that can be sent as a single batch. */
+  private List<String> pollBatch() {
+    List<String> batch = new ArrayList<>(Math.min(batchSize, messages.size()));
+    batch.add(messages.poll());
+    if (isJsonObject(batch.get(0))) {
+      while (batch.size() < batchSize && !messages.isEmpty() && isJsonObject(messages.peek())) {
+        batch.add(messages.poll());
+      }
+    }
+    return batch;
+  }
+
+  private static boolean isJsonObject(String message) {
+    for (int i = 0; i < message.length(); i++) {
+      char c = message.charAt(i);
+      if (!Character.isWhitespace(c)) {
+        return c == '{';
+      }
+    }
+    return false;
+  }
+
+  private void passToReSender() {
+    while (!messages.isEmpty()) {
+      reSender.add(endpointId, messages.poll());
+    }
+  }
+
+  private void close() {
+    try {
+      session.close(
+          new CloseReason(
+              CloseReason.CloseCodes.TRY_AGAIN_LATER, "Too many outgoing messages are queued"));
+    } catch (IOException x) {
+      LOG.error("Error while closing session of endpoint '{}'", endpointId, x);
+    }
+    passToReSender();
+  }
+
+  boolean isOpen() {
+    return session.isOpen();
+  }
+
+  synchronized int size() {
+    return messages.size();
+  }
+
+  /** Returns the largest number of queued messages since the queue was created. */
+  synchronized int getMaxSize() {
+    return maxSize;
+  }
+
+  long getSentMessages() {
+    return sentMessages.sum();
+  }
+
+  long getDroppedMessages() {
+    return droppedMessages.sum();
+  }
+
+  /** Returns average time between the start of a send and its completion. */
+  long getAverageSendLatencyMillis() {
+    long count = sends.sum();
+    return count == 0 ? 0 : NANOSECONDS.toMillis(sendNanos.sum() / count);
+  }
+}
@@ -34,61 +34,49 @@ public class JsonRpcMessageReceiverTest {
   @Mock RequestDispatcher requestDispatcher;
   @Mock ResponseDispatcher responseDispatcher;
   @Mock JsonRpcErrorTransmitter errorTransmitter;
-  @Mock JsonRpcQualifier jsonRpcQualifier;
   @Mock JsonRpcUnmarshaller jsonRpcUnmarshaller;
   @Mock RequestProcessor requestProcessor;
   @InjectMocks JsonRpcMessageReceiver jsonRpcMessageReceiver;
 
   @Test
-  public void shouldValidateMessage() throws Exception {
+  public void shouldUnmarshalMessage() throws Exception {
     jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
-    verify(jsonRpcQualifier).isValidJson(MESSAGE);
+    verify(jsonRpcUnmarshaller).unmarshalBatch(MESSAGE);
   }
 
   @Test
-  public void shouldTransmitErrorWhenValidationFailed() throws Exception {
-    when(jsonRpcQualifier.isValidJson(MESSAGE)).thenReturn(false);
+  public void shouldTransmitErrorWhenUnmarshallingFailed() throws Exception {
+    JsonRpcException exception = new JsonRpcException(-32700, "error");
+    when(jsonRpcUnmarshaller.unmarshalBatch(MESSAGE)).thenThrow(exception);
 
     jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
-    verify(errorTransmitter).transmit(eq(ENDPOINT_ID), any(JsonRpcException.class));
+    verify(errorTransmitter).transmit(ENDPOINT_ID, exception);
+    verify(requestProcessor, never()).process(any());
   }
 
   @Test
-  public void shouldNotTransmitErrorWhenValidationSucceeded() throws Exception {
-    when(jsonRpcQualifier.isValidJson(MESSAGE)).thenReturn(true);
-
+  public void shouldNotTransmitErrorWhenUnmarshallingSucceeded() throws Exception {
     jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
     verify(errorTransmitter, never()).transmit(eq(ENDPOINT_ID), any(JsonRpcException.class));
   }
 
-  @Test
-  public void shouldUnmarshalArray() throws Exception {
-    jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
-
-    verify(jsonRpcUnmarshaller).unmarshalArray(MESSAGE);
-  }
-
   @Test
   public void shouldDispatchResponseIfResponseReceived() throws Exception {
-    when(jsonRpcQualifier.isJsonRpcResponse(MESSAGE)).thenReturn(true);
-    when(jsonRpcQualifier.isJsonRpcRequest(MESSAGE)).thenReturn(false);
-    when(jsonRpcUnmarshaller.unmarshalArray(any())).thenReturn(singletonList(MESSAGE));
     JsonRpcResponse jsonRpcResponse = Mockito.mock(JsonRpcResponse.class);
-    when(jsonRpcUnmarshaller.unmarshalResponse(any())).thenReturn(jsonRpcResponse);
+    when(jsonRpcUnmarshaller.unmarshalBatch(any())).thenReturn(singletonList(jsonRpcResponse));
 
     jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
-    verify(responseDispatcher).dispatch(eq(ENDPOINT_ID), any(JsonRpcResponse.class));
+    verify(responseDispatcher).dispatch(ENDPOINT_ID, jsonRpcResponse);
   }
 
   @Test
   public void shouldDispatchRequestIfRequestReceived() throws Exception {
-    when(jsonRpcQualifier.isJsonRpcRequest(MESSAGE)).thenReturn(true);
-    when(jsonRpcQualifier.isJsonRpcResponse(MESSAGE)).thenReturn(false);
-    when(jsonRpcUnmarshaller.unmarshalArray(any())).thenReturn(singletonList(MESSAGE));
+    JsonRpcRequest jsonRpcRequest = Mockito.mock(JsonRpcRequest.class);
+    when(jsonRpcUnmarshaller.unmarshalBatch(any())).thenReturn(singletonList(jsonRpcRequest));
 
     jsonRpcMessageReceiver.receive(ENDPOINT_ID, MESSAGE);
 
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.List;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link GsonJsonRpcUnmarshaller} */
+public class GsonJsonRpcUnmarshallerTest {
+
+  private GsonJsonRpcUnmarshaller unmarshaller;
+
+  @BeforeMethod
+  public void setUp() {
+    unmarshaller = new GsonJsonRpcUnmarshaller(new JsonParser());
+  }
+
+  @Test
+  public void shouldUnmarshalSingleRequest() {
+    List<Object> messages =
+        unmarshaller.unmarshalBatch(
+            "{\"jsonrpc\":\"2.0\",\"id\":7,\"method\":\"m\",\"params\":{\"name\":\"value\"}}");
+
+    assertEquals(messages.size(), 1);
+    JsonRpcRequest request = (JsonRpcRequest) messages.get(0);
+    assertEquals(request.getId(), "7");
+    assertEquals(request.getMethod(), "m");
+    assertEquals(
+        ((JsonObject) request.getParams().getOne()).get("name").getAsString(), "value");
+  }
+
+  @Test
+  public void shouldUnmarshalNotificationWithListOfParams() {
+    List<Object> messages =
+        unmarshaller.unmarshalBatch("{\"jsonrpc\":\"2.0\",\"method\":\"m\",\"params\":[1,\"a\"]}");
+
+    JsonRpcRequest request = (JsonRpcRequest) messages.get(0);
+    assertNull(request.getId());
+    assertFalse(request.getParams().isSingle());
+    assertEquals(request.getParams().getMany().get(0), 1D);
+    assertEquals(request.getParams().getMany().get(1), "a");
+  }
+
+  @Test
+  public void shouldUnmarshalBatchOfRequestsAndResponses() {
+    List<Object> messages =
+        unmarshaller.unmarshalBatch(
+            "[{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":true},"
+                + "{\"jsonrpc\":\"2.0\",\"method\":\"m\"},"
+                + "{\"jsonrpc\":\"2.0\",\"id\":\"2\",\"error\":{\"code\":-1,\"message\":\"e\"}}]");
+
+    assertEquals(messages.size(), 3);
+    JsonRpcResponse result = (JsonRpcResponse) messages.get(0);
+    assertEquals(result.getId(), "1");
+    assertEquals(result.getResult().getOne(), true);
+    assertTrue(messages.get(1) instanceof JsonRpcRequest);
+    JsonRpcResponse error = (JsonRpcResponse) messages.get(2);
+    assertTrue(error.hasError());
+    assertEquals(error.getError().getCode(), -1);
+    assertEquals(error.getError().getMessage(), "e");
+  }
+
+  @Test(
+    expectedExceptions = JsonRpcException.class,
+    expectedExceptionsMessageRegExp = "An error occurred on the server while parsing the JSON text"
+  )
+  public void shouldFailWithParseErrorWhenMessageIsNotValidJson() {
+    unmarshaller.unmarshalBatch("{\"jsonrpc\":\"2.0\",\"method\":");
+  }
+
+  @Test(
+    expectedExceptions = JsonRpcException.class,
+    expectedExceptionsMessageRegExp = "Message is neither JSON RPC request nor response"
+  )
+  public void shouldFailWhenMessageIsNeitherRequestNorResponse() {
+    unmarshaller.unmarshalBatch("{\"jsonrpc\":\"2.0\",\"id\":\"1\"}");
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import com.google.gson.JsonParser;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcQualifier;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcUnmarshaller;
+
+/**
+ * Manual benchmark comparing decoding of incoming JSON RPC messages by {@link
+ * JsonRpcUnmarshaller#unmarshalBatch(String)} with the previous way of decoding, which validated,
+ * split, qualified and unmarshalled each message parsing it again on every step. Reports throughput
+ * and bytes allocated per message. It is not executed as part of the build, run it with:
+ *
+ * <pre>
+ * java -cp ... -Dmessages=200000 -Dbatch=10 -Diterations=5 \
+ *     org.eclipse.che.api.core.jsonrpc.impl.JsonRpcDecodingBenchmark
+ * </pre>
+ */
+public class JsonRpcDecodingBenchmark {
+
+  private static final String NOTIFICATION =
+      "{\"jsonrpc\":\"2.0\",\"method\":\"event/project-tree-state-changed\",\"params\":"
+          + "{\"path\":\"/project/src/main/java/org/example/Main.java\",\"type\":\"MODIFIED\"}}";
+
+  public static void main(String[] args) {
+    int messages = Integer.getInteger("messages", 100_000);
+    int batch = Integer.getInteger("batch", 1);
+    int iterations = Integer.getInteger("iterations", 5);
+
+    JsonParser jsonParser = new JsonParser();
+    JsonRpcQualifier qualifier = new GsonJsonRpcQualifier(jsonParser);
+    JsonRpcUnmarshaller unmarshaller = new GsonJsonRpcUnmarshaller(jsonParser);
+
+    String message = batch == 1 ? NOTIFICATION : batchOf(batch);
+    int count = messages / batch;
+
+    for (int i = 0; i < iterations; i++) {
+      measure("multi-pass ", count, batch, () -> decodeMultiPass(qualifier, unmarshaller, message));
+      measure("single-pass", count, batch, () -> unmarshaller.unmarshalBatch(message).size());
+    }
+  }
+
+  /** Decodes message the way it was done before single-pass decoding. */
+  private static int decodeMultiPass(
+      JsonRpcQualifier qualifier, JsonRpcUnmarshaller unmarshaller, String message) {
+    if (!qualifier.isValidJson(message)) {
+      throw new IllegalStateException();
+    }
+    List<Object> result = new ArrayList<>();
+    for (String innerMessage : unmarshaller.unmarshalArray(message)) {
+      if (qualifier.isJsonRpcRequest(innerMessage)) {
+        result.add(unmarshaller.unmarshalRequest(innerMessage));
+      } else if (qualifier.isJsonRpcResponse(innerMessage)) {
+        result.add(unmarshaller.unmarshalResponse(innerMessage));
+      }
+    }
+    return result.size();
+  }
+
+  private static void measure(String name, int count, int batch, Decoder decoder) {
+    long allocatedBefore = allocatedBytes();
+    long start = System.nanoTime();
+    long decoded = 0;
+    for (int i = 0; i < count; i++) {
+      decoded += decoder.decode();
+    }
+    long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+    long allocated = allocatedBytes() - allocatedBefore;
+
+    System.out.printf(
+        "%s: %d messages in %d ms, %d messages/s, %d bytes allocated per message%n",
+        name, decoded, elapsedMillis, decoded * 1000 / elapsedMillis, allocated / decoded);
+  }
+
+  private static String batchOf(int size) {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(NOTIFICATION);
+    }
+    return sb.append(']').toString();
+  }
+
+  private static long allocatedBytes() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) bean)
+          .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+
+  private interface Decoder {
+    int decode();
+  }
+}
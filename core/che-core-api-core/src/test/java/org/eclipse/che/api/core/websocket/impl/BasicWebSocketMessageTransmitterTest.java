@@ -10,18 +10,36 @@
  */
 package org.eclipse.che.api.core.websocket.impl;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.websocket.CloseReason;
 import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
 import javax.websocket.Session;
-import org.mockito.InjectMocks;
+import org.eclipse.che.api.core.websocket.impl.MessagesReSender.SentFrame;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -40,14 +58,34 @@ public class BasicWebSocketMessageTransmitterTest {
 
   @Mock private WebSocketSessionRegistry registry;
   @Mock private MessagesReSender reSender;
-  @InjectMocks private BasicWebSocketMessageTransmitter transmitter;
+  private BasicWebSocketMessageTransmitter transmitter;
 
   @Mock private Session session;
-  @Mock private RemoteEndpoint.Basic remote;
+  @Mock private RemoteEndpoint.Async remote;
+
+  private List<String> sent;
+  private List<SendHandler> sendHandlers;
+  private Lock endpointLock;
 
   @BeforeMethod
   public void setUp() throws Exception {
-    when(session.getBasicRemote()).thenReturn(remote);
+    transmitter = new BasicWebSocketMessageTransmitter(registry, reSender, 2, 10, "drop");
+
+    sent = new ArrayList<>();
+    sendHandlers = new ArrayList<>();
+    doAnswer(
+            inv -> {
+              sent.add(inv.getArgument(0));
+              sendHandlers.add(inv.getArgument(1));
+              return null;
+            })
+        .when(remote)
+        .sendText(anyString(), any(SendHandler.class));
+
+    endpointLock = new ReentrantLock();
+    when(reSender.getEndpointLock(ENDPOINT_ID)).thenReturn(endpointLock);
+    when(reSender.sent(anyString(), anyString())).thenReturn(mock(SentFrame.class));
+    when(session.getAsyncRemote()).thenReturn(remote);
     when(session.isOpen()).thenReturn(true);
 
     when(registry.get(ENDPOINT_ID)).thenReturn(Optional.of(session));
@@ -58,8 +96,8 @@ public class BasicWebSocketMessageTransmitterTest {
   public void shouldSendDirectMessageIfSessionIsOpenAndEndpointIsSet() throws IOException {
     transmitter.transmit(ENDPOINT_ID, MESSAGE);
 
-    verify(session).getBasicRemote();
-    verify(remote).sendText(MESSAGE);
+    verify(session).getAsyncRemote();
+    verify(remote).sendText(eq(MESSAGE), any(SendHandler.class));
     verify(reSender, never()).add(eq(ENDPOINT_ID), anyString());
   }
 
@@ -69,8 +107,96 @@ public class BasicWebSocketMessageTransmitterTest {
 
     transmitter.transmit(ENDPOINT_ID, MESSAGE);
 
-    verify(session, never()).getBasicRemote();
-    verify(remote, never()).sendText(MESSAGE);
+    verify(session, never()).getAsyncRemote();
+    verify(remote, never()).sendText(eq(MESSAGE), any(SendHandler.class));
     verify(reSender).add(ENDPOINT_ID, MESSAGE);
   }
+
+  @Test
+  public void shouldNotSendNextMessageUntilPreviousIsSent() throws Exception {
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":1}");
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":2}");
+
+    assertEquals(sent.size(), 1);
+
+    sendHandlers.get(0).onResult(new SendResult());
+
+    assertEquals(sent.size(), 2);
+    assertEquals(sent.get(1), "{\"id\":2}");
+  }
+
+  @Test
+  public void shouldSendQueuedMessagesAsBatch() throws Exception {
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":1}");
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":2}");
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":3}");
+
+    sendHandlers.get(0).onResult(new SendResult());
+
+    assertEquals(sent, asList("{\"id\":1}", "[{\"id\":2},{\"id\":3}]"));
+  }
+
+  @Test
+  public void shouldSendNextMessagesWhenSendIsCompletedInline() throws Exception {
+    doAnswer(
+            inv -> {
+              sent.add(inv.getArgument(0));
+              ((SendHandler) inv.getArgument(1)).onResult(new SendResult());
+              return null;
+            })
+        .when(remote)
+        .sendText(anyString(), any(SendHandler.class));
+
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":1}");
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":2}");
+
+    assertEquals(sent, asList("{\"id\":1}", "{\"id\":2}"));
+  }
+
+  @Test
+  public void shouldDropOldestMessageWhenQueueIsFull() throws Exception {
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":1}");
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":2}");
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":3}");
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":4}");
+
+    sendHandlers.get(0).onResult(new SendResult());
+
+    assertEquals(sent, asList("{\"id\":1}", "[{\"id\":3},{\"id\":4}]"));
+  }
+
+  @Test
+  public void shouldNotQueueMessagesWhileSessionOfEndpointIsBeingOpened() throws Exception {
+    CountDownLatch transmitted = new CountDownLatch(1);
+    endpointLock.lock();
+    try {
+      new Thread(
+              () -> {
+                transmitter.transmit(ENDPOINT_ID, MESSAGE);
+                transmitted.countDown();
+              })
+          .start();
+
+      assertFalse(transmitted.await(200, MILLISECONDS));
+      assertTrue(sent.isEmpty());
+    } finally {
+      endpointLock.unlock();
+    }
+
+    assertTrue(transmitted.await(5, SECONDS));
+    assertEquals(sent, singletonList(MESSAGE));
+  }
+
+  @Test
+  public void shouldCloseSessionWhenQueueIsFullAndPolicyIsDisconnect() throws Exception {
+    transmitter = new BasicWebSocketMessageTransmitter(registry, reSender, 1, 10, "disconnect");
+
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":1}");
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":2}");
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":3}");
+
+    verify(session).close(any(CloseReason.class));
+    verify(reSender).add(ENDPOINT_ID, "{\"id\":2}");
+    verify(reSender).add(ENDPOINT_ID, "{\"id\":3}");
+  }
 }
@@ -11,15 +11,15 @@
 package org.eclipse.che.api.core.websocket.impl;
 
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
-import java.util.Optional;
-import javax.websocket.RemoteEndpoint;
-import javax.websocket.Session;
-import org.mockito.InjectMocks;
+import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
+import org.eclipse.che.api.core.websocket.impl.MessagesReSender.SentFrame;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -35,114 +35,242 @@ import org.testng.annotations.Test;
 public class MessagesReSenderTest {
   private static final String MESSAGE = "message";
   private static final String ENDPOINT_ID = "id";
+  private static final String STREAM_ID = "stream";
 
-  @Mock private WebSocketSessionRegistry sessionRegistry;
-  @InjectMocks private MessagesReSender reSender;
+  @Mock private WebSocketMessageTransmitter transmitter;
 
-  @Mock private Session session;
-  @Mock private RemoteEndpoint.Async endpoint;
-
-  @BeforeMethod
-  public void beforeMethod() {
-    when(sessionRegistry.get(anyString())).thenReturn(Optional.of(session));
-    when(session.getAsyncRemote()).thenReturn(endpoint);
-    when(session.isOpen()).thenReturn(true);
-  }
+  private MessagesReSender reSender;
 
   @BeforeMethod
   public void before() {
-    reSender = new MessagesReSender(sessionRegistry);
+    reSender = new MessagesReSender(() -> transmitter, 3, Long.MAX_VALUE, 60_000);
   }
 
   @Test
-  public void shouldStopIfSessionIsNotRegistered() {
-    when(sessionRegistry.get(anyString())).thenReturn(Optional.empty());
+  public void shouldNotResendIfThereIsNothingToResend() {
+    reSender.resend(ENDPOINT_ID);
+
+    verify(transmitter, never()).transmit(anyString(), anyString());
+  }
 
+  @Test
+  public void shouldProperlyAddForSingleEndpoint() {
     reSender.add(ENDPOINT_ID, MESSAGE);
 
     reSender.resend(ENDPOINT_ID);
 
-    verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session, never()).getAsyncRemote();
-    verify(endpoint, never()).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
   }
 
   @Test
-  public void shouldKeepMessagesIfSessionIsClosed() {
+  public void shouldProperlyAddForSeveralEndpoints() {
     reSender.add(ENDPOINT_ID, MESSAGE);
+    reSender.add("1", MESSAGE);
 
-    when(session.isOpen()).thenReturn(false);
     reSender.resend(ENDPOINT_ID);
+    reSender.resend("1");
 
-    verify(session, never()).getAsyncRemote();
-    verify(endpoint, never()).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+    verify(transmitter).transmit("1", MESSAGE);
+  }
 
-    when(session.isOpen()).thenReturn(true);
+  @Test
+  public void shouldClearOnExtractionForSingleEndpoint() {
+    reSender.add(ENDPOINT_ID, MESSAGE);
+
+    reSender.resend(ENDPOINT_ID);
     reSender.resend(ENDPOINT_ID);
 
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
   }
 
   @Test
-  public void shouldProperlyAddForSingleEndpoint() {
+  public void shouldNumberSentFramesPerEndpoint() {
+    assertEquals(reSender.sent(ENDPOINT_ID, "a").getSequence(), 1);
+    assertEquals(reSender.sent(ENDPOINT_ID, "b").getSequence(), 2);
+    assertEquals(reSender.sent("1", "c").getSequence(), 1);
+  }
+
+  @Test
+  public void shouldResendUndeliveredFramesIfLastSequenceIsUnknown() {
+    reSender.sent(ENDPOINT_ID, "a").delivered();
+    reSender.sent(ENDPOINT_ID, "b");
     reSender.add(ENDPOINT_ID, MESSAGE);
 
     reSender.resend(ENDPOINT_ID);
 
-    verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+    InOrder inOrder = inOrder(transmitter);
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, "b");
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "a");
   }
 
   @Test
-  public void shouldProperlyAddForSeveralEndpoints() {
-    reSender.add(ENDPOINT_ID, MESSAGE);
-    reSender.add("1", MESSAGE);
+  public void shouldResetSequenceIfLastSequenceIsUnknown() {
+    reSender.sent(ENDPOINT_ID, "a").delivered();
+    reSender.sent(ENDPOINT_ID, "b").delivered();
 
     reSender.resend(ENDPOINT_ID);
-    reSender.resend("1");
 
-    verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(sessionRegistry).get("1");
-    verify(session, times(2)).getAsyncRemote();
-    verify(endpoint, times(2)).sendText(MESSAGE);
+    assertEquals(reSender.sent(ENDPOINT_ID, "c").getSequence(), 1);
   }
 
   @Test
-  public void shouldClearOnExtractionForSingleEndpoint() {
+  public void shouldResendFramesFollowingLastReceivedOne() {
+    reSender.resend(ENDPOINT_ID, STREAM_ID, -1);
+    reSender.sent(ENDPOINT_ID, "a").delivered();
+    reSender.sent(ENDPOINT_ID, "b").delivered();
+    reSender.sent(ENDPOINT_ID, "c");
     reSender.add(ENDPOINT_ID, MESSAGE);
 
+    reSender.resend(ENDPOINT_ID, STREAM_ID, 1);
+
+    InOrder inOrder = inOrder(transmitter);
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, "b");
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, "c");
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "a");
+  }
+
+  @Test
+  public void shouldRewindSequenceWhenFramesAreResent() {
+    reSender.resend(ENDPOINT_ID, STREAM_ID, -1);
+    reSender.sent(ENDPOINT_ID, "a").delivered();
+    reSender.sent(ENDPOINT_ID, "b").delivered();
+
+    reSender.resend(ENDPOINT_ID, STREAM_ID, 1);
+
+    assertEquals(reSender.sent(ENDPOINT_ID, "b").getSequence(), 2);
+  }
+
+  @Test
+  public void shouldResendUndeliveredFramesIfMissedFramesAreEvicted() {
+    reSender.resend(ENDPOINT_ID, STREAM_ID, -1);
+    reSender.sent(ENDPOINT_ID, "a").delivered();
+    reSender.sent(ENDPOINT_ID, "b").delivered();
+    reSender.sent(ENDPOINT_ID, "c").delivered();
+    reSender.sent(ENDPOINT_ID, "d");
+
+    reSender.resend(ENDPOINT_ID, STREAM_ID, 0);
+
+    verify(transmitter).transmit(ENDPOINT_ID, "d");
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "b");
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "c");
+  }
+
+  @Test
+  public void shouldNotResendReceivedFramesAfterClientCounterIsReset() {
+    reSender.resend(ENDPOINT_ID, STREAM_ID, -1);
+    reSender.sent(ENDPOINT_ID, "a").delivered();
+    reSender.sent(ENDPOINT_ID, "b").delivered();
+    reSender.sent(ENDPOINT_ID, "c").delivered();
+
+    // client is re-initialized, it starts a new stream and counts frames from zero
+    reSender.resend(ENDPOINT_ID, "other", -1);
+    SentFrame received = reSender.sent(ENDPOINT_ID, "d");
+    received.delivered();
+    reSender.sent(ENDPOINT_ID, "e");
+    reSender.resend(ENDPOINT_ID, "other", 1);
+
+    assertEquals(received.getSequence(), 1);
+    verify(transmitter).transmit(ENDPOINT_ID, "e");
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "a");
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "b");
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "c");
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "d");
+  }
+
+  @Test
+  public void shouldNotMatchLastSequenceOfUnknownStream() {
+    reSender.resend(ENDPOINT_ID, STREAM_ID, -1);
+    reSender.sent(ENDPOINT_ID, "a").delivered();
+    reSender.sent(ENDPOINT_ID, "b").delivered();
+    reSender.sent(ENDPOINT_ID, "c");
+
+    reSender.resend(ENDPOINT_ID, "other", 1);
+
+    verify(transmitter).transmit(ENDPOINT_ID, "c");
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "b");
+    assertEquals(reSender.sent(ENDPOINT_ID, "d").getSequence(), 2);
+  }
+
+  @Test
+  public void shouldDropOldestFramesWhenBacklogExceedsMaxBytes() {
+    reSender = new MessagesReSender(() -> transmitter, 10, 10, 60_000);
+    reSender.sent(ENDPOINT_ID, "aaaa");
+    reSender.sent(ENDPOINT_ID, "bbbb");
+    reSender.sent(ENDPOINT_ID, "cccc");
+
+    reSender.resend(ENDPOINT_ID);
+
+    InOrder inOrder = inOrder(transmitter);
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, "bbbb");
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, "cccc");
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "aaaa");
+  }
+
+  @Test
+  public void shouldDropOlderFramesBeforePendingMessagesWhenBacklogExceedsMaxBytes() {
+    reSender = new MessagesReSender(() -> transmitter, 10, 10, 60_000);
+    reSender.sent(ENDPOINT_ID, "aaaa");
+    reSender.add(ENDPOINT_ID, "bbbb");
+    reSender.add(ENDPOINT_ID, "cccc");
+
     reSender.resend(ENDPOINT_ID);
-    verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+
+    InOrder inOrder = inOrder(transmitter);
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, "bbbb");
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, "cccc");
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "aaaa");
+  }
+
+  @Test
+  public void shouldCountMultiByteCharactersInBacklogSize() {
+    reSender = new MessagesReSender(() -> transmitter, 10, 10, 60_000);
+    reSender.add(ENDPOINT_ID, "\u00e9\u00e9\u00e9");
+    reSender.add(ENDPOINT_ID, "\u00e8\u00e8\u00e8");
 
     reSender.resend(ENDPOINT_ID);
-    verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+
+    verify(transmitter).transmit(ENDPOINT_ID, "\u00e8\u00e8\u00e8");
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "\u00e9\u00e9\u00e9");
   }
 
   @Test
-  public void shouldClearOnExtractionForSeveralEndpoint() {
+  public void shouldKeepNewestMessageLargerThanMaxBytes() {
+    reSender = new MessagesReSender(() -> transmitter, 10, 2, 60_000);
     reSender.add(ENDPOINT_ID, MESSAGE);
-    reSender.add("1", MESSAGE);
 
     reSender.resend(ENDPOINT_ID);
-    reSender.resend("1");
 
-    verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(sessionRegistry).get("1");
-    verify(session, times(2)).getAsyncRemote();
-    verify(endpoint, times(2)).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+  }
 
+  @Test
+  public void shouldReleaseSizeOfResentMessages() {
+    reSender = new MessagesReSender(() -> transmitter, 10, 10, 60_000);
+    reSender.add(ENDPOINT_ID, "aaaa");
+    reSender.add(ENDPOINT_ID, "bbbb");
+    reSender.resend(ENDPOINT_ID);
+
+    reSender.add(ENDPOINT_ID, "cccc");
+    reSender.add(ENDPOINT_ID, "dddd");
+    reSender.resend(ENDPOINT_ID);
+
+    verify(transmitter).transmit(ENDPOINT_ID, "cccc");
+    verify(transmitter).transmit(ENDPOINT_ID, "dddd");
+  }
+
+  @Test
+  public void shouldRemoveStaleMessages() {
+    reSender = new MessagesReSender(() -> transmitter, 3, Long.MAX_VALUE, -1);
+    reSender.add(ENDPOINT_ID, MESSAGE);
+    SentFrame frame = reSender.sent(ENDPOINT_ID, "a");
+
+    reSender.cleanStaleMessages();
     reSender.resend(ENDPOINT_ID);
-    reSender.resend("1");
 
-    verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(sessionRegistry).get("1");
-    verify(session, times(2)).getAsyncRemote();
-    verify(endpoint, times(2)).sendText(MESSAGE);
+    verify(transmitter, never()).transmit(anyString(), anyString());
+    assertEquals(reSender.sent(ENDPOINT_ID, "b").getSequence(), frame.getSequence());
   }
 }
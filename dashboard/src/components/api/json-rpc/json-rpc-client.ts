@@ -95,7 +95,12 @@ export class JsonRpcClient {
     this.notificationHandlers = new Map<string, Array<Function>>();
 
     this.client.onResponse = (message: any): void => {
-      this.processResponse(message);
+      // server may send several messages as a JSON RPC batch
+      if (angular.isArray(message)) {
+        message.forEach((item: any) => this.processResponse(item));
+      } else {
+        this.processResponse(message);
+      }
     };
   }
 
@@ -17,6 +17,7 @@ public class QueryExpression {
   private String text;
   private int maxItems;
   private int skipCount;
+  private String continuationToken;
 
   /**
    * Get path to start search.
@@ -124,4 +125,25 @@ public class QueryExpression {
     this.skipCount = skipCount;
     return this;
   }
+
+  /**
+   * Get token of the page to retrieve.
+   *
+   * @return continuation token returned with the previous page of results
+   */
+  public String getContinuationToken() {
+    return continuationToken;
+  }
+
+  /**
+   * Set token of the page to retrieve. When set, the page is read right after the last item of the
+   * previous page and skip count is ignored.
+   *
+   * @param continuationToken continuation token returned with the previous page of results
+   * @return this {@code QueryExpression}
+   */
+  public QueryExpression setContinuationToken(String continuationToken) {
+    this.continuationToken = continuationToken;
+    return this;
+  }
 }
@@ -16,10 +16,17 @@ import java.util.List;
 public class SearchResult {
   private List<SearchItemReference> itemReferences;
   private long totalHits;
+  private String continuationToken;
 
   public SearchResult(List<SearchItemReference> itemReferences, long totalHits) {
+    this(itemReferences, totalHits, null);
+  }
+
+  public SearchResult(
+      List<SearchItemReference> itemReferences, long totalHits, String continuationToken) {
     this.itemReferences = itemReferences;
     this.totalHits = totalHits;
+    this.continuationToken = continuationToken;
   }
 
   /** returns list of found items {@link SearchItemReference} */
@@ -31,4 +38,9 @@ public class SearchResult {
   public long getTotalHits() {
     return totalHits;
   }
+
+  /** returns token for retrieving the next page of results or null if there are no more results */
+  public String getContinuationToken() {
+    return continuationToken;
+  }
 }
@@ -196,6 +196,11 @@ public class ProjectServiceClient {
     if (expression.getSkipCount() != 0) {
       queryParameters.append("&skipCount=").append(expression.getSkipCount());
     }
+    if (!isNullOrEmpty(expression.getContinuationToken())) {
+      queryParameters
+          .append("&continuationToken=")
+          .append(encodeQueryString(expression.getContinuationToken()));
+    }
 
     return reqFactory
         .createGetRequest(url + queryParameters.toString().replaceFirst("&", "?"))
@@ -208,14 +213,17 @@ public class ProjectServiceClient {
                   List<SearchResultDto> itemReferences = searchResultDto.getItemReferences();
                   if (itemReferences == null || itemReferences.isEmpty()) {
                     return new SearchResult(
-                        Collections.emptyList(), searchResultDto.getTotalHits());
+                        Collections.emptyList(),
+                        searchResultDto.getTotalHits(),
+                        searchResultDto.getContinuationToken());
                   }
                   return new SearchResult(
                       itemReferences
                           .stream()
                           .map(SearchItemReference::new)
                           .collect(Collectors.toList()),
-                      searchResultDto.getTotalHits());
+                      searchResultDto.getTotalHits(),
+                      searchResultDto.getContinuationToken());
                 });
   }
 
@@ -15,6 +15,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static elemental.json.JsonType.ARRAY;
 import static elemental.json.JsonType.BOOLEAN;
 import static elemental.json.JsonType.NUMBER;
+import static elemental.json.JsonType.OBJECT;
 import static elemental.json.JsonType.STRING;
 import static java.util.Collections.singletonList;
 
@@ -28,6 +29,7 @@ import java.util.List;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcError;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcParams;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
@@ -76,6 +78,46 @@ public class ElementalJsonRpcUnmarshaller implements JsonRpcUnmarshaller {
     return new JsonRpcResponse(id, result, error);
   }
 
+  @Override
+  public List<Object> unmarshalBatch(String message) {
+    checkNotNull(message, "Message must not be null");
+    checkArgument(!message.isEmpty(), "Message must not be empty");
+
+    JsonValue jsonValue;
+    try {
+      jsonValue = jsonFactory.parse(message);
+    } catch (RuntimeException e) {
+      throw new JsonRpcException(-32700, "An error occurred while parsing the JSON text");
+    }
+
+    if (!ARRAY.equals(jsonValue.getType())) {
+      return singletonList(toMessage(jsonValue));
+    }
+
+    JsonArray jsonArray = (JsonArray) jsonValue;
+    int size = jsonArray.length();
+    List<Object> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(toMessage(jsonArray.get(i)));
+    }
+    return result;
+  }
+
+  private Object toMessage(JsonValue jsonValue) {
+    if (!OBJECT.equals(jsonValue.getType())) {
+      throw new JsonRpcException(-32600, "Message is neither JSON RPC request nor response");
+    }
+
+    JsonObject jsonObject = (JsonObject) jsonValue;
+    if (jsonObject.hasKey("method")) {
+      return new JsonRpcRequest(getId(jsonObject), getMethod(jsonObject), getParams(jsonObject));
+    }
+    if (jsonObject.hasKey("error") != jsonObject.hasKey("result")) {
+      return new JsonRpcResponse(getId(jsonObject), getResult(jsonObject), getError(jsonObject));
+    }
+    throw new JsonRpcException(-32600, "Message is neither JSON RPC request nor response");
+  }
+
   private JsonRpcError getError(JsonObject response) {
     if (response.hasKey("error")) {
       JsonObject errorJsonValue = response.get("error");
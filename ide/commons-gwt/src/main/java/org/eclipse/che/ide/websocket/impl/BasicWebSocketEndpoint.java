@@ -25,17 +25,20 @@ public class BasicWebSocketEndpoint implements WebSocketEndpoint {
   private final MessagesReSender reSender;
   private final WebSocketDispatcher dispatcher;
   private final WebSocketActionManager actionManager;
+  private final WebSocketPropertyManager propertyManager;
 
   @Inject
   public BasicWebSocketEndpoint(
       WebSocketConnectionSustainer sustainer,
       MessagesReSender reSender,
       WebSocketDispatcher dispatcher,
-      WebSocketActionManager actionManager) {
+      WebSocketActionManager actionManager,
+      WebSocketPropertyManager propertyManager) {
     this.sustainer = sustainer;
     this.reSender = reSender;
     this.dispatcher = dispatcher;
     this.actionManager = actionManager;
+    this.propertyManager = propertyManager;
   }
 
   @Override
@@ -64,6 +67,7 @@ public class BasicWebSocketEndpoint implements WebSocketEndpoint {
   public void onMessage(String url, String message) {
     Log.debug(getClass(), "Message received: " + message);
 
+    propertyManager.incrementReceivedMessages(url);
     dispatcher.dispatch(url, message);
   }
 }
@@ -41,12 +41,12 @@ public class DelayableWebSocketConnection implements WebSocketConnection {
 
     if (isClosed() || isClosing()) {
       if (delay == 0) {
-        webSocketJsoWrapper = WebSocketJsoWrapper.connect(url, endpoint);
+        webSocketJsoWrapper = WebSocketJsoWrapper.connect(url, getConnectionUrl(), endpoint);
       } else {
         new Timer() {
           @Override
           public void run() {
-            webSocketJsoWrapper = WebSocketJsoWrapper.connect(url, endpoint);
+            webSocketJsoWrapper = WebSocketJsoWrapper.connect(url, getConnectionUrl(), endpoint);
           }
         }.schedule(delay);
       }
@@ -55,6 +55,21 @@ public class DelayableWebSocketConnection implements WebSocketConnection {
     }
   }
 
+  /**
+   * Adds identifier of the stream of received messages to the url and their number when connection
+   * is reestablished, so the server re-sends only the messages that were not received.
+   */
+  private String getConnectionUrl() {
+    final long receivedMessages = propertyManager.getReceivedMessages(url);
+    final String connectionUrl =
+        url + (url.contains("?") ? "&" : "?") + "streamId=" + propertyManager.getStreamId(url);
+
+    if (receivedMessages == 0) {
+      return connectionUrl;
+    }
+    return connectionUrl + "&lastSeq=" + receivedMessages;
+  }
+
   @Override
   public void close() {
     if (isOpen()) {
@@ -20,8 +20,16 @@ import com.google.gwt.core.client.JavaScriptObject;
 public class WebSocketJsoWrapper extends JavaScriptObject {
   protected WebSocketJsoWrapper() {}
 
-  public static native WebSocketJsoWrapper connect(String url, WebSocketEndpoint endpoint) /*-{
-        var webSocket = new WebSocket(url);
+  /**
+   * Opens a web socket
+   *
+   * @param url url identifying the connection, passed to the endpoint
+   * @param connectionUrl url to connect to, it may contain additional query parameters
+   * @param endpoint endpoint receiving web socket events
+   */
+  public static native WebSocketJsoWrapper connect(
+      String url, String connectionUrl, WebSocketEndpoint endpoint) /*-{
+        var webSocket = new WebSocket(connectionUrl);
         webSocket.onopen = function () {
             endpoint.@org.eclipse.che.ide.websocket.impl.WebSocketEndpoint::onOpen(Ljava/lang/String;)(url);
         };
@@ -14,12 +14,15 @@ import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
 import static org.eclipse.che.ide.websocket.impl.WebSocketPropertyManager.Properties.ATTEMPTS;
 import static org.eclipse.che.ide.websocket.impl.WebSocketPropertyManager.Properties.DELAY;
+import static org.eclipse.che.ide.websocket.impl.WebSocketPropertyManager.Properties.RECEIVED_MESSAGES;
+import static org.eclipse.che.ide.websocket.impl.WebSocketPropertyManager.Properties.STREAM_ID;
 import static org.eclipse.che.ide.websocket.impl.WebSocketPropertyManager.Properties.SUSTAINER_ENABLED;
 import static org.eclipse.che.ide.websocket.impl.WebSocketPropertyManager.Properties.URL;
 
 import java.util.HashMap;
 import java.util.Map;
 import javax.inject.Singleton;
+import org.eclipse.che.ide.util.UUID;
 import org.eclipse.che.ide.util.loging.Log;
 
 /**
@@ -48,6 +51,8 @@ public class WebSocketPropertyManager {
    *   <li>Reconnection delay: 0
    *   <li>Reconnection attempts: 0
    *   <li>Sustainer status: enabled
+   *   <li>Received messages: 0
+   *   <li>Stream id: random identifier
    * </ul>
    *
    * @param url identifier of a web socket connection
@@ -58,6 +63,8 @@ public class WebSocketPropertyManager {
     properties.put(DELAY, "0");
     properties.put(ATTEMPTS, "0");
     properties.put(SUSTAINER_ENABLED, TRUE.toString());
+    properties.put(RECEIVED_MESSAGES, "0");
+    properties.put(STREAM_ID, UUID.uuid());
 
     this.properties.put(url, properties);
   }
@@ -116,6 +123,18 @@ public class WebSocketPropertyManager {
     return Boolean.valueOf(getProperty(url, SUSTAINER_ENABLED));
   }
 
+  public void incrementReceivedMessages(String url) {
+    setProperty(url, RECEIVED_MESSAGES, Long.toString(getReceivedMessages(url) + 1));
+  }
+
+  public long getReceivedMessages(String url) {
+    return Long.valueOf(getProperty(url, RECEIVED_MESSAGES));
+  }
+
+  public String getStreamId(String url) {
+    return getProperty(url, STREAM_ID);
+  }
+
   private Map<String, String> getPropertiesMap(String url) {
     if (properties.containsKey(url)) {
       return properties.get(url);
@@ -137,5 +156,15 @@ public class WebSocketPropertyManager {
     String URL = "url";
     /** Current connection sustainer status */
     String SUSTAINER_ENABLED = "sustainer-status";
+    /**
+     * Number of messages received over the connection, passed to the server on reconnection so it
+     * re-sends only the messages that were not received
+     */
+    String RECEIVED_MESSAGES = "received-messages";
+    /**
+     * Identifier of the stream of messages counted since the connection was initialized, so the
+     * server doesn't match the count with the messages it numbered for a previous stream
+     */
+    String STREAM_ID = "stream-id";
   }
 }
@@ -29,6 +29,7 @@ public class BasicWebSocketEndpointTest {
   @Mock private MessagesReSender reSender;
   @Mock private WebSocketDispatcher dispatcher;
   @Mock private WebSocketActionManager actionManager;
+  @Mock private WebSocketPropertyManager propertyManager;
 
   @InjectMocks private BasicWebSocketEndpoint endpoint;
 
@@ -73,4 +74,11 @@ public class BasicWebSocketEndpointTest {
 
     verify(dispatcher).dispatch("url", "message");
   }
+
+  @Test
+  public void shouldCountReceivedMessagesOnMessage() {
+    endpoint.onMessage("url", "message");
+
+    verify(propertyManager).incrementReceivedMessages("url");
+  }
 }
@@ -11,6 +11,7 @@
 package org.eclipse.che.ide.websocket.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.After;
@@ -69,4 +70,26 @@ public class WebSocketPropertyManagerTest {
 
     assertTrue(sustainerEnabled);
   }
+
+  @Test
+  public void shouldCountReceivedMessages() {
+    propertyManager.initializeConnection("url");
+
+    propertyManager.incrementReceivedMessages("url");
+    propertyManager.incrementReceivedMessages("url");
+
+    assertEquals(2, propertyManager.getReceivedMessages("url"));
+  }
+
+  @Test
+  public void shouldStartNewStreamOfReceivedMessagesOnInitialize() {
+    propertyManager.initializeConnection("url");
+    propertyManager.incrementReceivedMessages("url");
+    final String streamId = propertyManager.getStreamId("url");
+
+    propertyManager.initializeConnection("url");
+
+    assertEquals(0, propertyManager.getReceivedMessages("url"));
+    assertNotEquals(streamId, propertyManager.getStreamId("url"));
+  }
 }
@@ -10,8 +10,6 @@
  */
 package org.eclipse.che.infrastructure.docker.client;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
-import com.sun.jna.ptr.LongByReference;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.net.URI;
@@ -20,17 +18,20 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import javax.inject.Inject;
 import org.eclipse.che.api.core.util.SystemInfo;
 import org.eclipse.che.commons.lang.Size;
-import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.infrastructure.docker.client.json.Event;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Docker container OOM detector based on cgroup usage
+ * Docker container OOM detector based on cgroup usage.
+ *
+ * <p>OOM notifications of the containers memory cgroups are received as {@code oom} events from
+ * the shared {@link DockerEventsMonitor}, so detection doesn't need a thread per container. When
+ * the docker daemon is local the memory cgroup of the container is checked to report only OOMs
+ * caused by the container memory limit.
  *
  * @author Alexander Garagatyi
  */
@@ -40,68 +41,58 @@ public class CgroupOOMDetector implements DockerOOMDetector {
   private final Map<String, OOMDetector> oomDetectors;
   private final URI dockerDaemonUri;
   private final DockerConnector dockerConnector;
-  private final ExecutorService executor;
+  private final DockerEventsMonitor eventsMonitor;
 
   @Inject
   public CgroupOOMDetector(
-      DockerConnectorConfiguration connectorConfiguration, DockerConnector docker) {
-    this(connectorConfiguration.getDockerDaemonUri(), docker);
+      DockerConnectorConfiguration connectorConfiguration,
+      DockerConnector docker,
+      DockerEventsMonitor eventsMonitor) {
+    this(connectorConfiguration.getDockerDaemonUri(), docker, eventsMonitor);
   }
 
-  public CgroupOOMDetector(URI dockerDaemonUri, DockerConnector dockerConnector) {
+  public CgroupOOMDetector(
+      URI dockerDaemonUri, DockerConnector dockerConnector, DockerEventsMonitor eventsMonitor) {
     this.dockerDaemonUri = dockerDaemonUri;
     this.dockerConnector = dockerConnector;
+    this.eventsMonitor = eventsMonitor;
     this.oomDetectors = new ConcurrentHashMap<>();
-    this.executor =
-        Executors.newCachedThreadPool(
-            new ThreadFactoryBuilder()
-                .setNameFormat("CgroupOOMDetector-%d")
-                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
-                .setDaemon(true)
-                .build());
   }
 
   @Override
   public void stopDetection(String container) {
     final OOMDetector oomDetector = oomDetectors.remove(container);
     if (oomDetector != null) {
-      oomDetector.stop();
+      eventsMonitor.removeHandler(container, oomDetector);
     }
   }
 
   @Override
   public void startDetection(String container, MessageProcessor<LogMessage> containerLogProcessor) {
-    if (needStartOOMDetector(container)) {
-      if (cgroupMount == null) {
-        LOG.warn("System doesn't support OOM events");
-        return;
-      }
-      try {
-        final long memory =
-            dockerConnector.inspectContainer(container).getConfig().getHostConfig().getMemory();
-        OOMDetector oomDetector = new OOMDetector(container, containerLogProcessor, memory);
-        oomDetectors.putIfAbsent(container, oomDetector);
-        oomDetector = oomDetectors.get(container);
-        oomDetector.start();
-      } catch (IOException e) {
-        LOG.error(e.getLocalizedMessage(), e);
+    if (oomDetectors.containsKey(container)) {
+      return;
+    }
+    try {
+      final long memory =
+          dockerConnector.inspectContainer(container).getConfig().getHostConfig().getMemory();
+      OOMDetector oomDetector = new OOMDetector(container, containerLogProcessor, memory);
+      if (oomDetectors.putIfAbsent(container, oomDetector) == null) {
+        eventsMonitor.addHandler(container, oomDetector);
       }
+    } catch (IOException e) {
+      LOG.error(e.getLocalizedMessage(), e);
     }
   }
 
-  private boolean needStartOOMDetector(String container) {
-    if (!oomDetectors.containsKey(container)) {
-      if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
-        return true;
-      }
-      if (SystemInfo.isLinux()) {
-        final String dockerDaemonHost = dockerDaemonUri.getHost();
-        if ("localhost".equals(dockerDaemonHost) || "127.0.0.1".equals(dockerDaemonHost)) {
-          return true;
-        }
-      }
+  private boolean isCgroupAccessible() {
+    if (cgroupMount == null) {
+      return false;
+    }
+    if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
+      return true;
     }
-    return false;
+    final String dockerDaemonHost = dockerDaemonUri.getHost();
+    return "localhost".equals(dockerDaemonHost) || "127.0.0.1".equals(dockerDaemonHost);
   }
 
   /*
@@ -129,7 +120,7 @@ public class CgroupOOMDetector implements DockerOOMDetector {
    * -----
    * So it's complicated to detect time when oom-killer was activated and link its activity with failed docker container.
    *
-   *     2. Usage of cgroup notification mechanism.
+   *     2. Usage of cgroup notification mechanism, docker reports such notifications as 'oom' events.
    * Good article about this: https://access.redhat.com/documentation/en-US/Red_Hat_Enterprise_Linux/6/html/Resource_Management_Guide/sec-Using_the_Notification_API.html
    */
   private static String cgroupMount;
@@ -165,26 +156,17 @@ public class CgroupOOMDetector implements DockerOOMDetector {
     }
   }
 
-  /**
-   * Detects OOM with cgroup notification mechanism.
-   *
-   * <p>https://access.redhat.com/documentation/en-US/Red_Hat_Enterprise_Linux/6/html/Resource_Management_Guide/sec-Using_the_Notification_API.html
-   */
-  private class OOMDetector implements Runnable {
+  /** Puts message about OOM of the container to its logs when docker reports OOM event. */
+  private class OOMDetector implements MessageProcessor<Event> {
     private final String container;
     private final MessageProcessor<LogMessage> containerLogProcessor;
     private final long memory;
-    private final CLibrary cLib;
     private final String containerCgroup;
 
-    private volatile boolean stopped = false;
-    private boolean started = false;
-
     OOMDetector(String container, MessageProcessor<LogMessage> containerLogProcessor, long memory) {
       this.container = container;
       this.containerLogProcessor = containerLogProcessor;
       this.memory = memory;
-      cLib = CLibraryFactory.getCLibrary();
 
       if (systemd) {
         containerCgroup = cgroupMount + "/memory/system.slice/docker-" + container + ".scope/";
@@ -194,69 +176,27 @@ public class CgroupOOMDetector implements DockerOOMDetector {
     }
 
     @Override
-    public void run() {
-      final String cf = containerCgroup + "cgroup.event_control";
-      final String oomf = containerCgroup + "memory.oom_control";
-      int efd = -1;
-      int oomfd = -1;
-      try {
-        if ((efd = cLib.eventfd(0, 1)) == -1) {
-          LOG.error("Unable create a file descriptor for event notification");
-          return;
-        }
-        int cfd;
-        if ((cfd = cLib.open(cf, CLibrary.O_WRONLY)) == -1) {
-          LOG.error("Unable open event control file '{}' for write", cf);
-          return;
-        }
-        if ((oomfd = cLib.open(oomf, CLibrary.O_RDONLY)) == -1) {
-          LOG.error("Unable open OOM event file '{}' for read", oomf);
-          return;
-        }
-        final byte[] data = String.format("%d %d", efd, oomfd).getBytes();
-        if (cLib.write(cfd, data, data.length) != data.length) {
-          LOG.error("Unable write event control data to file '{}'", cf);
-          return;
-        }
-        if (cLib.close(cfd) == -1) {
-          LOG.error("Error closing of event control file '{}'", cf);
-          return;
-        }
-        final LongByReference eventHolder = new LongByReference();
-        if (cLib.eventfd_read(efd, eventHolder) == 0) {
-          if (stopped) {
-            return;
-          }
-          LOG.warn("OOM event received for container '{}'", container);
-          if (readCgroupValue("memory.failcnt") > 0) {
-            try {
-              containerLogProcessor.process(
-                  new LogMessage(
-                      LogMessage.Type.DOCKER,
-                      "[ERROR] The processes in this machine need more RAM. This machine started with "
-                          + Size.toHumanSize(memory)));
-              containerLogProcessor.process(
-                  new LogMessage(
-                      LogMessage.Type.DOCKER,
-                      "[ERROR] Create a new machine configuration that allocates additional RAM or increase"
-                          + " the workspace RAM limit in the user dashboard."));
-            } catch (/*IOException*/ Exception e) {
-              LOG.warn(e.getMessage(), e);
-            }
-          }
-        }
-      } finally {
-        if (!stopped) {
-          stopDetection(container);
-        }
-        close(oomfd);
-        close(efd);
+    public void process(Event event) {
+      if (!"oom".equals(event.getStatus())) {
+        return;
       }
-    }
-
-    private void close(int fd) {
-      if (fd != -1) {
-        cLib.close(fd);
+      LOG.warn("OOM event received for container '{}'", container);
+      if (isCgroupAccessible() && readCgroupValue("memory.failcnt") == 0) {
+        return;
+      }
+      try {
+        containerLogProcessor.process(
+            new LogMessage(
+                LogMessage.Type.DOCKER,
+                "[ERROR] The processes in this machine need more RAM. This machine started with "
+                    + Size.toHumanSize(memory)));
+        containerLogProcessor.process(
+            new LogMessage(
+                LogMessage.Type.DOCKER,
+                "[ERROR] Create a new machine configuration that allocates additional RAM or increase"
+                    + " the workspace RAM limit in the user dashboard."));
+      } catch (/*IOException*/ Exception e) {
+        LOG.warn(e.getMessage(), e);
       }
     }
 
@@ -272,16 +212,5 @@ public class CgroupOOMDetector implements DockerOOMDetector {
       }
       return 0;
     }
-
-    synchronized void start() {
-      if (!started) {
-        started = true;
-        executor.execute(this);
-      }
-    }
-
-    void stop() {
-      stopped = true;
-    }
   }
 }
@@ -33,6 +33,7 @@ import java.security.spec.PKCS8EncodedKeySpec;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import org.bouncycastle.openssl.PEMKeyPair;
@@ -134,12 +135,22 @@ public class DockerCertificates {
   }
 
   private final SSLContext sslContext;
+  private final SSLSocketFactory sslSocketFactory;
 
   private DockerCertificates(SSLContext sslContext) {
     this.sslContext = sslContext;
+    this.sslSocketFactory = sslContext.getSocketFactory();
   }
 
   public SSLContext getSslContext() {
     return sslContext;
   }
+
+  /**
+   * Returns the same socket factory for all the connections, keep-alive connections are reused
+   * only by the requests which use the same factory.
+   */
+  public SSLSocketFactory getSslSocketFactory() {
+    return sslSocketFactory;
+  }
 }
@@ -415,6 +415,7 @@ public class DockerConnector {
     try (DockerConnection connection =
         connectionFactory
             .openConnection(dockerDaemonUri)
+            .dedicated()
             .method("POST")
             .path(apiVersionPathPrefix + "/containers/" + params.getContainer() + "/wait")) {
       final DockerResponse response = connection.request();
@@ -480,6 +481,7 @@ public class DockerConnector {
     try (DockerConnection connection =
         connectionFactory
             .openConnection(dockerDaemonUri)
+            .dedicated()
             .method("POST")
             .path(apiVersionPathPrefix + "/containers/" + params.getContainer() + "/attach")
             .query("stdout", 1)
@@ -509,6 +511,7 @@ public class DockerConnector {
     try (DockerConnection connection =
         connectionFactory
             .openConnection(dockerDaemonUri)
+            .dedicated()
             .method("GET")
             .path(apiVersionPathPrefix + "/containers/" + params.getContainer() + "/logs")
             .query("stdout", 1)
@@ -586,6 +589,7 @@ public class DockerConnector {
     try (DockerConnection connection =
         connectionFactory
             .openConnection(dockerDaemonUri)
+            .dedicated()
             .method("POST")
             .path(apiVersionPathPrefix + "/exec/" + params.getExecId() + "/start")
             .header("Content-Type", MediaType.APPLICATION_JSON)
@@ -689,6 +693,7 @@ public class DockerConnector {
       connection =
           connectionFactory
               .openConnection(dockerDaemonUri)
+              .dedicated()
               .method("GET")
               .path(apiVersionPathPrefix + "/containers/" + params.getContainer() + "/archive")
               .query("path", params.getSourcePath());
@@ -768,6 +773,7 @@ public class DockerConnector {
     try (DockerConnection connection =
         connectionFactory
             .openConnection(dockerDaemonUri)
+            .dedicated()
             .method("GET")
             .path(apiVersionPathPrefix + "/events")) {
       addQueryParamIfNotNull(connection, "since", params.getSinceSecond());
@@ -800,7 +806,10 @@ public class DockerConnector {
     if (params.getRemote() != null) {
       // build context provided by remote URL
       DockerConnection dockerConnection =
-          connectionFactory.openConnection(dockerDaemonUri).query("remote", params.getRemote());
+          connectionFactory
+              .openConnection(dockerDaemonUri)
+              .dedicated()
+              .query("remote", params.getRemote());
       return buildImage(dockerConnection, params, progressMonitor);
     }
 
@@ -814,6 +823,7 @@ public class DockerConnector {
         DockerConnection dockerConnection =
             connectionFactory
                 .openConnection(dockerDaemonUri)
+                .dedicated()
                 .header("Content-Type", "application/x-compressed-tar")
                 .header("Content-Length", tar.length())
                 .entity(tarInput);
@@ -984,6 +994,7 @@ public class DockerConnector {
     try (DockerConnection connection =
         connectionFactory
             .openConnection(dockerDaemonUri)
+            .dedicated()
             .method("POST")
             .path(apiVersionPathPrefix + "/images/" + fullRepo + "/push")
             .header(
@@ -1108,6 +1119,7 @@ public class DockerConnector {
     try (DockerConnection connection =
         connectionFactory
             .openConnection(dockerDaemonUri)
+            .dedicated()
             .method("POST")
             .path(apiVersionPathPrefix + "/images/create")
             .query("fromImage", params.getFullRepo())
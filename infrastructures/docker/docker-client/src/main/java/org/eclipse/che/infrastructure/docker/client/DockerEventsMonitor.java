@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.infrastructure.docker.client.json.Event;
+import org.eclipse.che.infrastructure.docker.client.json.Filters;
+import org.eclipse.che.infrastructure.docker.client.params.GetEventsParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads a single stream of docker containers events and dispatches {@code die}, {@code oom} and
+ * {@code health_status} events to handlers registered for particular containers, so monitoring of
+ * any number of containers costs one connection to docker and one thread.
+ *
+ * <p>Stream is opened when the first handler is added. When the stream is interrupted it is
+ * reopened with {@code since} set to the time of the last received event, events which were
+ * already dispatched are skipped, so no event is lost or delivered twice across reconnects.
+ *
+ * <p>Handlers are called in the thread which reads the stream, so they must not block.
+ */
+@Singleton
+public class DockerEventsMonitor {
+  private static final Logger LOG = LoggerFactory.getLogger(DockerEventsMonitor.class);
+
+  static final String[] MONITORED_EVENTS = {"die", "oom", "health_status"};
+
+  private static final long MIN_RECONNECT_DELAY_MS = 500;
+  private static final long MAX_RECONNECT_DELAY_MS = SECONDS.toMillis(30);
+
+  private final DockerConnector dockerConnector;
+  private final Map<String, Set<MessageProcessor<Event>>> handlers;
+  private final AtomicBoolean started;
+  private final ExecutorService executor;
+
+  private volatile boolean stopped;
+
+  // accessed only by the thread which reads events
+  private long lastEventTimeNano;
+  private final Set<String> lastEventKeys;
+
+  @Inject
+  public DockerEventsMonitor(DockerConnector dockerConnector) {
+    this.dockerConnector = dockerConnector;
+    this.handlers = new ConcurrentHashMap<>();
+    this.started = new AtomicBoolean();
+    this.lastEventKeys = new HashSet<>();
+    this.executor =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("DockerEventsMonitor-%d")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(true)
+                .build());
+  }
+
+  /**
+   * Adds handler of events of the specified container and starts reading of events if it is not
+   * started yet.
+   *
+   * @param containerId id of container to handle events of
+   * @param handler handler of the container events
+   */
+  public void addHandler(String containerId, MessageProcessor<Event> handler) {
+    handlers.computeIfAbsent(containerId, id -> ConcurrentHashMap.newKeySet()).add(handler);
+    if (started.compareAndSet(false, true)) {
+      lastEventTimeNano = SECONDS.toNanos(System.currentTimeMillis() / 1000);
+      executor.execute(this::readEvents);
+    }
+  }
+
+  /**
+   * Removes handler of events of the specified container. Does nothing if there is no such
+   * handler.
+   */
+  public void removeHandler(String containerId, MessageProcessor<Event> handler) {
+    handlers.computeIfPresent(
+        containerId,
+        (id, containerHandlers) -> {
+          containerHandlers.remove(handler);
+          return containerHandlers.isEmpty() ? null : containerHandlers;
+        });
+  }
+
+  /** Removes all the handlers of the specified container. */
+  public void removeHandlers(String containerId) {
+    handlers.remove(containerId);
+  }
+
+  @PreDestroy
+  public void stop() {
+    stopped = true;
+    executor.shutdownNow();
+  }
+
+  private void readEvents() {
+    long reconnectDelay = MIN_RECONNECT_DELAY_MS;
+    while (!stopped) {
+      long lastEventTimeBefore = lastEventTimeNano;
+      try {
+        dockerConnector.getEvents(
+            GetEventsParams.create()
+                .withSinceSecond(NANOSECONDS.toSeconds(lastEventTimeNano))
+                .withFilters(
+                    new Filters()
+                        .withFilter("type", "container")
+                        .withFilter("event", MONITORED_EVENTS)),
+            this::dispatch);
+      } catch (IOException e) {
+        // usually connection timeout
+        LOG.debug(e.getLocalizedMessage(), e);
+      }
+      if (lastEventTimeNano != lastEventTimeBefore) {
+        reconnectDelay = MIN_RECONNECT_DELAY_MS;
+      }
+      try {
+        MILLISECONDS.sleep(reconnectDelay);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MS);
+    }
+  }
+
+  /** Dispatches the event to the handlers of its container unless it was dispatched already. */
+  void dispatch(Event event) {
+    if (event.getType() != null && !"container".equals(event.getType())) {
+      // docker swarm doesn't filter events, skip events of other types
+      return;
+    }
+    if (!isNew(event)) {
+      return;
+    }
+    Set<MessageProcessor<Event>> containerHandlers = handlers.get(event.getId());
+    if (containerHandlers == null) {
+      return;
+    }
+    for (MessageProcessor<Event> handler : containerHandlers) {
+      try {
+        handler.process(event);
+      } catch (RuntimeException e) {
+        LOG.error(
+            "Error occurred while handling event '{}' of container '{}'. {}",
+            event.getStatus(),
+            event.getId(),
+            e.getMessage(),
+            e);
+      }
+    }
+  }
+
+  /**
+   * Returns true if the event wasn't received yet. Replayed stream starts at the second of the
+   * last received event, so all the events received at the same time are remembered.
+   */
+  private boolean isNew(Event event) {
+    long timeNano =
+        event.getTimeNano() != 0 ? event.getTimeNano() : SECONDS.toNanos(event.getTime());
+    String key = event.getId() + ':' + event.getStatus();
+    if (timeNano < lastEventTimeNano) {
+      return false;
+    }
+    if (timeNano > lastEventTimeNano) {
+      lastEventTimeNano = timeNano;
+      lastEventKeys.clear();
+    }
+    return lastEventKeys.add(key);
+  }
+}
@@ -30,6 +30,7 @@ public abstract class DockerConnection implements Closeable {
   private Entity<?> entity;
   private StringBuilder query = new StringBuilder();
   private List<Pair<String, ?>> headers = new LinkedList<>();
+  private boolean dedicated;
 
   public DockerConnection method(String method) {
     this.method = method;
@@ -87,6 +88,20 @@ public abstract class DockerConnection implements Closeable {
     return this;
   }
 
+  /**
+   * Marks connection as dedicated to a single request. Dedicated connection is neither taken from
+   * nor returned to the pool of keep-alive connections, it should be used for requests which stream
+   * response for a long time, e.g. container logs, events or attach.
+   */
+  public DockerConnection dedicated() {
+    this.dedicated = true;
+    return this;
+  }
+
+  protected boolean isDedicated() {
+    return dedicated;
+  }
+
   public DockerResponse request() throws IOException {
     return request(method, path, query.toString(), headers, entity);
   }
@@ -105,6 +120,11 @@ public abstract class DockerConnection implements Closeable {
     }
 
     abstract void writeTo(OutputStream output) throws IOException;
+
+    /** Whether entity may be written once again, e.g. when request is retried. */
+    boolean isRepeatable() {
+      return true;
+    }
   }
 
   static class StreamEntity extends Entity<InputStream> {
@@ -121,6 +141,11 @@ public abstract class DockerConnection implements Closeable {
         entity.close();
       }
     }
+
+    @Override
+    boolean isRepeatable() {
+      return false;
+    }
   }
 
   static class StringEntity extends Entity<String> {
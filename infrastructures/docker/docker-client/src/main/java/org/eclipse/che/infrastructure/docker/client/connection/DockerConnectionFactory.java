@@ -12,22 +12,33 @@ package org.eclipse.che.infrastructure.docker.client.connection;
 
 import com.google.inject.Inject;
 import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
+import javax.inject.Singleton;
 import org.eclipse.che.infrastructure.docker.client.DockerCertificates;
 import org.eclipse.che.infrastructure.docker.client.DockerConnectorConfiguration;
 
 /**
  * Factory for connections to docker API.
  *
- * <p>Detects connection implementation by checking docker daemon URI.
+ * <p>Detects connection implementation by checking docker daemon URI. Connections to unix socket
+ * are taken from the pool of keep-alive connections of the socket unless they are {@link
+ * DockerConnection#dedicated() dedicated}.
  *
  * @author Alexander Garagatyi
  */
+@Singleton
 public class DockerConnectionFactory {
   public static final String CONNECTION_TIMEOUT_MS_PROPERTY =
       "che.docker.tcp_connection_timeout_ms";
   public static final String CONNECTION_READ_TIMEOUT_MS_PROPERTY =
       "che.docker.tcp_connection_read_timeout_ms";
+  public static final String UNIX_SOCKET_MAX_IDLE_CONNECTIONS_PROPERTY =
+      "che.docker.unix_socket.max_idle_connections";
+  public static final String UNIX_SOCKET_IDLE_CONNECTION_TIMEOUT_MS_PROPERTY =
+      "che.docker.unix_socket.idle_connection_timeout_ms";
 
   @Inject(optional = true)
   @Named(CONNECTION_TIMEOUT_MS_PROPERTY)
@@ -37,7 +48,16 @@ public class DockerConnectionFactory {
   @Named(CONNECTION_READ_TIMEOUT_MS_PROPERTY)
   private int connectionReadTimeoutMs = 60000;
 
+  @Inject(optional = true)
+  @Named(UNIX_SOCKET_MAX_IDLE_CONNECTIONS_PROPERTY)
+  private int unixSocketMaxIdleConnections = 10;
+
+  @Inject(optional = true)
+  @Named(UNIX_SOCKET_IDLE_CONNECTION_TIMEOUT_MS_PROPERTY)
+  private long unixSocketIdleConnectionTimeoutMs = 30000;
+
   private final DockerCertificates dockerCertificates;
+  private final Map<String, UnixSocketConnectionPool> unixSocketPools = new ConcurrentHashMap<>();
 
   @Inject
   public DockerConnectionFactory(DockerConnectorConfiguration connectorConfiguration) {
@@ -46,10 +66,22 @@ public class DockerConnectionFactory {
 
   public DockerConnection openConnection(URI dockerDaemonUri) {
     if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
-      return new UnixSocketConnection(dockerDaemonUri.getPath());
+      String socketPath = dockerDaemonUri.getPath();
+      return new UnixSocketConnection(
+          socketPath,
+          unixSocketPools.computeIfAbsent(
+              socketPath,
+              path ->
+                  new UnixSocketConnectionPool(
+                      path, unixSocketMaxIdleConnections, unixSocketIdleConnectionTimeoutMs)));
     } else {
       return new TcpConnection(
           dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs);
     }
   }
+
+  @PreDestroy
+  void closePools() {
+    unixSocketPools.values().forEach(UnixSocketConnectionPool::close);
+  }
 }
@@ -12,6 +12,7 @@ package org.eclipse.che.infrastructure.docker.client.connection;
 
 import com.google.common.base.Strings;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
@@ -22,6 +23,12 @@ import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.infrastructure.docker.client.DockerCertificates;
 
 /**
+ * Connection to docker API over TCP.
+ *
+ * <p>Unless connection is {@link #dedicated()} the underlying HTTP connection is kept alive and
+ * reused by the next requests to the same docker host, keep-alive connections are cached by JDK
+ * and limited by {@code http.maxConnections} system property.
+ *
  * @author andrew00x
  * @author Alexander Garagatyi
  */
@@ -32,6 +39,7 @@ public class TcpConnection extends DockerConnection {
   private final int readTimeout;
 
   private HttpURLConnection connection;
+  private boolean requestSent;
 
   public TcpConnection(
       URI baseUri, DockerCertificates certificates, int connectionTimeoutMs, int readTimeoutMs) {
@@ -61,11 +69,13 @@ public class TcpConnection extends DockerConnection {
     connection.setReadTimeout(readTimeout);
     if ("https".equals(protocol)) {
       ((HttpsURLConnection) connection)
-          .setSSLSocketFactory(certificates.getSslContext().getSocketFactory());
+          .setSSLSocketFactory(certificates.getSslSocketFactory());
     }
     connection.setRequestMethod(method);
-    // needed to fix bug https://github.com/docker/docker/issues/12845
-    connection.setRequestProperty("Connection", "close");
+    if (isDedicated()) {
+      // needed to fix bug https://github.com/docker/docker/issues/12845
+      connection.setRequestProperty("Connection", "close");
+    }
     for (Pair<String, ?> header : headers) {
       connection.setRequestProperty(header.first, String.valueOf(header.second));
     }
@@ -81,12 +91,28 @@ public class TcpConnection extends DockerConnection {
         entity.writeTo(output);
       }
     }
+    requestSent = true;
     return new TcpDockerResponse(connection);
   }
 
   @Override
   public void close() {
-    if (connection != null) {
+    if (connection == null) {
+      return;
+    }
+    if (isDedicated() || !requestSent) {
+      connection.disconnect();
+      return;
+    }
+    // closing of the response stream returns connection to the keep-alive cache,
+    // the rest of the response is skipped if it is small enough
+    try {
+      InputStream responseStream = connection.getErrorStream();
+      if (responseStream == null) {
+        responseStream = connection.getInputStream();
+      }
+      responseStream.close();
+    } catch (IOException e) {
       connection.disconnect();
     }
   }
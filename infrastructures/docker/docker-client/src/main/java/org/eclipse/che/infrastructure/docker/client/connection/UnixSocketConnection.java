@@ -15,7 +15,9 @@ import static org.eclipse.che.infrastructure.docker.client.CLibrary.SOCK_STREAM;
 import static org.eclipse.che.infrastructure.docker.client.CLibrary.SockAddrUn;
 import static org.eclipse.che.infrastructure.docker.client.CLibraryFactory.getCLibrary;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableSet;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
@@ -25,6 +27,7 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.net.ConnectException;
 import java.util.List;
+import java.util.Set;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.infrastructure.docker.client.CLibrary;
 
@@ -33,35 +36,80 @@ import org.eclipse.che.infrastructure.docker.client.CLibrary;
  * @author Alexander Garagatyi
  */
 public class UnixSocketConnection extends DockerConnection {
+  /**
+   * Methods of the requests which may be safely sent once again when docker closed the reused
+   * socket, requests with other methods are not retried and are sent over a new socket.
+   */
+  private static final Set<String> IDEMPOTENT_METHODS =
+      ImmutableSet.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+
   private final String dockerSocketPath;
+  private final UnixSocketConnectionPool pool;
 
   private int fd = -1;
+  private UnixSocketConnectionPool.PooledSocket socket;
+  private UnixSocketDockerResponse response;
 
   public UnixSocketConnection(String dockerSocketPath) {
+    this(dockerSocketPath, null);
+  }
+
+  /**
+   * Creates connection which takes sockets from the given pool unless it is {@link #dedicated()}.
+   */
+  UnixSocketConnection(String dockerSocketPath, UnixSocketConnectionPool pool) {
     this.dockerSocketPath = dockerSocketPath;
+    this.pool = pool;
   }
 
   @Override
   protected DockerResponse request(
       String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
       throws IOException {
-    fd = connect();
-    final OutputStream output = new BufferedOutputStream(openOutputStream(fd));
-    writeHttpHeaders(output, method, path, query, headers);
-    if (entity != null) {
-      entity.writeTo(output);
+    if (pool == null || isDedicated()) {
+      fd = pool != null ? pool.connect() : connect(dockerSocketPath);
+      return send(fd, method, path, query, headers, entity);
+    }
+    // idle socket may be already closed by docker, so it is used only if request can be retried
+    final boolean retryable =
+        IDEMPOTENT_METHODS.contains(method) && (entity == null || entity.isRepeatable());
+    for (boolean retry = false; ; retry = true) {
+      socket = pool.acquire(retryable);
+      try {
+        response = send(socket.fd, method, path, query, headers, entity);
+        // reads status line and headers, so closed socket is detected before response is returned
+        response.getInputStream();
+        return response;
+      } catch (IOException e) {
+        boolean reused = socket.reused;
+        pool.release(socket, false);
+        socket = null;
+        response = null;
+        if (!reused || retry) {
+          throw e;
+        }
+        // docker closed the socket while it was idle, the rest of idle sockets may be closed too
+        pool.evictIdle();
+      }
     }
-    return new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
   }
 
   @Override
   public void close() {
-    if (fd != -1) {
-      getCLibrary().close(fd);
+    if (socket != null) {
+      pool.release(socket, response != null && response.complete());
+      socket = null;
+    } else if (fd != -1) {
+      if (pool != null) {
+        pool.closeSocket(fd);
+      } else {
+        getCLibrary().close(fd);
+      }
+      fd = -1;
     }
   }
 
-  private int connect() throws IOException {
+  static int connect(String dockerSocketPath) throws IOException {
     final CLibrary cLib = getCLibrary();
     int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
     if (fd == -1) {
@@ -71,12 +119,29 @@ public class UnixSocketConnection extends DockerConnection {
     final SockAddrUn sockAddr = new SockAddrUn(dockerSocketPath);
     int c = cLib.connect(fd, sockAddr, sockAddr.size());
     if (c == -1) {
+      cLib.close(fd);
       throw new ConnectException(
           String.format("Unable connect to unix socket: '%s'", dockerSocketPath));
     }
     return fd;
   }
 
+  private UnixSocketDockerResponse send(
+      int fd,
+      String method,
+      String path,
+      String query,
+      List<Pair<String, ?>> headers,
+      Entity<?> entity)
+      throws IOException {
+    final OutputStream output = new BufferedOutputStream(openOutputStream(fd));
+    writeHttpHeaders(output, method, path, query, headers);
+    if (entity != null) {
+      entity.writeTo(output);
+    }
+    return new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
+  }
+
   private void writeHttpHeaders(
       OutputStream output, String method, String path, String query, List<Pair<String, ?>> headers)
       throws IOException {
@@ -100,11 +165,13 @@ public class UnixSocketConnection extends DockerConnection {
     writer.flush();
   }
 
-  private InputStream openInputStream(int fd) {
+  @VisibleForTesting
+  InputStream openInputStream(int fd) {
     return new UnixSocketInputStream(fd);
   }
 
-  private OutputStream openOutputStream(int fd) {
+  @VisibleForTesting
+  OutputStream openOutputStream(int fd) {
     return new UnixSocketOutputStream(fd);
   }
 }
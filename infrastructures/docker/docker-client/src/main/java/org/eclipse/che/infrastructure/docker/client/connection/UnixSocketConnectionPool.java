@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.eclipse.che.infrastructure.docker.client.CLibraryFactory.getCLibrary;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of keep-alive HTTP connections to the docker unix socket.
+ *
+ * <p>Connection is returned to the pool only when its response is completely read. Not more than
+ * {@code maxIdle} connections are kept in the pool, connections which are idle for longer than
+ * {@code idleTimeoutMs} are closed. As docker may close idle socket at any moment, idle sockets are
+ * taken only by the requests which can be retried, other requests are sent over new sockets which
+ * are returned to the pool afterwards. Pool counts reused (hits) and newly opened (misses)
+ * connections and time of requests, the statistics is logged in debug mode.
+ */
+class UnixSocketConnectionPool {
+  private static final Logger LOG = LoggerFactory.getLogger(UnixSocketConnectionPool.class);
+
+  /** Statistics is logged each time this number of requests is completed. */
+  private static final long STATS_LOG_PERIOD = 1000;
+
+  private final String socketPath;
+  private final int maxIdle;
+  private final long idleTimeoutMs;
+  private final Deque<IdleSocket> idle;
+
+  private boolean closed;
+  private long hits;
+  private long misses;
+  private long requests;
+  private long requestsTimeNanos;
+  private long maxRequestTimeNanos;
+
+  UnixSocketConnectionPool(String socketPath, int maxIdle, long idleTimeoutMs) {
+    this.socketPath = socketPath;
+    this.maxIdle = maxIdle;
+    this.idleTimeoutMs = idleTimeoutMs;
+    this.idle = new ArrayDeque<>();
+  }
+
+  /**
+   * Takes the most recently used idle socket from the pool or connects a new one.
+   *
+   * @param reuseIdle whether idle socket may be taken, idle socket may be closed by docker so it
+   *     should be taken only for requests which can be retried on a new socket
+   */
+  PooledSocket acquire(boolean reuseIdle) throws IOException {
+    synchronized (this) {
+      evictExpired(System.currentTimeMillis());
+      IdleSocket socket = reuseIdle ? idle.pollFirst() : null;
+      if (socket != null) {
+        hits++;
+        return new PooledSocket(socket.fd, true);
+      }
+      misses++;
+    }
+    return new PooledSocket(connect(), false);
+  }
+
+  /**
+   * Returns socket to the pool or closes it.
+   *
+   * @param socket acquired socket
+   * @param reusable whether the response is completely read and socket may be used for the next
+   *     request
+   */
+  void release(PooledSocket socket, boolean reusable) {
+    long requestTime = System.nanoTime() - socket.acquiredAt;
+    boolean keep;
+    synchronized (this) {
+      long now = System.currentTimeMillis();
+      evictExpired(now);
+      keep = reusable && !closed && idle.size() < maxIdle;
+      if (keep) {
+        idle.addFirst(new IdleSocket(socket.fd, now));
+      }
+      requests++;
+      requestsTimeNanos += requestTime;
+      maxRequestTimeNanos = Math.max(maxRequestTimeNanos, requestTime);
+      if (requests % STATS_LOG_PERIOD == 0) {
+        LOG.debug(
+            "Docker socket '{}' connections: {} idle, {} hits, {} misses. Requests: {}, "
+                + "average time {} ms, max time {} ms",
+            socketPath,
+            idle.size(),
+            hits,
+            misses,
+            requests,
+            NANOSECONDS.toMillis(requestsTimeNanos / requests),
+            NANOSECONDS.toMillis(maxRequestTimeNanos));
+      }
+    }
+    if (!keep) {
+      closeSocket(socket.fd);
+    }
+  }
+
+  /** Closes all the idle sockets, e.g. when docker closed one of them they all may be stale. */
+  synchronized void evictIdle() {
+    while (!idle.isEmpty()) {
+      closeSocket(idle.pollFirst().fd);
+    }
+  }
+
+  /** Closes idle sockets, sockets which are in use are closed when they are released. */
+  synchronized void close() {
+    closed = true;
+    evictIdle();
+  }
+
+  synchronized int getIdleCount() {
+    return idle.size();
+  }
+
+  synchronized long getHits() {
+    return hits;
+  }
+
+  synchronized long getMisses() {
+    return misses;
+  }
+
+  synchronized long getRequests() {
+    return requests;
+  }
+
+  /** Connects a new socket which is not taken from the pool. */
+  @VisibleForTesting
+  int connect() throws IOException {
+    return UnixSocketConnection.connect(socketPath);
+  }
+
+  @VisibleForTesting
+  void closeSocket(int fd) {
+    getCLibrary().close(fd);
+  }
+
+  private void evictExpired(long now) {
+    for (Iterator<IdleSocket> it = idle.descendingIterator(); it.hasNext(); ) {
+      IdleSocket socket = it.next();
+      if (now - socket.idleSince < idleTimeoutMs) {
+        // the rest of sockets were used more recently
+        break;
+      }
+      it.remove();
+      closeSocket(socket.fd);
+    }
+  }
+
+  /** Socket taken from the pool. */
+  static class PooledSocket {
+    final int fd;
+    final boolean reused;
+    final long acquiredAt;
+
+    private PooledSocket(int fd, boolean reused) {
+      this.fd = fd;
+      this.reused = reused;
+      this.acquiredAt = System.nanoTime();
+    }
+  }
+
+  private static class IdleSocket {
+    final int fd;
+    final long idleSince;
+
+    IdleSocket(int fd, long idleSince) {
+      this.fd = fd;
+      this.idleSince = idleSince;
+    }
+  }
+}
@@ -17,6 +17,9 @@ import java.util.List;
 
 /** @author andrew00x */
 public class UnixSocketDockerResponse implements DockerResponse {
+  /** The rest of response body is skipped if it is not bigger, otherwise connection is closed. */
+  private static final int MAX_SKIP_BYTES = 64 * 1024;
+
   private static final InputStream EMPTY =
       new InputStream() {
         @Override
@@ -142,6 +145,11 @@ public class UnixSocketDockerResponse implements DockerResponse {
       }
     }
     this.headersFields = headerFields.toArray(new String[headerFields.size()]);
+    final int status = getStatus();
+    if (status == 204 || status == 304) {
+      // responses which never have body
+      return data = EMPTY;
+    }
     final int contentLength = getContentLength();
     if (contentLength == 0) {
       return data = EMPTY;
@@ -154,4 +162,35 @@ public class UnixSocketDockerResponse implements DockerResponse {
             ? new ChunkedInputStream(rawData)
             : rawData;
   }
+
+  /**
+   * Skips the rest of response body if it is small and checks whether the connection may be used
+   * for the next request.
+   *
+   * @return {@code true} if the whole response is read and docker doesn't close the connection,
+   *     {@code false} if the response is not read, its body is not delimited by length or chunks,
+   *     or the rest of the body is too big to skip it
+   */
+  synchronized boolean complete() {
+    if (headersFields == null || data == rawData) {
+      return false;
+    }
+    try {
+      if ("close".equalsIgnoreCase(getHeader("Connection"))) {
+        return false;
+      }
+      final byte[] buf = new byte[8192];
+      int skipped = 0;
+      int n;
+      while ((n = data.read(buf)) != -1) {
+        skipped += n;
+        if (skipped > MAX_SKIP_BYTES) {
+          return false;
+        }
+      }
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
 }
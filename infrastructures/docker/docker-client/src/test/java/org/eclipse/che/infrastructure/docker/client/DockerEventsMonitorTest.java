@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.che.infrastructure.docker.client.json.Event;
+import org.eclipse.che.infrastructure.docker.client.params.GetEventsParams;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link DockerEventsMonitor}. */
+@Listeners(MockitoTestNGListener.class)
+public class DockerEventsMonitorTest {
+
+  private static final String CONTAINER_1 = "container1";
+  private static final String CONTAINER_2 = "container2";
+
+  @Mock private DockerConnector dockerConnector;
+  @Mock private MessageProcessor<Event> handler1;
+  @Mock private MessageProcessor<Event> handler2;
+
+  private DockerEventsMonitor monitor;
+  private long now;
+
+  @BeforeMethod
+  public void setUp() {
+    monitor = new DockerEventsMonitor(dockerConnector);
+    now = SECONDS.toNanos(System.currentTimeMillis() / 1000 + 1);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    monitor.stop();
+  }
+
+  @Test
+  public void dispatchesEventsToHandlersOfTheirContainers() throws Exception {
+    monitor.addHandler(CONTAINER_1, handler1);
+    monitor.addHandler(CONTAINER_2, handler2);
+    Event die = event(CONTAINER_1, "die", now + 1);
+    Event oom = event(CONTAINER_2, "oom", now + 2);
+
+    monitor.dispatch(die);
+    monitor.dispatch(oom);
+
+    verify(handler1).process(die);
+    verify(handler1, never()).process(oom);
+    verify(handler2).process(oom);
+    verify(handler2, never()).process(die);
+  }
+
+  @Test
+  public void doesNotDispatchEventsToRemovedHandlers() throws Exception {
+    monitor.addHandler(CONTAINER_1, handler1);
+    monitor.addHandler(CONTAINER_1, handler2);
+    monitor.removeHandler(CONTAINER_1, handler1);
+    Event die = event(CONTAINER_1, "die", now + 1);
+
+    monitor.dispatch(die);
+
+    verify(handler1, never()).process(any());
+    verify(handler2).process(die);
+  }
+
+  @Test
+  public void doesNotDispatchEventsOfOtherTypes() throws Exception {
+    monitor.addHandler(CONTAINER_1, handler1);
+
+    monitor.dispatch(event(CONTAINER_1, "die", now + 1).withType("network"));
+
+    verify(handler1, never()).process(any());
+  }
+
+  @Test
+  public void doesNotDispatchReplayedEventsTwice() throws Exception {
+    monitor.addHandler(CONTAINER_1, handler1);
+    monitor.addHandler(CONTAINER_2, handler2);
+    Event oom = event(CONTAINER_1, "oom", now + 1);
+    Event die1 = event(CONTAINER_1, "die", now + 2);
+    Event die2 = event(CONTAINER_2, "die", now + 2);
+
+    monitor.dispatch(oom);
+    monitor.dispatch(die1);
+    // replayed since the second of the last event
+    monitor.dispatch(oom);
+    monitor.dispatch(die1);
+    monitor.dispatch(die2);
+
+    verify(handler1).process(oom);
+    verify(handler1).process(die1);
+    verify(handler2).process(die2);
+  }
+
+  @Test
+  public void continuesDispatchingWhenHandlerFails() throws Exception {
+    monitor.addHandler(CONTAINER_1, handler1);
+    Event oom = event(CONTAINER_1, "oom", now + 1);
+    Event die = event(CONTAINER_1, "die", now + 2);
+    doAnswer(
+            invocation -> {
+              throw new IllegalStateException("test");
+            })
+        .when(handler1)
+        .process(oom);
+
+    monitor.dispatch(oom);
+    monitor.dispatch(die);
+
+    verify(handler1).process(die);
+  }
+
+  @Test
+  public void reconnectsSinceTheLastReceivedEvent() throws Exception {
+    Event oom = event(CONTAINER_1, "oom", now + 1);
+    Event die = event(CONTAINER_1, "die", now + SECONDS.toNanos(2));
+    List<Long> since = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              since.add(((GetEventsParams) invocation.getArguments()[0]).getSinceSecond());
+              @SuppressWarnings("unchecked")
+              MessageProcessor<Event> processor =
+                  (MessageProcessor<Event>) invocation.getArguments()[1];
+              if (since.size() == 1) {
+                processor.process(oom);
+                throw new IOException("connection reset");
+              }
+              processor.process(oom);
+              processor.process(die);
+              monitor.stop();
+              return null;
+            })
+        .when(dockerConnector)
+        .getEvents(any(GetEventsParams.class), any());
+
+    monitor.addHandler(CONTAINER_1, handler1);
+
+    verify(dockerConnector, timeout(5_000).times(2)).getEvents(any(), any());
+    verify(handler1, timeout(5_000)).process(die);
+    verify(handler1, times(1)).process(oom);
+    assertEquals(since.get(1), Long.valueOf(NANOSECONDS.toSeconds(now)));
+  }
+
+  @Test
+  public void readsEventsWithSingleStreamForAllContainers() throws Exception {
+    ArgumentCaptor<GetEventsParams> paramsCaptor = ArgumentCaptor.forClass(GetEventsParams.class);
+    doAnswer(
+            invocation -> {
+              monitor.stop();
+              return null;
+            })
+        .when(dockerConnector)
+        .getEvents(paramsCaptor.capture(), any());
+
+    monitor.addHandler(CONTAINER_1, handler1);
+    monitor.addHandler(CONTAINER_2, handler2);
+
+    verify(dockerConnector, timeout(5_000)).getEvents(any(), any());
+    assertEquals(
+        paramsCaptor.getValue().getFilters().getFilters().get("event"),
+        Arrays.asList(DockerEventsMonitor.MONITORED_EVENTS));
+    verify(dockerConnector, times(1)).getEvents(any(), any());
+  }
+
+  private static Event event(String containerId, String status, long timeNano) {
+    return new Event()
+        .withId(containerId)
+        .withStatus(status)
+        .withType("container")
+        .withTimeNano(timeNano)
+        .withTime(timeNano / 1_000_000_000);
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.testng.Assert.assertEquals;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link UnixSocketConnection} which takes sockets from {@link UnixSocketConnectionPool}. */
+public class UnixSocketConnectionTest {
+
+  private static final String OK_RESPONSE = "HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\n{}";
+  private static final String CLOSE_RESPONSE =
+      "HTTP/1.1 200 OK\r\nContent-Length: 2\r\nConnection: close\r\n\r\n{}";
+
+  /** Responses which are sent by the fake docker in order of the requests. */
+  private Deque<String> responses;
+  /** Sockets which are closed by the fake docker, requests sent over them fail. */
+  private Set<Integer> staleSockets;
+  /** Sockets over which requests were sent, in order of the requests. */
+  private List<Integer> requestSockets;
+
+  private List<Integer> closedSockets;
+  private int connectedSockets;
+  private UnixSocketConnectionPool pool;
+
+  @BeforeMethod
+  public void setUp() {
+    responses = new ArrayDeque<>();
+    staleSockets = new HashSet<>();
+    requestSockets = new ArrayList<>();
+    closedSockets = new ArrayList<>();
+    connectedSockets = 0;
+    pool =
+        new UnixSocketConnectionPool("/var/run/docker.sock", 5, 60_000) {
+          @Override
+          int connect() {
+            return ++connectedSockets;
+          }
+
+          @Override
+          void closeSocket(int fd) {
+            closedSockets.add(fd);
+          }
+        };
+  }
+
+  @Test
+  public void reusesSocketForSequentialRequests() throws Exception {
+    request("GET", OK_RESPONSE);
+    request("GET", OK_RESPONSE);
+
+    assertEquals(requestSockets, asList(1, 1));
+    assertEquals(pool.getHits(), 1);
+    assertEquals(pool.getMisses(), 1);
+    assertEquals(pool.getIdleCount(), 1);
+  }
+
+  @Test
+  public void closesSocketWhenDockerClosesConnection() throws Exception {
+    request("GET", CLOSE_RESPONSE);
+    request("GET", OK_RESPONSE);
+
+    assertEquals(requestSockets, asList(1, 2));
+    assertEquals(closedSockets, singletonList(1));
+  }
+
+  @Test
+  public void retriesIdempotentRequestOnNewSocketWhenIdleSocketIsStale() throws Exception {
+    request("GET", OK_RESPONSE);
+    staleSockets.add(1);
+
+    assertEquals(request("DELETE", OK_RESPONSE), "{}");
+
+    assertEquals(requestSockets, asList(1, 1, 2));
+    assertEquals(closedSockets, singletonList(1));
+    assertEquals(pool.getIdleCount(), 1);
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void doesNotRetryRequestSentOverNewSocket() throws Exception {
+    staleSockets.add(1);
+
+    try {
+      request("GET", OK_RESPONSE);
+    } finally {
+      assertEquals(requestSockets, singletonList(1));
+      assertEquals(closedSockets, singletonList(1));
+    }
+  }
+
+  @Test
+  public void sendsNonIdempotentRequestOverNewSocket() throws Exception {
+    request("GET", OK_RESPONSE);
+    staleSockets.add(1);
+
+    assertEquals(request("POST", OK_RESPONSE), "{}");
+
+    assertEquals(requestSockets, asList(1, 2));
+    assertEquals(pool.getHits(), 0);
+    // new socket is returned to the pool for the next requests
+    assertEquals(pool.getIdleCount(), 2);
+  }
+
+  @Test
+  public void sendsRequestWithStreamEntityOverNewSocket() throws Exception {
+    request("GET", OK_RESPONSE);
+    responses.add(OK_RESPONSE);
+
+    try (DockerConnection connection =
+        newConnection()
+            .method("PUT")
+            .path("/containers/abc/archive")
+            .entity(new ByteArrayInputStream(new byte[] {1, 2, 3}))) {
+      ByteStreams.toByteArray(connection.request().getInputStream());
+    }
+
+    assertEquals(requestSockets, asList(1, 2));
+    assertEquals(pool.getHits(), 0);
+  }
+
+  @Test
+  public void dedicatedConnectionDoesNotUsePool() throws Exception {
+    request("GET", OK_RESPONSE);
+    responses.add(OK_RESPONSE);
+
+    try (DockerConnection connection =
+        newConnection().method("GET").path("/events").dedicated()) {
+      ByteStreams.toByteArray(connection.request().getInputStream());
+    }
+
+    assertEquals(requestSockets, asList(1, 2));
+    assertEquals(closedSockets, singletonList(2));
+    assertEquals(pool.getIdleCount(), 1);
+    assertEquals(pool.getHits(), 0);
+    assertEquals(pool.getRequests(), 1);
+  }
+
+  /** Sends the request and reads the whole response body. */
+  private String request(String method, String response) throws IOException {
+    responses.add(response);
+    try (DockerConnection connection = newConnection().method(method).path("/containers/abc")) {
+      return new String(ByteStreams.toByteArray(connection.request().getInputStream()), UTF_8);
+    }
+  }
+
+  private UnixSocketConnection newConnection() {
+    return new UnixSocketConnection("/var/run/docker.sock", pool) {
+      @Override
+      InputStream openInputStream(int fd) {
+        requestSockets.add(fd);
+        if (staleSockets.contains(fd)) {
+          return new InputStream() {
+            @Override
+            public int read() throws IOException {
+              throw new IOException("Connection reset by peer");
+            }
+          };
+        }
+        return new ByteArrayInputStream(responses.poll().getBytes(UTF_8));
+      }
+
+      @Override
+      OutputStream openOutputStream(int fd) {
+        return ByteStreams.nullOutputStream();
+      }
+    };
+  }
+}
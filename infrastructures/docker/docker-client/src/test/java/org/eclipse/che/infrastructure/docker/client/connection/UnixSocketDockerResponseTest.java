@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.infrastructure.docker.client.connection;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import org.testng.annotations.Test;
+
+/** Tests {@link UnixSocketDockerResponse}. */
+public class UnixSocketDockerResponseTest {
+
+  @Test
+  public void responseIsCompleteWhenBodyWithContentLengthIsRead() throws Exception {
+    UnixSocketDockerResponse response =
+        newResponse("HTTP/1.1 200 OK\r\nContent-Length: 3\r\n\r\nabc");
+
+    assertEquals(new String(ByteStreams.toByteArray(response.getInputStream()), UTF_8), "abc");
+    assertTrue(response.complete());
+  }
+
+  @Test
+  public void skipsTheRestOfSmallBody() throws Exception {
+    UnixSocketDockerResponse response =
+        newResponse("HTTP/1.1 200 OK\r\nContent-Length: 4\r\n\r\n{}\r\n");
+
+    assertEquals(response.getInputStream().read(), '{');
+    assertTrue(response.complete());
+  }
+
+  @Test
+  public void responseIsCompleteWhenChunkedBodyIsSkipped() throws Exception {
+    UnixSocketDockerResponse response =
+        newResponse(
+            "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n3\r\nabc\r\n2\r\nde\r\n0\r\n\r\n");
+
+    assertEquals(response.getStatus(), 200);
+    assertTrue(response.complete());
+  }
+
+  @Test
+  public void responseWithoutContentIsComplete() throws Exception {
+    UnixSocketDockerResponse response = newResponse("HTTP/1.1 204 No Content\r\n\r\n");
+
+    assertEquals(response.getStatus(), 204);
+    assertEquals(response.getInputStream().read(), -1);
+    assertTrue(response.complete());
+  }
+
+  @Test
+  public void responseIsNotCompleteWhenHeadersAreNotRead() throws Exception {
+    UnixSocketDockerResponse response =
+        newResponse("HTTP/1.1 200 OK\r\nContent-Length: 3\r\n\r\nabc");
+
+    assertFalse(response.complete());
+  }
+
+  @Test
+  public void responseIsNotCompleteWhenBodyIsNotDelimited() throws Exception {
+    UnixSocketDockerResponse response = newResponse("HTTP/1.1 200 OK\r\n\r\nabc");
+
+    assertEquals(response.getStatus(), 200);
+    assertFalse(response.complete());
+  }
+
+  @Test
+  public void responseIsNotCompleteWhenDockerClosesConnection() throws Exception {
+    UnixSocketDockerResponse response =
+        newResponse("HTTP/1.1 200 OK\r\nContent-Length: 3\r\nConnection: close\r\n\r\nabc");
+
+    assertEquals(response.getStatus(), 200);
+    assertFalse(response.complete());
+  }
+
+  @Test
+  public void responseIsNotCompleteWhenTheRestOfBodyIsTooBig() throws Exception {
+    String body = Strings.repeat("a", 100 * 1024);
+    UnixSocketDockerResponse response =
+        newResponse("HTTP/1.1 200 OK\r\nContent-Length: " + body.length() + "\r\n\r\n" + body);
+
+    assertEquals(response.getStatus(), 200);
+    assertFalse(response.complete());
+  }
+
+  private static UnixSocketDockerResponse newResponse(String raw) {
+    return new UnixSocketDockerResponse(new ByteArrayInputStream(raw.getBytes(UTF_8)));
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.ValidationException;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.stack.StackImpl;
+import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
+import org.eclipse.che.api.workspace.server.spi.StackDao;
+import org.eclipse.che.api.workspace.server.spi.environment.InternalEnvironment;
+import org.eclipse.che.api.workspace.server.spi.environment.InternalEnvironmentFactory;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.commons.schedule.ScheduleRate;
+import org.eclipse.che.infrastructure.docker.client.DockerConnector;
+import org.eclipse.che.infrastructure.docker.client.DockerFileException;
+import org.eclipse.che.infrastructure.docker.client.ProgressMonitor;
+import org.eclipse.che.infrastructure.docker.client.params.PullParams;
+import org.eclipse.che.infrastructure.docker.client.parser.DockerImageIdentifier;
+import org.eclipse.che.infrastructure.docker.client.parser.DockerImageIdentifierParser;
+import org.eclipse.che.workspace.infrastructure.docker.environment.convert.DockerEnvironmentConverter;
+import org.eclipse.che.workspace.infrastructure.docker.model.DockerContainerConfig;
+import org.eclipse.che.workspace.infrastructure.docker.model.DockerEnvironment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically pulls images of stacks and images of recently started machines in background, so
+ * start of a workspace doesn't wait for the pull of its images, see {@link PulledImagesCache}.
+ *
+ * <p>Warming is disabled when {@code che.docker.image_warming.period_min} is not positive. Images
+ * are pulled with credentials configured for the Che server, images which require credentials of
+ * a particular user are pulled on workspace start as before.
+ */
+@Singleton
+public class DockerImagesWarmer implements Runnable {
+  private static final Logger LOG = LoggerFactory.getLogger(DockerImagesWarmer.class);
+
+  private static final int STACKS_PAGE_SIZE = 100;
+  private static final long RECENTLY_USED_PERIOD_MS = DAYS.toMillis(1);
+
+  private final StackDao stackDao;
+  private final DockerConnector docker;
+  private final PulledImagesCache pulledImages;
+  private final Map<String, InternalEnvironmentFactory> envFactories;
+  private final Map<String, DockerEnvironmentConverter> envConverters;
+  private final ExecutorService executor;
+
+  @Inject
+  public DockerImagesWarmer(
+      StackDao stackDao,
+      DockerConnector docker,
+      PulledImagesCache pulledImages,
+      Map<String, InternalEnvironmentFactory> envFactories,
+      Map<String, DockerEnvironmentConverter> envConverters,
+      @Named("che.docker.image_warming.max_parallel_pulls") int maxParallelPulls) {
+    this.stackDao = stackDao;
+    this.docker = docker;
+    this.pulledImages = pulledImages;
+    this.envFactories = envFactories;
+    this.envConverters = envConverters;
+    this.executor =
+        Executors.newFixedThreadPool(
+            maxParallelPulls,
+            new ThreadFactoryBuilder()
+                .setNameFormat("DockerImagesWarmer-%d")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(true)
+                .build());
+  }
+
+  @ScheduleRate(
+    periodParameterName = "che.docker.image_warming.period_min",
+    initialDelay = 1L,
+    unit = TimeUnit.MINUTES
+  )
+  @Override
+  public void run() {
+    Set<String> images = new LinkedHashSet<>();
+    images.addAll(pulledImages.getUsedSince(System.currentTimeMillis() - RECENTLY_USED_PERIOD_MS));
+    images.addAll(getStacksImages());
+
+    long start = System.currentTimeMillis();
+    List<Future<Boolean>> pulls = new ArrayList<>(images.size());
+    for (String image : images) {
+      pulls.add(executor.submit(() -> warm(image)));
+    }
+    int pulled = 0;
+    for (Future<Boolean> pull : pulls) {
+      try {
+        if (pull.get()) {
+          pulled++;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        LOG.error(e.getCause().getMessage(), e.getCause());
+      }
+    }
+    LOG.info(
+        "Images warming finished in {}ms, {} of {} images were pulled",
+        System.currentTimeMillis() - start,
+        pulled,
+        images.size());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private boolean warm(String image) {
+    try {
+      DockerImageIdentifier identifier = DockerImageIdentifierParser.parse(image);
+      PullParams pullParams =
+          PullParams.create(identifier.getRepository())
+              .withTag(MoreObjects.firstNonNull(identifier.getTag(), DockerMachine.LATEST_TAG))
+              .withRegistry(identifier.getRegistry());
+      return pulledImages.pull(image, () -> docker.pull(pullParams, ProgressMonitor.DEV_NULL));
+    } catch (DockerFileException | IOException e) {
+      LOG.warn("Failed to warm image '{}'. Cause: {}", image, e.getMessage());
+      return false;
+    }
+  }
+
+  /** Returns images used by the environments of all the stacks. */
+  private Set<String> getStacksImages() {
+    Set<String> images = new LinkedHashSet<>();
+    try {
+      List<StackImpl> stacks;
+      int skip = 0;
+      do {
+        stacks = stackDao.searchStacks(null, null, skip, STACKS_PAGE_SIZE);
+        for (StackImpl stack : stacks) {
+          if (stack.getWorkspaceConfig() == null) {
+            continue;
+          }
+          for (EnvironmentImpl environment :
+              stack.getWorkspaceConfig().getEnvironments().values()) {
+            images.addAll(getImages(environment));
+          }
+        }
+        skip += stacks.size();
+      } while (stacks.size() == STACKS_PAGE_SIZE);
+    } catch (ServerException e) {
+      LOG.error("Failed to fetch stacks for images warming. Cause: {}", e.getMessage(), e);
+    }
+    return images;
+  }
+
+  private List<String> getImages(EnvironmentImpl environment) {
+    List<String> images = new ArrayList<>();
+    if (environment.getRecipe() == null) {
+      return images;
+    }
+    String type = environment.getRecipe().getType();
+    InternalEnvironmentFactory factory = envFactories.get(type);
+    DockerEnvironmentConverter converter = envConverters.get(type);
+    if (factory == null || converter == null) {
+      return images;
+    }
+    try {
+      InternalEnvironment internalEnv = factory.create(environment);
+      DockerEnvironment dockerEnv = converter.convert(internalEnv);
+      for (DockerContainerConfig container : dockerEnv.getContainers().values()) {
+        if (container.getImage() != null) {
+          images.add(container.getImage());
+        }
+      }
+    } catch (InfrastructureException | ValidationException e) {
+      LOG.debug("Failed to get images of stack environment. Cause: {}", e.getMessage());
+    }
+    return images;
+  }
+}
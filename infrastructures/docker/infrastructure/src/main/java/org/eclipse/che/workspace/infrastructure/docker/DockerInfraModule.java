@@ -67,5 +67,6 @@ public class DockerInfraModule extends AbstractModule {
     bind(
         org.eclipse.che.workspace.infrastructure.docker.monit.DockerAbandonedResourcesCleaner
             .class);
+    bind(DockerImagesWarmer.class);
   }
 }
@@ -12,16 +12,26 @@ package org.eclipse.che.workspace.infrastructure.docker;
 
 import static java.lang.String.format;
 import static java.util.Collections.emptyMap;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.stream.Collectors.toMap;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Consumer;
+import javax.inject.Named;
 import org.eclipse.che.api.core.model.workspace.Warning;
 import org.eclipse.che.api.core.model.workspace.runtime.Machine;
 import org.eclipse.che.api.core.model.workspace.runtime.MachineStatus;
@@ -49,6 +59,7 @@ import org.eclipse.che.api.workspace.shared.dto.event.ServerStatusEvent;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.infrastructure.docker.client.json.ContainerListEntry;
 import org.eclipse.che.workspace.infrastructure.docker.bootstrap.DockerBootstrapperFactory;
+import org.eclipse.che.workspace.infrastructure.docker.environment.DockerEnvironmentNormalizer;
 import org.eclipse.che.workspace.infrastructure.docker.logs.MachineLoggersFactory;
 import org.eclipse.che.workspace.infrastructure.docker.model.DockerContainerConfig;
 import org.eclipse.che.workspace.infrastructure.docker.monit.AbnormalMachineStopHandler;
@@ -77,6 +88,9 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
   private final MachineLoggersFactory loggers;
   private final ProbeScheduler probeScheduler;
   private final WorkspaceProbesFactory probesFactory;
+  private final DockerMachineStartPool startPool;
+  private final int maxParallelStarts;
+  private final int machineStartTimeoutMinutes;
 
   /**
    * Creates non running runtime. Normally created by {@link
@@ -94,7 +108,10 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
       ServersCheckerFactory serverCheckerFactory,
       MachineLoggersFactory loggers,
       ProbeScheduler probeScheduler,
-      WorkspaceProbesFactory probesFactory) {
+      WorkspaceProbesFactory probesFactory,
+      DockerMachineStartPool startPool,
+      @Named("che.infra.docker.max_parallel_machine_starts") int maxParallelStarts,
+      @Named("che.infra.docker.machine_start_timeout_min") int machineStartTimeoutMinutes) {
     this(
         context,
         urlRewriter,
@@ -107,7 +124,10 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
         serverCheckerFactory,
         loggers,
         probeScheduler,
-        probesFactory);
+        probesFactory,
+        startPool,
+        maxParallelStarts,
+        machineStartTimeoutMinutes);
   }
 
   /**
@@ -129,7 +149,10 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
       DockerMachineCreator machineCreator,
       DockerMachineStopDetector stopDetector,
       ProbeScheduler probeScheduler,
-      WorkspaceProbesFactory probesFactory)
+      WorkspaceProbesFactory probesFactory,
+      DockerMachineStartPool startPool,
+      @Named("che.infra.docker.max_parallel_machine_starts") int maxParallelStarts,
+      @Named("che.infra.docker.machine_start_timeout_min") int machineStartTimeoutMinutes)
       throws InfrastructureException {
     this(
         context,
@@ -143,7 +166,10 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
         serverCheckerFactory,
         loggers,
         probeScheduler,
-        probesFactory);
+        probesFactory,
+        startPool,
+        maxParallelStarts,
+        machineStartTimeoutMinutes);
 
     for (ContainerListEntry container : containers) {
       DockerMachine machine = machineCreator.create(container);
@@ -167,7 +193,10 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
       ServersCheckerFactory serverCheckerFactory,
       MachineLoggersFactory loggers,
       ProbeScheduler probeScheduler,
-      WorkspaceProbesFactory probesFactory) {
+      WorkspaceProbesFactory probesFactory,
+      DockerMachineStartPool startPool,
+      int maxParallelStarts,
+      int machineStartTimeoutMinutes) {
     super(context, urlRewriter, warnings, running);
     this.networks = networks;
     this.containerStarter = machineStarter;
@@ -180,6 +209,9 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
     this.runtimeMachines = new RuntimeMachines();
     this.loggers = loggers;
     this.probeScheduler = probeScheduler;
+    this.startPool = startPool;
+    this.maxParallelStarts = Math.max(1, maxParallelStarts);
+    this.machineStartTimeoutMinutes = machineStartTimeoutMinutes;
   }
 
   @Override
@@ -188,26 +220,8 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
     try {
       networks.createNetwork(getContext().getEnvironment().getNetwork());
 
-      for (Map.Entry<String, DockerContainerConfig> containerEntry :
-          getContext().getEnvironment().getContainers().entrySet()) {
-        checkInterruption();
-        String machineName = containerEntry.getKey();
+      startMachines();
 
-        runtimeMachines.putMachine(machineName, new DockerMachine.StartingDockerMachine());
-        sendStartingEvent(machineName);
-
-        try {
-          DockerMachine machine = startMachine(machineName, containerEntry.getValue());
-          sendRunningEvent(machineName);
-
-          bootstrapInstallers(machineName, machine);
-
-          checkServers(machineName, machine);
-        } catch (InfrastructureException e) {
-          sendFailedEvent(machineName, e.getMessage());
-          throw e;
-        }
-      }
       startSynchronizer.complete();
     } catch (InfrastructureException | InterruptedException | RuntimeException e) {
       boolean interrupted = Thread.interrupted() || e instanceof InterruptedException;
@@ -239,6 +253,159 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
     }
   }
 
+  /**
+   * Starts machines of the environment in parallel. Machine is started as soon as containers of all
+   * the machines it depends on (with {@code depends_on}, {@code links} or {@code volumes_from}) are
+   * started, so bootstrapping of installers and checks of servers of a machine overlap with starts
+   * of other machines. Not more than {@link #maxParallelStarts} machines of the workspace are
+   * started at the same time, the total number of machines started at once by all the workspaces
+   * is bounded by {@link DockerMachineStartPool}. When start of any machine fails the others are
+   * interrupted.
+   *
+   * <p>Start fails when machines left can't be started because they depend on each other, or when
+   * none of the machines being started gets its container or itself started in {@link
+   * #machineStartTimeoutMinutes}.
+   */
+  private void startMachines() throws InfrastructureException, InterruptedException {
+    Map<String, DockerContainerConfig> containers = getContext().getEnvironment().getContainers();
+    Map<String, Set<String>> dependencies = getDependencies(containers);
+    Map<String, DockerContainerConfig> pending = new LinkedHashMap<>(containers);
+    Set<String> startedContainers = new HashSet<>();
+    BlockingQueue<MachineStartEvent> events = new LinkedBlockingQueue<>();
+    List<Future<?>> tasks = new ArrayList<>(containers.size());
+    Set<String> inProgress = new HashSet<>();
+    int started = 0;
+    try {
+      while (started < containers.size()) {
+        Iterator<Map.Entry<String, DockerContainerConfig>> it = pending.entrySet().iterator();
+        while (it.hasNext() && inProgress.size() < maxParallelStarts) {
+          Map.Entry<String, DockerContainerConfig> entry = it.next();
+          if (startedContainers.containsAll(dependencies.get(entry.getKey()))) {
+            checkInterruption();
+            it.remove();
+            inProgress.add(entry.getKey());
+            tasks.add(startMachineAsync(entry.getKey(), entry.getValue(), events));
+          }
+        }
+
+        if (inProgress.isEmpty()) {
+          // machines left wait for each other
+          throw new InfrastructureException(
+              format(
+                  "Machines %s can't be started because of circular dependencies between them",
+                  pending.keySet()));
+        }
+        MachineStartEvent event = events.poll(machineStartTimeoutMinutes, MINUTES);
+        if (event == null) {
+          throw new InfrastructureException(
+              format(
+                  "Machines %s were not started in %d minutes",
+                  inProgress, machineStartTimeoutMinutes));
+        }
+        if (event.error != null) {
+          try {
+            throw event.error;
+          } catch (InfrastructureException | RuntimeException rethrow) {
+            throw rethrow;
+          } catch (Exception wrap) {
+            throw new InternalInfrastructureException(wrap.getMessage(), wrap);
+          }
+        } else if (event.containerStarted) {
+          startedContainers.add(event.machineName);
+        } else {
+          inProgress.remove(event.machineName);
+          started++;
+        }
+      }
+    } finally {
+      if (started < containers.size()) {
+        tasks.forEach(task -> task.cancel(true));
+      }
+    }
+  }
+
+  private Future<?> startMachineAsync(
+      String name, DockerContainerConfig containerConfig, BlockingQueue<MachineStartEvent> events)
+      throws InfrastructureException {
+    runtimeMachines.putMachine(name, new DockerMachine.StartingDockerMachine());
+    sendStartingEvent(name);
+
+    return startPool.submit(
+        () -> {
+          try {
+            long startTime = System.currentTimeMillis();
+            DockerMachine machine = startMachine(name, containerConfig);
+            sendRunningEvent(name);
+            long containerStartTime = System.currentTimeMillis();
+            events.add(MachineStartEvent.containerStarted(name));
+
+            bootstrapInstallers(name, machine);
+            long bootstrapTime = System.currentTimeMillis();
+
+            checkServers(name, machine);
+            long endTime = System.currentTimeMillis();
+            LOG.info(
+                "Machine '{}' of workspace '{}' started in {} ms. Container: {} ms, installers: {}"
+                    + " ms, servers: {} ms",
+                name,
+                getContext().getIdentity().getWorkspaceId(),
+                endTime - startTime,
+                containerStartTime - startTime,
+                bootstrapTime - containerStartTime,
+                endTime - bootstrapTime);
+            events.add(MachineStartEvent.machineStarted(name));
+          } catch (InfrastructureException e) {
+            sendFailedEvent(name, e.getMessage());
+            events.add(MachineStartEvent.failed(name, e));
+          } catch (InterruptedException | RuntimeException e) {
+            events.add(MachineStartEvent.failed(name, e));
+          }
+          return null;
+        });
+  }
+
+  /**
+   * Returns names of machines each machine depends on. Links and volumes are already normalized by
+   * {@link DockerEnvironmentNormalizer} at this point, so they refer to names of containers, which
+   * are resolved back to names of machines. Containers that are not a part of the environment are
+   * ignored.
+   */
+  private static Map<String, Set<String>> getDependencies(
+      Map<String, DockerContainerConfig> containers) {
+    Map<String, String> containerToMachine = new HashMap<>();
+    for (Map.Entry<String, DockerContainerConfig> entry : containers.entrySet()) {
+      if (entry.getValue().getContainerName() != null) {
+        containerToMachine.put(entry.getValue().getContainerName(), entry.getKey());
+      }
+    }
+    Map<String, Set<String>> dependencies = new HashMap<>();
+    for (Map.Entry<String, DockerContainerConfig> entry : containers.entrySet()) {
+      DockerContainerConfig config = entry.getValue();
+      Set<String> machineDependencies = new HashSet<>();
+      for (String dependsOn : config.getDependsOn()) {
+        if (containers.containsKey(dependsOn)) {
+          machineDependencies.add(dependsOn);
+        }
+      }
+      for (String link : config.getLinks()) {
+        // a link has format: 'name:alias' or 'name'
+        String machine = containerToMachine.get(link.split(":", 2)[0]);
+        if (machine != null) {
+          machineDependencies.add(machine);
+        }
+      }
+      for (String volumesFrom : config.getVolumesFrom()) {
+        String machine = containerToMachine.get(volumesFrom.split(":", 2)[0]);
+        if (machine != null) {
+          machineDependencies.add(machine);
+        }
+      }
+      machineDependencies.remove(entry.getKey());
+      dependencies.put(entry.getKey(), machineDependencies);
+    }
+    return dependencies;
+  }
+
   @Override
   protected void internalStop(Map<String, String> stopOptions) throws InfrastructureException {
     // Cancels workspace servers probes if any
@@ -434,6 +601,32 @@ public class DockerInternalRuntime extends InternalRuntime<DockerRuntimeContext>
     }
   }
 
+  /** Progress of a machine start reported to the thread which starts the runtime. */
+  private static class MachineStartEvent {
+
+    final String machineName;
+    final boolean containerStarted;
+    final Exception error;
+
+    private MachineStartEvent(String machineName, boolean containerStarted, Exception error) {
+      this.machineName = machineName;
+      this.containerStarted = containerStarted;
+      this.error = error;
+    }
+
+    static MachineStartEvent containerStarted(String machineName) {
+      return new MachineStartEvent(machineName, true, null);
+    }
+
+    static MachineStartEvent machineStarted(String machineName) {
+      return new MachineStartEvent(machineName, false, null);
+    }
+
+    static MachineStartEvent failed(String machineName, Exception error) {
+      return new MachineStartEvent(machineName, false, error);
+    }
+  }
+
   private class AbnormalMachineStopHandlerImpl implements AbnormalMachineStopHandler {
     @Override
     public void handle(String error) {
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides a bounded non-daemon {@link ExecutorService} for starts of machines of docker runtimes.
+ *
+ * <p>Start of a machine blocks a thread while its container is started, installers are
+ * bootstrapped and servers are checked, so machine starts are not executed by {@link
+ * DockerSharedPool} and don't delay the other tasks of docker infrastructure. Machines of all the
+ * workspaces are started by {@code che.infra.docker.machine_start_pool_size} threads at most, the
+ * other starts wait in the queue of the pool.
+ */
+@Singleton
+public class DockerMachineStartPool {
+
+  private final ExecutorService executor;
+
+  @Inject
+  public DockerMachineStartPool(@Named("che.infra.docker.machine_start_pool_size") int size) {
+    executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, size),
+            new ThreadFactoryBuilder()
+                .setNameFormat("DockerMachineStartPool-%d")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(false)
+                .build());
+  }
+
+  /**
+   * Delegates call to {@link ExecutorService#submit(Callable)} and propagates thread locals to it
+   * like defined by {@link ThreadLocalPropagateContext}.
+   */
+  public <T> Future<T> submit(Callable<T> callable) {
+    return executor.submit(ThreadLocalPropagateContext.wrap(callable));
+  }
+
+  @PreDestroy
+  void terminate() throws InterruptedException {
+    if (!executor.isShutdown()) {
+      executor.shutdown();
+      if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+        executor.shutdownNow();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+          LoggerFactory.getLogger(DockerMachineStartPool.class)
+              .error("Couldn't terminate docker machine start thread pool");
+        }
+      }
+    }
+  }
+}
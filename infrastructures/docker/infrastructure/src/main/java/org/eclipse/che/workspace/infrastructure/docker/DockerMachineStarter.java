@@ -158,6 +158,7 @@ public class DockerMachineStarter {
   private final boolean doForcePullImage;
   private final MachineLoggersFactory machineLoggerFactory;
   private final DockerMachineCreator machineCreator;
+  private final PulledImagesCache pulledImages;
 
   @Inject
   public DockerMachineStarter(
@@ -166,8 +167,10 @@ public class DockerMachineStarter {
       DockerMachineStopDetector dockerMachineStopDetector,
       @Named("che.docker.always_pull_image") boolean doForcePullImage,
       MachineLoggersFactory machineLogger,
-      DockerMachineCreator machineCreator) {
+      DockerMachineCreator machineCreator,
+      PulledImagesCache pulledImages) {
     this.machineCreator = machineCreator;
+    this.pulledImages = pulledImages;
     // TODO spi should we move all configuration stuff into infrastructure provisioner and left
     // logic of container start here only
     this.docker = docker;
@@ -356,7 +359,10 @@ public class DockerMachineStarter {
                 .withTag(MoreObjects.firstNonNull(dockerImageIdentifier.getTag(), LATEST_TAG))
                 .withRegistry(dockerImageIdentifier.getRegistry())
                 .withAuthConfigs(dockerCredentials.getCredentials());
-        docker.pull(pullParams, progressMonitor);
+        // pull is skipped when the image was pulled recently, e.g. by images warmer
+        pulledImages.pull(container.getImage(), () -> docker.pull(pullParams, progressMonitor));
+      } else {
+        pulledImages.markUsed(container.getImage());
       }
 
       String fullNameOfPulledImage = container.getImage();
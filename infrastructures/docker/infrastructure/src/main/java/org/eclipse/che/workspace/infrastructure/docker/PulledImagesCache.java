@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.infrastructure.docker.client.DockerConnector;
+import org.eclipse.che.infrastructure.docker.client.DockerFileException;
+import org.eclipse.che.infrastructure.docker.client.exception.ImageNotFoundException;
+import org.eclipse.che.infrastructure.docker.client.json.ImageInfo;
+import org.eclipse.che.infrastructure.docker.client.parser.DockerImageIdentifier;
+import org.eclipse.che.infrastructure.docker.client.parser.DockerImageIdentifierParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers images pulled by this Che server, so pulling of an image can be skipped while the
+ * previous pull is fresh.
+ *
+ * <p>For each pulled image the id of the local image (digest of its content) is remembered. Pull
+ * is considered fresh if it happened not longer than {@code che.docker.pulled_image_ttl_min}
+ * minutes ago and the image with the same name in docker still has the same id, i.e. it wasn't
+ * removed or replaced since then. Only one pull of an image runs at a time, other pulls of the same
+ * image wait for it to finish and then check whether it is fresh. So when the image is pulled by
+ * {@link DockerImagesWarmer} start of a machine waits for that pull instead of pulling the image
+ * again, while pulls of different images don't wait for each other.
+ */
+@Singleton
+public class PulledImagesCache {
+  private static final Logger LOG = LoggerFactory.getLogger(PulledImagesCache.class);
+
+  private final DockerConnector docker;
+  private final long ttlMs;
+  private final Map<String, PulledImage> images;
+  private final ConcurrentHashMap<String, CompletableFuture<Void>> pullsInProgress;
+
+  @Inject
+  public PulledImagesCache(
+      DockerConnector docker, @Named("che.docker.pulled_image_ttl_min") long ttlMin) {
+    this.docker = docker;
+    this.ttlMs = MINUTES.toMillis(ttlMin);
+    this.images = new ConcurrentHashMap<>();
+    this.pullsInProgress = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Pulls the image unless its previous pull is fresh.
+   *
+   * @param image name of the image as it is referenced in environment
+   * @param pull action that pulls the image
+   * @return true if the image was pulled, false if pull was skipped
+   * @throws IOException when pull fails
+   * @throws InterruptedIOException when interrupted while waiting for another pull of the image
+   */
+  public boolean pull(String image, Pull pull) throws IOException {
+    String key = normalize(image);
+    CompletableFuture<Void> ownPull = new CompletableFuture<>();
+    CompletableFuture<Void> otherPull;
+    while ((otherPull = pullsInProgress.putIfAbsent(key, ownPull)) != null) {
+      try {
+        otherPull.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for pull of image " + key);
+      } catch (ExecutionException e) {
+        // pulls in progress are always completed normally
+      }
+    }
+    try {
+      return pullIfNotFresh(key, pull);
+    } finally {
+      pullsInProgress.remove(key, ownPull);
+      ownPull.complete(null);
+    }
+  }
+
+  /** Marks the image as used by a machine, so it is kept warm by {@link DockerImagesWarmer}. */
+  public void markUsed(String image) {
+    PulledImage pulled = images.get(normalize(image));
+    if (pulled != null) {
+      pulled.usedAt = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * Returns images which were used by machines since the given time and forgets all the other
+   * images.
+   */
+  public List<String> getUsedSince(long since) {
+    images.values().removeIf(pulled -> pulled.usedAt < since);
+    return images.keySet().stream().collect(toList());
+  }
+
+  private boolean pullIfNotFresh(String key, Pull pull) throws IOException {
+    PulledImage pulled = images.get(key);
+    long now = System.currentTimeMillis();
+    if (pulled != null && now - pulled.pulledAt < ttlMs && pulled.id.equals(getLocalId(key))) {
+      pulled.usedAt = now;
+      LOG.debug("Pull of image '{}' skipped, it was pulled {}ms ago", key, now - pulled.pulledAt);
+      return false;
+    }
+    pull.pull();
+    String id = getLocalId(key);
+    if (id != null) {
+      PulledImage newPulled = new PulledImage(id, System.currentTimeMillis());
+      newPulled.usedAt = pulled != null ? Math.max(pulled.usedAt, now) : now;
+      images.put(key, newPulled);
+    }
+    return true;
+  }
+
+  private String getLocalId(String image) throws IOException {
+    try {
+      ImageInfo info = docker.inspectImage(image);
+      return info != null ? info.getId() : null;
+    } catch (ImageNotFoundException e) {
+      return null;
+    }
+  }
+
+  /** Adds {@code latest} tag to the images without tag, the same way as docker does it. */
+  static String normalize(String image) {
+    try {
+      DockerImageIdentifier identifier = DockerImageIdentifierParser.parse(image);
+      if (identifier.getTag() == null && identifier.getDigest() == null) {
+        return image + ':' + DockerMachine.LATEST_TAG;
+      }
+    } catch (DockerFileException e) {
+      // leave the name as is, pull will report the error
+    }
+    return image;
+  }
+
+  /** Pull of an image. */
+  public interface Pull {
+    void pull() throws IOException;
+  }
+
+  /** Local image id and pull time of the pulled image, and when a machine used it last time. */
+  private static class PulledImage {
+    final String id;
+    final long pulledAt;
+    volatile long usedAt;
+
+    PulledImage(String id, long pulledAt) {
+      this.id = id;
+      this.pulledAt = pulledAt;
+    }
+  }
+}
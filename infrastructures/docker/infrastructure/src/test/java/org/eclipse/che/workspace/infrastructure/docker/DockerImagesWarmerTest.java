@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.eclipse.che.infrastructure.docker.client.ProgressMonitor.DEV_NULL;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Collections;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.RecipeImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
+import org.eclipse.che.api.workspace.server.model.impl.stack.StackImpl;
+import org.eclipse.che.api.workspace.server.spi.StackDao;
+import org.eclipse.che.api.workspace.server.spi.environment.InternalEnvironment;
+import org.eclipse.che.api.workspace.server.spi.environment.InternalEnvironmentFactory;
+import org.eclipse.che.infrastructure.docker.client.DockerConnector;
+import org.eclipse.che.infrastructure.docker.client.params.PullParams;
+import org.eclipse.che.workspace.infrastructure.docker.environment.convert.DockerEnvironmentConverter;
+import org.eclipse.che.workspace.infrastructure.docker.model.DockerContainerConfig;
+import org.eclipse.che.workspace.infrastructure.docker.model.DockerEnvironment;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link DockerImagesWarmer}. */
+@Listeners(MockitoTestNGListener.class)
+public class DockerImagesWarmerTest {
+
+  private static final String RECIPE_TYPE = "compose";
+
+  @Mock private StackDao stackDao;
+  @Mock private DockerConnector docker;
+  @Mock private PulledImagesCache pulledImages;
+  @Mock private InternalEnvironmentFactory envFactory;
+  @Mock private DockerEnvironmentConverter envConverter;
+  @Mock private InternalEnvironment internalEnv;
+
+  private DockerImagesWarmer warmer;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    warmer =
+        new DockerImagesWarmer(
+            stackDao,
+            docker,
+            pulledImages,
+            singletonMap(RECIPE_TYPE, envFactory),
+            singletonMap(RECIPE_TYPE, envConverter),
+            2);
+    when(pulledImages.getUsedSince(anyLong())).thenReturn(emptyList());
+    when(stackDao.searchStacks(isNull(), isNull(), anyInt(), anyInt())).thenReturn(emptyList());
+    doAnswer(
+            invocation -> {
+              invocation.<PulledImagesCache.Pull>getArgument(1).pull();
+              return true;
+            })
+        .when(pulledImages)
+        .pull(anyString(), any(PulledImagesCache.Pull.class));
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    warmer.shutdown();
+  }
+
+  @Test
+  public void pullsImagesOfStacks() throws Exception {
+    when(stackDao.searchStacks(isNull(), isNull(), eq(0), anyInt()))
+        .thenReturn(singletonList(stack(RECIPE_TYPE)));
+    when(envFactory.create(any(EnvironmentImpl.class))).thenReturn(internalEnv);
+    when(envConverter.convert(internalEnv))
+        .thenReturn(dockerEnvironment("eclipse/ubuntu_jdk8", "eclipse/node:1.0"));
+
+    warmer.run();
+
+    verify(docker).pull(PullParams.create("eclipse/ubuntu_jdk8").withTag("latest"), DEV_NULL);
+    verify(docker).pull(PullParams.create("eclipse/node").withTag("1.0"), DEV_NULL);
+  }
+
+  @Test
+  public void pullsRecentlyUsedImages() throws Exception {
+    when(pulledImages.getUsedSince(anyLong())).thenReturn(singletonList("eclipse/ubuntu:16.04"));
+
+    warmer.run();
+
+    verify(docker).pull(PullParams.create("eclipse/ubuntu").withTag("16.04"), DEV_NULL);
+  }
+
+  @Test
+  public void skipsStacksWithUnsupportedRecipeType() throws Exception {
+    when(stackDao.searchStacks(isNull(), isNull(), eq(0), anyInt()))
+        .thenReturn(singletonList(stack("kubernetes")));
+
+    warmer.run();
+
+    verify(envFactory, never()).create(any());
+    verify(pulledImages, never()).pull(anyString(), any(PulledImagesCache.Pull.class));
+  }
+
+  @Test
+  public void continuesWarmingWhenPullOfImageFails() throws Exception {
+    when(pulledImages.getUsedSince(anyLong()))
+        .thenReturn(asList("eclipse/ubuntu:16.04", "eclipse/node:1.0"));
+    doThrow(new IOException("pull failed"))
+        .when(docker)
+        .pull(PullParams.create("eclipse/ubuntu").withTag("16.04"), DEV_NULL);
+
+    warmer.run();
+
+    verify(docker).pull(PullParams.create("eclipse/node").withTag("1.0"), DEV_NULL);
+  }
+
+  private static StackImpl stack(String recipeType) {
+    EnvironmentImpl environment =
+        new EnvironmentImpl(
+            new RecipeImpl(recipeType, "application/x-yaml", "content", null),
+            Collections.emptyMap());
+    return StackImpl.builder()
+        .setId("stack1")
+        .setWorkspaceConfig(
+            WorkspaceConfigImpl.builder()
+                .setName("ws")
+                .setDefaultEnv("default")
+                .setEnvironments(singletonMap("default", environment))
+                .build())
+        .build();
+  }
+
+  private static DockerEnvironment dockerEnvironment(String... images) {
+    DockerEnvironment environment = new DockerEnvironment();
+    for (int i = 0; i < images.length; i++) {
+      environment
+          .getContainers()
+          .put("machine" + i, new DockerContainerConfig().setImage(images[i]));
+    }
+    return environment;
+  }
+}
@@ -10,6 +10,7 @@
  */
 package org.eclipse.che.workspace.infrastructure.docker;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
@@ -40,6 +41,13 @@ import com.google.common.collect.Maps;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import org.eclipse.che.api.core.model.workspace.runtime.MachineStatus;
 import org.eclipse.che.api.core.model.workspace.runtime.RuntimeIdentity;
@@ -74,6 +82,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -101,16 +110,23 @@ public class DockerInternalRuntimeTest {
   @Mock private ProbeScheduler probesScheduler;
   @Mock private WorkspaceProbes workspaceProbes;
   @Mock private DockerMachine dockerMachine;
+  @Mock private DockerMachineStartPool startPool;
 
   @Captor private ArgumentCaptor<Consumer<ProbeResult>> probeResultConsumerCaptor;
   @Captor private ArgumentCaptor<MachineStatusEvent> eventCaptor;
 
+  private ServersCheckerFactory serversCheckerFactory;
+  private ExecutorService executor;
+  private DockerContainerConfig config1;
   private DockerInternalRuntime dockerRuntime;
 
   @BeforeMethod
   public void setup() throws Exception {
     MockitoAnnotations.initMocks(this);
-    final DockerContainerConfig config1 = new DockerContainerConfig();
+    executor = Executors.newCachedThreadPool();
+    when(startPool.submit(any()))
+        .thenAnswer(inv -> executor.submit((Callable<?>) inv.getArgument(0)));
+    config1 = new DockerContainerConfig();
     final DockerContainerConfig config2 = new DockerContainerConfig();
     final InternalMachineConfig internalMachineCfg1 = mock(InternalMachineConfig.class);
     when(internalMachineCfg1.getInstallers()).thenReturn(singletonList(newInstaller(1)));
@@ -128,24 +144,17 @@ public class DockerInternalRuntimeTest {
     doNothing().when(networks).createNetwork(nullable(String.class));
     when(runtimeContext.getIdentity()).thenReturn(IDENTITY);
     when(runtimeContext.getEnvironment()).thenReturn(environment);
-    ServersCheckerFactory serversCheckerFactory = mock(ServersCheckerFactory.class);
+    serversCheckerFactory = mock(ServersCheckerFactory.class);
     when(serversCheckerFactory.create(any(), nullable(String.class), any()))
         .thenReturn(mock(ServersChecker.class));
     when(workspaceProbesFactory.getProbes(eq(IDENTITY.getWorkspaceId()), anyString(), any()))
         .thenReturn(workspaceProbes);
-    dockerRuntime =
-        new DockerInternalRuntime(
-            runtimeContext,
-            emptyList(),
-            mock(ExternalIpURLRewriter.class),
-            networks,
-            starter,
-            eventService,
-            bootstrapperFactory,
-            serversCheckerFactory,
-            mock(MachineLoggersFactory.class),
-            probesScheduler,
-            workspaceProbesFactory);
+    dockerRuntime = newRuntime(1);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    executor.shutdownNow();
   }
 
   @Test
@@ -238,10 +247,11 @@ public class DockerInternalRuntimeTest {
   public void throwsInterruptionExceptionWhenThreadInterruptedOnStarFailedBeforeDestroying()
       throws Exception {
     final String msg = "container start failed";
+    final Thread startThread = Thread.currentThread();
     mockInstallersBootstrap();
     doAnswer(
             invocationOnMock -> {
-              Thread.currentThread().interrupt();
+              startThread.interrupt();
               throw new InfrastructureException(msg);
             })
         .when(starter)
@@ -309,6 +319,155 @@ public class DockerInternalRuntimeTest {
     verify(probesScheduler).schedule(eq(m2Probes), any());
   }
 
+  @Test
+  public void startsIndependentMachinesInParallel() throws Exception {
+    dockerRuntime = newRuntime(2);
+    mockInstallersBootstrap();
+    CountDownLatch bothStarting = new CountDownLatch(2);
+    when(starter.startContainer(
+            nullable(String.class),
+            nullable(String.class),
+            nullable(DockerContainerConfig.class),
+            nullable(RuntimeIdentity.class),
+            nullable(AbnormalMachineStopHandler.class)))
+        .thenAnswer(
+            invocationOnMock -> {
+              bothStarting.countDown();
+              if (!bothStarting.await(5, TimeUnit.SECONDS)) {
+                throw new InfrastructureException("Machines are not started in parallel");
+              }
+              return dockerMachine;
+            });
+
+    dockerRuntime.start(emptyMap());
+
+    verify(starter, times(2))
+        .startContainer(nullable(String.class), nullable(String.class), any(), any(), any());
+  }
+
+  @Test
+  public void startsNotMoreMachinesAtOnceThanAllowed() throws Exception {
+    dockerRuntime = newRuntime(1);
+    mockInstallersBootstrap();
+    AtomicInteger starting = new AtomicInteger();
+    AtomicInteger maxStarting = new AtomicInteger();
+    when(starter.startContainer(
+            nullable(String.class),
+            nullable(String.class),
+            nullable(DockerContainerConfig.class),
+            nullable(RuntimeIdentity.class),
+            nullable(AbnormalMachineStopHandler.class)))
+        .thenAnswer(
+            invocationOnMock -> {
+              maxStarting.accumulateAndGet(starting.incrementAndGet(), Math::max);
+              TimeUnit.MILLISECONDS.sleep(100);
+              starting.decrementAndGet();
+              return dockerMachine;
+            });
+
+    dockerRuntime.start(emptyMap());
+
+    verify(starter, times(2))
+        .startContainer(nullable(String.class), nullable(String.class), any(), any(), any());
+    assertEquals(maxStarting.get(), 1);
+  }
+
+  @Test(
+    expectedExceptions = InfrastructureException.class,
+    expectedExceptionsMessageRegExp = ".* can't be started because of circular dependencies .*"
+  )
+  public void failsStartWhenMachinesDependOnEachOther() throws Exception {
+    config1.setDependsOn(singletonList(DB_MACHINE));
+    DockerContainerConfig config2 =
+        runtimeContext.getEnvironment().getContainers().get(DB_MACHINE);
+    config2.setDependsOn(singletonList(DEV_MACHINE));
+
+    try {
+      dockerRuntime.start(emptyMap());
+    } catch (InfrastructureException ex) {
+      verify(starter, never())
+          .startContainer(nullable(String.class), nullable(String.class), any(), any(), any());
+      throw ex;
+    }
+  }
+
+  @Test(
+    expectedExceptions = InfrastructureException.class,
+    expectedExceptionsMessageRegExp = "Machines \\[DEV_MACHINE\\] were not started in 0 minutes"
+  )
+  public void failsStartWhenMachineIsNotStartedInTime() throws Exception {
+    dockerRuntime = newRuntime(1, 0);
+    // container start hangs until it is interrupted
+    CountDownLatch neverReleased = new CountDownLatch(1);
+    when(starter.startContainer(
+            nullable(String.class),
+            nullable(String.class),
+            nullable(DockerContainerConfig.class),
+            nullable(RuntimeIdentity.class),
+            nullable(AbnormalMachineStopHandler.class)))
+        .thenAnswer(
+            invocationOnMock -> {
+              neverReleased.await();
+              return dockerMachine;
+            });
+
+    dockerRuntime.start(emptyMap());
+  }
+
+  @Test
+  public void startsMachineWhenContainersOfItsDependenciesAreStarted() throws Exception {
+    config1.setDependsOn(singletonList(DB_MACHINE));
+    dockerRuntime = newRuntime(2);
+    List<String> startedContainers = new CopyOnWriteArrayList<>();
+    when(starter.startContainer(
+            nullable(String.class),
+            nullable(String.class),
+            nullable(DockerContainerConfig.class),
+            nullable(RuntimeIdentity.class),
+            nullable(AbnormalMachineStopHandler.class)))
+        .thenAnswer(
+            invocationOnMock -> {
+              startedContainers.add(invocationOnMock.getArgument(1));
+              return dockerMachine;
+            });
+    // installers of the dependency are bootstrapped while dependent machine is started
+    CountDownLatch devStarted = new CountDownLatch(1);
+    DockerBootstrapper devBootstrapper = mock(DockerBootstrapper.class);
+    doAnswer(
+            invocationOnMock -> {
+              devStarted.countDown();
+              return null;
+            })
+        .when(devBootstrapper)
+        .bootstrap();
+    DockerBootstrapper dbBootstrapper = mock(DockerBootstrapper.class);
+    doAnswer(
+            invocationOnMock -> {
+              if (!devStarted.await(5, TimeUnit.SECONDS)) {
+                throw new InfrastructureException("Dependent machine is not started");
+              }
+              return null;
+            })
+        .when(dbBootstrapper)
+        .bootstrap();
+    when(bootstrapperFactory.create(
+            eq(DEV_MACHINE),
+            nullable(RuntimeIdentity.class),
+            anyList(),
+            nullable(DockerMachine.class)))
+        .thenReturn(devBootstrapper);
+    when(bootstrapperFactory.create(
+            eq(DB_MACHINE),
+            nullable(RuntimeIdentity.class),
+            anyList(),
+            nullable(DockerMachine.class)))
+        .thenReturn(dbBootstrapper);
+
+    dockerRuntime.start(emptyMap());
+
+    assertEquals(startedContainers, asList(DB_MACHINE, DEV_MACHINE));
+  }
+
   @Test(dataProvider = "serverProbeReactionProvider")
   public void updatesServerStatusOnProbeResult(
       ProbeStatus probeStatus,
@@ -354,6 +513,28 @@ public class DockerInternalRuntimeTest {
     };
   }
 
+  private DockerInternalRuntime newRuntime(int maxParallelStarts) {
+    return newRuntime(maxParallelStarts, 10);
+  }
+
+  private DockerInternalRuntime newRuntime(int maxParallelStarts, int machineStartTimeoutMinutes) {
+    return new DockerInternalRuntime(
+        runtimeContext,
+        emptyList(),
+        mock(ExternalIpURLRewriter.class),
+        networks,
+        starter,
+        eventService,
+        bootstrapperFactory,
+        serversCheckerFactory,
+        mock(MachineLoggersFactory.class),
+        probesScheduler,
+        workspaceProbesFactory,
+        startPool,
+        maxParallelStarts,
+        machineStartTimeoutMinutes);
+  }
+
   private void verifyEventsOrder(MachineStatusEvent... expectedEvents) {
     final Iterator<MachineStatusEvent> actualEvents = captureEvents().iterator();
     for (MachineStatusEvent expected : expectedEvents) {
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link DockerMachineStartPool}. */
+public class DockerMachineStartPoolTest {
+
+  private DockerMachineStartPool pool;
+
+  @BeforeMethod
+  public void setUp() {
+    pool = new DockerMachineStartPool(2);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    pool.terminate();
+  }
+
+  @Test(timeOut = 10_000)
+  public void runsNotMoreStartsAtOnceThanPoolSize() throws Exception {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    CountDownLatch twoRunning = new CountDownLatch(2);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Future<Void>> starts = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      starts.add(
+          pool.submit(
+              () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                twoRunning.countDown();
+                release.await();
+                running.decrementAndGet();
+                return null;
+              }));
+    }
+
+    assertTrue(twoRunning.await(5, TimeUnit.SECONDS));
+    TimeUnit.MILLISECONDS.sleep(200);
+    assertFalse(starts.get(2).isDone());
+    assertEquals(running.get(), 2);
+
+    release.countDown();
+    for (Future<Void> start : starts) {
+      start.get();
+    }
+    assertEquals(maxRunning.get(), 2);
+  }
+
+  @Test(timeOut = 10_000)
+  public void runsStartsWithAtLeastOneThread() throws Exception {
+    pool.terminate();
+    pool = new DockerMachineStartPool(0);
+
+    assertEquals(pool.submit(() -> "started").get(), "started");
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.docker;
+
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.che.infrastructure.docker.client.DockerConnector;
+import org.eclipse.che.infrastructure.docker.client.exception.ImageNotFoundException;
+import org.eclipse.che.infrastructure.docker.client.json.ImageInfo;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link PulledImagesCache}. */
+@Listeners(MockitoTestNGListener.class)
+public class PulledImagesCacheTest {
+
+  private static final String IMAGE = "eclipse/ubuntu_jdk8";
+  private static final String IMAGE_LATEST = IMAGE + ":latest";
+
+  @Mock private DockerConnector docker;
+  @Mock private PulledImagesCache.Pull pull;
+
+  private PulledImagesCache cache;
+  private ExecutorService executor;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    cache = new PulledImagesCache(docker, 30);
+    ImageInfo info = mock(ImageInfo.class);
+    when(info.getId()).thenReturn("sha256:1");
+    when(docker.inspectImage(IMAGE_LATEST)).thenReturn(info);
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void pullsImageWhichWasNotPulledBefore() throws Exception {
+    assertTrue(cache.pull(IMAGE, pull));
+
+    verify(pull).pull();
+  }
+
+  @Test
+  public void skipsPullWhenPreviousPullIsFresh() throws Exception {
+    cache.pull(IMAGE, pull);
+
+    assertFalse(cache.pull(IMAGE_LATEST, pull));
+
+    verify(pull, times(1)).pull();
+  }
+
+  @Test
+  public void pullsImageAgainWhenLocalImageIsReplaced() throws Exception {
+    cache.pull(IMAGE, pull);
+    ImageInfo replaced = mock(ImageInfo.class);
+    when(replaced.getId()).thenReturn("sha256:2");
+    when(docker.inspectImage(IMAGE_LATEST)).thenReturn(replaced);
+
+    assertTrue(cache.pull(IMAGE, pull));
+
+    verify(pull, times(2)).pull();
+  }
+
+  @Test
+  public void pullsImageAgainWhenLocalImageIsRemoved() throws Exception {
+    cache.pull(IMAGE, pull);
+    when(docker.inspectImage(IMAGE_LATEST)).thenThrow(new ImageNotFoundException("not found"));
+
+    assertTrue(cache.pull(IMAGE, pull));
+
+    verify(pull, times(2)).pull();
+  }
+
+  @Test
+  public void pullsImageAgainWhenPreviousPullIsExpired() throws Exception {
+    cache = new PulledImagesCache(docker, 0);
+    cache.pull(IMAGE, pull);
+
+    assertTrue(cache.pull(IMAGE, pull));
+
+    verify(pull, times(2)).pull();
+  }
+
+  @Test
+  public void doesNotRememberFailedPull() throws Exception {
+    when(docker.inspectImage(IMAGE_LATEST)).thenThrow(new ImageNotFoundException("not found"));
+
+    cache.pull(IMAGE, pull);
+
+    assertEquals(cache.getUsedSince(0), Collections.emptyList());
+  }
+
+  @Test
+  public void returnsRecentlyUsedImages() throws Exception {
+    cache.pull(IMAGE, pull);
+    long afterPull = System.currentTimeMillis() + 1;
+
+    assertEquals(cache.getUsedSince(0), Collections.singletonList(IMAGE_LATEST));
+    assertEquals(cache.getUsedSince(afterPull), Collections.emptyList());
+    // images which weren't used are forgotten
+    assertEquals(cache.getUsedSince(0), Collections.emptyList());
+  }
+
+  @Test
+  public void waitsForPullOfTheSameImageInsteadOfPullingItAgain() throws Exception {
+    CountDownLatch pullStarted = new CountDownLatch(1);
+    CountDownLatch releasePull = new CountDownLatch(1);
+    PulledImagesCache.Pull blockingPull = mock(PulledImagesCache.Pull.class);
+    doAnswer(
+            invocation -> {
+              pullStarted.countDown();
+              releasePull.await();
+              return null;
+            })
+        .when(blockingPull)
+        .pull();
+    Future<Boolean> firstPull = executor.submit(() -> cache.pull(IMAGE, blockingPull));
+    assertTrue(pullStarted.await(5, TimeUnit.SECONDS));
+
+    Thread releaser =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(200);
+              } catch (InterruptedException ignored) {
+              }
+              releasePull.countDown();
+            });
+    releaser.start();
+    boolean pulled = cache.pull(IMAGE_LATEST, pull);
+
+    assertTrue(firstPull.get(5, TimeUnit.SECONDS));
+    assertFalse(pulled);
+    verify(pull, never()).pull();
+  }
+
+  @Test
+  public void doesNotWaitForPullOfAnotherImage() throws Exception {
+    ImageInfo otherInfo = mock(ImageInfo.class);
+    when(otherInfo.getId()).thenReturn("sha256:other");
+    when(docker.inspectImage("eclipse/node:latest")).thenReturn(otherInfo);
+    CountDownLatch pullStarted = new CountDownLatch(1);
+    CountDownLatch releasePull = new CountDownLatch(1);
+    PulledImagesCache.Pull blockingPull = mock(PulledImagesCache.Pull.class);
+    doAnswer(
+            invocation -> {
+              pullStarted.countDown();
+              releasePull.await();
+              return null;
+            })
+        .when(blockingPull)
+        .pull();
+    Future<Boolean> firstPull = executor.submit(() -> cache.pull(IMAGE, blockingPull));
+    assertTrue(pullStarted.await(5, TimeUnit.SECONDS));
+
+    try {
+      assertTrue(cache.pull("eclipse/node", pull));
+      verify(pull).pull();
+    } finally {
+      releasePull.countDown();
+    }
+    assertTrue(firstPull.get(5, TimeUnit.SECONDS));
+  }
+}
@@ -11,7 +11,10 @@
 package org.eclipse.che.workspace.infrastructure.openshift;
 
 import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
 import static java.util.Collections.emptyMap;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
@@ -23,10 +26,14 @@ import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.client.Watcher.Action;
 import io.fabric8.openshift.api.model.Route;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -133,18 +140,29 @@ public class OpenShiftInternalRuntime extends InternalRuntime<OpenShiftRuntimeCo
 
       createPods(createdServices, createdRoutes);
 
-      // TODO Rework it to parallel waiting https://github.com/eclipse/che/issues/7067
-      for (OpenShiftMachine machine : machines.values()) {
-        try {
-          machine.waitRunning(machineStartTimeoutMin);
-          machine.setStatus(MachineStatus.RUNNING);
-          sendRunningEvent(machine.getName());
-          bootstrapMachine(machine);
-          checkMachineServers(machine);
-        } catch (InfrastructureException rethrow) {
-          sendFailedEvent(machine.getName(), rethrow.getMessage());
-          throw rethrow;
+      // pods of all the machines are waited concurrently through the shared pods watch,
+      // machines are bootstrapped in order as soon as their pods are running
+      final Map<String, CompletableFuture<Pod>> runningFutures = new HashMap<>();
+      final long deadline = currentTimeMillis() + MINUTES.toMillis(machineStartTimeoutMin);
+      try {
+        for (OpenShiftMachine machine : machines.values()) {
+          runningFutures.put(machine.getName(), machine.waitRunningAsync());
+        }
+        for (OpenShiftMachine machine : machines.values()) {
+          try {
+            waitRunning(machine, runningFutures.get(machine.getName()), deadline);
+            machine.setStatus(MachineStatus.RUNNING);
+            sendRunningEvent(machine.getName());
+            bootstrapMachine(machine);
+            checkMachineServers(machine);
+          } catch (InfrastructureException rethrow) {
+            sendFailedEvent(machine.getName(), rethrow.getMessage());
+            throw rethrow;
+          }
         }
+      } finally {
+        // stops waiting for the rest of the pods if start failed
+        runningFutures.values().forEach(future -> future.cancel(true));
       }
     } catch (InfrastructureException | RuntimeException | InterruptedException e) {
       LOG.warn(
@@ -188,6 +206,27 @@ public class OpenShiftInternalRuntime extends InternalRuntime<OpenShiftRuntimeCo
     return emptyMap();
   }
 
+  /**
+   * Waits until pod of the machine is running.
+   *
+   * @param machine the OpenShift machine instance
+   * @param running future which is completed when the pod of the machine is running
+   * @param deadline time in milliseconds when waiting for all the machines reaches timeout
+   * @throws InfrastructureException when pod failed to start or timeout is reached
+   * @throws InterruptedException when waiting was interrupted
+   */
+  private void waitRunning(OpenShiftMachine machine, CompletableFuture<Pod> running, long deadline)
+      throws InfrastructureException, InterruptedException {
+    try {
+      running.get(Math.max(deadline - currentTimeMillis(), 0), MILLISECONDS);
+    } catch (ExecutionException e) {
+      throw new InfrastructureException(e.getCause().getMessage(), e);
+    } catch (TimeoutException e) {
+      throw new InfrastructureException(
+          "Waiting for pod '" + machine.getPodName() + "' reached timeout");
+    }
+  }
+
   /**
    * Bootstraps machine.
    *
@@ -11,8 +11,10 @@
 package org.eclipse.che.workspace.infrastructure.openshift;
 
 import com.google.common.collect.ImmutableMap;
+import io.fabric8.kubernetes.api.model.Pod;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.eclipse.che.api.core.model.workspace.runtime.Machine;
 import org.eclipse.che.api.core.model.workspace.runtime.MachineStatus;
 import org.eclipse.che.api.core.model.workspace.runtime.Server;
@@ -105,12 +107,16 @@ public class OpenShiftMachine implements Machine {
     project.pods().exec(podName, containerName, EXEC_TIMEOUT_MIN, command);
   }
 
-  public void waitRunning(int timeoutMin) throws InfrastructureException {
-    project
+  /**
+   * Asynchronously waits until pod of the machine is running.
+   *
+   * @return future which is completed when the pod is running, cancelling of the future stops
+   *     waiting
+   * @throws InfrastructureException when waiting can't be started
+   */
+  public CompletableFuture<Pod> waitRunningAsync() throws InfrastructureException {
+    return project
         .pods()
-        .wait(
-            podName,
-            timeoutMin,
-            p -> (OPENSHIFT_POD_STATUS_RUNNING.equals(p.getStatus().getPhase())));
+        .waitAsync(podName, p -> (OPENSHIFT_POD_STATUS_RUNNING.equals(p.getStatus().getPhase())));
   }
 }
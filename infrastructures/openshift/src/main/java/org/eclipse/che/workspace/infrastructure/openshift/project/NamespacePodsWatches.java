@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.openshift.project;
+
+import static org.eclipse.che.workspace.infrastructure.openshift.Constants.CHE_WORKSPACE_ID_LABEL;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
+import org.eclipse.che.workspace.infrastructure.openshift.OpenShiftClientFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a single pods watch per OpenShift namespace and routes its events to the watchers of the
+ * workspaces by the value of {@link
+ * org.eclipse.che.workspace.infrastructure.openshift.Constants#CHE_WORKSPACE_ID_LABEL} label of
+ * the pod, so the number of open watches doesn't grow with the number of the workspaces which
+ * share the namespace.
+ *
+ * <p>Namespace watch is opened by the first subscription and closed when the last subscriber
+ * leaves. If the watch is closed unexpectedly all its subscribers are notified with {@link
+ * Watcher#onClose(KubernetesClientException)} and the next subscription opens a new watch.
+ */
+@Singleton
+public class NamespacePodsWatches {
+
+  private static final Logger LOG = LoggerFactory.getLogger(NamespacePodsWatches.class);
+
+  private final OpenShiftClientFactory clientFactory;
+  private final Map<String, NamespaceWatch> watches;
+
+  @Inject
+  public NamespacePodsWatches(OpenShiftClientFactory clientFactory) {
+    this.clientFactory = clientFactory;
+    this.watches = new HashMap<>();
+  }
+
+  /**
+   * Subscribes the given watcher to the events of the pods of the workspace in the namespace,
+   * opens the watch of the namespace if it is not opened yet.
+   *
+   * @param namespace namespace where the pods are watched
+   * @param workspaceId value of the workspace id label of the pods which events are routed to the
+   *     watcher
+   * @param watcher watcher to subscribe
+   * @throws InfrastructureException if the watch of the namespace can't be opened
+   */
+  public synchronized void subscribe(String namespace, String workspaceId, Watcher<Pod> watcher)
+      throws InfrastructureException {
+    NamespaceWatch namespaceWatch = watches.get(namespace);
+    if (namespaceWatch == null) {
+      namespaceWatch = new NamespaceWatch(namespace);
+      try {
+        namespaceWatch.watch =
+            clientFactory.create().pods().inNamespace(namespace).watch(namespaceWatch);
+      } catch (KubernetesClientException ex) {
+        throw new InfrastructureException(ex.getMessage());
+      }
+      watches.put(namespace, namespaceWatch);
+    }
+    namespaceWatch.subscribers
+        .computeIfAbsent(workspaceId, id -> new CopyOnWriteArraySet<>())
+        .add(watcher);
+  }
+
+  /**
+   * Unsubscribes the given watcher, closes the watch of the namespace if no subscribers are left.
+   */
+  public void unsubscribe(String namespace, String workspaceId, Watcher<Pod> watcher) {
+    Watch toClose = null;
+    synchronized (this) {
+      NamespaceWatch namespaceWatch = watches.get(namespace);
+      if (namespaceWatch == null) {
+        return;
+      }
+      namespaceWatch.subscribers.computeIfPresent(
+          workspaceId,
+          (id, workspaceWatchers) -> {
+            workspaceWatchers.remove(watcher);
+            return workspaceWatchers.isEmpty() ? null : workspaceWatchers;
+          });
+      if (namespaceWatch.subscribers.isEmpty()) {
+        watches.remove(namespace);
+        toClose = namespaceWatch.watch;
+      }
+    }
+    if (toClose != null) {
+      try {
+        toClose.close();
+      } catch (KubernetesClientException ex) {
+        LOG.error(
+            "Failed to stop pod watcher for namespace '{}' cause '{}'", namespace, ex.getMessage());
+      }
+    }
+  }
+
+  /** Watch of the pods of a single namespace which dispatches events to its subscribers. */
+  private class NamespaceWatch implements Watcher<Pod> {
+
+    private final String namespace;
+    private final Map<String, Set<Watcher<Pod>>> subscribers;
+    private Watch watch;
+
+    private NamespaceWatch(String namespace) {
+      this.namespace = namespace;
+      this.subscribers = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void eventReceived(Action action, Pod pod) {
+      ObjectMeta metadata = pod.getMetadata();
+      if (metadata == null || metadata.getLabels() == null) {
+        return;
+      }
+      String workspaceId = metadata.getLabels().get(CHE_WORKSPACE_ID_LABEL);
+      if (workspaceId == null) {
+        return;
+      }
+      Set<Watcher<Pod>> workspaceWatchers = subscribers.get(workspaceId);
+      if (workspaceWatchers != null) {
+        workspaceWatchers.forEach(w -> w.eventReceived(action, pod));
+      }
+    }
+
+    @Override
+    public void onClose(KubernetesClientException cause) {
+      final List<Watcher<Pod>> toNotify = new ArrayList<>();
+      synchronized (NamespacePodsWatches.this) {
+        // watch is closed unexpectedly, the next subscription opens a new one
+        if (watches.remove(namespace, this)) {
+          subscribers.values().forEach(toNotify::addAll);
+          subscribers.clear();
+        }
+      }
+      // subscribers are notified outside of the lock as they may subscribe again
+      toNotify.forEach(w -> w.onClose(cause));
+    }
+  }
+}
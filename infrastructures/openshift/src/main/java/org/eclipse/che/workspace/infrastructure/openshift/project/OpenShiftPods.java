@@ -21,6 +21,7 @@ import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.Watch;
 import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.Watcher.Action;
 import io.fabric8.kubernetes.client.dsl.ExecListener;
 import io.fabric8.kubernetes.client.dsl.ExecWatch;
 import io.fabric8.kubernetes.client.dsl.PodResource;
@@ -74,13 +75,19 @@ public class OpenShiftPods {
   private final ConcurrentLinkedQueue<PodActionHandler> podActionHandlers;
   private final ConcurrentLinkedQueue<ContainerEventHandler> containerEventsHandlers;
   private final String workspaceId;
-  private Watch podWatch;
+  private final NamespacePodsWatches podsWatches;
+  private PodsWatcher podsWatcher;
   private Watch containerWatch;
 
-  OpenShiftPods(String namespace, String workspaceId, OpenShiftClientFactory clientFactory) {
+  OpenShiftPods(
+      String namespace,
+      String workspaceId,
+      OpenShiftClientFactory clientFactory,
+      NamespacePodsWatches podsWatches) {
     this.namespace = namespace;
     this.workspaceId = workspaceId;
     this.clientFactory = clientFactory;
+    this.podsWatches = podsWatches;
     this.containerEventsHandlers = new ConcurrentLinkedQueue<>();
     this.podActionHandlers = new ConcurrentLinkedQueue<>();
   }
@@ -144,90 +151,79 @@ public class OpenShiftPods {
    * @throws InfrastructureException when specified timeout is reached
    * @throws InfrastructureException when {@link Thread} is interrupted while waiting
    * @throws InfrastructureException when any other exception occurs
+   * @see #waitAsync(String, Predicate)
    */
   public Pod wait(String name, int timeoutMin, Predicate<Pod> predicate)
       throws InfrastructureException {
-    CompletableFuture<Pod> future = new CompletableFuture<>();
-    Watch watch = null;
+    CompletableFuture<Pod> future = waitAsync(name, predicate);
     try {
-      PodResource<Pod, DoneablePod> podResource =
-          clientFactory.create().pods().inNamespace(namespace).withName(name);
-
-      watch =
-          podResource.watch(
-              new Watcher<Pod>() {
-                @Override
-                public void eventReceived(Action action, Pod pod) {
-                  if (predicate.test(pod)) {
-                    future.complete(pod);
-                  }
-                }
-
-                @Override
-                public void onClose(KubernetesClientException cause) {
-                  future.completeExceptionally(
-                      new InfrastructureException(
-                          "Waiting for pod '" + name + "' was interrupted"));
-                }
-              });
+      return future.get(timeoutMin, TimeUnit.MINUTES);
+    } catch (ExecutionException e) {
+      throw new InfrastructureException(e.getCause().getMessage(), e);
+    } catch (TimeoutException e) {
+      throw new InfrastructureException("Waiting for pod '" + name + "' reached timeout");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InfrastructureException("Waiting for pod '" + name + "' was interrupted");
+    } finally {
+      // stops waiting if the pod is not ready yet
+      future.cancel(true);
+    }
+  }
 
-      Pod actualPod = podResource.get();
+  /**
+   * Asynchronously waits until pod state will suit for specified predicate.
+   *
+   * <p>Waiting doesn't open a separate watch, it subscribes to the pods watch of the namespace
+   * which is shared by all the waits and {@link #watch(PodActionHandler) pod action handlers}.
+   * Waiting stops when the returned future is completed or cancelled, the subscription is removed
+   * when the last wait stops and no pod action handler is registered. As only the events of the
+   * pods labeled with the workspace id are routed to the workspace, changes of other pods are not
+   * tracked, for such pod only its state at the moment of the call is checked.
+   *
+   * @param name name of pod that should be watched
+   * @param predicate predicate to perform state check
+   * @return future which is completed with the pod that suit for specified predicate, or
+   *     exceptionally when the pod doesn't exist or the watch is closed
+   * @throws InfrastructureException when the watch can't be started
+   */
+  public CompletableFuture<Pod> waitAsync(String name, Predicate<Pod> predicate)
+      throws InfrastructureException {
+    PodWaiter waiter = new PodWaiter(name, predicate);
+    watch(waiter);
+    waiter.future.whenComplete((pod, error) -> unsubscribe(waiter));
+    try {
+      // pod may reach the state before the waiter is subscribed
+      Pod actualPod = clientFactory.create().pods().inNamespace(namespace).withName(name).get();
       if (actualPod == null) {
-        throw new InfrastructureException("Specified pod " + name + " doesn't exist");
-      }
-      if (predicate.test(actualPod)) {
-        return actualPod;
-      }
-      try {
-        return future.get(timeoutMin, TimeUnit.MINUTES);
-      } catch (ExecutionException e) {
-        throw new InfrastructureException(e.getCause().getMessage(), e);
-      } catch (TimeoutException e) {
-        throw new InfrastructureException("Waiting for pod '" + name + "' reached timeout");
-      } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
-        throw new InfrastructureException("Waiting for pod '" + name + "' was interrupted");
+        waiter.future.completeExceptionally(
+            new InfrastructureException("Specified pod " + name + " doesn't exist"));
+      } else if (predicate.test(actualPod)) {
+        waiter.future.complete(actualPod);
       }
     } catch (KubernetesClientException e) {
-      throw new InfrastructureException(e.getMessage(), e);
-    } finally {
-      if (watch != null) {
-        watch.close();
-      }
+      waiter.future.completeExceptionally(new InfrastructureException(e.getMessage(), e));
     }
+    return waiter.future;
   }
 
   /**
-   * Starts watching the pods inside OpenShift namespace and registers a specified handler for such
-   * events. Note that watcher can be started only once so two times invocation of this method will
-   * not produce new watcher and just register the event handlers.
+   * Starts watching the pods of the workspace inside OpenShift namespace and registers a specified
+   * handler for such events. Note that watcher can be started only once so two times invocation of
+   * this method will not produce new watcher and just register the event handlers.
+   *
+   * <p>The watch of the namespace is shared with the other workspaces which use it, see {@link
+   * NamespacePodsWatches}, only the events of the pods labeled with the id of the workspace, i.e.
+   * the pods created with {@link #create(Pod)}, are delivered to the handlers.
    *
    * @param handler pod action events handler
    * @throws InfrastructureException if any error occurs while watcher starting
    */
-  public void watch(PodActionHandler handler) throws InfrastructureException {
-    if (podWatch == null) {
-      final Watcher<Pod> watcher =
-          new Watcher<Pod>() {
-            @Override
-            public void eventReceived(Action action, Pod pod) {
-              podActionHandlers.forEach(h -> h.handle(action, pod));
-            }
-
-            @Override
-            public void onClose(KubernetesClientException ignored) {}
-          };
-      try {
-        podWatch =
-            clientFactory
-                .create()
-                .pods()
-                .inNamespace(namespace)
-                .withLabel(CHE_WORKSPACE_ID_LABEL, workspaceId)
-                .watch(watcher);
-      } catch (KubernetesClientException ex) {
-        throw new InfrastructureException(ex.getMessage());
-      }
+  public synchronized void watch(PodActionHandler handler) throws InfrastructureException {
+    if (podsWatcher == null) {
+      final PodsWatcher watcher = new PodsWatcher();
+      podsWatches.subscribe(namespace, workspaceId, watcher);
+      podsWatcher = watcher;
     }
     podActionHandlers.add(handler);
   }
@@ -279,15 +275,9 @@ public class OpenShiftPods {
   }
 
   /** Stops watching the pods inside OpenShift namespace. */
-  void stopWatch() {
-    try {
-      if (podWatch != null) {
-        podWatch.close();
-      }
-    } catch (KubernetesClientException ex) {
-      LOG.error(
-          "Failed to stop pod watcher for namespace '{}' cause '{}'", namespace, ex.getMessage());
-    }
+  synchronized void stopWatch() {
+    unsubscribeWatcher();
+    failWaiters();
     podActionHandlers.clear();
 
     try {
@@ -429,6 +419,37 @@ public class OpenShiftPods {
     }
   }
 
+  /**
+   * Removes the handler of a finished wait and unsubscribes from the namespace watch if nothing
+   * else is registered, so waits of the instances which are not cleaned up don't keep the watch.
+   */
+  private synchronized void unsubscribe(PodWaiter waiter) {
+    podActionHandlers.remove(waiter);
+    if (podActionHandlers.isEmpty()) {
+      unsubscribeWatcher();
+    }
+  }
+
+  private void unsubscribeWatcher() {
+    if (podsWatcher != null) {
+      PodsWatcher toUnsubscribe = podsWatcher;
+      podsWatcher = null;
+      podsWatches.unsubscribe(namespace, workspaceId, toUnsubscribe);
+    }
+  }
+
+  /** Completes exceptionally all the waits which are subscribed to the pods watch. */
+  private void failWaiters() {
+    for (PodActionHandler handler : podActionHandlers) {
+      if (handler instanceof PodWaiter) {
+        PodWaiter waiter = (PodWaiter) handler;
+        waiter.future.completeExceptionally(
+            new InfrastructureException(
+                "Waiting for pod '" + waiter.podName + "' was interrupted"));
+      }
+    }
+  }
+
   private String[] encode(String[] toEncode) throws InfrastructureException {
     String[] encoded = new String[toEncode.length];
     for (int i = 0; i < toEncode.length; i++) {
@@ -441,6 +462,47 @@ public class OpenShiftPods {
     return encoded;
   }
 
+  /** Dispatches events of the workspace pods to the registered handlers. */
+  private class PodsWatcher implements Watcher<Pod> {
+
+    @Override
+    public void eventReceived(Action action, Pod pod) {
+      podActionHandlers.forEach(h -> h.handle(action, pod));
+    }
+
+    @Override
+    public void onClose(KubernetesClientException cause) {
+      synchronized (OpenShiftPods.this) {
+        if (podsWatcher == this) {
+          // watch is closed unexpectedly, the next registered handler subscribes again
+          podsWatcher = null;
+        }
+      }
+      failWaiters();
+    }
+  }
+
+  /** Completes its future when the pod with the given name suits for the predicate. */
+  private static class PodWaiter implements PodActionHandler {
+
+    private final String podName;
+    private final Predicate<Pod> predicate;
+    private final CompletableFuture<Pod> future;
+
+    private PodWaiter(String podName, Predicate<Pod> predicate) {
+      this.podName = podName;
+      this.predicate = predicate;
+      this.future = new CompletableFuture<>();
+    }
+
+    @Override
+    public void handle(Action action, Pod pod) {
+      if (podName.equals(pod.getMetadata().getName()) && predicate.test(pod)) {
+        future.complete(pod);
+      }
+    }
+  }
+
   private static class DeleteWatcher implements Watcher<Pod> {
 
     private final CompletableFuture<Void> future;
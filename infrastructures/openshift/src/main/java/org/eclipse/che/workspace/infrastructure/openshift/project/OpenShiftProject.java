@@ -54,10 +54,14 @@ public class OpenShiftProject {
     this.pvcs = pvcs;
   }
 
-  public OpenShiftProject(OpenShiftClientFactory clientFactory, String name, String workspaceId)
+  public OpenShiftProject(
+      OpenShiftClientFactory clientFactory,
+      NamespacePodsWatches podsWatches,
+      String name,
+      String workspaceId)
       throws InfrastructureException {
     this.workspaceId = workspaceId;
-    this.pods = new OpenShiftPods(name, workspaceId, clientFactory);
+    this.pods = new OpenShiftPods(name, workspaceId, clientFactory, podsWatches);
     this.services = new OpenShiftServices(name, workspaceId, clientFactory);
     this.routes = new OpenShiftRoutes(name, workspaceId, clientFactory);
     this.pvcs = new OpenShiftPersistentVolumeClaims(name, clientFactory);
@@ -89,6 +93,8 @@ public class OpenShiftProject {
 
   /** Removes all object except persistent volume claims inside project. */
   public void cleanUp() throws InfrastructureException {
+    // pending waits are interrupted, pods of the workspace are not watched anymore
+    pods.stopWatch();
     doRemove(pods::delete, services::delete, routes::delete);
   }
 
@@ -29,17 +29,35 @@ public class OpenShiftProjectFactory {
 
   private final String projectName;
   private final OpenShiftClientFactory clientFactory;
+  private final NamespacePodsWatches podsWatches;
 
   @Inject
   public OpenShiftProjectFactory(
       @Nullable @Named("che.infra.openshift.project") String projectName,
-      OpenShiftClientFactory clientFactory) {
+      OpenShiftClientFactory clientFactory,
+      NamespacePodsWatches podsWatches) {
     this.projectName = projectName;
     this.clientFactory = clientFactory;
+    this.podsWatches = podsWatches;
   }
 
   public OpenShiftProject create(String workspaceId) throws InfrastructureException {
-    final String projectName = isNullOrEmpty(this.projectName) ? workspaceId : this.projectName;
-    return new OpenShiftProject(clientFactory, projectName, workspaceId);
+    return new OpenShiftProject(
+        clientFactory, podsWatches, getProjectName(workspaceId), workspaceId);
+  }
+
+  /**
+   * Creates {@link OpenShiftProject} instance for the objects which are shared by the workspaces of
+   * the given project. Such objects are labeled with the given owner instead of a workspace id, so
+   * they are not removed on cleanup of any single workspace.
+   */
+  public OpenShiftProject createShared(String projectName, String owner)
+      throws InfrastructureException {
+    return new OpenShiftProject(clientFactory, podsWatches, projectName, owner);
+  }
+
+  /** Returns name of the project where objects of the given workspace are created. */
+  public String getProjectName(String workspaceId) {
+    return isNullOrEmpty(projectName) ? workspaceId : projectName;
   }
 }
@@ -11,7 +11,9 @@
 package org.eclipse.che.workspace.infrastructure.openshift.project.pvc;
 
 import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.function.Function.identity;
 import static org.eclipse.che.workspace.infrastructure.openshift.project.OpenShiftObjectUtil.newVolume;
 import static org.eclipse.che.workspace.infrastructure.openshift.project.OpenShiftObjectUtil.newVolumeMount;
 
@@ -24,15 +26,21 @@ import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.PodBuilder;
 import io.fabric8.kubernetes.api.model.Quantity;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.Stream;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
+import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.eclipse.che.workspace.infrastructure.openshift.project.OpenShiftPods;
@@ -47,6 +55,12 @@ import org.slf4j.LoggerFactory;
  * command (either {@code mkdir -p <path>} or {@code rm -rf <path>}). Reports back whether the pod
  * succeeded or failed. Supports multiple paths for one command.
  *
+ * <p>When batch window is configured, requests of the workspaces which share the same project are
+ * collected during the window and the same commands are executed by a single pod with all the
+ * collected paths, while each request is completed when the pod of its batch is finished. The pod
+ * of a batch doesn't belong to any of the workspaces, so cleanup of a workspace doesn't remove it
+ * while it executes the commands of the other workspaces.
+ *
  * <p>Note that the commands execution is needed only for {@link CommonPVCStrategy}.
  *
  * @author amisevsk
@@ -69,25 +83,34 @@ public class PVCSubPathHelper {
   static final String POD_PHASE_SUCCEEDED = "Succeeded";
   static final String POD_PHASE_FAILED = "Failed";
   static final String JOB_MOUNT_PATH = "/tmp/job_mount";
+  static final String BATCH_JOBS_OWNER = "che-pvc-jobs";
+  static final String BATCH_POD_NAME_INFIX = "-batch-";
+  static final int BATCH_POD_NAME_SUFFIX_SIZE = 8;
 
   private final String pvcName;
   private final String jobImage;
   private final String jobMemoryLimit;
+  private final long batchWindowMs;
   private final OpenShiftProjectFactory factory;
-  private final ExecutorService executor;
+  private final ScheduledExecutorService executor;
+  // guarded by this
+  private final Map<String, Batch> batches;
 
   @Inject
   PVCSubPathHelper(
       @Named("che.infra.openshift.pvc.name") String pvcName,
       @Named("che.infra.openshift.pvc.jobs.memorylimit") String jobMemoryLimit,
       @Named("che.infra.openshift.pvc.jobs.image") String jobImage,
+      @Named("che.infra.openshift.pvc.jobs.batch_window_ms") long batchWindowMs,
       OpenShiftProjectFactory factory) {
     this.pvcName = pvcName;
     this.jobMemoryLimit = jobMemoryLimit;
     this.jobImage = jobImage;
+    this.batchWindowMs = batchWindowMs;
     this.factory = factory;
+    this.batches = new HashMap<>();
     this.executor =
-        Executors.newFixedThreadPool(
+        Executors.newScheduledThreadPool(
             COUNT_THREADS,
             new ThreadFactoryBuilder()
                 .setNameFormat("PVCSubPathHelper-ThreadPool-%d")
@@ -103,7 +126,21 @@ public class PVCSubPathHelper {
    * @param dirs workspace directories to create
    */
   void createDirs(String workspaceId, String... dirs) {
-    execute(workspaceId, MKDIR_COMMAND_BASE, dirs);
+    if (batchWindowMs <= 0) {
+      execute(workspaceId, MKDIR_COMMAND_BASE, dirs);
+      return;
+    }
+    try {
+      enqueue(workspaceId, MKDIR_COMMAND_BASE, dirs).get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException ex) {
+      LOG.error(
+          "Unable to create directories '{}' for the workspace '{}' cause: '{}'",
+          Arrays.toString(dirs),
+          workspaceId,
+          ex.getCause().getMessage());
+    }
   }
 
   /**
@@ -113,11 +150,60 @@ public class PVCSubPathHelper {
    * @param dirs workspace directories to remove
    */
   CompletableFuture<Void> removeDirsAsync(String workspaceId, String... dirs) {
+    if (batchWindowMs > 0) {
+      return enqueue(workspaceId, RM_COMMAND_BASE, dirs);
+    }
     return CompletableFuture.runAsync(
         ThreadLocalPropagateContext.wrap(() -> execute(workspaceId, RM_COMMAND_BASE, dirs)),
         executor);
   }
 
+  /**
+   * Adds paths to the batch of the same command for the project of the workspace, the batch is
+   * executed when the batch window is over.
+   *
+   * @return future which is completed when the batch is executed
+   */
+  private synchronized CompletableFuture<Void> enqueue(
+      String workspaceId, String[] commandBase, String... dirs) {
+    final String projectName = factory.getProjectName(workspaceId);
+    final String key = projectName + '/' + commandBase[0];
+    Batch batch = batches.get(key);
+    if (batch == null) {
+      batch = new Batch(projectName, commandBase);
+      batches.put(key, batch);
+      executor.schedule(
+          ThreadLocalPropagateContext.wrap(() -> executeBatch(key)), batchWindowMs, MILLISECONDS);
+    }
+    batch.dirs.addAll(Arrays.asList(dirs));
+    // callers get their own futures, so one of them can't complete the batch for the others
+    return batch.done.thenApply(identity());
+  }
+
+  private void executeBatch(String key) {
+    final Batch batch;
+    synchronized (this) {
+      batch = batches.remove(key);
+    }
+    final String podName =
+        NameGenerator.generate(
+            batch.commandBase[0] + BATCH_POD_NAME_INFIX, BATCH_POD_NAME_SUFFIX_SIZE);
+    final String[] command = buildCommand(batch.commandBase, batch.dirs.toArray(new String[0]));
+    try {
+      run(factory.createShared(batch.projectName, BATCH_JOBS_OWNER).pods(), podName, command);
+    } catch (InfrastructureException ex) {
+      LOG.error(
+          "Unable to perform '{}' command in the project '{}' cause: '{}'",
+          Arrays.toString(command),
+          batch.projectName,
+          ex.getMessage());
+    } catch (RuntimeException ex) {
+      batch.done.completeExceptionally(ex);
+      return;
+    }
+    batch.done.complete(null);
+  }
+
   /**
    * Executes the job with the specified arguments.
    *
@@ -129,27 +215,30 @@ public class PVCSubPathHelper {
     final String jobName = commandBase[0];
     final String podName = jobName + '-' + workspaceId;
     final String[] command = buildCommand(commandBase, arguments);
-    final Pod pod = newPod(podName, command);
-    OpenShiftPods pods = null;
     try {
-      pods = factory.create(workspaceId).pods();
-      pods.create(pod);
-      final Pod finished = pods.wait(podName, WAIT_POD_TIMEOUT_MIN, POD_PREDICATE::apply);
-      if (POD_PHASE_FAILED.equals(finished.getStatus().getPhase())) {
-        LOG.error("Job command '%s' execution is failed.", Arrays.toString(command));
-      }
+      run(factory.create(workspaceId).pods(), podName, command);
     } catch (InfrastructureException ex) {
       LOG.error(
           "Unable to perform '{}' command for the workspace '{}' cause: '{}'",
           Arrays.toString(command),
           workspaceId,
           ex.getMessage());
+    }
+  }
+
+  /** Creates the pod which executes the command, waits until it is finished and removes it. */
+  private void run(OpenShiftPods pods, String podName, String[] command)
+      throws InfrastructureException {
+    try {
+      pods.create(newPod(podName, command));
+      final Pod finished = pods.wait(podName, WAIT_POD_TIMEOUT_MIN, POD_PREDICATE::apply);
+      if (POD_PHASE_FAILED.equals(finished.getStatus().getPhase())) {
+        LOG.error("Job command '%s' execution is failed.", Arrays.toString(command));
+      }
     } finally {
-      if (pods != null) {
-        try {
-          pods.delete(podName);
-        } catch (InfrastructureException ignored) {
-        }
+      try {
+        pods.delete(podName);
+      } catch (InfrastructureException ignored) {
       }
     }
   }
@@ -216,6 +305,22 @@ public class PVCSubPathHelper {
         .build();
   }
 
+  /** Paths collected for a single job execution. */
+  private static class Batch {
+
+    private final String projectName;
+    private final String[] commandBase;
+    private final Set<String> dirs;
+    private final CompletableFuture<Void> done;
+
+    private Batch(String projectName, String[] commandBase) {
+      this.projectName = projectName;
+      this.commandBase = commandBase;
+      this.dirs = new LinkedHashSet<>();
+      this.done = new CompletableFuture<>();
+    }
+  }
+
   /** Checks whether pod is Failed or Successfully finished command execution */
   static class JobFinishedPredicate implements Predicate<Pod> {
     @Override
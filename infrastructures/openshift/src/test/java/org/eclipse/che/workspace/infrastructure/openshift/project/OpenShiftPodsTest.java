@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.workspace.infrastructure.openshift.project;
+
+import static org.eclipse.che.workspace.infrastructure.openshift.Constants.CHE_WORKSPACE_ID_LABEL;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.Watcher.Action;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
+import io.fabric8.kubernetes.client.dsl.PodResource;
+import io.fabric8.openshift.client.OpenShiftClient;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
+import org.eclipse.che.workspace.infrastructure.openshift.OpenShiftClientFactory;
+import org.eclipse.che.workspace.infrastructure.openshift.project.event.PodActionHandler;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link OpenShiftPods}. */
+@Listeners(MockitoTestNGListener.class)
+public class OpenShiftPodsTest {
+
+  private static final String NAMESPACE = "che";
+  private static final String WORKSPACE_ID = "workspace123";
+  private static final String OTHER_WORKSPACE_ID = "workspace456";
+  private static final String POD_NAME = "pod1";
+  private static final String RUNNING = "Running";
+  private static final Predicate<Pod> IS_RUNNING =
+      pod -> RUNNING.equals(pod.getStatus().getPhase());
+
+  @Mock private OpenShiftClientFactory clientFactory;
+  @Mock private OpenShiftClient client;
+  @Mock private MixedOperation podsOperation;
+  @Mock private NonNamespaceOperation namespaceOperation;
+  @Mock private PodResource podResource;
+  @Mock private Watch watch;
+
+  private NamespacePodsWatches podsWatches;
+  private OpenShiftPods pods;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    doReturn(client).when(clientFactory).create();
+    doReturn(podsOperation).when(client).pods();
+    doReturn(namespaceOperation).when(podsOperation).inNamespace(NAMESPACE);
+    doReturn(watch).when(namespaceOperation).watch(any(Watcher.class));
+    doReturn(podResource).when(namespaceOperation).withName(POD_NAME);
+    doReturn(pod("Pending")).when(podResource).get();
+
+    podsWatches = new NamespacePodsWatches(clientFactory);
+    pods = new OpenShiftPods(NAMESPACE, WORKSPACE_ID, clientFactory, podsWatches);
+  }
+
+  @Test
+  public void completesWaitWhenPodSuitsPredicate() throws Exception {
+    CompletableFuture<Pod> future = pods.waitAsync(POD_NAME, IS_RUNNING);
+    assertFalse(future.isDone());
+
+    Pod running = pod(RUNNING);
+    captureWatcher().eventReceived(Action.MODIFIED, running);
+
+    assertEquals(future.get(), running);
+  }
+
+  @Test
+  public void completesWaitWhenPodAlreadySuitsPredicate() throws Exception {
+    Pod running = pod(RUNNING);
+    doReturn(running).when(podResource).get();
+
+    CompletableFuture<Pod> future = pods.waitAsync(POD_NAME, IS_RUNNING);
+
+    assertEquals(future.get(), running);
+    verify(watch).close();
+  }
+
+  @Test(
+    expectedExceptions = ExecutionException.class,
+    expectedExceptionsMessageRegExp = ".*Specified pod pod1 doesn't exist"
+  )
+  public void failsWaitWhenPodDoesNotExist() throws Exception {
+    doReturn(null).when(podResource).get();
+
+    pods.waitAsync(POD_NAME, IS_RUNNING).get();
+  }
+
+  @Test
+  public void ignoresEventsOfOtherPods() throws Exception {
+    CompletableFuture<Pod> future = pods.waitAsync(POD_NAME, IS_RUNNING);
+
+    captureWatcher().eventReceived(Action.MODIFIED, pod("pod2", RUNNING));
+
+    assertFalse(future.isDone());
+  }
+
+  @Test
+  public void ignoresEventsOfPodsOfOtherWorkspaces() throws Exception {
+    CompletableFuture<Pod> future = pods.waitAsync(POD_NAME, IS_RUNNING);
+
+    captureWatcher().eventReceived(Action.MODIFIED, pod(POD_NAME, OTHER_WORKSPACE_ID, RUNNING));
+
+    assertFalse(future.isDone());
+  }
+
+  @Test
+  public void sharesWatchBetweenWorkspacesOfNamespace() throws Exception {
+    OpenShiftPods otherPods =
+        new OpenShiftPods(NAMESPACE, OTHER_WORKSPACE_ID, clientFactory, podsWatches);
+    CompletableFuture<Pod> future = pods.waitAsync(POD_NAME, IS_RUNNING);
+    CompletableFuture<Pod> otherFuture = otherPods.waitAsync(POD_NAME, IS_RUNNING);
+
+    Pod otherRunning = pod(POD_NAME, OTHER_WORKSPACE_ID, RUNNING);
+    captureWatcher().eventReceived(Action.MODIFIED, otherRunning);
+
+    assertFalse(future.isDone());
+    assertEquals(otherFuture.get(), otherRunning);
+    verify(namespaceOperation, never()).withLabel(CHE_WORKSPACE_ID_LABEL, WORKSPACE_ID);
+  }
+
+  @Test
+  public void keepsNamespaceWatchOpenWhileOtherWorkspaceIsSubscribed() throws Exception {
+    OpenShiftPods otherPods =
+        new OpenShiftPods(NAMESPACE, OTHER_WORKSPACE_ID, clientFactory, podsWatches);
+    CompletableFuture<Pod> future = pods.waitAsync(POD_NAME, IS_RUNNING);
+    otherPods.waitAsync(POD_NAME, IS_RUNNING);
+
+    future.cancel(true);
+
+    verify(watch, never()).close();
+    otherPods.stopWatch();
+    verify(watch).close();
+  }
+
+  @Test
+  public void failsWaitsOfAllWorkspacesWhenNamespaceWatchIsClosed() throws Exception {
+    OpenShiftPods otherPods =
+        new OpenShiftPods(NAMESPACE, OTHER_WORKSPACE_ID, clientFactory, podsWatches);
+    CompletableFuture<Pod> future = pods.waitAsync(POD_NAME, IS_RUNNING);
+    CompletableFuture<Pod> otherFuture = otherPods.waitAsync(POD_NAME, IS_RUNNING);
+
+    captureWatcher().onClose(new KubernetesClientException("connection reset"));
+
+    assertFailedWithInterruption(future);
+    assertFailedWithInterruption(otherFuture);
+  }
+
+  @Test
+  public void sharesWatchBetweenWaits() throws Exception {
+    pods.waitAsync(POD_NAME, IS_RUNNING);
+    pods.waitAsync(POD_NAME, IS_RUNNING);
+
+    verify(namespaceOperation).watch(any(Watcher.class));
+  }
+
+  @Test
+  public void closesWatchWhenLastWaitIsUnsubscribed() throws Exception {
+    CompletableFuture<Pod> first = pods.waitAsync(POD_NAME, IS_RUNNING);
+    CompletableFuture<Pod> second = pods.waitAsync(POD_NAME, IS_RUNNING);
+
+    first.cancel(true);
+    verify(watch, never()).close();
+
+    second.cancel(true);
+    verify(watch).close();
+  }
+
+  @Test
+  public void keepsWatchOpenWhilePodActionHandlerIsRegistered() throws Exception {
+    pods.watch(mock(PodActionHandler.class));
+    CompletableFuture<Pod> future = pods.waitAsync(POD_NAME, IS_RUNNING);
+
+    captureWatcher().eventReceived(Action.MODIFIED, pod(RUNNING));
+
+    assertTrue(future.isDone());
+    verify(watch, never()).close();
+  }
+
+  @Test
+  public void opensNewWatchForWaitAfterPreviousWatchIsUnsubscribed() throws Exception {
+    pods.waitAsync(POD_NAME, IS_RUNNING).cancel(true);
+
+    pods.waitAsync(POD_NAME, IS_RUNNING);
+
+    verify(namespaceOperation, times(2)).watch(any(Watcher.class));
+  }
+
+  @Test
+  public void failsPendingWaitsWhenWatchIsClosed() throws Exception {
+    CompletableFuture<Pod> first = pods.waitAsync(POD_NAME, IS_RUNNING);
+    CompletableFuture<Pod> second = pods.waitAsync(POD_NAME, IS_RUNNING);
+
+    captureWatcher().onClose(new KubernetesClientException("connection reset"));
+
+    assertFailedWithInterruption(first);
+    assertFailedWithInterruption(second);
+    // the next wait opens a new watch instead of the closed one
+    pods.waitAsync(POD_NAME, IS_RUNNING);
+    verify(namespaceOperation, times(2)).watch(any(Watcher.class));
+  }
+
+  @Test
+  public void failsPendingWaitsWhenWatchIsStopped() throws Exception {
+    CompletableFuture<Pod> future = pods.waitAsync(POD_NAME, IS_RUNNING);
+
+    pods.stopWatch();
+
+    assertFailedWithInterruption(future);
+    verify(watch).close();
+  }
+
+  private Watcher<Pod> captureWatcher() {
+    ArgumentCaptor<Watcher> captor = ArgumentCaptor.forClass(Watcher.class);
+    verify(namespaceOperation).watch(captor.capture());
+    return captor.getValue();
+  }
+
+  private static void assertFailedWithInterruption(CompletableFuture<Pod> future) {
+    assertTrue(future.isCompletedExceptionally());
+    try {
+      future.get();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof InfrastructureException);
+      assertEquals(e.getCause().getMessage(), "Waiting for pod '" + POD_NAME + "' was interrupted");
+    } catch (InterruptedException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static Pod pod(String phase) {
+    return pod(POD_NAME, phase);
+  }
+
+  private static Pod pod(String name, String phase) {
+    return pod(name, WORKSPACE_ID, phase);
+  }
+
+  private static Pod pod(String name, String workspaceId, String phase) {
+    return new PodBuilder()
+        .withNewMetadata()
+        .withName(name)
+        .addToLabels(CHE_WORKSPACE_ID_LABEL, workspaceId)
+        .endMetadata()
+        .withNewStatus()
+        .withPhase(phase)
+        .endStatus()
+        .build();
+  }
+}
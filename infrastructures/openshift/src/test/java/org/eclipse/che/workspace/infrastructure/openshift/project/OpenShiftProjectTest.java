@@ -51,6 +51,7 @@ public class OpenShiftProjectTest {
   @Mock private OpenShiftRoutes routes;
   @Mock private OpenShiftPersistentVolumeClaims pvcs;
   @Mock private OpenShiftClientFactory clientFactory;
+  @Mock private NamespacePodsWatches podsWatches;
   @Mock private OpenShiftClient openShiftClient;
 
   private OpenShiftProject openShiftProject;
@@ -68,7 +69,7 @@ public class OpenShiftProjectTest {
     prepareProject(PROJECT_NAME);
 
     // when
-    new OpenShiftProject(clientFactory, PROJECT_NAME, WORKSPACE_ID);
+    new OpenShiftProject(clientFactory, podsWatches, PROJECT_NAME, WORKSPACE_ID);
   }
 
   @Test
@@ -81,7 +82,7 @@ public class OpenShiftProjectTest {
 
     // when
     OpenShiftProject openShiftProject =
-        new OpenShiftProject(clientFactory, PROJECT_NAME, WORKSPACE_ID);
+        new OpenShiftProject(clientFactory, podsWatches, PROJECT_NAME, WORKSPACE_ID);
 
     // then
     verify(projectMetadata).withName(PROJECT_NAME);
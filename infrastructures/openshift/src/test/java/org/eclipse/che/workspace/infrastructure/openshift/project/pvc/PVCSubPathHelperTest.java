@@ -10,11 +10,14 @@
  */
 package org.eclipse.che.workspace.infrastructure.openshift.project.pvc;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
+import static org.eclipse.che.workspace.infrastructure.openshift.project.pvc.PVCSubPathHelper.BATCH_JOBS_OWNER;
 import static org.eclipse.che.workspace.infrastructure.openshift.project.pvc.PVCSubPathHelper.JOB_MOUNT_PATH;
 import static org.eclipse.che.workspace.infrastructure.openshift.project.pvc.PVCSubPathHelper.MKDIR_COMMAND_BASE;
 import static org.eclipse.che.workspace.infrastructure.openshift.project.pvc.PVCSubPathHelper.POD_PHASE_FAILED;
 import static org.eclipse.che.workspace.infrastructure.openshift.project.pvc.PVCSubPathHelper.POD_PHASE_SUCCEEDED;
+import static org.eclipse.che.workspace.infrastructure.openshift.project.pvc.PVCSubPathHelper.RM_COMMAND_BASE;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -24,11 +27,14 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.PodStatus;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
 import org.eclipse.che.workspace.infrastructure.openshift.project.OpenShiftPods;
@@ -69,7 +75,8 @@ public class PVCSubPathHelperTest {
 
   @BeforeMethod
   public void setup() throws Exception {
-    pvcSubPathHelper = new PVCSubPathHelper(PVC_NAME, jobMemoryLimit, jobImage, osProjectFactory);
+    pvcSubPathHelper =
+        new PVCSubPathHelper(PVC_NAME, jobMemoryLimit, jobImage, 0, osProjectFactory);
     when(osProjectFactory.create(anyString())).thenReturn(osProject);
     when(osProject.pods()).thenReturn(osPods);
     when(pod.getStatus()).thenReturn(podStatus);
@@ -110,6 +117,37 @@ public class PVCSubPathHelperTest {
     verify(osPods).delete(anyString());
   }
 
+  @Test
+  public void testExecutesSingleJobForRequestsOfTheSameBatch() throws Exception {
+    final String workspace2 = "workspace133";
+    final PVCSubPathHelper batchingHelper =
+        new PVCSubPathHelper(PVC_NAME, jobMemoryLimit, jobImage, 100, osProjectFactory);
+    when(osProjectFactory.getProjectName(anyString())).thenReturn("che");
+    when(osProjectFactory.createShared("che", BATCH_JOBS_OWNER)).thenReturn(osProject);
+    when(podStatus.getPhase()).thenReturn(POD_PHASE_SUCCEEDED);
+
+    final CompletableFuture<Void> removed1 =
+        batchingHelper.removeDirsAsync(WORKSPACE_ID, WORKSPACE_ID);
+    final CompletableFuture<Void> removed2 = batchingHelper.removeDirsAsync(workspace2, workspace2);
+    CompletableFuture.allOf(removed1, removed2).get(5, SECONDS);
+
+    verify(osPods).create(podCaptor.capture());
+    final List<String> actual = podCaptor.getValue().getSpec().getContainers().get(0).getCommand();
+    final List<String> expected =
+        Stream.concat(
+                Arrays.stream(RM_COMMAND_BASE),
+                Stream.of(JOB_MOUNT_PATH + '/' + WORKSPACE_ID, JOB_MOUNT_PATH + '/' + workspace2))
+            .collect(toList());
+    assertEquals(actual, expected);
+    // the pod is not owned by any of the workspaces, so their cleanup doesn't remove it
+    verify(osProjectFactory, never()).create(anyString());
+    final String podName = podCaptor.getValue().getMetadata().getName();
+    assertTrue(podName.startsWith("rm-batch-"));
+    assertFalse(podName.contains(WORKSPACE_ID));
+    verify(osPods).delete(podName);
+    batchingHelper.shutdown();
+  }
+
   @Test
   public void testLogErrorWhenJobExecutionFailed() throws Exception {
     when(podStatus.getPhase()).thenReturn(POD_PHASE_FAILED);
@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.resource.api.usage.tracker;
+
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STARTING;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPING;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.Pages;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.workspace.Workspace;
+import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.workspace.server.WorkspaceManager;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
+import org.eclipse.che.api.workspace.shared.event.WorkspaceCreatedEvent;
+import org.eclipse.che.api.workspace.shared.event.WorkspaceRemovedEvent;
+import org.eclipse.che.commons.schedule.ScheduleRate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps usage of resources by workspaces of accounts in memory, so resources usage trackers don't
+ * have to go through all the workspaces of an account on each workspace start.
+ *
+ * <p>Usage of an account is loaded from its workspaces on the first request and then it is kept up
+ * to date by workspaces events. To fix possible drift, e.g. caused by a failed event processing,
+ * usages of all the loaded accounts are periodically reconciled with the actual state of their
+ * workspaces.
+ */
+@Singleton
+public class ResourceUsageLedger {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ResourceUsageLedger.class);
+
+  /** How many times loading of usage is retried when it is concurrently changed by events. */
+  private static final int LOAD_ATTEMPTS = 3;
+
+  private final Provider<WorkspaceManager> workspaceManagerProvider;
+  private final EnvironmentRamCalculator environmentRamCalculator;
+  private final EventService eventService;
+
+  /** Usages by namespaces of accounts. */
+  private final Map<String, AccountUsage> usages = new ConcurrentHashMap<>();
+  /** Namespaces by ids of workspaces which are present in the loaded usages. */
+  private final Map<String, String> namespaces = new ConcurrentHashMap<>();
+
+  private final EventSubscriber<WorkspaceStatusEvent> statusSubscriber =
+      this::onWorkspaceStatusChanged;
+  private final EventSubscriber<WorkspaceCreatedEvent> createdSubscriber =
+      event -> onWorkspaceCreated(event.getWorkspace());
+  private final EventSubscriber<WorkspaceRemovedEvent> removedSubscriber =
+      event -> onWorkspaceRemoved(event.getWorkspace());
+
+  @Inject
+  public ResourceUsageLedger(
+      Provider<WorkspaceManager> workspaceManagerProvider,
+      EnvironmentRamCalculator environmentRamCalculator,
+      EventService eventService) {
+    this.workspaceManagerProvider = workspaceManagerProvider;
+    this.environmentRamCalculator = environmentRamCalculator;
+    this.eventService = eventService;
+  }
+
+  @PostConstruct
+  public void subscribe() {
+    eventService.subscribe(statusSubscriber, WorkspaceStatusEvent.class);
+    eventService.subscribe(createdSubscriber, WorkspaceCreatedEvent.class);
+    eventService.subscribe(removedSubscriber, WorkspaceRemovedEvent.class);
+  }
+
+  @PreDestroy
+  public void unsubscribe() {
+    eventService.unsubscribe(statusSubscriber, WorkspaceStatusEvent.class);
+    eventService.unsubscribe(createdSubscriber, WorkspaceCreatedEvent.class);
+    eventService.unsubscribe(removedSubscriber, WorkspaceRemovedEvent.class);
+  }
+
+  /**
+   * Returns usage of resources by workspaces of the account with the given namespace.
+   *
+   * @param namespace namespace of the account
+   * @return usage of the account resources
+   * @throws ServerException when usage of the account can't be loaded
+   */
+  public Usage getUsage(String namespace) throws ServerException {
+    AccountUsage usage = usages.computeIfAbsent(namespace, ns -> new AccountUsage());
+    synchronized (usage) {
+      if (usage.loaded) {
+        return usage.toUsage();
+      }
+    }
+    return load(namespace, usage);
+  }
+
+  /** Reconciles usages of all the loaded accounts with the actual state of their workspaces. */
+  @ScheduleRate(
+    periodParameterName = "che.limits.workspace.usage.reconcile_period_min",
+    initialDelay = 10,
+    unit = TimeUnit.MINUTES
+  )
+  public void reconcile() {
+    for (Map.Entry<String, AccountUsage> entry : usages.entrySet()) {
+      String namespace = entry.getKey();
+      AccountUsage usage = entry.getValue();
+      long version;
+      synchronized (usage) {
+        version = usage.version;
+      }
+      try {
+        Map<String, WorkspaceUsage> workspaces = fetch(namespace);
+        synchronized (usage) {
+          if (usage.version != version) {
+            // changed by events meanwhile, it will be reconciled next time
+            continue;
+          }
+          if (usage.loaded && !usage.workspaces.equals(workspaces)) {
+            LOG.debug("Resources usage of account '{}' is fixed by reconciliation", namespace);
+          }
+          usage.reset(workspaces);
+          if (workspaces.isEmpty()) {
+            usages.remove(namespace, usage);
+          }
+        }
+      } catch (ServerException | RuntimeException x) {
+        LOG.warn(
+            "Failed to reconcile resources usage of account '{}'. {}", namespace, x.getMessage());
+      }
+    }
+  }
+
+  private Usage load(String namespace, AccountUsage usage) throws ServerException {
+    for (int attempt = 1; ; attempt++) {
+      long version;
+      synchronized (usage) {
+        version = usage.version;
+      }
+      Map<String, WorkspaceUsage> workspaces = fetch(namespace);
+      synchronized (usage) {
+        if (usage.loaded) {
+          return usage.toUsage();
+        }
+        // usage changed by events can't be trusted, unless attempts are over,
+        // then the next reconciliation will fix the possible error
+        if (usage.version == version || attempt == LOAD_ATTEMPTS) {
+          usage.reset(workspaces);
+          usages.putIfAbsent(namespace, usage);
+          return usage.toUsage();
+        }
+      }
+    }
+  }
+
+  /** Fetches usage of each workspace of the account. */
+  private Map<String, WorkspaceUsage> fetch(String namespace) throws ServerException {
+    Map<String, WorkspaceUsage> workspaces = new HashMap<>();
+    for (WorkspaceImpl workspace :
+        Pages.iterate(
+            (maxItems, skipCount) ->
+                workspaceManagerProvider
+                    .get()
+                    .getByNamespace(namespace, true, maxItems, skipCount))) {
+      workspaces.put(workspace.getId(), calculate(workspace));
+      namespaces.put(workspace.getId(), namespace);
+    }
+    return workspaces;
+  }
+
+  private WorkspaceUsage calculate(WorkspaceImpl workspace) throws ServerException {
+    WorkspaceStatus status = workspace.getStatus();
+    if (status == STOPPED || workspace.getRuntime() == null) {
+      return new WorkspaceUsage(status, 0);
+    }
+    if (status == STARTING) {
+      // starting workspace may not have all machine in runtime
+      // it is need to calculate ram from environment config
+      return new WorkspaceUsage(
+          status,
+          environmentRamCalculator.calculate(
+              workspace
+                  .getConfig()
+                  .getEnvironments()
+                  .get(workspace.getRuntime().getActiveEnv())));
+    }
+    return new WorkspaceUsage(status, environmentRamCalculator.calculate(workspace.getRuntime()));
+  }
+
+  private void onWorkspaceStatusChanged(WorkspaceStatusEvent event) {
+    String workspaceId = event.getWorkspaceId();
+    if (event.getStatus() == STOPPED || event.getStatus() == STOPPING) {
+      // resources are released only when workspace is stopped,
+      // so there is no need to fetch known workspace to get its usage
+      AccountUsage usage = getAccountUsage(namespaces.get(workspaceId));
+      if (usage == null) {
+        return;
+      }
+      synchronized (usage) {
+        WorkspaceUsage current = usage.workspaces.get(workspaceId);
+        if (event.getStatus() == STOPPED) {
+          usage.put(workspaceId, new WorkspaceUsage(STOPPED, 0));
+          return;
+        }
+        if (current != null) {
+          usage.put(workspaceId, new WorkspaceUsage(STOPPING, current.ramMB));
+          return;
+        }
+      }
+    }
+    try {
+      WorkspaceImpl workspace = workspaceManagerProvider.get().getWorkspace(workspaceId);
+      AccountUsage usage = getAccountUsage(workspace.getNamespace());
+      if (usage != null) {
+        WorkspaceUsage workspaceUsage = calculate(workspace);
+        synchronized (usage) {
+          namespaces.put(workspaceId, workspace.getNamespace());
+          usage.put(workspaceId, workspaceUsage);
+        }
+      }
+    } catch (NotFoundException x) {
+      // workspace is removed meanwhile, removal event will update the usage
+    } catch (ServerException | RuntimeException x) {
+      LOG.warn(
+          "Failed to update resources usage of workspace '{}'. {}", workspaceId, x.getMessage());
+      forget(workspaceId);
+    }
+  }
+
+  private void onWorkspaceCreated(Workspace workspace) {
+    AccountUsage usage = getAccountUsage(workspace.getNamespace());
+    if (usage != null) {
+      synchronized (usage) {
+        namespaces.put(workspace.getId(), workspace.getNamespace());
+        usage.put(workspace.getId(), new WorkspaceUsage(STOPPED, 0));
+      }
+    }
+  }
+
+  private void onWorkspaceRemoved(Workspace workspace) {
+    AccountUsage usage = getAccountUsage(workspace.getNamespace());
+    if (usage != null) {
+      synchronized (usage) {
+        usage.remove(workspace.getId());
+      }
+    }
+    namespaces.remove(workspace.getId());
+  }
+
+  /** Makes usage of account of the given workspace to be loaded again on the next request. */
+  private void forget(String workspaceId) {
+    String namespace = namespaces.get(workspaceId);
+    if (namespace != null) {
+      AccountUsage usage = usages.remove(namespace);
+      if (usage != null) {
+        synchronized (usage) {
+          usage.version++;
+        }
+      }
+    }
+  }
+
+  private AccountUsage getAccountUsage(String namespace) {
+    return namespace == null ? null : usages.get(namespace);
+  }
+
+  /** Usage of resources by workspaces of an account. */
+  public static class Usage {
+    private final long ramMB;
+    private final long runtimes;
+    private final long workspaces;
+
+    public Usage(long ramMB, long runtimes, long workspaces) {
+      this.ramMB = ramMB;
+      this.runtimes = runtimes;
+      this.workspaces = workspaces;
+    }
+
+    /** Returns RAM used by active workspaces in megabytes. */
+    public long getRam() {
+      return ramMB;
+    }
+
+    /** Returns number of active (not stopped) workspaces. */
+    public long getRuntimes() {
+      return runtimes;
+    }
+
+    /** Returns number of all the workspaces. */
+    public long getWorkspaces() {
+      return workspaces;
+    }
+  }
+
+  /** Per workspace usages of an account with their totals, guarded by its own monitor. */
+  private static class AccountUsage {
+    final Map<String, WorkspaceUsage> workspaces = new HashMap<>();
+
+    boolean loaded;
+    /** Incremented on each change, so concurrent loading can detect that it is outdated. */
+    long version;
+
+    long ramMB;
+    long runtimes;
+
+    void reset(Map<String, WorkspaceUsage> newWorkspaces) {
+      workspaces.clear();
+      ramMB = 0;
+      runtimes = 0;
+      newWorkspaces.forEach(this::put);
+      loaded = true;
+    }
+
+    void put(String workspaceId, WorkspaceUsage usage) {
+      subtract(workspaces.put(workspaceId, usage));
+      if (usage.status != STOPPED) {
+        ramMB += usage.ramMB;
+        runtimes++;
+      }
+      version++;
+    }
+
+    void remove(String workspaceId) {
+      subtract(workspaces.remove(workspaceId));
+      version++;
+    }
+
+    Usage toUsage() {
+      return new Usage(ramMB, runtimes, workspaces.size());
+    }
+
+    private void subtract(WorkspaceUsage usage) {
+      if (usage != null && usage.status != STOPPED) {
+        ramMB -= usage.ramMB;
+        runtimes--;
+      }
+    }
+  }
+
+  private static class WorkspaceUsage {
+    final WorkspaceStatus status;
+    final long ramMB;
+
+    WorkspaceUsage(WorkspaceStatus status, long ramMB) {
+      this.status = status;
+      this.ramMB = ramMB;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof WorkspaceUsage)) {
+        return false;
+      }
+      WorkspaceUsage that = (WorkspaceUsage) obj;
+      return status == that.status && ramMB == that.ramMB;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * status.hashCode() + Long.hashCode(ramMB);
+    }
+  }
+}
@@ -10,18 +10,13 @@
  */
 package org.eclipse.che.multiuser.resource.api.usage.tracker;
 
-import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
-
 import java.util.Optional;
 import javax.inject.Inject;
-import javax.inject.Provider;
 import javax.inject.Singleton;
 import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
-import org.eclipse.che.api.core.Pages;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.api.workspace.server.WorkspaceManager;
 import org.eclipse.che.multiuser.resource.api.ResourceUsageTracker;
 import org.eclipse.che.multiuser.resource.api.type.RuntimeResourceType;
 import org.eclipse.che.multiuser.resource.model.Resource;
@@ -30,32 +25,26 @@ import org.eclipse.che.multiuser.resource.spi.impl.ResourceImpl;
 /**
  * Tracks usage of {@link RuntimeResourceType} resource.
  *
+ * @see ResourceUsageLedger
  * @author Sergii Leschenko
  */
 @Singleton
 public class RuntimeResourceUsageTracker implements ResourceUsageTracker {
-  private final Provider<WorkspaceManager> workspaceManagerProvider;
   private final AccountManager accountManager;
+  private final ResourceUsageLedger usageLedger;
 
   @Inject
   public RuntimeResourceUsageTracker(
-      Provider<WorkspaceManager> workspaceManagerProvider, AccountManager accountManager) {
-    this.workspaceManagerProvider = workspaceManagerProvider;
+      AccountManager accountManager, ResourceUsageLedger usageLedger) {
     this.accountManager = accountManager;
+    this.usageLedger = usageLedger;
   }
 
   @Override
   public Optional<Resource> getUsedResource(String accountId)
       throws NotFoundException, ServerException {
     final Account account = accountManager.getById(accountId);
-    final long currentlyUsedRuntimes =
-        Pages.stream(
-                (maxItems, skipCount) ->
-                    workspaceManagerProvider
-                        .get()
-                        .getByNamespace(account.getName(), false, maxItems, skipCount))
-            .filter(ws -> STOPPED != ws.getStatus())
-            .count();
+    final long currentlyUsedRuntimes = usageLedger.getUsage(account.getName()).getRuntimes();
     if (currentlyUsedRuntimes > 0) {
       return Optional.of(
           new ResourceImpl(
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.resource.api.usage.tracker;
+
+import static java.util.Arrays.asList;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.RUNNING;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STARTING;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.HashMap;
+import javax.inject.Provider;
+import org.eclipse.che.account.spi.AccountImpl;
+import org.eclipse.che.api.core.Page;
+import org.eclipse.che.api.core.model.workspace.Runtime;
+import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.core.model.workspace.config.Environment;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.workspace.server.WorkspaceManager;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.RuntimeImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
+import org.eclipse.che.api.workspace.shared.event.WorkspaceCreatedEvent;
+import org.eclipse.che.api.workspace.shared.event.WorkspaceRemovedEvent;
+import org.eclipse.che.multiuser.resource.api.usage.tracker.ResourceUsageLedger.Usage;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link ResourceUsageLedger}. */
+@Listeners(MockitoTestNGListener.class)
+public class ResourceUsageLedgerTest {
+
+  private static final String NAMESPACE = "testAccount";
+  private static final String ACTIVE_ENV_NAME = "default";
+
+  @Mock private Provider<WorkspaceManager> workspaceManagerProvider;
+  @Mock private WorkspaceManager workspaceManager;
+  @Mock private EnvironmentRamCalculator envRamCalculator;
+
+  private EventService eventService;
+  private ResourceUsageLedger ledger;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
+    eventService = new EventService();
+    ledger = new ResourceUsageLedger(workspaceManagerProvider, envRamCalculator, eventService);
+    ledger.subscribe();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    ledger.unsubscribe();
+  }
+
+  @Test
+  public void shouldCalculateUsageOfAccountWorkspaces() throws Exception {
+    WorkspaceImpl stopped = createWorkspace("ws1", STOPPED);
+    WorkspaceImpl running = createWorkspace("ws2", RUNNING);
+    WorkspaceImpl starting = createWorkspace("ws3", STARTING);
+    mockWorkspaces(stopped, running, starting);
+    when(envRamCalculator.calculate(running.getRuntime())).thenReturn(2000L);
+    when(envRamCalculator.calculate(any(Environment.class))).thenReturn(1500L);
+
+    Usage usage = ledger.getUsage(NAMESPACE);
+
+    assertUsage(usage, 3500, 2, 3);
+    verify(workspaceManager).getByNamespace(eq(NAMESPACE), eq(true), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldNotFetchWorkspacesWhenUsageIsAlreadyLoaded() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+
+    ledger.getUsage(NAMESPACE);
+    ledger.getUsage(NAMESPACE);
+
+    verify(workspaceManager, times(1)).getByNamespace(any(), eq(true), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldUpdateUsageOnWorkspaceStatusEvents() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+    assertUsage(ledger.getUsage(NAMESPACE), 0, 0, 1);
+
+    when(workspaceManager.getWorkspace("ws1")).thenReturn(createWorkspace("ws1", STARTING));
+    when(envRamCalculator.calculate(any(Environment.class))).thenReturn(1000L);
+    eventService.publish(statusEvent("ws1", STARTING));
+    assertUsage(ledger.getUsage(NAMESPACE), 1000, 1, 1);
+
+    WorkspaceImpl running = createWorkspace("ws1", RUNNING);
+    when(workspaceManager.getWorkspace("ws1")).thenReturn(running);
+    when(envRamCalculator.calculate(any(Runtime.class))).thenReturn(1500L);
+    eventService.publish(statusEvent("ws1", RUNNING));
+    assertUsage(ledger.getUsage(NAMESPACE), 1500, 1, 1);
+
+    eventService.publish(statusEvent("ws1", WorkspaceStatus.STOPPING));
+    assertUsage(ledger.getUsage(NAMESPACE), 1500, 1, 1);
+
+    eventService.publish(statusEvent("ws1", STOPPED));
+    assertUsage(ledger.getUsage(NAMESPACE), 0, 0, 1);
+    verify(workspaceManager, times(1)).getByNamespace(any(), eq(true), anyInt(), anyLong());
+  }
+
+  @Test
+  public void shouldUpdateUsageOnWorkspaceCreationAndRemoval() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+    ledger.getUsage(NAMESPACE);
+
+    eventService.publish(new WorkspaceCreatedEvent(createWorkspace("ws2", STOPPED)));
+    assertUsage(ledger.getUsage(NAMESPACE), 0, 0, 2);
+
+    eventService.publish(new WorkspaceRemovedEvent(createWorkspace("ws1", STOPPED)));
+    assertUsage(ledger.getUsage(NAMESPACE), 0, 0, 1);
+  }
+
+  @Test
+  public void shouldIgnoreEventsOfNotLoadedAccounts() throws Exception {
+    eventService.publish(new WorkspaceCreatedEvent(createWorkspace("ws1", STOPPED)));
+    eventService.publish(new WorkspaceCreatedEvent(createWorkspace("ws2", STOPPED)));
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+
+    assertUsage(ledger.getUsage(NAMESPACE), 0, 0, 1);
+  }
+
+  @Test
+  public void shouldFixUsageOnReconciliation() throws Exception {
+    mockWorkspaces(createWorkspace("ws1", STOPPED));
+    ledger.getUsage(NAMESPACE);
+
+    // workspace is started while its events are missed
+    WorkspaceImpl running = createWorkspace("ws1", RUNNING);
+    mockWorkspaces(running, createWorkspace("ws2", STOPPED));
+    when(envRamCalculator.calculate(running.getRuntime())).thenReturn(2000L);
+    ledger.reconcile();
+
+    assertUsage(ledger.getUsage(NAMESPACE), 2000, 1, 2);
+  }
+
+  private void mockWorkspaces(WorkspaceImpl... workspaces) throws Exception {
+    when(workspaceManager.getByNamespace(eq(NAMESPACE), eq(true), anyInt(), anyLong()))
+        .thenReturn(new Page<>(asList(workspaces), 0, workspaces.length, workspaces.length));
+  }
+
+  private static void assertUsage(Usage usage, long ram, long runtimes, long workspaces) {
+    assertEquals(usage.getRam(), ram);
+    assertEquals(usage.getRuntimes(), runtimes);
+    assertEquals(usage.getWorkspaces(), workspaces);
+  }
+
+  private static WorkspaceStatusEvent statusEvent(String workspaceId, WorkspaceStatus status) {
+    WorkspaceStatusEvent event = mock(WorkspaceStatusEvent.class);
+    when(event.getWorkspaceId()).thenReturn(workspaceId);
+    when(event.getStatus()).thenReturn(status);
+    return event;
+  }
+
+  private static WorkspaceImpl createWorkspace(String id, WorkspaceStatus status) {
+    return WorkspaceImpl.builder()
+        .setId(id)
+        .setAccount(new AccountImpl("account123", NAMESPACE, "test"))
+        .setConfig(
+            WorkspaceConfigImpl.builder()
+                .setEnvironments(
+                    ImmutableMap.of(ACTIVE_ENV_NAME, new EnvironmentImpl(null, new HashMap<>())))
+                .build())
+        .setRuntime(
+            status == STOPPED ? null : new RuntimeImpl(ACTIVE_ENV_NAME, new HashMap<>(), null))
+        .setStatus(status)
+        .build();
+  }
+}
@@ -10,37 +10,23 @@
  */
 package org.eclipse.che.multiuser.resource.api.usage.tracker;
 
-import static java.util.Collections.singletonList;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyBoolean;
-import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import javax.inject.Provider;
 import org.eclipse.che.account.api.AccountManager;
 import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
-import org.eclipse.che.api.core.Page;
-import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
-import org.eclipse.che.api.workspace.server.WorkspaceManager;
-import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.multiuser.resource.api.type.RuntimeResourceType;
+import org.eclipse.che.multiuser.resource.api.usage.tracker.ResourceUsageLedger.Usage;
 import org.eclipse.che.multiuser.resource.model.Resource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
-import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
@@ -51,17 +37,14 @@ import org.testng.annotations.Test;
  */
 @Listeners(MockitoTestNGListener.class)
 public class RuntimeResourceUsageTrackerTest {
-  @Mock private Provider<WorkspaceManager> workspaceManagerProvider;
-  @Mock private WorkspaceManager workspaceManager;
+  private static final String ACCOUNT_ID = "account123";
+  private static final String ACCOUNT_NAME = "testAccount";
+
   @Mock private AccountManager accountManager;
+  @Mock private ResourceUsageLedger usageLedger;
   @Mock private Account account;
 
-  @InjectMocks private RuntimeResourceUsageTracker runtimeResourceUsageTracker;
-
-  @BeforeMethod
-  public void setUp() throws Exception {
-    when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
-  }
+  @InjectMocks private RuntimeResourceUsageTracker tracker;
 
   @Test(
     expectedExceptions = NotFoundException.class,
@@ -71,48 +54,33 @@ public class RuntimeResourceUsageTrackerTest {
       throws Exception {
     when(accountManager.getById(any())).thenThrow(new NotFoundException("Account was not found"));
 
-    runtimeResourceUsageTracker.getUsedResource("account123");
+    tracker.getUsedResource(ACCOUNT_ID);
   }
 
   @Test
   public void shouldReturnEmptyOptionalWhenAccountDoesNotUseRuntimes() throws Exception {
-    when(accountManager.getById(any())).thenReturn(account);
-    when(account.getName()).thenReturn("testAccount");
+    when(accountManager.getById(ACCOUNT_ID)).thenReturn(account);
+    when(account.getName()).thenReturn(ACCOUNT_NAME);
+    when(usageLedger.getUsage(ACCOUNT_NAME)).thenReturn(new Usage(0, 0, 0));
 
-    when(workspaceManager.getByNamespace(anyString(), anyBoolean(), anyInt(), anyLong()))
-        .thenReturn(new Page<>(singletonList(createWorkspace(WorkspaceStatus.STOPPED)), 0, 1, 1));
+    Optional<Resource> usedOpt = tracker.getUsedResource(ACCOUNT_ID);
 
-    Optional<Resource> usedRuntimesOpt = runtimeResourceUsageTracker.getUsedResource("account123");
-
-    assertFalse(usedRuntimesOpt.isPresent());
+    assertFalse(usedOpt.isPresent());
   }
 
   @Test
   public void shouldReturnUsedRuntimesForGivenAccount() throws Exception {
-    when(accountManager.getById(any())).thenReturn(account);
-    when(account.getName()).thenReturn("testAccount");
-
-    List<WorkspaceImpl> runtimes =
-        Stream.of(WorkspaceStatus.values())
-            .map(RuntimeResourceUsageTrackerTest::createWorkspace)
-            .collect(Collectors.toList());
-    when(workspaceManager.getByNamespace(anyString(), anyBoolean(), anyInt(), anyLong()))
-        .thenReturn(new Page<>(runtimes, 0, runtimes.size(), runtimes.size()));
-
-    Optional<Resource> usedRuntimesOpt = runtimeResourceUsageTracker.getUsedResource("account123");
-
-    assertTrue(usedRuntimesOpt.isPresent());
-    Resource usedRuntimes = usedRuntimesOpt.get();
-    assertEquals(usedRuntimes.getType(), RuntimeResourceType.ID);
-    assertEquals(
-        usedRuntimes.getAmount(), WorkspaceStatus.values().length - 1); // except stopped workspaces
-    assertEquals(usedRuntimes.getUnit(), RuntimeResourceType.UNIT);
-    verify(accountManager).getById(eq("account123"));
-    verify(workspaceManager).getByNamespace(eq("testAccount"), eq(false), anyInt(), anyLong());
-  }
-
-  /** Creates users workspace object based on the status. */
-  public static WorkspaceImpl createWorkspace(WorkspaceStatus status) {
-    return WorkspaceImpl.builder().setStatus(status).build();
+    when(accountManager.getById(ACCOUNT_ID)).thenReturn(account);
+    when(account.getName()).thenReturn(ACCOUNT_NAME);
+    when(usageLedger.getUsage(ACCOUNT_NAME)).thenReturn(new Usage(2048, 3, 5));
+
+    Optional<Resource> usedOpt = tracker.getUsedResource(ACCOUNT_ID);
+
+    assertTrue(usedOpt.isPresent());
+    Resource used = usedOpt.get();
+    assertEquals(used.getType(), RuntimeResourceType.ID);
+    assertEquals(used.getAmount(), 3);
+    assertEquals(used.getUnit(), RuntimeResourceType.UNIT);
+    verify(accountManager).getById(ACCOUNT_ID);
   }
 }
@@ -55,6 +55,9 @@ import org.eclipse.che.multiuser.api.permission.server.jpa.JpaSystemPermissionsD
 import org.eclipse.che.multiuser.api.permission.server.model.impl.SystemPermissionsImpl;
 import org.eclipse.che.multiuser.api.permission.server.spi.PermissionsDao;
 import org.eclipse.che.multiuser.api.permission.server.spi.tck.SystemPermissionsDaoTest;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.MachineTokenDao;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.impl.MachineTokenImpl;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.jpa.JpaMachineTokenDao;
 import org.eclipse.che.multiuser.organization.api.permissions.OrganizationDomain;
 import org.eclipse.che.multiuser.organization.spi.MemberDao;
 import org.eclipse.che.multiuser.organization.spi.OrganizationDao;
@@ -162,11 +165,16 @@ public class MultiuserPostgresqlTckModule extends TckModule {
     bind(new TypeLiteral<TckRepository<FreeResourcesLimitImpl>>() {})
         .toInstance(new JpaTckRepository<>(FreeResourcesLimitImpl.class));
 
+    // machine-authentication
+    bind(new TypeLiteral<TckRepository<MachineTokenImpl>>() {})
+        .toInstance(new JpaTckRepository<>(MachineTokenImpl.class));
+
     // dao
     bind(OrganizationDao.class).to(JpaOrganizationDao.class);
     bind(OrganizationDistributedResourcesDao.class)
         .to(JpaOrganizationDistributedResourcesDao.class);
     bind(FreeResourcesLimitDao.class).to(JpaFreeResourcesLimitDao.class);
+    bind(MachineTokenDao.class).to(JpaMachineTokenDao.class);
 
     bind(WorkerDao.class).to(JpaWorkerDao.class);
     bind(MemberDao.class).to(JpaMemberDao.class);
@@ -10,25 +10,20 @@
  */
 package org.eclipse.che.multiuser.keycloak.server;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hashing;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureException;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.lang.reflect.Type;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.security.KeyFactory;
-import java.security.NoSuchAlgorithmException;
-import java.security.PublicKey;
-import java.security.spec.InvalidKeySpecException;
-import java.security.spec.X509EncodedKeySpec;
-import java.util.Base64;
-import java.util.Map;
+import java.util.Date;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -43,29 +38,40 @@ import org.eclipse.che.multiuser.keycloak.shared.KeycloakConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Verifies JWT of the request with the keys of the Keycloak realm.
+ *
+ * <p>Verified tokens are cached by SHA-256 hash of the token until their expiration, so requests
+ * with the same token don't verify the signature again.
+ */
 @Singleton
 public class KeycloakAuthenticationFilter extends AbstractKeycloakFilter {
-  private static final Gson GSON = new Gson();
-  private static final Type STRING_MAP_TYPE = new TypeToken<Map<String, String>>() {}.getType();
 
   private static final Logger LOG = LoggerFactory.getLogger(KeycloakAuthenticationFilter.class);
 
-  private String authServerUrl;
-  private String realm;
-  private long allowedClockSkewSec;
-  private PublicKey publicKey = null;
-  private RequestTokenExtractor tokenExtractor;
+  /** Upper bound of time while verified token is cached, tokens usually expire earlier. */
+  private static final long TOKEN_CACHE_EXPIRE_SEC = 3600;
+
+  private final long allowedClockSkewSec;
+  private final RequestTokenExtractor tokenExtractor;
+  private final KeycloakSigningKeyResolver signingKeyResolver;
+  private final Cache<String, Jws<Claims>> verifiedTokens;
 
   @Inject
   public KeycloakAuthenticationFilter(
-      @Named(KeycloakConstants.AUTH_SERVER_URL_SETTING) String authServerUrl,
-      @Named(KeycloakConstants.REALM_SETTING) String realm,
       @Named(KeycloakConstants.ALLOWED_CLOCK_SKEW_SEC) long allowedClockSkewSec,
-      RequestTokenExtractor tokenExtractor) {
-    this.authServerUrl = authServerUrl;
-    this.realm = realm;
+      @Named("che.keycloak.token_cache.max_size") long tokenCacheMaxSize,
+      RequestTokenExtractor tokenExtractor,
+      KeycloakSigningKeyResolver signingKeyResolver) {
     this.allowedClockSkewSec = allowedClockSkewSec;
     this.tokenExtractor = tokenExtractor;
+    this.signingKeyResolver = signingKeyResolver;
+    this.verifiedTokens =
+        CacheBuilder.newBuilder()
+            .maximumSize(tokenCacheMaxSize)
+            .expireAfterWrite(TOKEN_CACHE_EXPIRE_SEC, SECONDS)
+            .recordStats()
+            .build();
   }
 
   @Override
@@ -88,72 +94,49 @@ public class KeycloakAuthenticationFilter extends AbstractKeycloakFilter {
 
     Jws<Claims> jwt;
     try {
-      jwt =
-          Jwts.parser()
-              .setAllowedClockSkewSeconds(allowedClockSkewSec)
-              .setSigningKey(getJwtPublicKey(false))
-              .parseClaimsJws(token);
+      jwt = verify(token);
       LOG.debug("JWT = ", jwt);
       // OK, we can trust this JWT
-    } catch (SignatureException
-        | NoSuchAlgorithmException
-        | InvalidKeySpecException
-        | IllegalArgumentException e) {
+    } catch (SignatureException | IllegalArgumentException e) {
       // don't trust the JWT!
       LOG.error("Failed verifying the JWT token", e);
-      try {
-        LOG.info("Retrying after updating the public key", e);
-        jwt =
-            Jwts.parser()
-                .setAllowedClockSkewSeconds(allowedClockSkewSec)
-                .setSigningKey(getJwtPublicKey(true))
-                .parseClaimsJws(token);
-        LOG.debug("JWT = ", jwt);
-        // OK, we can trust this JWT
-      } catch (SignatureException
-          | NoSuchAlgorithmException
-          | InvalidKeySpecException
-          | IllegalArgumentException ee) {
-        // don't trust the JWT!
-        LOG.error("Failed verifying the JWT token after public key update", e);
-        send403(res);
-        return;
-      }
+      send403(res);
+      return;
     }
     request.setAttribute("token", jwt);
     chain.doFilter(req, res);
   }
 
-  private synchronized PublicKey getJwtPublicKey(boolean reset)
-      throws NoSuchAlgorithmException, InvalidKeySpecException {
-    if (reset) {
-      publicKey = null;
-    }
-    if (publicKey == null) {
-      HttpURLConnection conn = null;
-      try {
-        URL url = new URL(authServerUrl + "/realms/" + realm);
-        LOG.info("Pulling realm public key from URL : {}", url);
-        conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        Map<String, String> realmSettings;
-        try (BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-          realmSettings = GSON.fromJson(in, STRING_MAP_TYPE);
-        }
-        String encodedPublicKey = realmSettings.get("public_key");
-        byte[] decoded = Base64.getDecoder().decode(encodedPublicKey);
-        X509EncodedKeySpec keySpec = new X509EncodedKeySpec(decoded);
-        KeyFactory kf = KeyFactory.getInstance("RSA");
-        publicKey = kf.generatePublic(keySpec);
-      } catch (IOException e) {
-        LOG.error("Exception during retrieval of the Keycloak realm public key", e);
-      } finally {
-        if (conn != null) {
-          conn.disconnect();
-        }
+  /** Returns statistics of the verified tokens cache. */
+  @VisibleForTesting
+  CacheStats getCacheStats() {
+    return verifiedTokens.stats();
+  }
+
+  private Jws<Claims> verify(String token) {
+    final String tokenHash = Hashing.sha256().hashString(token, UTF_8).toString();
+    final Jws<Claims> cached = verifiedTokens.getIfPresent(tokenHash);
+    if (cached != null) {
+      if (!isExpired(cached)) {
+        return cached;
       }
+      verifiedTokens.invalidate(tokenHash);
     }
-    return publicKey;
+    // expired token is verified again, so it is rejected in the same way as before caching
+    final Jws<Claims> jwt =
+        Jwts.parser()
+            .setAllowedClockSkewSeconds(allowedClockSkewSec)
+            .setSigningKeyResolver(signingKeyResolver)
+            .parseClaimsJws(token);
+    verifiedTokens.put(tokenHash, jwt);
+    return jwt;
+  }
+
+  private boolean isExpired(Jws<Claims> jwt) {
+    final Date expiration = jwt.getBody().getExpiration();
+    return expiration != null
+        && expiration.getTime() + SECONDS.toMillis(allowedClockSkewSec)
+            <= System.currentTimeMillis();
   }
 
   private void send403(ServletResponse res) throws IOException {
@@ -11,14 +11,20 @@
 package org.eclipse.che.multiuser.keycloak.server;
 
 import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.che.commons.lang.NameGenerator.generate;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwt;
 import java.io.IOException;
 import java.security.Principal;
 import java.util.Optional;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -43,6 +49,9 @@ import org.eclipse.che.multiuser.api.permission.server.PermissionChecker;
 /**
  * Sets subject attribute into session based on keycloak authentication data.
  *
+ * <p>Users are cached by the subject of the token for a short time, so new tokens of the same user,
+ * e.g. refreshed ones, don't require the user to be fetched from the database again.
+ *
  * @author Max Shaposhnik (mshaposhnik@redhat.com)
  */
 @Singleton
@@ -51,15 +60,24 @@ public class KeycloakEnvironmentInitalizationFilter extends AbstractKeycloakFilt
   private final UserManager userManager;
   private final RequestTokenExtractor tokenExtractor;
   private final PermissionChecker permissionChecker;
+  private final Cache<String, User> users;
 
   @Inject
   public KeycloakEnvironmentInitalizationFilter(
       UserManager userManager,
       RequestTokenExtractor tokenExtractor,
-      PermissionChecker permissionChecker) {
+      PermissionChecker permissionChecker,
+      @Named("che.keycloak.user_cache.max_size") long userCacheMaxSize,
+      @Named("che.keycloak.user_cache.expire_after_write_sec") long userCacheExpireSec) {
     this.userManager = userManager;
     this.tokenExtractor = tokenExtractor;
     this.permissionChecker = permissionChecker;
+    this.users =
+        CacheBuilder.newBuilder()
+            .maximumSize(userCacheMaxSize)
+            .expireAfterWrite(userCacheExpireSec, SECONDS)
+            .recordStats()
+            .build();
   }
 
   @Override
@@ -106,8 +124,25 @@ public class KeycloakEnvironmentInitalizationFilter extends AbstractKeycloakFilt
     }
   }
 
+  /** Returns statistics of the users cache. */
+  @VisibleForTesting
+  CacheStats getCacheStats() {
+    return users.stats();
+  }
+
   private User getOrCreateUser(String id, String email, String username)
       throws ServerException, ConflictException {
+    final User cached = users.getIfPresent(id);
+    if (cached != null && cached.getEmail().equals(email)) {
+      return cached;
+    }
+    final User user = doGetOrCreateUser(id, email, username);
+    users.put(id, user);
+    return user;
+  }
+
+  private User doGetOrCreateUser(String id, String email, String username)
+      throws ServerException, ConflictException {
     Optional<User> user = getUser(id);
     if (!user.isPresent()) {
       synchronized (this) {
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.keycloak.server;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigInteger;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.multiuser.keycloak.shared.KeycloakConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves keys which are used to verify signatures of tokens issued by the Keycloak realm. Keys
+ * are pulled from the JWKS endpoint of the realm and resolved by the {@code kid} header of the
+ * token, so tokens signed by both old and new keys are accepted while the realm keys are rotated.
+ *
+ * <p>Keys are kept in an immutable map which is replaced on refresh, so resolving doesn't block.
+ * Keys are refreshed periodically in background, and on demand when a token is signed by an
+ * unknown key, at most once per {@link #MIN_REFRESH_INTERVAL_MS}. When refresh fails, previously
+ * pulled keys are kept.
+ */
+@Singleton
+public class KeycloakSigningKeyResolver extends SigningKeyResolverAdapter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(KeycloakSigningKeyResolver.class);
+  private static final Gson GSON = new Gson();
+
+  static final long MIN_REFRESH_INTERVAL_MS = 10_000;
+
+  private final String jwksUrl;
+  private final long refreshPeriodMin;
+
+  private volatile Map<String, PublicKey> keys;
+  // guarded by this
+  private long lastRefreshTime;
+  private ScheduledExecutorService refresher;
+
+  @Inject
+  public KeycloakSigningKeyResolver(
+      @Named(KeycloakConstants.AUTH_SERVER_URL_SETTING) String authServerUrl,
+      @Named(KeycloakConstants.REALM_SETTING) String realm,
+      @Named("che.keycloak.jwks_refresh_period_min") long refreshPeriodMin) {
+    this.jwksUrl = authServerUrl + "/realms/" + realm + "/protocol/openid-connect/certs";
+    this.refreshPeriodMin = refreshPeriodMin;
+    this.keys = new HashMap<>();
+  }
+
+  @PostConstruct
+  public void start() {
+    if (refreshPeriodMin > 0) {
+      refresher =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder()
+                  .setNameFormat("KeycloakKeysRefresher")
+                  .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                  .setDaemon(true)
+                  .build());
+      refresher.scheduleWithFixedDelay(this::refresh, 0, refreshPeriodMin, MINUTES);
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (refresher != null) {
+      refresher.shutdownNow();
+    }
+  }
+
+  @Override
+  public Key resolveSigningKey(JwsHeader header, Claims claims) {
+    final String keyId = header.getKeyId();
+    PublicKey key = findKey(keys, keyId);
+    if (key == null) {
+      key = refreshAndFindKey(keyId);
+    }
+    if (key == null) {
+      throw new SignatureException("Signing key '" + keyId + "' of the token is not found");
+    }
+    return key;
+  }
+
+  /** Pulls keys of the realm, previous keys are kept if keys can't be pulled. */
+  @VisibleForTesting
+  synchronized void refresh() {
+    lastRefreshTime = System.currentTimeMillis();
+    HttpURLConnection conn = null;
+    try {
+      URL url = new URL(jwksUrl);
+      LOG.info("Pulling realm public keys from URL : {}", url);
+      conn = (HttpURLConnection) url.openConnection();
+      conn.setRequestMethod("GET");
+      JsonWebKeySet keySet;
+      try (BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
+        keySet = GSON.fromJson(in, JsonWebKeySet.class);
+      }
+      keys = parseKeys(keySet);
+    } catch (IOException | RuntimeException e) {
+      LOG.error("Exception during retrieval of the Keycloak realm public keys", e);
+    } finally {
+      if (conn != null) {
+        conn.disconnect();
+      }
+    }
+  }
+
+  private synchronized PublicKey refreshAndFindKey(String keyId) {
+    // keys may be already refreshed by another thread meanwhile
+    final PublicKey key = findKey(keys, keyId);
+    if (key != null || System.currentTimeMillis() - lastRefreshTime < MIN_REFRESH_INTERVAL_MS) {
+      return key;
+    }
+    refresh();
+    return findKey(keys, keyId);
+  }
+
+  /** Finds key by id, token without key id may be verified only when realm has a single key. */
+  private static PublicKey findKey(Map<String, PublicKey> keys, String keyId) {
+    if (keyId == null) {
+      return keys.size() == 1 ? keys.values().iterator().next() : null;
+    }
+    return keys.get(keyId);
+  }
+
+  @VisibleForTesting
+  static Map<String, PublicKey> parseKeys(JsonWebKeySet keySet) {
+    final Map<String, PublicKey> keys = new HashMap<>();
+    if (keySet == null || keySet.keys == null) {
+      return keys;
+    }
+    final Base64.Decoder decoder = Base64.getUrlDecoder();
+    for (JsonWebKey key : keySet.keys) {
+      if (!"RSA".equals(key.kty) || (key.use != null && !"sig".equals(key.use))) {
+        continue;
+      }
+      try {
+        final RSAPublicKeySpec keySpec =
+            new RSAPublicKeySpec(
+                new BigInteger(1, decoder.decode(key.n)), new BigInteger(1, decoder.decode(key.e)));
+        keys.put(key.kid, KeyFactory.getInstance("RSA").generatePublic(keySpec));
+      } catch (Exception e) {
+        LOG.warn("Skipping invalid realm public key '{}'. Cause: {}", key.kid, e.getMessage());
+      }
+    }
+    return keys;
+  }
+
+  /** JSON Web Key Set as it is returned by the JWKS endpoint of the realm. */
+  static class JsonWebKeySet {
+    List<JsonWebKey> keys;
+  }
+
+  /** Fields of JSON Web Key which are needed to build RSA public key. */
+  static class JsonWebKey {
+    String kid;
+    String kty;
+    String use;
+    String n;
+    String e;
+  }
+}
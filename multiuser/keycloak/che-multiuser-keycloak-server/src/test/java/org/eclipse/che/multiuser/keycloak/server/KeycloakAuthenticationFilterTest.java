@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.keycloak.server;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Date;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.eclipse.che.commons.auth.token.RequestTokenExtractor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link KeycloakAuthenticationFilter}. */
+@Listeners(MockitoTestNGListener.class)
+public class KeycloakAuthenticationFilterTest {
+
+  @Mock private RequestTokenExtractor tokenExtractor;
+  @Mock private KeycloakSigningKeyResolver signingKeyResolver;
+  @Mock private FilterChain chain;
+  @Mock private HttpServletRequest request;
+  @Mock private HttpServletResponse response;
+
+  private KeyPair keyPair;
+  private KeycloakAuthenticationFilter filter;
+
+  @BeforeClass
+  public void generateKeys() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    keyPair = generator.generateKeyPair();
+  }
+
+  @BeforeMethod
+  public void setUp() {
+    when(request.getScheme()).thenReturn("http");
+    when(signingKeyResolver.resolveSigningKey(any(JwsHeader.class), any(Claims.class)))
+        .thenReturn(keyPair.getPublic());
+    filter = new KeycloakAuthenticationFilter(3, 100, tokenExtractor, signingKeyResolver);
+  }
+
+  @Test
+  public void shouldVerifyTokenOnceForSubsequentRequests() throws Exception {
+    final String token = createToken(new Date(System.currentTimeMillis() + 60_000));
+    when(tokenExtractor.getToken(request)).thenReturn(token);
+
+    filter.doFilter(request, response, chain);
+    filter.doFilter(request, response, chain);
+
+    verify(signingKeyResolver).resolveSigningKey(any(JwsHeader.class), any(Claims.class));
+    verify(request, times(2)).setAttribute(eq("token"), any());
+    verify(chain, times(2)).doFilter(request, response);
+    assertEquals(filter.getCacheStats().hitCount(), 1);
+  }
+
+  @Test
+  public void shouldRejectTokenSignedByAnotherKey() throws Exception {
+    final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    final String token =
+        Jwts.builder()
+            .setSubject("user123")
+            .signWith(SignatureAlgorithm.RS256, generator.generateKeyPair().getPrivate())
+            .compact();
+    when(tokenExtractor.getToken(request)).thenReturn(token);
+
+    filter.doFilter(request, response, chain);
+
+    verify(response).sendError(403);
+    verify(chain, never()).doFilter(request, response);
+    assertEquals(filter.getCacheStats().hitCount(), 0);
+  }
+
+  @Test
+  public void shouldSendForbiddenWhenNoTokenInRequest() throws Exception {
+    filter.doFilter(request, response, chain);
+
+    verify(response).sendError(403);
+    verify(chain, never()).doFilter(request, response);
+  }
+
+  private String createToken(Date expiration) {
+    return Jwts.builder()
+        .setSubject("user123")
+        .setExpiration(expiration)
+        .signWith(SignatureAlgorithm.RS256, keyPair.getPrivate())
+        .compact();
+  }
+}
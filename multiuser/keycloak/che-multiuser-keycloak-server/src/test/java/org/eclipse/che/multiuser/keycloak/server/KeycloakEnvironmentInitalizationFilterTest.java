@@ -15,6 +15,7 @@ import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -69,7 +70,8 @@ public class KeycloakEnvironmentInitalizationFilterTest {
     EnvironmentContext context = spy(EnvironmentContext.getCurrent());
     EnvironmentContext.setCurrent(context);
     filter =
-        new KeycloakEnvironmentInitalizationFilter(userManager, tokenExtractor, permissionChecker);
+        new KeycloakEnvironmentInitalizationFilter(
+            userManager, tokenExtractor, permissionChecker, 1000, 60);
   }
 
   @Test
@@ -173,6 +175,28 @@ public class KeycloakEnvironmentInitalizationFilterTest {
     assertEquals(jwt.getBody().get("email"), captor.getValue().getEmail());
   }
 
+  @Test
+  public void shouldNotFetchCachedUserForNewToken() throws Exception {
+    UserImpl user = new UserImpl("id2", "test@test.com", "username");
+
+    // given
+    when(tokenExtractor.getToken(any(HttpServletRequest.class)))
+        .thenReturn("token1")
+        .thenReturn("token2");
+    when(request.getAttribute("token")).thenReturn(createJwt());
+    when(session.getAttribute(eq("che_subject"))).thenReturn(null);
+    when(userManager.getById(anyString())).thenReturn(user);
+
+    // when
+    filter.doFilter(request, response, chain);
+    filter.doFilter(request, response, chain);
+
+    // then
+    verify(userManager).getById("id2");
+    verify(session, times(2)).setAttribute(eq("che_subject"), any(AuthorizedSubject.class));
+    assertEquals(1, filter.getCacheStats().hitCount());
+  }
+
   private DefaultJwt<Claims> createJwt() {
     Map<String, Object> claimParams = new HashMap<>();
     claimParams.put("email", "test@test.com");
@@ -16,6 +16,8 @@ import static org.eclipse.che.inject.Matchers.names;
 import com.google.inject.AbstractModule;
 import org.eclipse.che.api.workspace.server.WorkspaceRuntimes;
 import org.eclipse.che.api.workspace.server.token.MachineTokenProvider;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.MachineTokenDao;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.jpa.JpaMachineTokenDao;
 
 /**
  * Machine auth module.
@@ -31,7 +33,10 @@ public class MachineAuthModule extends AbstractModule {
     bindInterceptor(subclassesOf(WorkspaceRuntimes.class), names("startAsync"), tokenInterceptor);
 
     bind(MachineSessionInvalidator.class).asEagerSingleton();
+    bind(MachineTokenLoader.class).asEagerSingleton();
 
     bind(MachineTokenProvider.class).to(MachineTokenProviderImpl.class);
+
+    bind(MachineTokenDao.class).to(JpaMachineTokenDao.class);
   }
 }
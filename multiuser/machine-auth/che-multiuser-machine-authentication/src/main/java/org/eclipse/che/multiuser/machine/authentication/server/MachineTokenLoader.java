@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.machine.authentication.server;
+
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.RUNNING;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STARTING;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.workspace.server.WorkspaceRuntimes;
+
+/**
+ * Loads persisted machine tokens on startup. Runtimes are recovered before the tokens are loaded,
+ * so that only tokens of the running and starting workspaces are restored.
+ */
+@Singleton
+public class MachineTokenLoader {
+
+  private final MachineTokenRegistry tokenRegistry;
+  private final WorkspaceRuntimes runtimes;
+
+  @Inject
+  public MachineTokenLoader(MachineTokenRegistry tokenRegistry, WorkspaceRuntimes runtimes) {
+    this.tokenRegistry = tokenRegistry;
+    this.runtimes = runtimes;
+  }
+
+  @PostConstruct
+  public void loadTokens() {
+    tokenRegistry.loadTokens(
+        workspaceId -> {
+          final WorkspaceStatus status = runtimes.getStatus(workspaceId);
+          return status == RUNNING || status == STARTING;
+        });
+  }
+}
@@ -11,29 +11,100 @@
 package org.eclipse.che.multiuser.machine.authentication.server;
 
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.eclipse.che.commons.lang.NameGenerator.generate;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
+import com.google.common.hash.Hashing;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.MachineTokenDao;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.impl.MachineTokenImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Table-based storage of machine security tokens. Table rows is workspace id's, columns - user
- * id's. Table is synchronized externally as required by its javadoc.
+ * Storage of machine security tokens. Tokens are kept per workspace and user, while the owner of
+ * each token is indexed by the hash of the token value, so the owner of a token is found without
+ * iterating over all the tokens. Tokens of a workspace are modified atomically by the concurrent
+ * map, so operations with different workspaces don't block each other.
+ *
+ * <p>When persistence is enabled, tokens are also stored with {@link MachineTokenDao} and loaded
+ * on startup, so running workspaces which are recovered after restart keep their tokens. Only the
+ * SHA-256 hashes of the tokens are stored, tokens are long random strings so the hashes don't need
+ * to be salted. Values of the loaded tokens are not known, so a user who asks for a token of such a
+ * workspace gets a new one while the loaded token stays valid. Failures of the persistent storage
+ * are logged and don't affect tokens kept in memory.
  *
  * @author Max Shaposhnik (mshaposhnik@codenvy.com)
- * @see HashBasedTable
  */
 @Singleton
 public class MachineTokenRegistry {
 
-  private final Table<String, String, String> tokens = HashBasedTable.create();
-  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private static final Logger LOG = LoggerFactory.getLogger(MachineTokenRegistry.class);
+
+  // workspace id -> tokens of the workspace
+  private final ConcurrentMap<String, WorkspaceTokens> tokens = new ConcurrentHashMap<>();
+  // hash of token -> owner of the token
+  private final ConcurrentMap<String, MachineTokenImpl> owners = new ConcurrentHashMap<>();
+
+  private final MachineTokenDao tokenDao;
+  private final boolean persistent;
+
+  @Inject
+  public MachineTokenRegistry(
+      MachineTokenDao tokenDao, @Named("che.auth.machine_token.persistent") boolean persistent) {
+    this.tokenDao = tokenDao;
+    this.persistent = persistent;
+  }
+
+  /**
+   * Loads persisted tokens of the active workspaces when persistence is enabled. Tokens of the
+   * other workspaces are not valid anymore, so they are removed from the storage.
+   *
+   * @param isActive tests whether the workspace with the given id is running or starting
+   */
+  public void loadTokens(Predicate<String> isActive) {
+    if (!persistent) {
+      return;
+    }
+    final List<MachineTokenImpl> persisted;
+    try {
+      persisted = tokenDao.getAll();
+    } catch (ServerException x) {
+      LOG.error("Couldn't load persisted machine tokens. Cause: {}", x.getMessage(), x);
+      return;
+    }
+    final Set<String> inactive = new HashSet<>();
+    for (MachineTokenImpl machineToken : persisted) {
+      final String workspaceId = machineToken.getWorkspaceId();
+      if (inactive.contains(workspaceId) || !isActive.test(workspaceId)) {
+        inactive.add(workspaceId);
+        continue;
+      }
+      tokens.compute(
+          workspaceId,
+          (id, wsTokens) -> {
+            if (wsTokens == null) {
+              wsTokens = new WorkspaceTokens();
+            }
+            wsTokens.hashes.add(machineToken.getTokenHash());
+            owners.put(machineToken.getTokenHash(), machineToken);
+            return wsTokens;
+          });
+    }
+    inactive.forEach(this::removePersisted);
+  }
 
   /**
    * Generates new machine security token for given user and workspace.
@@ -43,14 +114,20 @@ public class MachineTokenRegistry {
    * @return generated token value
    */
   public String generateToken(String userId, String workspaceId) {
-    lock.writeLock().lock();
-    try {
-      final String token = generate("machine", 128);
-      tokens.put(workspaceId, userId, token);
-      return token;
-    } finally {
-      lock.writeLock().unlock();
-    }
+    final String token = generate("machine", 128);
+    final MachineTokenImpl machineToken = new MachineTokenImpl(hash(token), userId, workspaceId);
+    final String[] replaced = new String[1];
+    tokens.compute(
+        workspaceId,
+        (id, wsTokens) -> {
+          if (wsTokens == null) {
+            wsTokens = new WorkspaceTokens();
+          }
+          replaced[0] = put(wsTokens, token, machineToken);
+          return wsTokens;
+        });
+    persist(machineToken, replaced[0]);
+    return token;
   }
 
   /**
@@ -63,16 +140,33 @@ public class MachineTokenRegistry {
    * @throws NotFoundException when there is no running workspace with given id
    */
   public String getOrCreateToken(String userId, String workspaceId) throws NotFoundException {
-    lock.writeLock().lock();
-    try {
-      final Map<String, String> wsRow = tokens.row(workspaceId);
-      if (wsRow.isEmpty()) {
-        throw new NotFoundException(format("No running workspace found with id %s", workspaceId));
-      }
-      return wsRow.get(userId) == null ? generateToken(userId, workspaceId) : wsRow.get(userId);
-    } finally {
-      lock.writeLock().unlock();
+    final WorkspaceTokens wsTokens = tokens.get(workspaceId);
+    final String token = wsTokens == null ? null : wsTokens.issued.get(userId);
+    if (token != null) {
+      return token;
+    }
+    final String[] created = new String[1];
+    final String[] existing = new String[1];
+    final MachineTokenImpl[] machineToken = new MachineTokenImpl[1];
+    tokens.computeIfPresent(
+        workspaceId,
+        (id, row) -> {
+          existing[0] = row.issued.get(userId);
+          if (existing[0] == null) {
+            created[0] = generate("machine", 128);
+            machineToken[0] = new MachineTokenImpl(hash(created[0]), userId, workspaceId);
+            put(row, created[0], machineToken[0]);
+          }
+          return row;
+        });
+    if (existing[0] != null) {
+      return existing[0];
     }
+    if (created[0] == null) {
+      throw new NotFoundException(format("No running workspace found with id %s", workspaceId));
+    }
+    persist(machineToken[0], null);
+    return created[0];
   }
 
   /**
@@ -82,33 +176,94 @@ public class MachineTokenRegistry {
    * @throws NotFoundException when no token exists for given user and workspace
    */
   public String getUserId(String token) throws NotFoundException {
-    lock.readLock().lock();
-    try {
-      for (Table.Cell<String, String, String> tokenCell : tokens.cellSet()) {
-        if (tokenCell.getValue().equals(token)) {
-          return tokenCell.getColumnKey();
-        }
-      }
+    final MachineTokenImpl machineToken = owners.get(hash(token));
+    if (machineToken == null) {
       throw new NotFoundException("User not found for token " + token);
-    } finally {
-      lock.readLock().unlock();
     }
+    return machineToken.getUserId();
   }
 
   /**
    * Invalidates machine security tokens for all users of given workspace.
    *
    * @param workspaceId workspace to invalidate tokens
-   * @return the copy of the tokens row, where row is a map where key is user id and value is token
+   * @return the copy of the tokens row, where row is a map where key is user id and value is token,
+   *     tokens loaded from the storage are not included as their values are not known
    */
   public Map<String, String> removeTokens(String workspaceId) {
-    lock.writeLock().lock();
+    final Map<String, String> rowCopy = new HashMap<>();
+    final boolean[] removed = new boolean[1];
+    tokens.computeIfPresent(
+        workspaceId,
+        (id, wsTokens) -> {
+          rowCopy.putAll(wsTokens.issued);
+          wsTokens.hashes.forEach(owners::remove);
+          removed[0] = true;
+          return null;
+        });
+    if (persistent && removed[0]) {
+      removePersisted(workspaceId);
+    }
+    return rowCopy;
+  }
+
+  /**
+   * Puts token into the workspace tokens, must be called while the workspace tokens are being
+   * computed.
+   *
+   * @return hash of the replaced token of the same user or {@code null}
+   */
+  private String put(WorkspaceTokens wsTokens, String token, MachineTokenImpl machineToken) {
+    final String replaced = wsTokens.issued.put(machineToken.getUserId(), token);
+    final String replacedHash = replaced == null ? null : hash(replaced);
+    if (replacedHash != null) {
+      wsTokens.hashes.remove(replacedHash);
+      owners.remove(replacedHash);
+    }
+    wsTokens.hashes.add(machineToken.getTokenHash());
+    owners.put(machineToken.getTokenHash(), machineToken);
+    return replacedHash;
+  }
+
+  private void persist(MachineTokenImpl machineToken, String replacedHash) {
+    if (persistent) {
+      try {
+        if (replacedHash != null) {
+          tokenDao.remove(replacedHash);
+        }
+        tokenDao.store(machineToken);
+      } catch (ServerException x) {
+        LOG.error(
+            "Couldn't persist machine token of user '{}' in workspace '{}'. Cause: {}",
+            machineToken.getUserId(),
+            machineToken.getWorkspaceId(),
+            x.getMessage(),
+            x);
+      }
+    }
+  }
+
+  private void removePersisted(String workspaceId) {
     try {
-      final Map<String, String> rowCopy = new HashMap<>(tokens.row(workspaceId));
-      tokens.row(workspaceId).clear();
-      return rowCopy;
-    } finally {
-      lock.writeLock().unlock();
+      tokenDao.removeTokens(workspaceId);
+    } catch (ServerException x) {
+      LOG.error(
+          "Couldn't remove persisted machine tokens of workspace '{}'. Cause: {}",
+          workspaceId,
+          x.getMessage(),
+          x);
     }
   }
+
+  private static String hash(String token) {
+    return Hashing.sha256().hashString(token, UTF_8).toString();
+  }
+
+  /** Tokens of a workspace, modified only while the workspace entry is being computed. */
+  private static class WorkspaceTokens {
+    // user id -> token issued after startup, read without computing the entry
+    final Map<String, String> issued = new ConcurrentHashMap<>();
+    // hashes of all the tokens of the workspace including the loaded ones
+    final Set<String> hashes = new HashSet<>();
+  }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.machine.authentication.server.spi;
+
+import java.util.List;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.impl.MachineTokenImpl;
+
+/** Defines data access object contract for persisted machine tokens. */
+public interface MachineTokenDao {
+
+  /**
+   * Stores machine token. A user may have several tokens in a workspace, e.g. the one loaded on
+   * startup and the one issued after it.
+   *
+   * @param token token to store
+   * @throws NullPointerException when {@code token} is null
+   * @throws ServerException when any other error occurs
+   */
+  void store(MachineTokenImpl token) throws ServerException;
+
+  /**
+   * Removes the token with the given hash, does nothing if there is no such token.
+   *
+   * @param tokenHash hash of the token value
+   * @throws NullPointerException when {@code tokenHash} is null
+   * @throws ServerException when any other error occurs
+   */
+  void remove(String tokenHash) throws ServerException;
+
+  /**
+   * Removes tokens of all the users of the given workspace.
+   *
+   * @param workspaceId id of workspace
+   * @throws NullPointerException when {@code workspaceId} is null
+   * @throws ServerException when any other error occurs
+   */
+  void removeTokens(String workspaceId) throws ServerException;
+
+  /**
+   * Gets all the stored tokens.
+   *
+   * @return list of tokens or empty list if there are no tokens
+   * @throws ServerException when any error occurs
+   */
+  List<MachineTokenImpl> getAll() throws ServerException;
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.machine.authentication.server.spi.impl;
+
+import java.util.Objects;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+/**
+ * Data object for machine security token of a user in a workspace. Only the hash of the token value
+ * is kept, so the stored tokens can be verified but not used by whoever reads the storage.
+ */
+@Entity(name = "MachineToken")
+@NamedQueries({
+  @NamedQuery(name = "MachineToken.getAll", query = "SELECT token FROM MachineToken token"),
+  @NamedQuery(
+    name = "MachineToken.getByWorkspace",
+    query = "SELECT token FROM MachineToken token WHERE token.workspaceId = :workspaceId"
+  )
+})
+@Table(name = "che_machine_token")
+public class MachineTokenImpl {
+
+  @Id
+  @Column(name = "token_hash")
+  private String tokenHash;
+
+  @Column(name = "user_id", nullable = false)
+  private String userId;
+
+  @Column(name = "workspace_id", nullable = false)
+  private String workspaceId;
+
+  public MachineTokenImpl() {}
+
+  public MachineTokenImpl(String tokenHash, String userId, String workspaceId) {
+    this.tokenHash = tokenHash;
+    this.userId = userId;
+    this.workspaceId = workspaceId;
+  }
+
+  public MachineTokenImpl(MachineTokenImpl machineToken) {
+    this(machineToken.getTokenHash(), machineToken.getUserId(), machineToken.getWorkspaceId());
+  }
+
+  /** Returns hash of the token value, see {@code MachineTokenRegistry}. */
+  public String getTokenHash() {
+    return tokenHash;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public String getWorkspaceId() {
+    return workspaceId;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof MachineTokenImpl)) {
+      return false;
+    }
+    final MachineTokenImpl that = (MachineTokenImpl) obj;
+    return Objects.equals(tokenHash, that.tokenHash)
+        && Objects.equals(userId, that.userId)
+        && Objects.equals(workspaceId, that.workspaceId);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 7;
+    hash = 31 * hash + Objects.hashCode(tokenHash);
+    hash = 31 * hash + Objects.hashCode(userId);
+    hash = 31 * hash + Objects.hashCode(workspaceId);
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return "MachineTokenImpl{"
+        + "userId='"
+        + userId
+        + '\''
+        + ", workspaceId='"
+        + workspaceId
+        + '\''
+        + '}';
+  }
+}
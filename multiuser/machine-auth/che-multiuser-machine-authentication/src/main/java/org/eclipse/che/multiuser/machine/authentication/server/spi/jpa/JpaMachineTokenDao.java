@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.machine.authentication.server.spi.jpa;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+import com.google.inject.persist.Transactional;
+import java.util.List;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import javax.persistence.EntityManager;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.MachineTokenDao;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.impl.MachineTokenImpl;
+
+/** JPA based implementation of {@link MachineTokenDao}. */
+@Singleton
+public class JpaMachineTokenDao implements MachineTokenDao {
+
+  @Inject private Provider<EntityManager> managerProvider;
+
+  @Override
+  public void store(MachineTokenImpl token) throws ServerException {
+    requireNonNull(token, "Required non-null token");
+    try {
+      doStore(token);
+    } catch (RuntimeException x) {
+      throw new ServerException(x.getLocalizedMessage(), x);
+    }
+  }
+
+  @Override
+  public void remove(String tokenHash) throws ServerException {
+    requireNonNull(tokenHash, "Required non-null token hash");
+    try {
+      doRemove(tokenHash);
+    } catch (RuntimeException x) {
+      throw new ServerException(x.getLocalizedMessage(), x);
+    }
+  }
+
+  @Override
+  public void removeTokens(String workspaceId) throws ServerException {
+    requireNonNull(workspaceId, "Required non-null workspace id");
+    try {
+      doRemoveTokens(workspaceId);
+    } catch (RuntimeException x) {
+      throw new ServerException(x.getLocalizedMessage(), x);
+    }
+  }
+
+  @Override
+  @Transactional
+  public List<MachineTokenImpl> getAll() throws ServerException {
+    try {
+      return managerProvider
+          .get()
+          .createNamedQuery("MachineToken.getAll", MachineTokenImpl.class)
+          .getResultList()
+          .stream()
+          .map(MachineTokenImpl::new)
+          .collect(toList());
+    } catch (RuntimeException x) {
+      throw new ServerException(x.getLocalizedMessage(), x);
+    }
+  }
+
+  @Transactional
+  protected void doStore(MachineTokenImpl token) {
+    final EntityManager manager = managerProvider.get();
+    manager.persist(token);
+    manager.flush();
+  }
+
+  @Transactional
+  protected void doRemove(String tokenHash) {
+    final EntityManager manager = managerProvider.get();
+    final MachineTokenImpl token = manager.find(MachineTokenImpl.class, tokenHash);
+    if (token != null) {
+      manager.remove(token);
+      manager.flush();
+    }
+  }
+
+  @Transactional
+  protected void doRemoveTokens(String workspaceId) {
+    final EntityManager manager = managerProvider.get();
+    manager
+        .createNamedQuery("MachineToken.getByWorkspace", MachineTokenImpl.class)
+        .setParameter("workspaceId", workspaceId)
+        .getResultList()
+        .forEach(manager::remove);
+    manager.flush();
+  }
+}
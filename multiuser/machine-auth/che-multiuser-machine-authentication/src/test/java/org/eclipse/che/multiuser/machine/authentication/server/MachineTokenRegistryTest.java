@@ -10,13 +10,27 @@
  */
 package org.eclipse.che.multiuser.machine.authentication.server;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertTrue;
 
+import com.google.common.hash.Hashing;
 import java.util.HashMap;
 import java.util.Map;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.MachineTokenDao;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.impl.MachineTokenImpl;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
 /**
@@ -24,11 +38,14 @@ import org.testng.annotations.Test;
  *
  * @author Yevhenii Voevodin
  */
+@Listeners(MockitoTestNGListener.class)
 public class MachineTokenRegistryTest {
 
+  @Mock private MachineTokenDao tokenDao;
+
   @Test
   public void removeTokensShouldReturnUserToTokenMap() throws Exception {
-    final MachineTokenRegistry registry = new MachineTokenRegistry();
+    final MachineTokenRegistry registry = new MachineTokenRegistry(tokenDao, false);
 
     final Map<String, String> userToToken = new HashMap<>();
     userToToken.put("user1", registry.generateToken("user1", "workspace123"));
@@ -45,6 +62,120 @@ public class MachineTokenRegistryTest {
     assertFalse(exists(registry, "user3", "workspace123"));
   }
 
+  @Test
+  public void shouldFindUserByToken() throws Exception {
+    final MachineTokenRegistry registry = new MachineTokenRegistry(tokenDao, false);
+    final String token1 = registry.generateToken("user1", "workspace123");
+    final String token2 = registry.getOrCreateToken("user2", "workspace123");
+
+    assertEquals(registry.getUserId(token1), "user1");
+    assertEquals(registry.getUserId(token2), "user2");
+    assertEquals(registry.getOrCreateToken("user2", "workspace123"), token2);
+  }
+
+  @Test(expectedExceptions = NotFoundException.class)
+  public void shouldNotFindUserByReplacedToken() throws Exception {
+    final MachineTokenRegistry registry = new MachineTokenRegistry(tokenDao, false);
+    final String token = registry.generateToken("user1", "workspace123");
+    assertNotEquals(registry.generateToken("user1", "workspace123"), token);
+
+    registry.getUserId(token);
+  }
+
+  @Test(expectedExceptions = NotFoundException.class)
+  public void shouldNotFindUserByRemovedToken() throws Exception {
+    final MachineTokenRegistry registry = new MachineTokenRegistry(tokenDao, false);
+    final String token = registry.generateToken("user1", "workspace123");
+    registry.removeTokens("workspace123");
+
+    registry.getUserId(token);
+  }
+
+  @Test
+  public void shouldNotUseDaoWhenPersistenceIsDisabled() throws Exception {
+    final MachineTokenRegistry registry = new MachineTokenRegistry(tokenDao, false);
+
+    registry.loadTokens(workspaceId -> true);
+    registry.generateToken("user1", "workspace123");
+    registry.removeTokens("workspace123");
+
+    verify(tokenDao, never()).getAll();
+    verify(tokenDao, never()).store(any());
+    verify(tokenDao, never()).removeTokens(any());
+  }
+
+  @Test
+  public void shouldStoreAndRemovePersistentTokens() throws Exception {
+    final MachineTokenRegistry registry = new MachineTokenRegistry(tokenDao, true);
+
+    final String token = registry.generateToken("user1", "workspace123");
+    registry.removeTokens("workspace123");
+
+    verify(tokenDao).store(new MachineTokenImpl(sha256(token), "user1", "workspace123"));
+    verify(tokenDao).removeTokens("workspace123");
+  }
+
+  @Test
+  public void shouldRemoveReplacedPersistentToken() throws Exception {
+    final MachineTokenRegistry registry = new MachineTokenRegistry(tokenDao, true);
+
+    final String token = registry.generateToken("user1", "workspace123");
+    registry.generateToken("user1", "workspace123");
+
+    verify(tokenDao).remove(sha256(token));
+  }
+
+  @Test
+  public void shouldLoadPersistentTokens() throws Exception {
+    when(tokenDao.getAll())
+        .thenReturn(
+            singletonList(new MachineTokenImpl(sha256("token123"), "user1", "workspace123")));
+    final MachineTokenRegistry registry = new MachineTokenRegistry(tokenDao, true);
+
+    registry.loadTokens(workspaceId -> true);
+
+    assertEquals(registry.getUserId("token123"), "user1");
+    // value of the loaded token is not known, so a new one is issued while both are valid
+    final String token = registry.getOrCreateToken("user1", "workspace123");
+    assertNotEquals(token, "token123");
+    assertEquals(registry.getUserId(token), "user1");
+    assertEquals(registry.getUserId("token123"), "user1");
+  }
+
+  @Test
+  public void shouldDropPersistentTokensOfInactiveWorkspaces() throws Exception {
+    when(tokenDao.getAll())
+        .thenReturn(
+            asList(
+                new MachineTokenImpl(sha256("token123"), "user1", "workspace123"),
+                new MachineTokenImpl(sha256("token234"), "user1", "workspace234")));
+    final MachineTokenRegistry registry = new MachineTokenRegistry(tokenDao, true);
+
+    registry.loadTokens("workspace123"::equals);
+
+    assertEquals(registry.getUserId("token123"), "user1");
+    assertFalse(exists(registry, "user1", "workspace234"));
+    verify(tokenDao).removeTokens("workspace234");
+    verify(tokenDao, never()).removeTokens("workspace123");
+  }
+
+  @Test(expectedExceptions = NotFoundException.class)
+  public void shouldNotFindUserByRemovedLoadedToken() throws Exception {
+    when(tokenDao.getAll())
+        .thenReturn(
+            singletonList(new MachineTokenImpl(sha256("token123"), "user1", "workspace123")));
+    final MachineTokenRegistry registry = new MachineTokenRegistry(tokenDao, true);
+    registry.loadTokens(workspaceId -> true);
+
+    registry.removeTokens("workspace123");
+
+    registry.getUserId("token123");
+  }
+
+  private static String sha256(String token) {
+    return Hashing.sha256().hashString(token, UTF_8).toString();
+  }
+
   private static boolean exists(MachineTokenRegistry registry, String user, String workspace) {
     try {
       registry.getOrCreateToken(user, workspace);
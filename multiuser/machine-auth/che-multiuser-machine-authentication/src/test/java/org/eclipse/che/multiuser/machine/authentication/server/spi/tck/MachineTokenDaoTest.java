@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.machine.authentication.server.spi.tck;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import javax.inject.Inject;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.commons.test.tck.TckListener;
+import org.eclipse.che.commons.test.tck.repository.TckRepository;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.MachineTokenDao;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.impl.MachineTokenImpl;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link MachineTokenDao} contract. */
+@Listeners(TckListener.class)
+@Test(suiteName = MachineTokenDaoTest.SUITE_NAME)
+public class MachineTokenDaoTest {
+  public static final String SUITE_NAME = "MachineTokenDaoTck";
+
+  private MachineTokenImpl[] tokens;
+
+  @Inject private TckRepository<MachineTokenImpl> tokenRepository;
+
+  @Inject private MachineTokenDao tokenDao;
+
+  @BeforeMethod
+  private void setUp() throws Exception {
+    tokens =
+        new MachineTokenImpl[] {
+          new MachineTokenImpl("hash1", "user1", "workspace1"),
+          new MachineTokenImpl("hash2", "user2", "workspace1"),
+          new MachineTokenImpl("hash3", "user1", "workspace2")
+        };
+    tokenRepository.createAll(asList(tokens));
+  }
+
+  @AfterMethod
+  private void cleanup() throws Exception {
+    tokenRepository.removeAll();
+  }
+
+  @Test
+  public void shouldGetAllTokens() throws Exception {
+    assertEquals(new HashSet<>(tokenDao.getAll()), new HashSet<>(asList(tokens)));
+  }
+
+  @Test
+  public void shouldStoreToken() throws Exception {
+    final MachineTokenImpl token = new MachineTokenImpl("hash4", "user2", "workspace2");
+
+    tokenDao.store(token);
+
+    assertTrue(tokenDao.getAll().contains(token));
+  }
+
+  @Test
+  public void shouldStoreSeveralTokensOfUserInWorkspace() throws Exception {
+    final MachineTokenImpl token = new MachineTokenImpl("hash4", "user1", "workspace1");
+
+    tokenDao.store(token);
+
+    final Set<MachineTokenImpl> all = new HashSet<>(tokenDao.getAll());
+    assertTrue(all.contains(token));
+    assertTrue(all.contains(tokens[0]));
+  }
+
+  @Test(expectedExceptions = ServerException.class)
+  public void shouldThrowServerExceptionWhenStoringTokenWithExistingHash() throws Exception {
+    tokenDao.store(new MachineTokenImpl(tokens[0].getTokenHash(), "user3", "workspace3"));
+  }
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void shouldThrowNpeWhenStoringNullToken() throws Exception {
+    tokenDao.store(null);
+  }
+
+  @Test
+  public void shouldRemoveToken() throws Exception {
+    tokenDao.remove(tokens[0].getTokenHash());
+
+    assertEquals(new HashSet<>(tokenDao.getAll()), new HashSet<>(asList(tokens[1], tokens[2])));
+  }
+
+  @Test
+  public void shouldNotFailWhenRemovingNonExistentToken() throws Exception {
+    tokenDao.remove("hash4");
+
+    assertEquals(tokenDao.getAll().size(), tokens.length);
+  }
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void shouldThrowNpeWhenRemovingTokenByNullHash() throws Exception {
+    tokenDao.remove(null);
+  }
+
+  @Test
+  public void shouldRemoveTokensOfWorkspace() throws Exception {
+    tokenDao.removeTokens("workspace1");
+
+    assertEquals(tokenDao.getAll(), asList(tokens[2]));
+  }
+
+  @Test(expectedExceptions = NullPointerException.class)
+  public void shouldThrowNpeWhenRemovingTokensOfNullWorkspace() throws Exception {
+    tokenDao.removeTokens(null);
+  }
+}
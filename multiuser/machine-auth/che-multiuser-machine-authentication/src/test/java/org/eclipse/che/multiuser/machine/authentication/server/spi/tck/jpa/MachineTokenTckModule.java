@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.machine.authentication.server.spi.tck.jpa;
+
+import com.google.inject.TypeLiteral;
+import com.google.inject.persist.jpa.JpaPersistModule;
+import org.eclipse.che.commons.test.db.H2DBTestServer;
+import org.eclipse.che.commons.test.db.H2JpaCleaner;
+import org.eclipse.che.commons.test.tck.TckModule;
+import org.eclipse.che.commons.test.tck.TckResourcesCleaner;
+import org.eclipse.che.commons.test.tck.repository.JpaTckRepository;
+import org.eclipse.che.commons.test.tck.repository.TckRepository;
+import org.eclipse.che.core.db.DBInitializer;
+import org.eclipse.che.core.db.schema.SchemaInitializer;
+import org.eclipse.che.core.db.schema.impl.flyway.FlywaySchemaInitializer;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.MachineTokenDao;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.impl.MachineTokenImpl;
+import org.eclipse.che.multiuser.machine.authentication.server.spi.jpa.JpaMachineTokenDao;
+
+public class MachineTokenTckModule extends TckModule {
+
+  @Override
+  protected void configure() {
+    install(new JpaPersistModule("main"));
+    H2DBTestServer server = H2DBTestServer.startDefault();
+    bind(SchemaInitializer.class)
+        .toInstance(new FlywaySchemaInitializer(server.getDataSource(), "che-schema"));
+    bind(DBInitializer.class).asEagerSingleton();
+    bind(TckResourcesCleaner.class).toInstance(new H2JpaCleaner(server));
+
+    bind(new TypeLiteral<TckRepository<MachineTokenImpl>>() {})
+        .toInstance(new JpaTckRepository<>(MachineTokenImpl.class));
+
+    bind(MachineTokenDao.class).to(JpaMachineTokenDao.class);
+  }
+}
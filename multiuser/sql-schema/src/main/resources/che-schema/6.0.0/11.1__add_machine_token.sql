@@ -0,0 +1,22 @@
+--
+-- Copyright (c) 2012-2018 Red Hat, Inc.
+-- All rights reserved. This program and the accompanying materials
+-- are made available under the terms of the Eclipse Public License v1.0
+-- which accompanies this distribution, and is available at
+-- http://www.eclipse.org/legal/epl-v10.html
+--
+-- Contributors:
+--   Red Hat, Inc. - initial API and implementation
+--
+
+-- Machine token ---------------------------------------------------------------
+CREATE TABLE che_machine_token (
+    token_hash      VARCHAR(255)    NOT NULL,
+    user_id         VARCHAR(255)    NOT NULL,
+    workspace_id    VARCHAR(255)    NOT NULL,
+
+    PRIMARY KEY (token_hash)
+);
+-- indexes
+CREATE INDEX che_index_machine_token_workspace_id ON che_machine_token (workspace_id);
+--------------------------------------------------------------------------------
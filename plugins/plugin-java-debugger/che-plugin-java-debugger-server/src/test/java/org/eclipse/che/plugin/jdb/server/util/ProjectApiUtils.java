@@ -82,6 +82,42 @@ public class ProjectApiUtils {
                 bind(File.class)
                     .annotatedWith(Names.named("vfs.local.fs_index_root_dir"))
                     .toInstance(indexDir);
+                bind(Boolean.class)
+                    .annotatedWith(Names.named("vfs.local.fs_index_persistent"))
+                    .toInstance(false);
+                bind(Integer.class)
+                    .annotatedWith(Names.named("vfs.local.fs_index_threads"))
+                    .toInstance(0);
+                bind(Integer.class)
+                    .annotatedWith(Names.named("vfs.local.fs_index_queue_size"))
+                    .toInstance(1000);
+                bind(Integer.class)
+                    .annotatedWith(Names.named("vfs.local.fs_index_commit_batch_size"))
+                    .toInstance(5000);
+                bind(Long.class)
+                    .annotatedWith(Names.named("vfs.local.fs_index_max_file_size"))
+                    .toInstance(1048576L);
+                bind(String.class)
+                    .annotatedWith(Names.named("vfs.local.fs_index_ignore_files"))
+                    .toInstance(".gitignore,.cheignore");
+                bind(Boolean.class)
+                    .annotatedWith(Names.named("che.fs.tree_walker.event_driven"))
+                    .toInstance(true);
+                bind(Integer.class)
+                    .annotatedWith(Names.named("che.fs.tree_walker.max_watched_directories"))
+                    .toInstance(0);
+                bind(Long.class)
+                    .annotatedWith(Names.named("che.fs.watcher.event_batch_delay_ms"))
+                    .toInstance(0L);
+                bind(Integer.class)
+                    .annotatedWith(Names.named("che.fs.watcher.event_burst_threshold"))
+                    .toInstance(0);
+                bind(Integer.class)
+                    .annotatedWith(Names.named("che.fs.zip.compression_level"))
+                    .toInstance(6);
+                bind(String.class)
+                    .annotatedWith(Names.named("che.fs.zip.stored_extensions"))
+                    .toInstance("zip,jar");
                 bind(String.class).annotatedWith(Names.named("che.api")).toInstance("api-endpoint");
                 bind(String.class)
                     .annotatedWith(Names.named("project.importer.default_importer_id"))
@@ -11,16 +11,26 @@
 package org.eclipse.che.api.git;
 
 import static com.google.common.collect.Sets.newConcurrentHashSet;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.isDirectory;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import com.google.common.io.BaseEncoding;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.PathMatcher;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -40,12 +50,20 @@ import org.eclipse.che.api.git.shared.Status;
 import org.eclipse.che.api.git.shared.StatusChangedEventDto;
 import org.eclipse.che.api.project.server.ProjectManager;
 import org.eclipse.che.api.project.server.impl.RegisteredProject;
+import org.eclipse.che.api.project.shared.dto.event.FileTrackingOperationDto;
 import org.eclipse.che.api.watcher.server.FileWatcherManager;
+import org.eclipse.che.api.watcher.server.detectors.FileTrackingOperationEvent;
 import org.slf4j.Logger;
 
 /**
  * Detects changes in index and ORIG_HEAD files and sends message to client Git handler.
  *
+ * <p>Status of a repository is computed once per change of its index or HEAD and the same message
+ * is sent to all the subscribed endpoints, repeated notifications about the same state of the
+ * repository are skipped. Edited regions are computed only for the files which are currently
+ * opened in editors, as clients use them only to show change markers in editors, so opening a
+ * changed file sends the status of its repository again.
+ *
  * @author Igor Vinokur
  */
 public class GitStatusChangedDetector implements EventSubscriber<StatusChangedEventDto> {
@@ -55,6 +73,9 @@ public class GitStatusChangedDetector implements EventSubscriber<StatusChangedEv
   private static final String GIT_DIR = ".git";
   private static final String INDEX_FILE = "index";
   private static final String ORIG_HEAD_FILE = "ORIG_HEAD";
+  private static final String HEAD_FILE = "HEAD";
+  /** Length of the SHA-1 checksum over the content of the index file stored at its end. */
+  private static final int INDEX_CHECKSUM_LENGTH = 20;
   private static final String INCOMING_METHOD = "track/git-index";
   private static final String OUTGOING_METHOD = "event/git/status-changed";
 
@@ -66,6 +87,12 @@ public class GitStatusChangedDetector implements EventSubscriber<StatusChangedEv
   private final EventService eventService;
 
   private final Set<String> endpointIds = newConcurrentHashSet();
+  /** Paths of the files opened in editors to ids of endpoints which opened them. */
+  private final Map<String, Set<String>> openedFiles = new ConcurrentHashMap<>();
+  /** States of repositories which were sent to endpoints, by paths of their working trees. */
+  private final Map<String, RepositoryState> repositoryStates = new ConcurrentHashMap<>();
+  private final EventSubscriber<FileTrackingOperationEvent> fileTrackingSubscriber =
+      this::onFileTrackingOperation;
 
   private int indexId;
   private int origHeadId;
@@ -106,6 +133,7 @@ public class GitStatusChangedDetector implements EventSubscriber<StatusChangedEv
             origHeadMatcher(), fsEventConsumer(), fsEventConsumer(), deleteConsumer());
 
     eventService.subscribe(this);
+    eventService.subscribe(fileTrackingSubscriber, FileTrackingOperationEvent.class);
   }
 
   @PreDestroy
@@ -114,6 +142,7 @@ public class GitStatusChangedDetector implements EventSubscriber<StatusChangedEv
     manager.unRegisterByMatcher(origHeadId);
 
     eventService.unsubscribe(this);
+    eventService.unsubscribe(fileTrackingSubscriber, FileTrackingOperationEvent.class);
   }
 
   private PathMatcher origHeadMatcher() {
@@ -143,52 +172,202 @@ public class GitStatusChangedDetector implements EventSubscriber<StatusChangedEv
   }
 
   private Consumer<String> fsEventConsumer() {
-    return it -> endpointIds.forEach(transmitConsumer(it));
-  }
-
-  private Consumer<String> transmitConsumer(String wsPath) {
-    return id -> {
-      try {
-        RegisteredProject project =
-            projectManager
-                .getClosest(wsPath)
-                .orElseThrow(() -> new NotFoundException("Can't find a project"));
-
-        String projectFsPath = pathTransformer.transform(project.getPath()).toString();
-        GitConnection connection = gitConnectionFactory.getConnection(projectFsPath);
-        Status status = connection.status(emptyList());
-        Status statusDto = newDto(Status.class);
-        statusDto.setAdded(status.getAdded());
-        statusDto.setUntracked(status.getUntracked());
-        statusDto.setChanged(status.getChanged());
-        statusDto.setModified(status.getModified());
-        statusDto.setMissing(status.getMissing());
-        statusDto.setRemoved(status.getRemoved());
-        statusDto.setConflicting(status.getConflicting());
-
-        Map<String, List<EditedRegion>> modifiedFiles = new HashMap<>();
-        for (String file : status.getChanged()) {
+    return this::onRepositoryChanged;
+  }
+
+  private void onRepositoryChanged(String wsPath) {
+    if (endpointIds.isEmpty()) {
+      return;
+    }
+    try {
+      RegisteredProject project =
+          projectManager
+              .getClosest(wsPath)
+              .orElseThrow(() -> new NotFoundException("Can't find a project"));
+
+      String projectFsPath = pathTransformer.transform(project.getPath()).toString();
+      RepositoryState state =
+          repositoryStates.computeIfAbsent(projectFsPath, path -> new RepositoryState());
+      sendStatus(project.getPath(), projectFsPath, state, false);
+    } catch (GitCommitInProgressException
+        | GitCheckoutInProgressException
+        | GitInvalidRepositoryException e) {
+      // Silent ignore
+    } catch (ServerException | NotFoundException e) {
+      LOG.error(e.getMessage());
+    }
+  }
+
+  /**
+   * Sends the status of the repository again when a file which was changed in the last sent status
+   * is opened, as the edited regions of the file were not computed then.
+   */
+  private void onFileOpened(String wsPath) {
+    if (endpointIds.isEmpty()) {
+      return;
+    }
+    RegisteredProject project = projectManager.getClosest(wsPath).orElse(null);
+    if (project == null || !wsPath.startsWith(project.getPath() + '/')) {
+      return;
+    }
+    String projectFsPath = pathTransformer.transform(project.getPath()).toString();
+    RepositoryState state = repositoryStates.get(projectFsPath);
+    String file = wsPath.substring(project.getPath().length() + 1);
+    if (state == null || !state.changedFiles.contains(file)) {
+      return;
+    }
+    try {
+      sendStatus(project.getPath(), projectFsPath, state, true);
+    } catch (GitCommitInProgressException
+        | GitCheckoutInProgressException
+        | GitInvalidRepositoryException e) {
+      // Silent ignore
+    } catch (ServerException e) {
+      LOG.error(e.getMessage());
+    }
+  }
+
+  private void sendStatus(
+      String projectWsPath, String projectFsPath, RepositoryState state, boolean force)
+      throws ServerException {
+    StatusChangedEventDto statusChangedEventDto;
+    // concurrent notifications about the same repository wait for the first one
+    // and then find out that the state is already sent
+    synchronized (state) {
+      String stateKey = readStateKey(new File(projectFsPath, GIT_DIR));
+      if (!force && stateKey != null && stateKey.equals(state.key)) {
+        return;
+      }
+      statusChangedEventDto = computeStatus(projectWsPath, projectFsPath);
+      Status status = statusChangedEventDto.getStatus();
+      state.changedFiles = new HashSet<>(status.getChanged());
+      state.changedFiles.addAll(status.getModified());
+      state.key = stateKey;
+    }
+
+    for (String id : endpointIds) {
+      transmit(statusChangedEventDto, id);
+    }
+  }
+
+  private StatusChangedEventDto computeStatus(String projectWsPath, String projectFsPath)
+      throws ServerException {
+    try (GitConnection connection = gitConnectionFactory.getConnection(projectFsPath)) {
+      Status status = connection.status(emptyList());
+      Status statusDto = newDto(Status.class);
+      statusDto.setAdded(status.getAdded());
+      statusDto.setUntracked(status.getUntracked());
+      statusDto.setChanged(status.getChanged());
+      statusDto.setModified(status.getModified());
+      statusDto.setMissing(status.getMissing());
+      statusDto.setRemoved(status.getRemoved());
+      statusDto.setConflicting(status.getConflicting());
+
+      Map<String, List<EditedRegion>> modifiedFiles = new HashMap<>();
+      for (String file : status.getChanged()) {
+        if (isOpened(projectWsPath, file)) {
           modifiedFiles.put(file, connection.getEditedRegions(file));
         }
-        for (String file : status.getModified()) {
+      }
+      for (String file : status.getModified()) {
+        if (isOpened(projectWsPath, file) && !modifiedFiles.containsKey(file)) {
           modifiedFiles.put(file, connection.getEditedRegions(file));
         }
+      }
+
+      return newDto(StatusChangedEventDto.class)
+          .withProjectName(connection.getWorkingDir().getName())
+          .withStatus(status)
+          .withModifiedFiles(modifiedFiles);
+    }
+  }
+
+  private boolean isOpened(String projectWsPath, String file) {
+    return openedFiles.containsKey(projectWsPath + '/' + file);
+  }
 
-        StatusChangedEventDto statusChangeEventDto =
-            newDto(StatusChangedEventDto.class)
-                .withProjectName(connection.getWorkingDir().getName())
-                .withStatus(status)
-                .withModifiedFiles(modifiedFiles);
-
-        transmit(statusChangeEventDto, id);
-      } catch (GitCommitInProgressException
-          | GitCheckoutInProgressException
-          | GitInvalidRepositoryException e) {
-        // Silent ignore
-      } catch (ServerException | NotFoundException e) {
-        LOG.error(e.getMessage());
+  /**
+   * Returns key which changes when index or HEAD of the repository changes, or {@code null} if the
+   * state of the repository can't be read.
+   *
+   * <p>Index is identified by the checksum of its content stored at the end of the file, as its
+   * modification time has one second resolution on some file systems.
+   */
+  private static String readStateKey(File gitDir) {
+    try {
+      String head = readContent(new File(gitDir, HEAD_FILE));
+      String key =
+          readIndexChecksum(new File(gitDir, INDEX_FILE))
+              + ":"
+              + readContent(new File(gitDir, ORIG_HEAD_FILE))
+              + ":"
+              + head;
+      if (head.startsWith("ref: ")) {
+        // commit doesn't change HEAD file itself but the file of the current branch
+        key += ":" + readContent(new File(gitDir, head.substring(5)));
       }
-    };
+      return key;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private static String readIndexChecksum(File index) throws IOException {
+    try (RandomAccessFile file = new RandomAccessFile(index, "r")) {
+      if (file.length() < INDEX_CHECKSUM_LENGTH) {
+        throw new IOException("Index file is truncated");
+      }
+      byte[] checksum = new byte[INDEX_CHECKSUM_LENGTH];
+      file.seek(file.length() - INDEX_CHECKSUM_LENGTH);
+      file.readFully(checksum);
+      return BaseEncoding.base16().encode(checksum);
+    }
+  }
+
+  /** Returns trimmed content of the file, or empty string if the file doesn't exist. */
+  private static String readContent(File file) throws IOException {
+    try {
+      return new String(Files.readAllBytes(file.toPath()), UTF_8).trim();
+    } catch (NoSuchFileException e) {
+      // ORIG_HEAD is absent until the first merge or reset, branches may be packed
+      return "";
+    }
+  }
+
+  private void onFileTrackingOperation(FileTrackingOperationEvent event) {
+    FileTrackingOperationDto operation = event.getFileTrackingOperation();
+    String endpointId = event.getEndpointId();
+    switch (operation.getType()) {
+      case START:
+        openedFiles
+            .computeIfAbsent(operation.getPath(), path -> newConcurrentHashSet())
+            .add(endpointId);
+        onFileOpened(operation.getPath());
+        break;
+      case STOP:
+        closeFile(operation.getPath(), endpointId);
+        break;
+      case MOVE:
+        closeFile(operation.getOldPath(), endpointId);
+        openedFiles
+            .computeIfAbsent(operation.getPath(), path -> newConcurrentHashSet())
+            .add(endpointId);
+        onFileOpened(operation.getPath());
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void closeFile(String path, String endpointId) {
+    if (path != null) {
+      openedFiles.computeIfPresent(
+          path,
+          (p, endpoints) -> {
+            endpoints.remove(endpointId);
+            return endpoints.isEmpty() ? null : endpoints;
+          });
+    }
   }
 
   @Override
@@ -206,4 +385,10 @@ public class GitStatusChangedDetector implements EventSubscriber<StatusChangedEv
         .paramsAsDto(statusChangedEventDto)
         .sendAndSkipResult();
   }
+
+  private static class RepositoryState {
+    String key;
+    /** Paths of the files which were changed or modified in the sent status. */
+    Set<String> changedFiles = emptySet();
+  }
 }
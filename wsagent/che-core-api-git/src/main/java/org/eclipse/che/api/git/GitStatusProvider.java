@@ -19,8 +19,10 @@ import static org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus.NOT
 import static org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus.UNTRACKED;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.inject.Inject;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
@@ -67,8 +69,10 @@ public class GitStatusProvider implements VcsStatusProvider {
       String projectFsPath = pathTransformer.transform(project.getPath()).toString();
       wsPath = wsPath.substring(wsPath.startsWith(SEPARATOR) ? 1 : 0);
       String itemPath = wsPath.substring(wsPath.indexOf(SEPARATOR) + 1);
-      Status status =
-          gitConnectionFactory.getConnection(projectFsPath).status(singletonList(itemPath));
+      Status status;
+      try (GitConnection gitConnection = gitConnectionFactory.getConnection(projectFsPath)) {
+        status = gitConnection.status(singletonList(itemPath));
+      }
       if (status.getUntracked().contains(itemPath)) {
         return UNTRACKED;
       } else if (status.getAdded().contains(itemPath)) {
@@ -94,15 +98,23 @@ public class GitStatusProvider implements VcsStatusProvider {
               .getClosest(wsPath)
               .orElseThrow(() -> new NotFoundException("Can't find project"));
       String projectFsPath = pathTransformer.transform(project.getPath()).toString();
-      Status status = gitConnectionFactory.getConnection(projectFsPath).status(paths);
+      Status status;
+      try (GitConnection gitConnection = gitConnectionFactory.getConnection(projectFsPath)) {
+        status = gitConnection.status(paths);
+      }
+      // paths may contain all the files of a tree, so avoid scanning lists for each of them
+      Set<String> untracked = new HashSet<>(status.getUntracked());
+      Set<String> added = new HashSet<>(status.getAdded());
+      Set<String> modified = new HashSet<>(status.getModified());
+      modified.addAll(status.getChanged());
       paths.forEach(
           path -> {
             String itemWsPath = resolve(project.getPath(), path);
-            if (status.getUntracked().contains(path)) {
+            if (untracked.contains(path)) {
               statusMap.put(itemWsPath, UNTRACKED);
-            } else if (status.getAdded().contains(path)) {
+            } else if (added.contains(path)) {
               statusMap.put(itemWsPath, ADDED);
-            } else if (status.getModified().contains(path) || status.getChanged().contains(path)) {
+            } else if (modified.contains(path)) {
               statusMap.put(itemWsPath, MODIFIED);
             } else {
               statusMap.put(itemWsPath, NOT_MODIFIED);
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.git;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.eclipse.che.api.project.shared.dto.event.FileTrackingOperationDto.Type.START;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerConfigurator;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.fs.server.PathTransformer;
+import org.eclipse.che.api.git.shared.EditedRegion;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.git.shared.StatusChangedEventDto;
+import org.eclipse.che.api.project.server.ProjectManager;
+import org.eclipse.che.api.project.server.impl.RegisteredProject;
+import org.eclipse.che.api.project.shared.dto.event.FileTrackingOperationDto;
+import org.eclipse.che.api.watcher.server.FileWatcherManager;
+import org.eclipse.che.api.watcher.server.detectors.FileTrackingOperationEvent;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link GitStatusChangedDetector}. */
+@Listeners(MockitoTestNGListener.class)
+public class GitStatusChangedDetectorTest {
+
+  private static final String ENDPOINT_ID = "endpoint";
+  private static final String PROJECT_WS_PATH = "/project";
+  private static final String INDEX_WS_PATH = PROJECT_WS_PATH + "/.git/index";
+  private static final String OUTGOING_METHOD = "event/git/status-changed";
+
+  @Mock private FileWatcherManager manager;
+  @Mock private PathTransformer pathTransformer;
+  @Mock private ProjectManager projectManager;
+  @Mock private GitConnectionFactory gitConnectionFactory;
+  @Mock private EventService eventService;
+  @Mock private RegisteredProject project;
+  @Mock private GitConnection connection;
+  @Mock private Status status;
+
+  private RequestTransmitter transmitter;
+  private Path projectDir;
+  private File gitDir;
+  private Consumer<String> indexConsumer;
+  private EventSubscriber<FileTrackingOperationEvent> fileTrackingSubscriber;
+
+  @BeforeMethod
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Exception {
+    projectDir = Files.createTempDirectory("project");
+    gitDir = new File(projectDir.toFile(), ".git");
+    gitDir.mkdirs();
+    write("HEAD", "ref: refs/heads/master\n");
+    write("refs/heads/master", "c0ffee\n");
+    writeIndex((byte) 1);
+
+    when(project.getPath()).thenReturn(PROJECT_WS_PATH);
+    when(projectManager.getClosest(anyString())).thenReturn(Optional.of(project));
+    when(pathTransformer.transform(PROJECT_WS_PATH)).thenReturn(projectDir);
+    when(gitConnectionFactory.getConnection(projectDir.toString())).thenReturn(connection);
+    when(connection.getWorkingDir()).thenReturn(projectDir.toFile());
+    when(connection.status(emptyList())).thenReturn(status);
+    when(status.getChanged()).thenReturn(emptyList());
+    when(status.getModified()).thenReturn(singletonList("src/Main.java"));
+
+    transmitter = mock(RequestTransmitter.class, RETURNS_DEEP_STUBS);
+    RequestHandlerConfigurator configurator =
+        mock(RequestHandlerConfigurator.class, RETURNS_DEEP_STUBS);
+
+    GitStatusChangedDetector detector =
+        new GitStatusChangedDetector(
+            transmitter,
+            manager,
+            pathTransformer,
+            projectManager,
+            gitConnectionFactory,
+            eventService);
+    detector.configureHandler(configurator);
+    detector.startWatchers();
+
+    ArgumentCaptor<Consumer<String>> endpointConsumer = ArgumentCaptor.forClass(Consumer.class);
+    verify(configurator.newConfiguration().methodName("track/git-index").noParams().noResult())
+        .withConsumer(endpointConsumer.capture());
+    endpointConsumer.getValue().accept(ENDPOINT_ID);
+
+    ArgumentCaptor<Consumer<String>> modifyConsumer = ArgumentCaptor.forClass(Consumer.class);
+    verify(manager, times(2)).registerByMatcher(any(), any(), modifyConsumer.capture(), any());
+    indexConsumer = modifyConsumer.getAllValues().get(0);
+
+    ArgumentCaptor<EventSubscriber> subscriber = ArgumentCaptor.forClass(EventSubscriber.class);
+    verify(eventService).subscribe(subscriber.capture(), eq(FileTrackingOperationEvent.class));
+    fileTrackingSubscriber = subscriber.getValue();
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    Files.walk(projectDir)
+        .sorted((first, second) -> second.compareTo(first))
+        .forEach(path -> path.toFile().delete());
+  }
+
+  @Test
+  public void shouldSendStatusWhenIndexChanges() throws Exception {
+    indexConsumer.accept(INDEX_WS_PATH);
+
+    StatusChangedEventDto event = captureSentEvents(1)[0];
+    assertEquals(event.getStatus(), status);
+  }
+
+  @Test
+  public void shouldSkipNotificationAboutUnchangedRepository() throws Exception {
+    indexConsumer.accept(INDEX_WS_PATH);
+    indexConsumer.accept(INDEX_WS_PATH);
+
+    captureSentEvents(1);
+    verify(connection).status(emptyList());
+  }
+
+  @Test
+  public void shouldSendStatusWhenIndexChangesWithinSameSecondAndLength() throws Exception {
+    File index = new File(gitDir, "index");
+    indexConsumer.accept(INDEX_WS_PATH);
+    long lastModified = index.lastModified();
+    long length = index.length();
+
+    writeIndex((byte) 2);
+    index.setLastModified(lastModified);
+    assertEquals(index.length(), length);
+    assertEquals(index.lastModified(), lastModified);
+    indexConsumer.accept(INDEX_WS_PATH);
+
+    captureSentEvents(2);
+  }
+
+  @Test
+  public void shouldSendStatusWhenCurrentBranchChanges() throws Exception {
+    indexConsumer.accept(INDEX_WS_PATH);
+
+    write("refs/heads/master", "decaf\n");
+    indexConsumer.accept(INDEX_WS_PATH);
+
+    captureSentEvents(2);
+  }
+
+  @Test
+  public void shouldSendStatusWhenStateOfRepositoryCannotBeRead() throws Exception {
+    Files.delete(new File(gitDir, "index").toPath());
+
+    indexConsumer.accept(INDEX_WS_PATH);
+    indexConsumer.accept(INDEX_WS_PATH);
+
+    captureSentEvents(2);
+  }
+
+  @Test
+  public void shouldSendEditedRegionsOfChangedFileOpenedAfterStatusWasSent() throws Exception {
+    EditedRegion region = mock(EditedRegion.class);
+    when(connection.getEditedRegions("src/Main.java")).thenReturn(singletonList(region));
+    indexConsumer.accept(INDEX_WS_PATH);
+
+    openFile(PROJECT_WS_PATH + "/src/Main.java");
+
+    StatusChangedEventDto[] events = captureSentEvents(2);
+    assertTrue(events[0].getModifiedFiles().isEmpty());
+    assertEquals(events[1].getModifiedFiles().get("src/Main.java"), singletonList(region));
+  }
+
+  @Test
+  public void shouldNotSendStatusWhenUnchangedFileIsOpened() throws Exception {
+    indexConsumer.accept(INDEX_WS_PATH);
+
+    openFile(PROJECT_WS_PATH + "/src/Other.java");
+
+    captureSentEvents(1);
+    verify(connection, never()).getEditedRegions(anyString());
+  }
+
+  private void openFile(String wsPath) {
+    FileTrackingOperationDto operation = mock(FileTrackingOperationDto.class);
+    when(operation.getType()).thenReturn(START);
+    when(operation.getPath()).thenReturn(wsPath);
+    FileTrackingOperationEvent event = mock(FileTrackingOperationEvent.class);
+    when(event.getEndpointId()).thenReturn(ENDPOINT_ID);
+    when(event.getFileTrackingOperation()).thenReturn(operation);
+    fileTrackingSubscriber.onEvent(event);
+  }
+
+  private StatusChangedEventDto[] captureSentEvents(int count) {
+    ArgumentCaptor<StatusChangedEventDto> captor =
+        ArgumentCaptor.forClass(StatusChangedEventDto.class);
+    verify(
+            transmitter.newRequest().endpointId(ENDPOINT_ID).methodName(OUTGOING_METHOD),
+            times(count))
+        .paramsAsDto(captor.capture());
+    return captor.getAllValues().toArray(new StatusChangedEventDto[0]);
+  }
+
+  private void write(String gitFile, String content) throws Exception {
+    Path path = new File(gitDir, gitFile).toPath();
+    Files.createDirectories(path.getParent());
+    Files.write(path, content.getBytes(UTF_8));
+  }
+
+  /** Writes index of the same length with the given checksum. */
+  private void writeIndex(byte checksum) throws Exception {
+    byte[] content = new byte[64];
+    Arrays.fill(content, content.length - 20, content.length, checksum);
+    Files.write(new File(gitDir, "index").toPath(), content);
+  }
+}
@@ -33,4 +33,9 @@ public interface ProjectSearchRequestDto {
   int getSkipCount();
 
   ProjectSearchRequestDto withSkipCount(int skipCount);
+
+  /** Returns continuation token of the previous page of results. */
+  String getContinuationToken();
+
+  ProjectSearchRequestDto withContinuationToken(String continuationToken);
 }
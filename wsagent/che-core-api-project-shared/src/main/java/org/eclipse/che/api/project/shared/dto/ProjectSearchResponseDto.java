@@ -22,4 +22,19 @@ public interface ProjectSearchResponseDto {
   long getTotalHits();
 
   ProjectSearchResponseDto withTotalHits(long totalHits);
+
+  /** Returns {@code false} when search index is still being built and results may be partial. */
+  boolean isIndexReady();
+
+  ProjectSearchResponseDto withIndexReady(boolean indexReady);
+
+  /** Returns number of files which are still waiting to be indexed. */
+  int getPendingFiles();
+
+  ProjectSearchResponseDto withPendingFiles(int pendingFiles);
+
+  /** Returns token for retrieving the next page of results or null if there are no more results. */
+  String getContinuationToken();
+
+  ProjectSearchResponseDto withContinuationToken(String continuationToken);
 }
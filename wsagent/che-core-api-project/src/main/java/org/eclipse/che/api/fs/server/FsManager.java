@@ -76,6 +76,19 @@ public interface FsManager {
    */
   InputStream zip(String wsPath) throws NotFoundException, ConflictException, ServerException;
 
+  /**
+   * Zips a file denoted by the path directly to an output stream, the archive is streamed while
+   * it is being compressed. Output stream is not closed.
+   *
+   * @param wsPath absolute workspace file path
+   * @param output stream to write the archive to
+   * @throws NotFoundException is thrown if the file does not exist
+   * @throws ConflictException is thrown if the item is not a file
+   * @throws ServerException is thrown if an error occurred during operation execution
+   */
+  void zip(String wsPath, OutputStream output)
+      throws NotFoundException, ConflictException, ServerException;
+
   /**
    * Unzips an input stream to a specified workspace path
    *
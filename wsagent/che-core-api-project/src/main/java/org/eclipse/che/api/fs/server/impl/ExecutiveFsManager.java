@@ -93,6 +93,14 @@ public class ExecutiveFsManager implements FsManager {
     return zipArchiver.zip(fsPath);
   }
 
+  @Override
+  public void zip(String wsPath, OutputStream output)
+      throws NotFoundException, ConflictException, ServerException {
+    Path fsPath = pathTransformer.transform(wsPath);
+
+    zipArchiver.zip(fsPath, output);
+  }
+
   @Override
   public void unzip(
       String wsPath, InputStream packed, boolean overwrite, boolean withParents, boolean skipRoot)
@@ -96,6 +96,18 @@ public class ValidatingFsManager implements FsManager {
     return suspendingFsManager.zip(wsPath);
   }
 
+  public void zip(String wsPath, OutputStream output)
+      throws NotFoundException, ServerException, ConflictException {
+    Path fsPath = pathTransformer.transform(wsPath);
+
+    boolean exists = fsOperations.exists(fsPath);
+    if (!exists) {
+      throw new NotFoundException("Can't zip item, it does not exist: " + wsPath);
+    }
+
+    suspendingFsManager.zip(wsPath, output);
+  }
+
   public void unzip(
       String wsPath, InputStream packed, boolean overwrite, boolean withParents, boolean skipRoot)
       throws NotFoundException, ConflictException, ServerException {
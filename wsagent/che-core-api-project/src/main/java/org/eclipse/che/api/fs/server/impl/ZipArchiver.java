@@ -12,56 +12,117 @@ package org.eclipse.che.api.fs.server.impl;
 
 import static java.nio.file.Files.createTempFile;
 import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
 
+import com.google.common.base.Splitter;
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
+import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
-import org.apache.commons.io.IOUtils;
 import org.eclipse.che.api.core.ServerException;
 
+/**
+ * Packs items to zip archives and unpacks them. Both directions are streamed, an archive is
+ * written directly to the given output and unpacked entries are written directly to files, so
+ * neither the archive nor its entries are kept in memory or in temporary files.
+ *
+ * <p>Files which are already compressed, e.g. archives or images, are recognized by their
+ * extensions and are written without compression, as deflating them again costs CPU time and
+ * doesn't make them smaller.
+ */
 @Singleton
 class ZipArchiver {
 
-  private static void zip(File zipInFile, String fileName, ZipOutputStream zos) throws IOException {
-    if (zipInFile.isDirectory()) {
-      File[] files = zipInFile.listFiles();
-      for (File file : files == null ? new File[0] : files) {
-        zip(file, file.getAbsolutePath(), zos);
-      }
-      return;
-    }
+  private final int compressionLevel;
+  private final Set<String> storedExtensions;
 
-    try (FileInputStream fis = new FileInputStream(zipInFile); ) {
-      ZipEntry zipEntry = new ZipEntry(fileName);
-      zos.putNextEntry(zipEntry);
-      IOUtils.copy(fis, zos);
+  @Inject
+  ZipArchiver(
+      @Named("che.fs.zip.compression_level") int compressionLevel,
+      @Named("che.fs.zip.stored_extensions") String storedExtensions) {
+    this.compressionLevel = compressionLevel;
+    this.storedExtensions = new HashSet<>();
+    for (String extension :
+        Splitter.on(',').trimResults().omitEmptyStrings().split(storedExtensions)) {
+      this.storedExtensions.add(extension.toLowerCase(Locale.ENGLISH));
     }
   }
 
+  /**
+   * Zips item to a temporary file which is removed when the returned stream is closed.
+   *
+   * @see #zip(Path, OutputStream)
+   */
   InputStream zip(Path fsPath) throws ServerException {
     try {
-      File inFile = fsPath.toFile();
-      File outFile = createTempFile(fsPath.getFileName().toString(), ".zip").toFile();
-
-      try (FileOutputStream fos = new FileOutputStream(outFile);
-          ZipOutputStream zos = new ZipOutputStream(fos)) {
-        zip(inFile, inFile.getName(), zos);
+      Path outFile = createTempFile(fsPath.getFileName().toString(), ".zip");
+      try (OutputStream output = newOutputStream(outFile)) {
+        zip(fsPath, output);
+      } catch (ServerException | IOException e) {
+        Files.deleteIfExists(outFile);
+        throw e;
       }
+      return newInputStream(outFile, DELETE_ON_CLOSE);
+    } catch (IOException e) {
+      throw new ServerException("Failed to zip item: " + fsPath, e);
+    }
+  }
 
-      return newInputStream(outFile.toPath());
+  /**
+   * Zips item to the given output, names of the entries are relative to the parent of the item, so
+   * the item itself is the root of the archive. Output is not closed.
+   */
+  void zip(Path fsPath, OutputStream output) throws ServerException {
+    try {
+      ZipOutputStream zos = new ZipOutputStream(output);
+      zip(fsPath.toFile(), fsPath.getFileName().toString(), zos);
+      // finishes the archive without closing the output
+      zos.finish();
+      zos.flush();
     } catch (IOException e) {
       throw new ServerException("Failed to zip item: " + fsPath, e);
     }
   }
 
+  private void zip(File file, String entryName, ZipOutputStream zos) throws IOException {
+    if (file.isDirectory()) {
+      // entry of the directory keeps it when it is empty and marks the root to skip on unzip
+      zos.putNextEntry(new ZipEntry(entryName + '/'));
+      zos.closeEntry();
+      File[] files = file.listFiles();
+      for (File child : files == null ? new File[0] : files) {
+        zip(child, entryName + '/' + child.getName(), zos);
+      }
+      return;
+    }
+
+    zos.setLevel(isCompressed(file.getName()) ? Deflater.NO_COMPRESSION : compressionLevel);
+    zos.putNextEntry(new ZipEntry(entryName));
+    Files.copy(file.toPath(), zos);
+    zos.closeEntry();
+  }
+
+  private boolean isCompressed(String fileName) {
+    int dot = fileName.lastIndexOf('.');
+    return dot >= 0
+        && storedExtensions.contains(fileName.substring(dot + 1).toLowerCase(Locale.ENGLISH));
+  }
+
   void unzip(
       Path fsPath, InputStream content, boolean overwrite, boolean withParents, boolean skipRoot)
       throws ServerException {
@@ -69,32 +130,36 @@ class ZipArchiver {
       if (withParents) {
         Files.createDirectories(fsPath);
       }
+      Path root = fsPath.toAbsolutePath().normalize();
 
-      try (ZipInputStream zis = new ZipInputStream(content)) {
+      try (ZipInputStream zis = new ZipInputStream(new BufferedInputStream(content))) {
         ZipEntry zipEntry = zis.getNextEntry();
 
         String prefixToSkip = null;
-        if (zipEntry.isDirectory() && skipRoot) {
+        if (zipEntry != null && zipEntry.isDirectory() && skipRoot) {
           prefixToSkip = zipEntry.getName();
           zipEntry = zis.getNextEntry();
         }
 
         while (zipEntry != null) {
           String name =
-              prefixToSkip != null
-                  ? zipEntry.getName().replaceFirst(prefixToSkip, "")
+              prefixToSkip != null && zipEntry.getName().startsWith(prefixToSkip)
+                  ? zipEntry.getName().substring(prefixToSkip.length())
                   : zipEntry.getName();
-          Path path = fsPath.resolve(name);
-
-          if (overwrite) {
-            Files.deleteIfExists(path);
+          Path path = root.resolve(name).normalize();
+          if (!path.startsWith(root)) {
+            throw new IOException("Entry is outside of the target directory: " + name);
           }
+
           if (zipEntry.isDirectory()) {
-            Files.createDirectory(path);
+            Files.createDirectories(path);
           } else {
-            try (FileOutputStream fos = new FileOutputStream(path.toFile())) {
-              IOUtils.copy(zis, fos);
+            if (overwrite) {
+              Files.deleteIfExists(path);
             }
+            // archives don't have to contain entries of all the directories
+            Files.createDirectories(path.getParent());
+            Files.copy(zis, path, REPLACE_EXISTING);
           }
 
           zipEntry = zis.getNextEntry();
@@ -39,6 +39,7 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 import org.apache.commons.fileupload.FileItem;
@@ -541,7 +542,7 @@ public class ProjectService {
     @ApiResponse(code = 404, message = "Not found"),
     @ApiResponse(code = 500, message = "Internal Server Error")
   })
-  public InputStream exportZip(
+  public StreamingOutput exportZip(
       @ApiParam(value = "Path to resource to be exported") @PathParam("path") String wsPath)
       throws NotFoundException, ForbiddenException, ServerException, ConflictException {
 
@@ -665,9 +666,13 @@ public class ProjectService {
           @QueryParam("maxItems")
           @DefaultValue("-1")
           int maxItems,
-      @ApiParam(value = "Skip count") @QueryParam("skipCount") int skipCount)
+      @ApiParam(value = "Skip count") @QueryParam("skipCount") int skipCount,
+      @ApiParam(value = "Continuation token returned with the previous page of results")
+          @QueryParam("continuationToken")
+          String continuationToken)
       throws NotFoundException, ForbiddenException, ConflictException, ServerException {
 
-    return getProjectServiceApi().search(wsPath, name, text, maxItems, skipCount);
+    return getProjectServiceApi()
+        .search(wsPath, name, text, maxItems, skipCount, continuationToken);
   }
 }
@@ -43,6 +43,7 @@ import javax.inject.Inject;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import org.apache.commons.fileupload.FileItem;
 import org.apache.tika.Tika;
@@ -524,12 +525,24 @@ public class ProjectServiceApi {
         .build();
   }
 
-  /** Zip content under specified location */
-  public InputStream exportZip(String wsPath)
+  /**
+   * Zip content under specified location. Archive is written directly to the response while it is
+   * being compressed, the item is checked before, so missing item is still reported as not found.
+   */
+  public StreamingOutput exportZip(String wsPath)
       throws NotFoundException, ForbiddenException, ServerException, ConflictException {
-    wsPath = absolutize(wsPath);
+    String zipWsPath = absolutize(wsPath);
+    if (!fsManager.exists(zipWsPath)) {
+      throw new NotFoundException("Can't export item, it does not exist: " + zipWsPath);
+    }
 
-    return fsManager.zip(wsPath);
+    return output -> {
+      try {
+        fsManager.zip(zipWsPath, output);
+      } catch (NotFoundException | ConflictException | ServerException e) {
+        throw new IOException(e.getMessage(), e);
+      }
+    };
   }
 
   public Response exportFile(String wsPath)
@@ -575,9 +588,11 @@ public class ProjectServiceApi {
         fsManager.isFile(wsPath)
             ? injectFileLinks(vcsStatusInjector.injectVcsStatus(asDto))
             : injectFolderLinks(asDto);
-    return newDto(TreeElement.class)
-        .withNode(asLinkedDto)
-        .withChildren(getTreeRecursively(wsPath, depth, includeFiles));
+    List<TreeElement> files = new ArrayList<>();
+    List<TreeElement> children = getTreeRecursively(wsPath, depth, includeFiles, files);
+    // status of all the files of the tree is resolved at once instead of for each directory
+    vcsStatusInjector.injectVcsStatusTreeElements(files);
+    return newDto(TreeElement.class).withNode(asLinkedDto).withChildren(children);
   }
 
   /** Get file system item defined by specific location */
@@ -599,9 +614,16 @@ public class ProjectServiceApi {
    * @param text text
    * @param maxItems maximum number of items
    * @param skipCount number of items to be skipped
+   * @param continuationToken token of the next page returned with the previous page of results,
+   *     may be null
    */
   public ProjectSearchResponseDto search(
-      String wsPath, String name, String text, int maxItems, int skipCount)
+      String wsPath,
+      String name,
+      String text,
+      int maxItems,
+      int skipCount,
+      String continuationToken)
       throws NotFoundException, ForbiddenException, ConflictException, ServerException {
     if (skipCount < 0) {
       throw new ConflictException(String.format("Invalid 'skipCount' parameter: %d.", skipCount));
@@ -615,12 +637,21 @@ public class ProjectServiceApi {
             .setText(text)
             .setMaxItems(maxItems)
             .setSkipCount(skipCount)
+            .setContinuationToken(continuationToken)
             .setIncludePositions(true);
 
     SearchResult result = searcher.search(expr);
     List<SearchResultEntry> searchResultEntries = result.getResults();
+    String nextPageToken =
+        result
+            .getNextPageQueryExpression()
+            .transform(QueryExpression::getContinuationToken)
+            .orNull();
     return DtoFactory.newDto(ProjectSearchResponseDto.class)
         .withTotalHits(result.getTotalHits())
+        .withIndexReady(result.isIndexReady())
+        .withPendingFiles(result.getPendingFiles())
+        .withContinuationToken(nextPageToken)
         .withItemReferences(prepareResults(searchResultEntries));
   }
 
@@ -677,9 +708,10 @@ public class ProjectServiceApi {
     String text = request.getText();
     int maxItems = request.getMaxItems();
     int skipCount = request.getSkipCount();
+    String continuationToken = request.getContinuationToken();
 
     try {
-      return search(path, name, text, maxItems, skipCount);
+      return search(path, name, text, maxItems, skipCount, continuationToken);
     } catch (ServerException | ConflictException | NotFoundException | ForbiddenException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
@@ -700,7 +732,13 @@ public class ProjectServiceApi {
     };
   }
 
-  private List<TreeElement> getTreeRecursively(String wsPath, int depth, boolean includeFiles)
+  /**
+   * Builds tree of the children of the given directory.
+   *
+   * @param files collects file elements of the tree, so their VCS status can be injected at once
+   */
+  private List<TreeElement> getTreeRecursively(
+      String wsPath, int depth, boolean includeFiles, List<TreeElement> files)
       throws ServerException, NotFoundException {
     if (depth == 0) {
       return null;
@@ -712,20 +750,23 @@ public class ProjectServiceApi {
     List<TreeElement> nodes = new ArrayList<>(childrenWsPaths.size());
     for (String childWsPath : childrenWsPaths) {
       ItemReference asDto = fsDtoConverter.asDto(childWsPath);
-      ItemReference asLinkedDto =
-          fsManager.isDir(childWsPath) ? injectFolderLinks(asDto) : injectFileLinks(asDto);
+      boolean isDir = fsManager.isDir(childWsPath);
+      ItemReference asLinkedDto = isDir ? injectFolderLinks(asDto) : injectFileLinks(asDto);
       TreeElement treeElement = newDto(TreeElement.class).withNode(asLinkedDto);
       nodes.add(treeElement);
 
-      if (fsManager.isDir(childWsPath)) {
-        List<TreeElement> treeElements = getTreeRecursively(childWsPath, depth - 1, includeFiles);
+      if (isDir) {
+        List<TreeElement> treeElements =
+            getTreeRecursively(childWsPath, depth - 1, includeFiles, files);
         if (treeElements != null) {
           treeElement.setChildren(treeElements);
         }
+      } else {
+        files.add(treeElement);
       }
     }
 
-    return vcsStatusInjector.injectVcsStatusTreeElements(nodes);
+    return nodes;
   }
 
   private ItemReference injectFileLinks(ItemReference itemReference) {
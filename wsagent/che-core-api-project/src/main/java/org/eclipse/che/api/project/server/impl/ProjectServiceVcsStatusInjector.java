@@ -105,34 +105,37 @@ public class ProjectServiceVcsStatusInjector {
 
   /**
    * Find related VCS provider and set VCS status of {@link TreeElement} file to it's attributes to
-   * each item of the given list, if VCS provider is present.
+   * each item of the given list, if VCS provider is present. Items may belong to different
+   * projects, status is requested once per project.
    *
    * @param treeElements list of {@link TreeElement} files to update
    */
   public List<TreeElement> injectVcsStatusTreeElements(List<TreeElement> treeElements)
       throws ServerException, NotFoundException {
-    Optional<TreeElement> treeElementOptional =
+    Map<String, List<TreeElement>> filesByProject =
         treeElements
             .stream()
             .filter(treeElement -> "file".equals(treeElement.getNode().getType()))
-            .findAny();
-    if (treeElementOptional.isPresent()) {
-      String project = normalizeProjectPath(treeElementOptional.get().getNode().getProject());
-      String projectWsPath = absolutize(project);
+            .filter(treeElement -> treeElement.getNode().getProject() != null)
+            .collect(
+                Collectors.groupingBy(
+                    treeElement -> normalizeProjectPath(treeElement.getNode().getProject())));
+
+    for (Map.Entry<String, List<TreeElement>> entry : filesByProject.entrySet()) {
+      String projectWsPath = absolutize(entry.getKey());
       Optional<VcsStatusProvider> vcsStatusProviderOptional = getVcsStatusProvider(projectWsPath);
       if (vcsStatusProviderOptional.isPresent()) {
         List<String> treeElementFiles =
-            treeElements
+            entry
+                .getValue()
                 .stream()
-                .filter(treeElement -> "file".equals(treeElement.getNode().getType()))
                 .map(treeElement -> normalizeFilePath(treeElement.getNode().getPath()))
                 .collect(Collectors.toList());
         Map<String, VcsStatusProvider.VcsStatus> status =
             vcsStatusProviderOptional.get().getStatus(projectWsPath, treeElementFiles);
 
-        treeElements
-            .stream()
-            .filter(itemReference -> "file".equals(itemReference.getNode().getType()))
+        entry
+            .getValue()
             .forEach(
                 itemReference -> {
                   Map<String, String> attributes =
@@ -22,9 +22,12 @@ import java.util.function.Consumer;
 import org.eclipse.che.api.search.server.consumers.IndexedFileCreateConsumer;
 import org.eclipse.che.api.search.server.consumers.IndexedFileDeleteConsumer;
 import org.eclipse.che.api.search.server.consumers.IndexedFileUpdateConsumer;
+import org.eclipse.che.api.search.server.excludes.BinaryContentExcludeMatcher;
 import org.eclipse.che.api.search.server.excludes.DotCheExcludeMatcher;
 import org.eclipse.che.api.search.server.excludes.DotNumberSignExcludeMatcher;
+import org.eclipse.che.api.search.server.excludes.FileSizeExcludeMatcher;
 import org.eclipse.che.api.search.server.excludes.HiddenItemPathMatcher;
+import org.eclipse.che.api.search.server.excludes.IgnoreFileExcludeMatcher;
 import org.eclipse.che.api.search.server.excludes.MediaTypesExcludeMatcher;
 import org.eclipse.che.api.search.server.impl.LuceneSearcher;
 
@@ -36,10 +39,14 @@ public class SearchApiModule extends AbstractModule {
 
     Multibinder<PathMatcher> excludeMatcher =
         newSetBinder(binder(), PathMatcher.class, Names.named("vfs.index_filter_matcher"));
-    excludeMatcher.addBinding().to(MediaTypesExcludeMatcher.class);
+    // cheap matchers go first, media type detection is the most expensive one
     excludeMatcher.addBinding().to(DotCheExcludeMatcher.class);
     excludeMatcher.addBinding().to(DotNumberSignExcludeMatcher.class);
     excludeMatcher.addBinding().to(HiddenItemPathMatcher.class);
+    excludeMatcher.addBinding().to(FileSizeExcludeMatcher.class);
+    excludeMatcher.addBinding().to(IgnoreFileExcludeMatcher.class);
+    excludeMatcher.addBinding().to(BinaryContentExcludeMatcher.class);
+    excludeMatcher.addBinding().to(MediaTypesExcludeMatcher.class);
 
     newSetBinder(binder(), new TypeLiteral<Consumer<Path>>() {}, Names.named("che.fs.file.create"))
         .addBinding()
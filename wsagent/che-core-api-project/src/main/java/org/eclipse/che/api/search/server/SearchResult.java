@@ -28,16 +28,22 @@ public class SearchResult {
   private final Optional<QueryExpression> nextPageQueryExpression;
   private final long totalHits;
   private final long elapsedTimeMillis;
+  private final boolean indexReady;
+  private final int pendingFiles;
 
   private SearchResult(
       List<SearchResultEntry> results,
       Optional<QueryExpression> nextPageQueryExpression,
       long totalHits,
-      long elapsedTimeMillis) {
+      long elapsedTimeMillis,
+      boolean indexReady,
+      int pendingFiles) {
     this.results = results;
     this.nextPageQueryExpression = nextPageQueryExpression;
     this.totalHits = totalHits;
     this.elapsedTimeMillis = elapsedTimeMillis;
+    this.indexReady = indexReady;
+    this.pendingFiles = pendingFiles;
   }
 
   /**
@@ -75,11 +81,26 @@ public class SearchResult {
     return nextPageQueryExpression;
   }
 
+  /**
+   * Whether the index was completely built when the query was executed, if not the result may be
+   * incomplete.
+   */
+  public boolean isIndexReady() {
+    return indexReady;
+  }
+
+  /** Number of files which were still waiting to be indexed when the query was executed. */
+  public int getPendingFiles() {
+    return pendingFiles;
+  }
+
   public static class SearchResultBuilder {
     private QueryExpression nextPageQueryExpression;
     private List<SearchResultEntry> results;
     private long totalHits;
     private long elapsedTimeMillis;
+    private boolean indexReady = true;
+    private int pendingFiles;
 
     private SearchResultBuilder() {}
 
@@ -104,6 +125,16 @@ public class SearchResult {
       return this;
     }
 
+    public SearchResultBuilder withIndexReady(boolean indexReady) {
+      this.indexReady = indexReady;
+      return this;
+    }
+
+    public SearchResultBuilder withPendingFiles(int pendingFiles) {
+      this.pendingFiles = pendingFiles;
+      return this;
+    }
+
     public SearchResult build() {
       Optional<QueryExpression> optionalPageNexQueryExpression;
       if (nextPageQueryExpression == null) {
@@ -115,7 +146,12 @@ public class SearchResult {
         results = emptyList();
       }
       return new SearchResult(
-          results, optionalPageNexQueryExpression, totalHits, elapsedTimeMillis);
+          results,
+          optionalPageNexQueryExpression,
+          totalHits,
+          elapsedTimeMillis,
+          indexReady,
+          pendingFiles);
     }
   }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.excludes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import javax.inject.Singleton;
+
+/**
+ * Excludes binary files. File is considered binary if the beginning of its content contains a zero
+ * byte, the same heuristic is used by git and grep. Files which start with UTF-16 byte order mark
+ * are treated as text. The check reads only a few kilobytes of the file, so it is much cheaper
+ * than media type detection and filters out most of the binaries before it.
+ */
+@Singleton
+public class BinaryContentExcludeMatcher implements PathMatcher {
+
+  private static final int SNIFF_LENGTH = 8000;
+
+  @Override
+  public boolean matches(Path fsPath) {
+    if (!Files.isRegularFile(fsPath)) {
+      return false;
+    }
+    byte[] buffer = new byte[SNIFF_LENGTH];
+    int length = 0;
+    try (InputStream in = Files.newInputStream(fsPath)) {
+      for (int read; length < buffer.length; length += read) {
+        read = in.read(buffer, length, buffer.length - length);
+        if (read < 0) {
+          break;
+        }
+      }
+    } catch (IOException x) {
+      // let indexing report the problem
+      return false;
+    }
+    return isBinary(buffer, length);
+  }
+
+  private static boolean isBinary(byte[] content, int length) {
+    if (hasUtf16ByteOrderMark(content, length)) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (content[i] == 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasUtf16ByteOrderMark(byte[] content, int length) {
+    if (length < 2) {
+      return false;
+    }
+    int b0 = content[0] & 0xFF;
+    int b1 = content[1] & 0xFF;
+    return (b0 == 0xFE && b1 == 0xFF) || (b0 == 0xFF && b1 == 0xFE);
+  }
+}
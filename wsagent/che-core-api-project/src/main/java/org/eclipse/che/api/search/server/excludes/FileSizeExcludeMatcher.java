@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.excludes;
+
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+/**
+ * Excludes files larger than the configured limit, such files are usually generated or minified
+ * and searching in them is rarely useful while they take a lot of heap during indexing.
+ */
+@Singleton
+public class FileSizeExcludeMatcher implements PathMatcher {
+
+  private final long maxFileSize;
+
+  /**
+   * @param maxFileSize max size of indexed file in bytes, if not positive then size of indexed
+   *     files is not limited
+   */
+  @Inject
+  public FileSizeExcludeMatcher(@Named("vfs.local.fs_index_max_file_size") long maxFileSize) {
+    this.maxFileSize = maxFileSize;
+  }
+
+  @Override
+  public boolean matches(Path fsPath) {
+    return maxFileSize > 0 && fsPath.toFile().length() > maxFileSize;
+  }
+}
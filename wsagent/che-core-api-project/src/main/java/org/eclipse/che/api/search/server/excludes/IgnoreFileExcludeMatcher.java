@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.excludes;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.google.common.base.Splitter;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Excludes files ignored by {@code .gitignore}-like files, see {@link IgnoreRules} for the
+ * supported syntax. Ignore files are looked up in each directory from the workspace root down to
+ * the file, rules of deeper directories take precedence. When a directory contains several ignore
+ * files they are applied in the configured order, e.g. {@code .gitignore,.cheignore} allows to
+ * override rules of {@code .gitignore} in {@code .cheignore} of the project. Files inside ignored
+ * directory are ignored regardless of the deeper rules, the same way as git does it.
+ *
+ * <p>Parsed rules and decisions about directories are cached for a short time, so bulk indexing
+ * doesn't read ignore files again for each file, while changes of ignore files are picked up soon.
+ */
+@Singleton
+public class IgnoreFileExcludeMatcher implements PathMatcher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(IgnoreFileExcludeMatcher.class);
+
+  private static final long CACHE_EXPIRE_MS = 5_000;
+  private static final long CACHE_MAX_SIZE = 10_000;
+
+  private final Path root;
+  private final List<String> ignoreFileNames;
+  private final LoadingCache<Path, IgnoreRules> rules;
+  private final LoadingCache<Path, Boolean> ignoredDirs;
+
+  @Inject
+  public IgnoreFileExcludeMatcher(
+      @Named("che.user.workspaces.storage") File root,
+      @Named("vfs.local.fs_index_ignore_files") String ignoreFileNames) {
+    this.root = root.toPath().normalize().toAbsolutePath();
+    this.ignoreFileNames =
+        Splitter.on(',').trimResults().omitEmptyStrings().splitToList(ignoreFileNames);
+    this.rules =
+        CacheBuilder.newBuilder()
+            .expireAfterWrite(CACHE_EXPIRE_MS, MILLISECONDS)
+            .maximumSize(CACHE_MAX_SIZE)
+            .build(CacheLoader.from(this::readRules));
+    this.ignoredDirs =
+        CacheBuilder.newBuilder()
+            .expireAfterWrite(CACHE_EXPIRE_MS, MILLISECONDS)
+            .maximumSize(CACHE_MAX_SIZE)
+            .build(CacheLoader.from(this::isIgnoredDir));
+  }
+
+  @Override
+  public boolean matches(Path fsPath) {
+    if (ignoreFileNames.isEmpty()) {
+      return false;
+    }
+    Path path = fsPath.normalize().toAbsolutePath();
+    if (!path.startsWith(root) || path.equals(root)) {
+      return false;
+    }
+    Path parent = path.getParent();
+    return ignoredDirs.getUnchecked(parent) || isIgnored(path, path.toFile().isDirectory());
+  }
+
+  private boolean isIgnoredDir(Path dir) {
+    if (dir.equals(root)) {
+      return false;
+    }
+    return ignoredDirs.getUnchecked(dir.getParent()) || isIgnored(dir, true);
+  }
+
+  /** Applies rules of all the directories from the root down to the parent of the given path. */
+  private boolean isIgnored(Path path, boolean isDirectory) {
+    Boolean ignored = null;
+    for (Path dir = path.getParent(); dir.startsWith(root); dir = dir.getParent()) {
+      IgnoreRules dirRules = rules.getUnchecked(dir);
+      if (!dirRules.isEmpty()) {
+        String relativePath = dir.relativize(path).toString().replace(File.separatorChar, '/');
+        ignored = dirRules.isIgnored(relativePath, isDirectory);
+        if (ignored != null) {
+          // rules of the deepest directory win
+          break;
+        }
+      }
+      if (dir.equals(root)) {
+        break;
+      }
+    }
+    return ignored != null && ignored;
+  }
+
+  private IgnoreRules readRules(Path dir) {
+    List<String> lines = new ArrayList<>();
+    for (String ignoreFileName : ignoreFileNames) {
+      Path ignoreFile = dir.resolve(ignoreFileName);
+      if (Files.isRegularFile(ignoreFile)) {
+        try {
+          lines.addAll(readLines(ignoreFile));
+        } catch (IOException x) {
+          LOG.warn("Can't read ignore file: {}. {}", ignoreFile, x.getMessage());
+        }
+      }
+    }
+    return IgnoreRules.parse(lines);
+  }
+
+  private static List<String> readLines(Path file) throws IOException {
+    return Splitter.onPattern("\r?\n").splitToList(new String(Files.readAllBytes(file), UTF_8));
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.excludes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Rules of a single directory parsed from {@code .gitignore}-like files. Supported syntax:
+ *
+ * <ul>
+ *   <li>blank lines and lines starting with {@code #} are ignored
+ *   <li>{@code !} negates the pattern, matched item is included again
+ *   <li>pattern ending with {@code /} matches only directories
+ *   <li>pattern containing {@code /} (except the trailing one) is relative to the directory of the
+ *       rules, otherwise it matches item name at any level below the directory
+ *   <li>{@code *} and {@code ?} match anything except {@code /}, {@code [...]} matches a character
+ *       range, {@code **} matches any number of directories
+ * </ul>
+ *
+ * The last matching pattern decides whether item is ignored.
+ */
+class IgnoreRules {
+
+  static final IgnoreRules EMPTY = new IgnoreRules(Collections.emptyList());
+
+  private final List<Rule> rules;
+
+  private IgnoreRules(List<Rule> rules) {
+    this.rules = rules;
+  }
+
+  /** Parses rules, lines of files which are parsed later take precedence. */
+  static IgnoreRules parse(List<String> lines) {
+    List<Rule> rules = new ArrayList<>();
+    for (String line : lines) {
+      Rule rule = Rule.parse(line);
+      if (rule != null) {
+        rules.add(rule);
+      }
+    }
+    return rules.isEmpty() ? EMPTY : new IgnoreRules(rules);
+  }
+
+  boolean isEmpty() {
+    return rules.isEmpty();
+  }
+
+  /**
+   * Checks item against the rules.
+   *
+   * @param relativePath path of the item relative to the directory of the rules, with {@code /}
+   *     as separator
+   * @param isDirectory whether the item is a directory
+   * @return {@code TRUE} if item is ignored, {@code FALSE} if it is explicitly included by a
+   *     negated pattern and {@code null} if no pattern matches the item
+   */
+  Boolean isIgnored(String relativePath, boolean isDirectory) {
+    String name = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+    for (int i = rules.size() - 1; i >= 0; i--) {
+      Rule rule = rules.get(i);
+      if (rule.matches(relativePath, name, isDirectory)) {
+        return !rule.negated;
+      }
+    }
+    return null;
+  }
+
+  private static class Rule {
+
+    final Pattern pattern;
+    final boolean negated;
+    final boolean directoryOnly;
+    final boolean anchored;
+
+    Rule(Pattern pattern, boolean negated, boolean directoryOnly, boolean anchored) {
+      this.pattern = pattern;
+      this.negated = negated;
+      this.directoryOnly = directoryOnly;
+      this.anchored = anchored;
+    }
+
+    static Rule parse(String line) {
+      String glob = trimTrailingSpaces(line);
+      if (glob.isEmpty() || glob.startsWith("#")) {
+        return null;
+      }
+      boolean negated = glob.startsWith("!");
+      if (negated || glob.startsWith("\\!") || glob.startsWith("\\#")) {
+        glob = glob.substring(1);
+      }
+      boolean directoryOnly = glob.endsWith("/");
+      if (directoryOnly) {
+        glob = glob.substring(0, glob.length() - 1);
+      }
+      boolean anchored = glob.contains("/");
+      if (glob.startsWith("/")) {
+        glob = glob.substring(1);
+      }
+      if (glob.isEmpty()) {
+        return null;
+      }
+      return new Rule(Pattern.compile(toRegex(glob)), negated, directoryOnly, anchored);
+    }
+
+    boolean matches(String relativePath, String name, boolean isDirectory) {
+      if (directoryOnly && !isDirectory) {
+        return false;
+      }
+      return pattern.matcher(anchored ? relativePath : name).matches();
+    }
+
+    private static String trimTrailingSpaces(String line) {
+      int end = line.length();
+      while (end > 0 && line.charAt(end - 1) == ' ' && (end < 2 || line.charAt(end - 2) != '\\')) {
+        end--;
+      }
+      return line.substring(0, end);
+    }
+
+    private static String toRegex(String glob) {
+      StringBuilder regex = new StringBuilder();
+      int length = glob.length();
+      for (int i = 0; i < length; i++) {
+        char c = glob.charAt(i);
+        if (c == '*' && i + 1 < length && glob.charAt(i + 1) == '*') {
+          boolean atSegmentStart = i == 0 || glob.charAt(i - 1) == '/';
+          if (atSegmentStart && i + 2 < length && glob.charAt(i + 2) == '/') {
+            // '**/' matches zero or more directories
+            regex.append("(?:.*/)?");
+            i += 2;
+          } else {
+            regex.append(".*");
+            i++;
+          }
+        } else if (c == '*') {
+          regex.append("[^/]*");
+        } else if (c == '?') {
+          regex.append("[^/]");
+        } else if (c == '[') {
+          int end = glob.indexOf(']', i + 2);
+          if (end < 0) {
+            regex.append("\\[");
+          } else {
+            String range = glob.substring(i + 1, end);
+            if (range.startsWith("!")) {
+              range = '^' + range.substring(1);
+            }
+            regex.append('[').append(range.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+            i = end;
+          }
+        } else if (c == '\\' && i + 1 < length) {
+          regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+        } else {
+          regex.append(Pattern.quote(String.valueOf(c)));
+        }
+      }
+      return regex.toString();
+    }
+  }
+}
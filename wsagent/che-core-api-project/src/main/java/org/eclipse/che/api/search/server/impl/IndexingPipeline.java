@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Multi-stage pipeline for bulk indexing of file trees.
+ *
+ * <p>Directories are walked in parallel by a fork-join pool, files accepted by the filter are
+ * passed through a bounded queue to a pool of indexing threads which read, analyze and add them to
+ * the index. The queue provides back-pressure, walkers wait when indexing threads can't keep up,
+ * so heap used by the pipeline is limited by the queue capacity and the number of indexing
+ * threads. Commit action is invoked each time a batch of files is indexed.
+ *
+ * <p>Walking and indexing threads are shared, so runs are serialized: concurrent run waits until
+ * the current one is finished, otherwise walkers of one run could occupy all the threads waiting
+ * for the queue, while indexing tasks of that run are queued behind the tasks of another run.
+ */
+class IndexingPipeline {
+
+  private static final Logger LOG = LoggerFactory.getLogger(IndexingPipeline.class);
+
+  private static final Path END_OF_QUEUE = Paths.get("");
+  private static final long POLL_TIMEOUT_MS = 100;
+
+  /** Adds single file to the index. */
+  @FunctionalInterface
+  interface FileIndexer {
+    void index(Path fsPath) throws ServerException;
+  }
+
+  /** Makes indexed files durable and visible. */
+  @FunctionalInterface
+  interface CommitAction {
+    void commit() throws IOException;
+  }
+
+  private final int parallelism;
+  private final int queueCapacity;
+  private final int batchSize;
+  private final ForkJoinPool walkers;
+  private final ExecutorService indexers;
+  private final Lock runLock = new ReentrantLock();
+
+  /**
+   * Creates pipeline.
+   *
+   * @param parallelism number of walking and indexing threads, if not positive then number of
+   *     available processors is used
+   * @param queueCapacity max number of files waiting to be indexed
+   * @param batchSize number of indexed files after which commit action is invoked
+   */
+  IndexingPipeline(int parallelism, int queueCapacity, int batchSize) {
+    this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    this.queueCapacity = Math.max(1, queueCapacity);
+    this.batchSize = Math.max(1, batchSize);
+    this.walkers =
+        new ForkJoinPool(
+            this.parallelism,
+            pool -> {
+              ForkJoinWorkerThread thread =
+                  ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+              thread.setName("LuceneSearcherWalker-" + thread.getPoolIndex());
+              return thread;
+            },
+            LoggingUncaughtExceptionHandler.getInstance(),
+            false);
+    this.indexers =
+        Executors.newFixedThreadPool(
+            this.parallelism,
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setNameFormat("LuceneSearcherIndexer-%d")
+                .build());
+  }
+
+  /**
+   * Indexes all the files from the given directory and its subdirectories which are accepted by
+   * the filter. Method blocks until all the accepted files are indexed, and until the concurrent
+   * runs are finished.
+   *
+   * @param fsDir directory to index
+   * @param filter files filter, invoked concurrently by walking threads
+   * @param indexer adds file to the index, invoked concurrently by indexing threads
+   * @param commitAction invoked every time a batch of files is indexed
+   * @return number of indexed files
+   * @throws ServerException if indexing failed or was interrupted
+   */
+  long run(Path fsDir, Predicate<Path> filter, FileIndexer indexer, CommitAction commitAction)
+      throws ServerException {
+    try {
+      runLock.lockInterruptibly();
+    } catch (InterruptedException x) {
+      Thread.currentThread().interrupt();
+      throw new ServerException("Indexing of " + fsDir + " was interrupted", x);
+    }
+    try {
+      return doRun(fsDir, filter, indexer, commitAction);
+    } finally {
+      runLock.unlock();
+    }
+  }
+
+  private long doRun(
+      Path fsDir, Predicate<Path> filter, FileIndexer indexer, CommitAction commitAction)
+      throws ServerException {
+    Execution execution = new Execution(filter, indexer, commitAction);
+    List<Future<?>> indexingTasks = new ArrayList<>(parallelism);
+    try {
+      for (int i = 0; i < parallelism; i++) {
+        indexingTasks.add(indexers.submit(execution::indexQueuedFiles));
+      }
+      try {
+        walkers.invoke(execution.new WalkTask(fsDir.toFile()));
+      } catch (RuntimeException | Error x) {
+        execution.fail(x);
+      }
+      for (int i = 0; i < parallelism; i++) {
+        execution.enqueue(END_OF_QUEUE);
+      }
+      for (Future<?> indexingTask : indexingTasks) {
+        indexingTask.get();
+      }
+    } catch (InterruptedException x) {
+      Thread.currentThread().interrupt();
+      execution.fail(x);
+    } catch (ExecutionException x) {
+      execution.fail(x.getCause());
+    } finally {
+      indexingTasks.forEach(task -> task.cancel(true));
+    }
+
+    Throwable failure = execution.failure.get();
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    } else if (failure instanceof ServerException) {
+      throw (ServerException) failure;
+    } else if (failure != null) {
+      throw new ServerException(
+          "Indexing of " + fsDir + " failed. " + failure.getMessage(), failure);
+    }
+    return execution.indexed.get();
+  }
+
+  /** Stops walking and indexing threads. */
+  void shutdown() {
+    walkers.shutdownNow();
+    indexers.shutdown();
+    try {
+      if (!indexers.awaitTermination(5, SECONDS)) {
+        indexers.shutdownNow();
+      }
+    } catch (InterruptedException x) {
+      indexers.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** State of a single {@link #run(Path, Predicate, FileIndexer, CommitAction)} invocation. */
+  private class Execution {
+
+    final Predicate<Path> filter;
+    final FileIndexer indexer;
+    final CommitAction commitAction;
+    final BlockingQueue<Path> queue = new ArrayBlockingQueue<>(queueCapacity);
+    final AtomicLong indexed = new AtomicLong();
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    Execution(Predicate<Path> filter, FileIndexer indexer, CommitAction commitAction) {
+      this.filter = filter;
+      this.indexer = indexer;
+      this.commitAction = commitAction;
+    }
+
+    void fail(Throwable x) {
+      failure.compareAndSet(null, x);
+    }
+
+    boolean isFailed() {
+      return failure.get() != null;
+    }
+
+    /** Puts file to the queue waiting while it is full, gives up if execution failed. */
+    void enqueue(Path fsPath) {
+      try {
+        while (!isFailed() && !queue.offer(fsPath, POLL_TIMEOUT_MS, MILLISECONDS)) {
+          // wait for indexing threads
+        }
+      } catch (InterruptedException x) {
+        Thread.currentThread().interrupt();
+        fail(x);
+      }
+    }
+
+    void indexQueuedFiles() {
+      try {
+        while (!isFailed()) {
+          Path fsPath = queue.poll(POLL_TIMEOUT_MS, MILLISECONDS);
+          if (fsPath == END_OF_QUEUE) {
+            return;
+          }
+          if (fsPath == null) {
+            continue;
+          }
+          try {
+            indexer.index(fsPath);
+          } catch (ServerException x) {
+            LOG.warn("Can't index file: {}. {}", fsPath, x.getMessage());
+          }
+          if (indexed.incrementAndGet() % batchSize == 0) {
+            commitAction.commit();
+          }
+        }
+      } catch (InterruptedException x) {
+        Thread.currentThread().interrupt();
+        fail(x);
+      } catch (IOException | RuntimeException | Error x) {
+        fail(x);
+      }
+    }
+
+    private class WalkTask extends RecursiveAction {
+
+      final File dir;
+
+      WalkTask(File dir) {
+        this.dir = dir;
+      }
+
+      @Override
+      protected void compute() {
+        if (isFailed()) {
+          return;
+        }
+        File[] children = dir.listFiles();
+        if (children == null) {
+          return;
+        }
+        List<WalkTask> subTasks = new ArrayList<>();
+        for (File child : children) {
+          if (child.isDirectory()) {
+            subTasks.add(new WalkTask(child));
+          } else if (filter.test(child.toPath())) {
+            enqueue(child.toPath());
+          }
+        }
+        invokeAll(subTasks);
+      }
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import java.util.Arrays;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * Table of line start offsets of a text. Allows to find the line of an offset with a binary search
+ * instead of scanning the text. Lines are separated by {@code \n}, {@code \r\n} or {@code \r} the
+ * same way as in {@link org.eclipse.jface.text.Document}.
+ *
+ * <p>Table is stored in the index along with the text, in a compact form where each offset is
+ * written as a variable length delta from the previous one.
+ */
+class LineIndex {
+
+  private final int[] lineStarts;
+  private final int lines;
+
+  private LineIndex(int[] lineStarts, int lines) {
+    this.lineStarts = lineStarts;
+    this.lines = lines;
+  }
+
+  /** Builds line index of the given text. */
+  static LineIndex of(CharSequence text) {
+    int[] starts = new int[16];
+    int lines = 1;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+        i++;
+      } else if (c != '\r' && c != '\n') {
+        continue;
+      }
+      if (lines == starts.length) {
+        starts = Arrays.copyOf(starts, lines << 1);
+      }
+      starts[lines++] = i + 1;
+    }
+    return new LineIndex(starts, lines);
+  }
+
+  /** Restores line index written by {@link #encode()}. */
+  static LineIndex decode(BytesRef bytes) {
+    ByteArrayDataInput in = new ByteArrayDataInput(bytes.bytes, bytes.offset, bytes.length);
+    int lines = in.readVInt();
+    int[] starts = new int[lines];
+    for (int i = 1; i < lines; i++) {
+      starts[i] = starts[i - 1] + in.readVInt();
+    }
+    return new LineIndex(starts, lines);
+  }
+
+  /** Writes this index in the compact form. */
+  byte[] encode() {
+    // vInt takes at most 5 bytes
+    byte[] buffer = new byte[5 * (lines + 1)];
+    int position = writeVInt(buffer, 0, lines);
+    for (int i = 1; i < lines; i++) {
+      position = writeVInt(buffer, position, lineStarts[i] - lineStarts[i - 1]);
+    }
+    return Arrays.copyOf(buffer, position);
+  }
+
+  /** Writes value in the format readable by {@link ByteArrayDataInput#readVInt()}. */
+  private static int writeVInt(byte[] buffer, int position, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[position++] = (byte) value;
+    return position;
+  }
+
+  /** Returns number of lines. */
+  int getLineCount() {
+    return lines;
+  }
+
+  /** Returns zero-based number of the line which contains the given offset. */
+  int getLineOfOffset(int offset) {
+    int idx = Arrays.binarySearch(lineStarts, 0, lines, offset);
+    return idx >= 0 ? idx : -idx - 2;
+  }
+
+  /** Returns content of the line without line delimiter. */
+  String getLine(String text, int line) {
+    int start = lineStarts[line];
+    int end = line + 1 < lines ? lineStarts[line + 1] : text.length();
+    if (end > start && text.charAt(end - 1) == '\n') {
+      end--;
+    }
+    if (end > start && text.charAt(end - 1) == '\r') {
+      end--;
+    }
+    return text.substring(start, end);
+  }
+}
@@ -16,24 +16,25 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.che.api.fs.server.WsPathUtils.nameOf;
 import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
 
-import com.google.common.io.CharStreams;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.nio.charset.MalformedInputException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
@@ -48,11 +49,18 @@ import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
-import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
@@ -70,6 +78,8 @@ import org.apache.lucene.search.highlight.TokenSources;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.SingleInstanceLockFactory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
@@ -78,15 +88,18 @@ import org.eclipse.che.api.fs.server.PathTransformer;
 import org.eclipse.che.api.search.server.SearchResult;
 import org.eclipse.che.api.search.server.Searcher;
 import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
-import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.IRegion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Lucene based searcher.
  *
+ * <p>When {@code vfs.local.fs_index_persistent} is enabled the index directory is kept between
+ * ws-agent restarts. Each indexed document stores a fingerprint (modification time, size and
+ * content hash) of its file, so on start only files which were added, changed or removed since
+ * the previous run are re-indexed. Until this synchronization completes {@link #isIndexReady()}
+ * returns {@code false} and {@link #getPendingFiles()} reports how many files are left.
+ *
  * @author andrew00x
  */
 @Singleton
@@ -95,28 +108,64 @@ public class LuceneSearcher implements Searcher {
   private static final Logger LOG = LoggerFactory.getLogger(LuceneSearcher.class);
 
   private static final int RESULT_LIMIT = 1000;
+  private static final int MAX_OCCURRENCES_PER_FILE = 1000;
+  private static final int MAX_CHARS_TO_ANALYZE = 1_000_000;
+  private static final long SEARCHER_LEASE_TTL_MS = 60_000;
+  private static final int MAX_SEARCHER_LEASES = 100;
   private static final String PATH_FIELD = "path";
   private static final String NAME_FIELD = "name";
   private static final String TEXT_FIELD = "text";
+  private static final String MODIFIED_FIELD = "modified";
+  private static final String SIZE_FIELD = "size";
+  private static final String HASH_FIELD = "hash";
+  private static final String LINES_FIELD = "lines";
+  private static final FieldType TEXT_FIELD_TYPE = new FieldType(TextField.TYPE_STORED);
+
+  static {
+    // term vectors with offsets allow to highlight matches without analyzing the text again
+    TEXT_FIELD_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+    TEXT_FIELD_TYPE.setStoreTermVectors(true);
+    TEXT_FIELD_TYPE.setStoreTermVectorPositions(true);
+    TEXT_FIELD_TYPE.setStoreTermVectorOffsets(true);
+    TEXT_FIELD_TYPE.freeze();
+  }
+
+  private static final Set<String> FINGERPRINT_FIELDS =
+      ImmutableSet.of(PATH_FIELD, MODIFIED_FIELD, SIZE_FIELD, HASH_FIELD);
 
   private final Set<PathMatcher> excludePatterns;
   private final ExecutorService executor;
+  private final IndexingPipeline indexingPipeline;
+  private final SearcherLeases searcherLeases =
+      new SearcherLeases(SEARCHER_LEASE_TTL_MS, MAX_SEARCHER_LEASES);
   private final File indexDirectory;
   private final PathTransformer pathTransformer;
+  private final boolean persistentIndex;
+  private final AtomicInteger pendingFiles = new AtomicInteger();
+  private final Map<String, LongAdder> excludedFiles = new ConcurrentHashMap<>();
+  private final LongAdder excludedBytes = new LongAdder();
 
   private File root;
   private IndexWriter luceneIndexWriter;
   private SearcherManager searcherManager;
 
   private boolean closed = true;
+  private volatile boolean indexReady;
 
   @Inject
   protected LuceneSearcher(
       @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns,
       @Named("vfs.local.fs_index_root_dir") File indexDirectory,
+      @Named("vfs.local.fs_index_persistent") boolean persistentIndex,
+      @Named("vfs.local.fs_index_threads") int indexingThreads,
+      @Named("vfs.local.fs_index_queue_size") int indexingQueueSize,
+      @Named("vfs.local.fs_index_commit_batch_size") int commitBatchSize,
       @Named("che.user.workspaces.storage") File root,
       PathTransformer pathTransformer) {
     this.indexDirectory = indexDirectory;
+    this.persistentIndex = persistentIndex;
+    this.indexingPipeline =
+        new IndexingPipeline(indexingThreads, indexingQueueSize, commitBatchSize);
     this.root = root;
     this.excludePatterns = excludePatterns;
     this.pathTransformer = pathTransformer;
@@ -131,13 +180,13 @@ public class LuceneSearcher implements Searcher {
   }
 
   @PostConstruct
-  private void initialize() throws ServerException {
+  void initialize() throws ServerException {
     doInitialize();
     if (!executor.isShutdown()) {
       executor.execute(
           () -> {
             try {
-              addDirectory(root.toPath());
+              synchronizeIndex(root.toPath());
             } catch (ServerException e) {
               LOG.error(e.getMessage());
             }
@@ -146,7 +195,8 @@ public class LuceneSearcher implements Searcher {
   }
 
   @PreDestroy
-  private void terminate() {
+  void terminate() {
+    indexingPipeline.shutdown();
     doTerminate();
     executor.shutdown();
     try {
@@ -176,7 +226,24 @@ public class LuceneSearcher implements Searcher {
 
   private void doInitialize() throws ServerException {
     try {
-      luceneIndexWriter = new IndexWriter(makeDirectory(), new IndexWriterConfig(makeAnalyzer()));
+      luceneIndexWriter =
+          makeIndexWriter(persistentIndex ? OpenMode.CREATE_OR_APPEND : OpenMode.CREATE);
+    } catch (IOException e) {
+      if (!persistentIndex) {
+        throw new ServerException(e);
+      }
+      LOG.warn("Unable open persisted index '{}', it will be rebuilt", indexDirectory, e);
+      // files of the broken index are removed, as writer reads them even in CREATE mode
+      if (!deleteRecursive(indexDirectory)) {
+        LOG.warn("Unable delete persisted index '{}'", indexDirectory);
+      }
+      try {
+        luceneIndexWriter = makeIndexWriter(OpenMode.CREATE);
+      } catch (IOException ioe) {
+        throw new ServerException(ioe);
+      }
+    }
+    try {
       searcherManager = new SearcherManager(luceneIndexWriter, true, true, new SearcherFactory());
       closed = false;
     } catch (IOException e) {
@@ -184,11 +251,24 @@ public class LuceneSearcher implements Searcher {
     }
   }
 
+  private IndexWriter makeIndexWriter(OpenMode openMode) throws IOException, ServerException {
+    Directory directory = makeDirectory();
+    try {
+      return new IndexWriter(
+          directory, new IndexWriterConfig(makeAnalyzer()).setOpenMode(openMode));
+    } catch (IOException e) {
+      IOUtils.closeWhileHandlingException(directory);
+      throw e;
+    }
+  }
+
   private void doTerminate() {
     if (!closed) {
+      indexReady = false;
+      searcherLeases.releaseAll();
       try {
         IOUtils.close(luceneIndexWriter, luceneIndexWriter.getDirectory(), searcherManager);
-        if (!deleteRecursive(indexDirectory)) {
+        if (!persistentIndex && !deleteRecursive(indexDirectory)) {
           LOG.warn("Unable delete index directory '{}', add it in FileCleaner", indexDirectory);
           FileCleaner.addFile(indexDirectory);
         }
@@ -199,19 +279,67 @@ public class LuceneSearcher implements Searcher {
     }
   }
 
+  /**
+   * Returns {@code true} when initial synchronization of the index with the file system is
+   * completed, until then search results may be incomplete.
+   */
+  public boolean isIndexReady() {
+    return indexReady;
+  }
+
+  /** Returns number of files which are still waiting to be indexed by initial synchronization. */
+  public int getPendingFiles() {
+    return pendingFiles.get();
+  }
+
+  /**
+   * Returns number of files excluded from the index by the last synchronization of the index with
+   * the file system, by simple names of the matchers which excluded them.
+   */
+  public Map<String, Long> getExcludedFiles() {
+    Map<String, Long> result = new TreeMap<>();
+    excludedFiles.forEach((matcher, count) -> result.put(matcher, count.sum()));
+    return result;
+  }
+
+  /**
+   * Returns total size of files excluded from the index by the last synchronization of the index
+   * with the file system.
+   */
+  public long getExcludedBytes() {
+    return excludedBytes.sum();
+  }
+
   @Override
   public SearchResult search(QueryExpression query) throws ServerException {
     IndexSearcher luceneSearcher = null;
     try {
       final long startTime = System.currentTimeMillis();
-      searcherManager.maybeRefresh();
-      luceneSearcher = searcherManager.acquire();
-
       Query luceneQuery = createLuceneQuery(query);
 
+      SearchCursor cursor = null;
+      if (query.getContinuationToken() != null) {
+        cursor = SearchCursor.fromToken(query.getContinuationToken());
+      }
+      long leaseId = -1;
+      if (cursor != null) {
+        luceneSearcher = searcherLeases.acquire(cursor.getLeaseId());
+        if (luceneSearcher != null) {
+          leaseId = cursor.getLeaseId();
+        }
+      }
+      if (luceneSearcher == null) {
+        searcherManager.maybeRefresh();
+        luceneSearcher = searcherManager.acquire();
+      }
+
       ScoreDoc after = null;
-      final int numSkipDocs = Math.max(0, query.getSkipCount());
-      if (numSkipDocs > 0) {
+      final int numSkipDocs =
+          Math.max(0, cursor != null ? cursor.getSkipCount() : query.getSkipCount());
+      if (cursor != null && cursor.getReaderVersion() == readerVersion(luceneSearcher)) {
+        // documents ids are the same as on previous page, continue right after its last document
+        after = cursor.getAfter();
+      } else if (numSkipDocs > 0) {
         after = skipScoreDocs(luceneSearcher, luceneQuery, numSkipDocs);
       }
 
@@ -227,68 +355,7 @@ public class LuceneSearcher implements Searcher {
         int docId = scoreDoc.doc;
         Document doc = luceneSearcher.doc(docId);
         if (query.isIncludePositions()) {
-          offsetData = new ArrayList<>();
-          String txt = doc.get(TEXT_FIELD);
-          if (txt != null) {
-            IndexReader reader = luceneSearcher.getIndexReader();
-
-            TokenStream tokenStream =
-                TokenSources.getTokenStream(
-                    TEXT_FIELD,
-                    reader.getTermVectors(docId),
-                    txt,
-                    luceneIndexWriter.getAnalyzer(),
-                    -1);
-
-            CharTermAttribute termAtt = tokenStream.addAttribute(CharTermAttribute.class);
-            OffsetAttribute offsetAtt = tokenStream.addAttribute(OffsetAttribute.class);
-
-            QueryScorer queryScorer = new QueryScorer(luceneQuery);
-            // TODO think about this constant
-            queryScorer.setMaxDocCharsToAnalyze(1_000_000);
-            TokenStream newStream = queryScorer.init(tokenStream);
-            if (newStream != null) {
-              tokenStream = newStream;
-            }
-            queryScorer.startFragment(null);
-
-            tokenStream.reset();
-
-            int startOffset, endOffset;
-            // TODO think about this constant
-            for (boolean next = tokenStream.incrementToken();
-                next && (offsetAtt.startOffset() < 1_000_000);
-                next = tokenStream.incrementToken()) {
-              startOffset = offsetAtt.startOffset();
-              endOffset = offsetAtt.endOffset();
-
-              if ((endOffset > txt.length()) || (startOffset > txt.length())) {
-                throw new ServerException(
-                    "Token "
-                        + termAtt.toString()
-                        + " exceeds length of provided text size "
-                        + txt.length());
-              }
-
-              float res = queryScorer.getTokenScore();
-              if (res > 0.0F && startOffset <= endOffset) {
-                try {
-                  IDocument document = new org.eclipse.jface.text.Document(txt);
-                  int lineNum = document.getLineOfOffset(startOffset);
-                  IRegion lineInfo = document.getLineInformation(lineNum);
-                  String foundLine = document.get(lineInfo.getOffset(), lineInfo.getLength());
-                  String tokenText = document.get(startOffset, endOffset - startOffset);
-
-                  offsetData.add(
-                      new OffsetData(
-                          tokenText, startOffset, endOffset, docId, res, lineNum, foundLine));
-                } catch (BadLocationException e) {
-                  LOG.error(e.getLocalizedMessage(), e);
-                  throw new ServerException("Can not provide data for token " + termAtt.toString());
-                }
-              }
-            }
-          }
+          offsetData = findOccurrences(luceneSearcher, luceneQuery, docId, doc);
         }
         String filePath = doc.getField(PATH_FIELD).stringValue();
         results.add(new SearchResultEntry(filePath, offsetData));
@@ -296,11 +363,23 @@ public class LuceneSearcher implements Searcher {
 
       final long elapsedTimeMillis = System.currentTimeMillis() - startTime;
 
-      boolean hasMoreToRetrieve = numSkipDocs + topDocs.scoreDocs.length + 1 < totalHitsNum;
+      final int retrievedDocs = numSkipDocs + topDocs.scoreDocs.length;
+      boolean hasMoreToRetrieve = retrievedDocs < totalHitsNum;
       QueryExpression nextPageQueryExpression = null;
-      if (hasMoreToRetrieve) {
+      if (hasMoreToRetrieve && topDocs.scoreDocs.length > 0) {
+        if (leaseId < 0) {
+          leaseId = searcherLeases.lease(luceneSearcher);
+        }
+        SearchCursor nextPageCursor =
+            new SearchCursor(
+                leaseId,
+                readerVersion(luceneSearcher),
+                topDocs.scoreDocs[topDocs.scoreDocs.length - 1],
+                retrievedDocs);
         nextPageQueryExpression =
-            createNextPageQuery(query, numSkipDocs + topDocs.scoreDocs.length);
+            createNextPageQuery(query, retrievedDocs, nextPageCursor.toToken());
+      } else if (leaseId >= 0) {
+        searcherLeases.release(leaseId);
       }
 
       return SearchResult.aSearchResult()
@@ -308,6 +387,8 @@ public class LuceneSearcher implements Searcher {
           .withTotalHits(totalHitsNum)
           .withNextPageQueryExpression(nextPageQueryExpression)
           .withElapsedTimeMillis(elapsedTimeMillis)
+          .withIndexReady(indexReady)
+          .withPendingFiles(pendingFiles.get())
           .build();
     } catch (IOException | ParseException e) {
       throw new ServerException(e.getMessage(), e);
@@ -320,6 +401,84 @@ public class LuceneSearcher implements Searcher {
     }
   }
 
+  /**
+   * Finds occurrences of the query in the text of the given document. Tokens are taken from the
+   * stored term vectors, so the text isn't analyzed again, and line of each occurrence is resolved
+   * with the stored line index. Tokens are read one by one and reading stops as soon as {@link
+   * #MAX_OCCURRENCES_PER_FILE} occurrences are found or {@link #MAX_CHARS_TO_ANALYZE} characters are
+   * read, so huge files with many matches don't stall the search.
+   */
+  private List<OffsetData> findOccurrences(
+      IndexSearcher luceneSearcher, Query luceneQuery, int docId, Document doc)
+      throws IOException, ServerException {
+    String txt = doc.get(TEXT_FIELD);
+    if (txt == null) {
+      return Collections.emptyList();
+    }
+    BytesRef lines = doc.getBinaryValue(LINES_FIELD);
+    // documents indexed before line index was introduced don't have it stored
+    LineIndex lineIndex = lines != null ? LineIndex.decode(lines) : LineIndex.of(txt);
+
+    TokenStream tokenStream =
+        TokenSources.getTokenStream(
+            TEXT_FIELD,
+            luceneSearcher.getIndexReader().getTermVectors(docId),
+            txt,
+            luceneIndexWriter.getAnalyzer(),
+            MAX_CHARS_TO_ANALYZE);
+
+    CharTermAttribute termAtt = tokenStream.addAttribute(CharTermAttribute.class);
+    OffsetAttribute offsetAtt = tokenStream.addAttribute(OffsetAttribute.class);
+
+    QueryScorer queryScorer = new QueryScorer(luceneQuery);
+    queryScorer.setMaxDocCharsToAnalyze(MAX_CHARS_TO_ANALYZE);
+    TokenStream newStream = queryScorer.init(tokenStream);
+    if (newStream != null) {
+      tokenStream = newStream;
+    }
+    queryScorer.startFragment(null);
+
+    List<OffsetData> offsetData = new ArrayList<>();
+    try {
+      tokenStream.reset();
+      int startOffset, endOffset;
+      for (boolean next = tokenStream.incrementToken();
+          next
+              && offsetAtt.startOffset() < MAX_CHARS_TO_ANALYZE
+              && offsetData.size() < MAX_OCCURRENCES_PER_FILE;
+          next = tokenStream.incrementToken()) {
+        startOffset = offsetAtt.startOffset();
+        endOffset = offsetAtt.endOffset();
+
+        if ((endOffset > txt.length()) || (startOffset > txt.length())) {
+          throw new ServerException(
+              "Token "
+                  + termAtt.toString()
+                  + " exceeds length of provided text size "
+                  + txt.length());
+        }
+
+        float res = queryScorer.getTokenScore();
+        if (res > 0.0F && startOffset <= endOffset) {
+          int lineNum = lineIndex.getLineOfOffset(startOffset);
+          offsetData.add(
+              new OffsetData(
+                  txt.substring(startOffset, endOffset),
+                  startOffset,
+                  endOffset,
+                  docId,
+                  res,
+                  lineNum,
+                  lineIndex.getLine(txt, lineNum)));
+        }
+      }
+      tokenStream.end();
+    } finally {
+      tokenStream.close();
+    }
+    return offsetData;
+  }
+
   private Query createLuceneQuery(QueryExpression query) throws ParseException, IOException {
     BooleanQuery.Builder luceneQueryBuilder = new BooleanQuery.Builder();
     final String name = query.getName();
@@ -363,13 +522,20 @@ public class LuceneSearcher implements Searcher {
     return scoreDoc;
   }
 
-  private QueryExpression createNextPageQuery(QueryExpression originalQuery, int newSkipCount) {
+  private QueryExpression createNextPageQuery(
+      QueryExpression originalQuery, int newSkipCount, String continuationToken) {
     return new QueryExpression()
         .setText(originalQuery.getText())
         .setName(originalQuery.getName())
         .setPath(originalQuery.getPath())
         .setSkipCount(newSkipCount)
-        .setMaxItems(originalQuery.getMaxItems());
+        .setMaxItems(originalQuery.getMaxItems())
+        .setIncludePositions(originalQuery.isIncludePositions())
+        .setContinuationToken(continuationToken);
+  }
+
+  private static long readerVersion(IndexSearcher luceneSearcher) {
+    return ((DirectoryReader) luceneSearcher.getIndexReader()).getVersion();
   }
 
   @Override
@@ -383,52 +549,120 @@ public class LuceneSearcher implements Searcher {
 
   private void addDirectory(Path fsPath) throws ServerException {
     long start = System.currentTimeMillis();
-    LinkedList<File> queue = new LinkedList<>();
-    queue.add(fsPath.toFile());
-    int indexedFiles = 0;
-    while (!queue.isEmpty()) {
-      File folder = queue.pop();
-      if (folder.exists() && folder.isDirectory()) {
-        File[] files = folder.listFiles();
-        if (files == null) {
-          continue;
-        }
-        for (File child : files) {
-          if (child.isDirectory()) {
-            queue.push(child);
-          } else {
-            addFile(child.toPath());
-            indexedFiles++;
-          }
-        }
-      }
-    }
-
+    long indexedFiles = indexingPipeline.run(fsPath, this::isNotExcluded, this::indexFile, () -> {});
     long end = System.currentTimeMillis();
     LOG.debug("Indexed {} files from {}, time: {} ms", indexedFiles, fsPath, (end - start));
   }
 
-  private void addFile(Path fsPath) throws ServerException {
-    if (!fsPath.toFile().exists()) {
-      return;
-    }
-
-    if (!isNotExcluded(fsPath)) {
-      return;
-    }
-
-    String wsPath = pathTransformer.transform(fsPath);
+  /**
+   * Brings index in line with the content of the given directory. Files which fingerprints match
+   * the ones stored in the index are skipped, changed and new files are (re-)indexed and documents
+   * of files which no longer exist are removed.
+   */
+  private void synchronizeIndex(Path fsPath) throws ServerException {
+    long start = System.currentTimeMillis();
+    indexReady = false;
+    excludedFiles.clear();
+    excludedBytes.reset();
+    Map<String, FileFingerprint> indexed = readFingerprints();
+
+    AtomicInteger upToDate = new AtomicInteger();
+    AtomicInteger excluded = new AtomicInteger();
+    long indexedFiles =
+        indexingPipeline.run(
+            fsPath,
+            file -> {
+              PathMatcher excludingMatcher = findExcludingMatcher(file);
+              if (excludingMatcher != null) {
+                excludedFiles
+                    .computeIfAbsent(
+                        excludingMatcher.getClass().getSimpleName(), k -> new LongAdder())
+                    .increment();
+                excludedBytes.add(file.toFile().length());
+                excluded.incrementAndGet();
+                return false;
+              }
+              FileFingerprint fingerprint = indexed.remove(pathTransformer.transform(file));
+              if (fingerprint != null && fingerprint.matches(file)) {
+                upToDate.incrementAndGet();
+                return false;
+              }
+              pendingFiles.incrementAndGet();
+              return true;
+            },
+            file -> {
+              try {
+                indexFile(file);
+              } finally {
+                pendingFiles.decrementAndGet();
+              }
+            },
+            () -> luceneIndexWriter.commit());
 
-    try (Reader reader =
-        new BufferedReader(new InputStreamReader(new FileInputStream(fsPath.toFile()), "utf-8"))) {
-      luceneIndexWriter.updateDocument(
-          new Term(PATH_FIELD, wsPath), createDocument(wsPath, reader));
+    try {
+      if (!indexed.isEmpty()) {
+        luceneIndexWriter.deleteDocuments(
+            indexed.keySet().stream().map(p -> new Term(PATH_FIELD, p)).toArray(Term[]::new));
+      }
+      luceneIndexWriter.commit();
     } catch (OutOfMemoryError oome) {
       doTerminate();
       throw oome;
     } catch (IOException e) {
       throw new ServerException(e.getMessage(), e);
     }
+    indexReady = true;
+
+    long end = System.currentTimeMillis();
+    LOG.info(
+        "Synchronized index of {}: {} files up to date, {} indexed, {} removed, {} excluded,"
+            + " time: {} ms",
+        fsPath,
+        upToDate.get(),
+        indexedFiles,
+        indexed.size(),
+        excluded.get(),
+        (end - start));
+    LOG.info(
+        "Files excluded from index: {}, total size: {} bytes", getExcludedFiles(), getExcludedBytes());
+  }
+
+  private Map<String, FileFingerprint> readFingerprints() throws ServerException {
+    Map<String, FileFingerprint> fingerprints = new ConcurrentHashMap<>();
+    IndexSearcher luceneSearcher = null;
+    try {
+      searcherManager.maybeRefresh();
+      luceneSearcher = searcherManager.acquire();
+      for (LeafReaderContext context : luceneSearcher.getIndexReader().leaves()) {
+        LeafReader reader = context.reader();
+        Bits liveDocs = reader.getLiveDocs();
+        for (int i = 0; i < reader.maxDoc(); i++) {
+          if (liveDocs == null || liveDocs.get(i)) {
+            Document doc = reader.document(i, FINGERPRINT_FIELDS);
+            fingerprints.put(doc.get(PATH_FIELD), FileFingerprint.of(doc));
+          }
+        }
+      }
+      return fingerprints;
+    } catch (IOException e) {
+      throw new ServerException(e.getMessage(), e);
+    } finally {
+      try {
+        searcherManager.release(luceneSearcher);
+      } catch (IOException e) {
+        LOG.error(e.getMessage());
+      }
+    }
+  }
+
+  private void addFile(Path fsPath) throws ServerException {
+    doUpdate(new Term(PATH_FIELD, pathTransformer.transform(fsPath)), fsPath);
+  }
+
+  /** Indexes file which is already accepted by the exclude matchers. */
+  private void indexFile(Path fsPath) throws ServerException {
+    String wsPath = pathTransformer.transform(fsPath);
+    writeDocument(new Term(PATH_FIELD, wsPath), wsPath, fsPath);
   }
 
   @Override
@@ -462,14 +696,21 @@ public class LuceneSearcher implements Searcher {
     }
 
     if (!isNotExcluded(fsPath)) {
+      // file may become excluded after it was indexed, e.g. when it grows over the size limit
+      try {
+        luceneIndexWriter.deleteDocuments(deleteTerm);
+      } catch (IOException e) {
+        throw new ServerException(e.getMessage(), e);
+      }
       return;
     }
 
-    String wsPath = pathTransformer.transform(fsPath);
+    writeDocument(deleteTerm, pathTransformer.transform(fsPath), fsPath);
+  }
 
-    try (Reader reader =
-        new BufferedReader(new InputStreamReader(new FileInputStream(fsPath.toFile()), "utf-8"))) {
-      luceneIndexWriter.updateDocument(deleteTerm, createDocument(wsPath, reader));
+  private void writeDocument(Term deleteTerm, String wsPath, Path fsPath) throws ServerException {
+    try {
+      luceneIndexWriter.updateDocument(deleteTerm, createDocument(wsPath, fsPath));
     } catch (OutOfMemoryError oome) {
       doTerminate();
       throw oome;
@@ -478,15 +719,22 @@ public class LuceneSearcher implements Searcher {
     }
   }
 
-  private Document createDocument(String wsPath, Reader reader) throws ServerException {
+  private Document createDocument(String wsPath, Path fsPath) throws ServerException {
     String name = nameOf(wsPath);
     Document doc = new Document();
     doc.add(new StringField(PATH_FIELD, wsPath, Field.Store.YES));
     doc.add(new TextField(NAME_FIELD, name, Field.Store.YES));
     try {
-      doc.add(new TextField(TEXT_FIELD, CharStreams.toString(reader), Field.Store.YES));
-    } catch (MalformedInputException e) {
-      LOG.warn("Can't index file: {}", wsPath);
+      // attributes are read before the content, so concurrent modification of the file
+      // leaves an outdated fingerprint and the file gets re-indexed on next synchronization
+      BasicFileAttributes attributes = Files.readAttributes(fsPath, BasicFileAttributes.class);
+      byte[] content = Files.readAllBytes(fsPath);
+      doc.add(new StoredField(MODIFIED_FIELD, attributes.lastModifiedTime().toMillis()));
+      doc.add(new StoredField(SIZE_FIELD, (long) content.length));
+      doc.add(new StoredField(HASH_FIELD, FileFingerprint.hashOf(content)));
+      String text = TextDecoder.decode(content);
+      doc.add(new Field(TEXT_FIELD, text, TEXT_FIELD_TYPE));
+      doc.add(new StoredField(LINES_FIELD, LineIndex.of(text).encode()));
     } catch (IOException e) {
       LOG.error("Can't index file: {}", wsPath);
       throw new ServerException(e.getLocalizedMessage(), e);
@@ -495,12 +743,70 @@ public class LuceneSearcher implements Searcher {
   }
 
   private boolean isNotExcluded(Path fsPath) {
+    return findExcludingMatcher(fsPath) == null;
+  }
+
+  /** Returns the first matcher which excludes the file, or {@code null} if it isn't excluded. */
+  private PathMatcher findExcludingMatcher(Path fsPath) {
     for (PathMatcher matcher : excludePatterns) {
       if (matcher.matches(fsPath)) {
+        return matcher;
+      }
+    }
+    return null;
+  }
+
+  /** Modification time, size and content hash of a file at the moment it was indexed. */
+  private static class FileFingerprint {
+
+    /** Fingerprint of a document indexed by a version which didn't store fingerprints. */
+    static final FileFingerprint UNKNOWN = new FileFingerprint(-1, -1, null);
+
+    final long modified;
+    final long size;
+    final String hash;
+
+    FileFingerprint(long modified, long size, String hash) {
+      this.modified = modified;
+      this.size = size;
+      this.hash = hash;
+    }
+
+    static FileFingerprint of(Document doc) {
+      IndexableField modified = doc.getField(MODIFIED_FIELD);
+      IndexableField size = doc.getField(SIZE_FIELD);
+      if (modified == null || size == null) {
+        return UNKNOWN;
+      }
+      return new FileFingerprint(
+          modified.numericValue().longValue(),
+          size.numericValue().longValue(),
+          doc.get(HASH_FIELD));
+    }
+
+    static String hashOf(byte[] content) {
+      return Hashing.murmur3_128().hashBytes(content).toString();
+    }
+
+    /**
+     * Checks whether the file is the same as it was on indexing. Content hash is compared only
+     * when the file has the same size but different modification time, e.g. after it was touched
+     * or checked out again.
+     */
+    boolean matches(Path fsPath) {
+      try {
+        BasicFileAttributes attributes = Files.readAttributes(fsPath, BasicFileAttributes.class);
+        if (attributes.size() != size) {
+          return false;
+        }
+        if (attributes.lastModifiedTime().toMillis() == modified) {
+          return true;
+        }
+        return hash != null && hash.equals(hashOf(Files.readAllBytes(fsPath)));
+      } catch (IOException e) {
         return false;
       }
     }
-    return true;
   }
 
   public static class OffsetData {
@@ -18,6 +18,7 @@ public class QueryExpression {
   private int skipCount;
   private int maxItems;
   private boolean includePositions;
+  private String continuationToken;
 
   /**
    * Optional file path parameter. Only file with the specified path or children are included in
@@ -88,6 +89,20 @@ public class QueryExpression {
     return this;
   }
 
+  /**
+   * Optional opaque token returned with the previous page of search results. When it is set, the
+   * next page is fetched right after the last result of the previous page instead of skipping
+   * {@link #getSkipCount()} results.
+   */
+  public String getContinuationToken() {
+    return continuationToken;
+  }
+
+  public QueryExpression setContinuationToken(String continuationToken) {
+    this.continuationToken = continuationToken;
+    return this;
+  }
+
   @Override
   public String toString() {
     return "QueryExpression{"
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Splitter;
+import java.util.Base64;
+import java.util.List;
+import org.apache.lucene.search.ScoreDoc;
+
+/**
+ * Position in search results after which the next page starts. Cursor is passed to clients as an
+ * opaque continuation token and contains:
+ *
+ * <ul>
+ *   <li>id of the searcher lease, which keeps the same point-in-time view of the index while
+ *       client pages through the results
+ *   <li>version of the index reader, the last document is valid only for this version
+ *   <li>last document of the previous page and its score, used for {@code searchAfter}
+ *   <li>number of already retrieved results, used when the lease is expired and the index changed
+ * </ul>
+ */
+class SearchCursor {
+
+  private static final char SEPARATOR = ':';
+
+  private final long leaseId;
+  private final long readerVersion;
+  private final int doc;
+  private final float score;
+  private final int skipCount;
+
+  SearchCursor(long leaseId, long readerVersion, ScoreDoc after, int skipCount) {
+    this(leaseId, readerVersion, after.doc, after.score, skipCount);
+  }
+
+  private SearchCursor(long leaseId, long readerVersion, int doc, float score, int skipCount) {
+    this.leaseId = leaseId;
+    this.readerVersion = readerVersion;
+    this.doc = doc;
+    this.score = score;
+    this.skipCount = skipCount;
+  }
+
+  /**
+   * Restores cursor from the continuation token.
+   *
+   * @return restored cursor or {@code null} if token is malformed
+   */
+  static SearchCursor fromToken(String token) {
+    try {
+      String value = new String(Base64.getUrlDecoder().decode(token), UTF_8);
+      List<String> parts = Splitter.on(SEPARATOR).splitToList(value);
+      if (parts.size() != 5) {
+        return null;
+      }
+      return new SearchCursor(
+          Long.parseLong(parts.get(0)),
+          Long.parseLong(parts.get(1)),
+          Integer.parseInt(parts.get(2)),
+          Float.intBitsToFloat(Integer.parseInt(parts.get(3))),
+          Integer.parseInt(parts.get(4)));
+    } catch (IllegalArgumentException x) {
+      return null;
+    }
+  }
+
+  /** Returns opaque continuation token. */
+  String toToken() {
+    String value =
+        String.valueOf(leaseId)
+            + SEPARATOR
+            + readerVersion
+            + SEPARATOR
+            + doc
+            + SEPARATOR
+            + Float.floatToIntBits(score)
+            + SEPARATOR
+            + skipCount;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(UTF_8));
+  }
+
+  long getLeaseId() {
+    return leaseId;
+  }
+
+  long getReaderVersion() {
+    return readerVersion;
+  }
+
+  /** Returns the last document of the previous page. */
+  ScoreDoc getAfter() {
+    return new ScoreDoc(doc, score);
+  }
+
+  int getSkipCount() {
+    return skipCount;
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.lucene.search.IndexSearcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps searchers used for paging through search results open for a short time, so all the pages
+ * of the same search are read from the same point-in-time view of the index, even if the index is
+ * updated meanwhile.
+ *
+ * <p>Each lease holds a reference to the reader of its searcher, the reference is released when
+ * the lease expires, when the last page is read or when number of leases exceeds the limit.
+ */
+class SearcherLeases {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SearcherLeases.class);
+
+  private final long ttlMillis;
+  private final int maxLeases;
+  private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+  private final AtomicLong leaseIds = new AtomicLong();
+
+  SearcherLeases(long ttlMillis, int maxLeases) {
+    this.ttlMillis = ttlMillis;
+    this.maxLeases = maxLeases;
+  }
+
+  /**
+   * Leases the given searcher.
+   *
+   * @return id of the new lease
+   */
+  long lease(IndexSearcher searcher) {
+    releaseExpired();
+    searcher.getIndexReader().incRef();
+    long leaseId = leaseIds.incrementAndGet();
+    leases.put(leaseId, new Lease(searcher, System.currentTimeMillis() + ttlMillis));
+    while (leases.size() > maxLeases) {
+      leases
+          .entrySet()
+          .stream()
+          .min(Comparator.comparingLong(e -> e.getValue().expiresAt))
+          .ifPresent(e -> release(e.getKey()));
+    }
+    return leaseId;
+  }
+
+  /**
+   * Acquires searcher of the lease and prolongs the lease. Acquired searcher must be released with
+   * {@link org.apache.lucene.search.SearcherManager#release(IndexSearcher)}.
+   *
+   * @return leased searcher or {@code null} if there is no such lease or it is expired
+   */
+  IndexSearcher acquire(long leaseId) {
+    releaseExpired();
+    Lease lease = leases.get(leaseId);
+    if (lease == null || !lease.searcher.getIndexReader().tryIncRef()) {
+      return null;
+    }
+    lease.expiresAt = System.currentTimeMillis() + ttlMillis;
+    return lease.searcher;
+  }
+
+  /** Releases the lease if it exists. */
+  void release(long leaseId) {
+    Lease lease = leases.remove(leaseId);
+    if (lease != null) {
+      try {
+        lease.searcher.getIndexReader().decRef();
+      } catch (IOException x) {
+        LOG.error(x.getMessage(), x);
+      }
+    }
+  }
+
+  /** Releases all the leases. */
+  void releaseAll() {
+    leases.keySet().forEach(this::release);
+  }
+
+  private void releaseExpired() {
+    long now = System.currentTimeMillis();
+    leases
+        .entrySet()
+        .stream()
+        .filter(e -> e.getValue().expiresAt < now)
+        .map(Map.Entry::getKey)
+        .forEach(this::release);
+  }
+
+  private static class Lease {
+
+    final IndexSearcher searcher;
+    volatile long expiresAt;
+
+    Lease(IndexSearcher searcher, long expiresAt) {
+      this.searcher = searcher;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Decodes content of indexed files. Charset is detected from the byte order mark, content without
+ * it is decoded as UTF-8 if it is valid UTF-8 and as ISO-8859-1 otherwise, so files in legacy
+ * single byte encodings are still searchable by their ASCII words instead of being indexed with
+ * replacement characters.
+ *
+ * <p>UTF-8 byte order mark is kept in the decoded text, so offsets of found occurrences match the
+ * offsets in the content shown by the editor.
+ */
+class TextDecoder {
+
+  private TextDecoder() {}
+
+  static String decode(byte[] content) {
+    if (content.length >= 2) {
+      int b0 = content[0] & 0xFF;
+      int b1 = content[1] & 0xFF;
+      if (b0 == 0xFE && b1 == 0xFF) {
+        return new String(content, 2, content.length - 2, UTF_16BE);
+      }
+      if (b0 == 0xFF && b1 == 0xFE) {
+        return new String(content, 2, content.length - 2, UTF_16LE);
+      }
+    }
+    try {
+      return UTF_8
+          .newDecoder()
+          .onMalformedInput(CodingErrorAction.REPORT)
+          .onUnmappableCharacter(CodingErrorAction.REPORT)
+          .decode(ByteBuffer.wrap(content))
+          .toString();
+    } catch (CharacterCodingException x) {
+      return new String(content, ISO_8859_1);
+    }
+  }
+}
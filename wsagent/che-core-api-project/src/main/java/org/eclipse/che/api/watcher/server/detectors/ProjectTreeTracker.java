@@ -13,6 +13,7 @@ package org.eclipse.che.api.watcher.server.detectors;
 import static java.util.stream.Collectors.toSet;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -81,7 +82,7 @@ public class ProjectTreeTracker {
                 fileWatcherManager.registerByPath(
                     path,
                     getCreateOperation(endpointId),
-                    getModifyConsumer(endpointId),
+                    getModifyConsumer(endpointId, path),
                     getDeleteOperation(endpointId));
             watchIdRegistry.put(path + endpointId, pathRegistrationId);
             break;
@@ -144,8 +145,24 @@ public class ProjectTreeTracker {
     };
   }
 
-  private Consumer<String> getModifyConsumer(String endpointId) {
-    return it -> {};
+  /**
+   * Modifications of entries are not interesting for the tree, the only modify event that is sent
+   * is the one of the tracked directory itself, file watcher sends it instead of events of each
+   * entry when lots of entries are changed at once, so client refreshes the whole directory.
+   */
+  private Consumer<String> getModifyConsumer(String endpointId, String path) {
+    return it -> {
+      if (it.equals(path)) {
+        ProjectTreeStateUpdateDto params =
+            newDto(ProjectTreeStateUpdateDto.class).withPath(it).withType(MODIFIED);
+        transmitter
+            .newRequest()
+            .endpointId(endpointId)
+            .methodName(OUTGOING_METHOD)
+            .paramsAsDto(params)
+            .sendAndSkipResult();
+      }
+    };
   }
 
   private Consumer<String> getDeleteOperation(String endpointId) {
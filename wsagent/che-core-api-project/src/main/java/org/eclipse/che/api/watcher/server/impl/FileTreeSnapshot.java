@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.watcher.server.impl;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Last known state of a file system tree. Items are kept in a trie of path name elements instead of
+ * a map of full paths, so each item costs a node with its name and modification time, while names
+ * are interned and shared by all the items with the same name, e.g. {@code src} or {@code
+ * pom.xml}. Full paths are not stored, they are resolved while the tree is traversed. Directories
+ * also keep their file key, so a directory removed and created again under the same name is
+ * recognized.
+ *
+ * <p>Snapshot is not thread safe.
+ */
+class FileTreeSnapshot {
+
+  private final Path root;
+  private final Node rootNode = new Node("", true, -1);
+
+  FileTreeSnapshot(Path root) {
+    this.root = root;
+  }
+
+  Path getRoot() {
+    return root;
+  }
+
+  Node getRootNode() {
+    return rootNode;
+  }
+
+  /**
+   * Returns node of the given path.
+   *
+   * @return node or {@code null} if path is not in the snapshot or it is not under the root
+   */
+  Node get(Path path) {
+    if (!path.startsWith(root)) {
+      return null;
+    }
+    Node node = rootNode;
+    for (Path name : root.relativize(path)) {
+      String element = name.toString();
+      if (element.isEmpty()) {
+        continue;
+      }
+      node = node.getChild(element);
+      if (node == null) {
+        return null;
+      }
+    }
+    return node;
+  }
+
+  /** Number of nodes in the snapshot including the root. */
+  int size() {
+    return rootNode.count();
+  }
+
+  /** File or directory in the snapshot. */
+  static class Node {
+
+    private final String name;
+    private final boolean directory;
+    private long modified;
+    private Object fileKey;
+    private boolean watched;
+    private Map<String, Node> children;
+
+    private Node(String name, boolean directory, long modified) {
+      this.name = name;
+      this.directory = directory;
+      this.modified = modified;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    boolean isDirectory() {
+      return directory;
+    }
+
+    long getModified() {
+      return modified;
+    }
+
+    void setModified(long modified) {
+      this.modified = modified;
+    }
+
+    /** Returns file key of the directory, see {@link BasicFileAttributes#fileKey()}. */
+    Object getFileKey() {
+      return fileKey;
+    }
+
+    void setFileKey(Object fileKey) {
+      this.fileKey = fileKey;
+    }
+
+    /** Whether the directory is registered in the file watcher by the tree walker. */
+    boolean isWatched() {
+      return watched;
+    }
+
+    void setWatched(boolean watched) {
+      this.watched = watched;
+    }
+
+    Node getChild(String name) {
+      return children == null ? null : children.get(name);
+    }
+
+    Collection<Node> getChildren() {
+      return children == null ? Collections.emptyList() : children.values();
+    }
+
+    /** Adds a child replacing the existing one with the same name. */
+    Node addChild(String name, boolean directory, long modified) {
+      if (children == null) {
+        children = new HashMap<>(4);
+      }
+      Node child = new Node(name.intern(), directory, modified);
+      children.put(child.name, child);
+      return child;
+    }
+
+    Node removeChild(String name) {
+      if (children == null) {
+        return null;
+      }
+      Node child = children.remove(name);
+      if (children.isEmpty()) {
+        children = null;
+      }
+      return child;
+    }
+
+    private int count() {
+      int count = 1;
+      for (Node child : getChildren()) {
+        count += child.count();
+      }
+      return count;
+    }
+  }
+}
@@ -10,27 +10,35 @@
  */
 package org.eclipse.che.api.watcher.server.impl;
 
-import static java.nio.file.FileVisitResult.CONTINUE;
-import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
-import static java.nio.file.Files.exists;
-import static java.nio.file.Files.walkFileTree;
-import static java.util.stream.Collectors.toSet;
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 
 import com.google.inject.Inject;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
-import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import org.eclipse.che.api.watcher.server.impl.FileTreeSnapshot.Node;
 import org.eclipse.che.commons.schedule.ScheduleRate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,6 +46,23 @@ import org.slf4j.LoggerFactory;
 /**
  * Walks a file system tree, register addition, update and removal of file system items. On events
  * runs corresponding consumers that can be registered in DI configuration modules.
+ *
+ * <p>Walker works in one of two modes:
+ *
+ * <ul>
+ *   <li>polling, the whole tree is walked periodically and compared with the snapshot of the
+ *       previous walk
+ *   <li>event driven, the tree is walked once, all its directories are registered in {@link
+ *       FileWatcherService} and the snapshot is updated incrementally on each file watcher event.
+ *       When events of a directory are lost only the subtree of that directory is walked again
+ * </ul>
+ *
+ * <p>Each watched directory takes an inotify watch on Linux, which are limited per user. When the
+ * tree has more directories than {@code che.fs.tree_walker.max_watched_directories} the walker
+ * releases its watches and falls back to polling.
+ *
+ * <p>Events are queued and applied by whichever thread holds the walker lock, so the file watcher
+ * thread is never blocked by a walk in progress.
  */
 @Singleton
 public class FileTreeWalker {
@@ -55,8 +80,25 @@ public class FileTreeWalker {
   private final Set<Consumer<Path>> fileDeleteConsumers;
   private final Set<PathMatcher> fileExcludes;
 
-  private final Map<Path, Long> files = new HashMap<>();
-  private final Map<Path, Long> directories = new HashMap<>();
+  private final FileWatcherService fileWatcherService;
+  private final FileWatcherEventHandler fileWatcherEventHandler;
+  private final boolean eventDriven;
+  private final int maxWatchedDirectories;
+
+  private final FileTreeSnapshot snapshot;
+  /** Directories which events are lost and which subtrees should be walked again. */
+  private final Set<Path> outdatedDirectories = new LinkedHashSet<>();
+  /** Guards the snapshot, events are applied only by the thread which holds the lock. */
+  private final Lock lock = new ReentrantLock();
+
+  private final Queue<Event> pendingEvents = new ConcurrentLinkedQueue<>();
+
+  private boolean initialized;
+  /** Whether the snapshot is updated by file watcher events, cleared on falling back to polling. */
+  private boolean watching;
+
+  private int watchedDirectories;
+  private boolean watchLimitExceeded;
 
   @Inject
   public FileTreeWalker(
@@ -68,7 +110,11 @@ public class FileTreeWalker {
       @Named("che.fs.file.update") Set<Consumer<Path>> fileUpdateConsumers,
       @Named("che.fs.file.create") Set<Consumer<Path>> fileCreateConsumers,
       @Named("che.fs.file.delete") Set<Consumer<Path>> fileDeleteConsumers,
-      @Named("che.fs.file.excludes") Set<PathMatcher> fileExcludes) {
+      @Named("che.fs.file.excludes") Set<PathMatcher> fileExcludes,
+      FileWatcherService fileWatcherService,
+      FileWatcherEventHandler fileWatcherEventHandler,
+      @Named("che.fs.tree_walker.event_driven") boolean eventDriven,
+      @Named("che.fs.tree_walker.max_watched_directories") int maxWatchedDirectories) {
     this.root = root;
 
     this.directoryUpdateConsumers = directoryUpdateConsumers;
@@ -81,81 +127,337 @@ public class FileTreeWalker {
 
     this.directoryExcludes = directoryExcludes;
     this.fileExcludes = fileExcludes;
+
+    this.fileWatcherService = fileWatcherService;
+    this.fileWatcherEventHandler = fileWatcherEventHandler;
+    this.eventDriven = eventDriven;
+    this.maxWatchedDirectories = maxWatchedDirectories;
+    this.watching = eventDriven;
+
+    this.snapshot = new FileTreeSnapshot(root.toPath().toAbsolutePath());
+  }
+
+  @PostConstruct
+  void subscribe() {
+    if (eventDriven) {
+      fileWatcherEventHandler.addListener(this::handle);
+    }
   }
 
   @ScheduleRate(period = 10)
   void walk() {
+    lock.lock();
     try {
-      LOG.debug("Tree walk started");
-
-      Set<Path> deletedFiles = files.keySet().stream().filter(it -> !exists(it)).collect(toSet());
-      fileDeleteConsumers.forEach(deletedFiles::forEach);
-      files.keySet().removeAll(deletedFiles);
-
-      Set<Path> deletedDirectories =
-          directories.keySet().stream().filter(it -> !exists(it)).collect(toSet());
-      directoryDeleteConsumers.forEach(deletedDirectories::forEach);
-      directories.keySet().removeAll(deletedDirectories);
-
-      walkFileTree(
-          root.toPath(),
-          new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
-                throws IOException {
-              for (PathMatcher matcher : directoryExcludes) {
-                if (matcher.matches(dir)) {
-                  return SKIP_SUBTREE;
-                }
-              }
-
-              updateFsTreeAndAcceptConsumables(
-                  directories, directoryUpdateConsumers, directoryCreateConsumers, dir, attrs);
-
-              return CONTINUE;
-            }
-
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-              for (PathMatcher matcher : fileExcludes) {
-                if (matcher.matches(file)) {
-                  return CONTINUE;
-                }
-              }
-
-              updateFsTreeAndAcceptConsumables(
-                  files, fileUpdateConsumers, fileCreateConsumers, file, attrs);
-
-              return CONTINUE;
-            }
-          });
-      LOG.debug("Tree walk finished");
-    } catch (NoSuchFileException e) {
-      LOG.debug(
-          "Trying to process a file, however seems like it is already not present: {}",
-          e.getMessage());
+      doWalk();
+      applyPendingEvents();
+    } finally {
+      lock.unlock();
+    }
+    // events queued while the lock was being released
+    drainPendingEvents();
+  }
+
+  private void doWalk() {
+    try {
+      if (!watching || !initialized) {
+        LOG.debug("Tree walk started");
+        walkRoot();
+        initialized = true;
+        LOG.debug("Tree walk finished, {} items are tracked", snapshot.size());
+      } else if (!outdatedDirectories.isEmpty()) {
+        List<Path> directories = new ArrayList<>(outdatedDirectories);
+        outdatedDirectories.clear();
+        for (Path directory : directories) {
+          LOG.debug("Walking outdated directory '{}'", directory);
+          walkSubtree(directory);
+        }
+      }
     } catch (Exception e) {
       LOG.error("Error while walking file tree", e);
     }
+    if (watching && watchLimitExceeded) {
+      fallBackToPolling();
+    }
+  }
+
+  /**
+   * Queues the file watcher event and applies it unless another thread holds the walker lock, that
+   * thread applies the event when it's done.
+   */
+  void handle(Path path, WatchEvent.Kind<?> kind) {
+    pendingEvents.add(new Event(path, kind));
+    drainPendingEvents();
+  }
+
+  private void drainPendingEvents() {
+    while (!pendingEvents.isEmpty() && lock.tryLock()) {
+      try {
+        applyPendingEvents();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private void applyPendingEvents() {
+    Event event;
+    while ((event = pendingEvents.poll()) != null) {
+      if (initialized && watching) {
+        // otherwise the next walk catches up the change
+        apply(event.path, event.kind);
+        if (watchLimitExceeded) {
+          fallBackToPolling();
+        }
+      }
+    }
+  }
+
+  /**
+   * Updates the snapshot according to the file watcher event. Only the item of the event and its
+   * parent directory are checked, subtree is walked only for created directories.
+   */
+  private void apply(Path path, WatchEvent.Kind<?> kind) {
+    if (kind == OVERFLOW) {
+      outdatedDirectories.add(path);
+      return;
+    }
+    Path parent = path.getParent();
+    Node parentNode = parent == null ? null : snapshot.get(parent);
+    if (parentNode == null || !parentNode.isDirectory()) {
+      return;
+    }
+    try {
+      BasicFileAttributes attrs = readAttributes(path);
+      if (attrs == null) {
+        remove(parentNode, path);
+      } else {
+        update(parentNode, path, attrs, false);
+      }
+      BasicFileAttributes parentAttrs = readAttributes(parent);
+      if (parentAttrs != null) {
+        updateModified(parentNode, parent, parentAttrs);
+      }
+    } catch (Exception e) {
+      LOG.error("Error while handling file watcher event for '{}'", path, e);
+    }
+  }
+
+  private void walkRoot() throws IOException {
+    Path rootPath = snapshot.getRoot();
+    BasicFileAttributes attrs = readAttributes(rootPath);
+    if (attrs == null || isExcluded(directoryExcludes, rootPath)) {
+      return;
+    }
+    Node rootNode = snapshot.getRootNode();
+    if (rootNode.getModified() < 0) {
+      rootNode.setModified(attrs.lastModifiedTime().toMillis());
+      rootNode.setFileKey(attrs.fileKey());
+      watch(rootNode, rootPath);
+      directoryCreateConsumers.forEach(it -> it.accept(rootPath));
+    } else {
+      updateModified(rootNode, rootPath, attrs);
+    }
+    updateEntries(rootNode, rootPath);
+  }
+
+  private void walkSubtree(Path path) throws IOException {
+    Path rootPath = snapshot.getRoot();
+    if (!path.startsWith(rootPath)) {
+      return;
+    }
+    // directory may be already removed, then walk its nearest known ancestor
+    while (!path.equals(rootPath) && snapshot.get(path.getParent()) == null) {
+      path = path.getParent();
+    }
+    if (path.equals(rootPath)) {
+      walkRoot();
+      return;
+    }
+    Node parentNode = snapshot.get(path.getParent());
+    BasicFileAttributes attrs = readAttributes(path);
+    if (attrs == null) {
+      remove(parentNode, path);
+    } else {
+      update(parentNode, path, attrs, true);
+    }
   }
 
-  private void updateFsTreeAndAcceptConsumables(
-      Map<Path, Long> items,
-      Set<Consumer<Path>> updateConsumer,
-      Set<Consumer<Path>> createConsumer,
-      Path path,
-      BasicFileAttributes attrs) {
-    Long lastModifiedActual = attrs.lastModifiedTime().toMillis();
+  /**
+   * Brings node of the item in line with the item attributes and fires create or update consumers.
+   * Entries of directories are updated if directory is new or if {@code deep} is set.
+   */
+  private void update(Node parentNode, Path path, BasicFileAttributes attrs, boolean deep)
+      throws IOException {
+    boolean directory = attrs.isDirectory();
+    if (isExcluded(directory ? directoryExcludes : fileExcludes, path)) {
+      return;
+    }
+    String name = path.getFileName().toString();
+    Node node = parentNode.getChild(name);
+    if (node != null && node.isDirectory() != directory) {
+      remove(parentNode, path);
+      node = null;
+    }
+    if (node == null) {
+      node = parentNode.addChild(name, directory, attrs.lastModifiedTime().toMillis());
+      if (directory) {
+        node.setFileKey(attrs.fileKey());
+        watch(node, path);
+        directoryCreateConsumers.forEach(it -> it.accept(path));
+        updateEntries(node, path);
+      } else {
+        fileCreateConsumers.forEach(it -> it.accept(path));
+      }
+    } else {
+      updateModified(node, path, attrs);
+      if (directory && isRecreated(node, path, attrs)) {
+        // watch of the removed directory is gone as well as events of its entries
+        LOG.debug("Directory '{}' is created again, walking it", path);
+        node.setFileKey(attrs.fileKey());
+        unwatch(node, path);
+        watch(node, path);
+        updateEntries(node, path);
+      } else if (directory && deep) {
+        updateEntries(node, path);
+      }
+    }
+  }
+
+  /**
+   * Checks whether the directory is a new one with the same name, i.e. its file key differs from
+   * the known one or its watch is not valid anymore.
+   */
+  private boolean isRecreated(Node node, Path dir, BasicFileAttributes attrs) {
+    if (!Objects.equals(node.getFileKey(), attrs.fileKey())) {
+      return true;
+    }
+    return node.isWatched() && !fileWatcherService.isWatched(dir);
+  }
 
-    if (items.containsKey(path)) {
-      Long lastModifiedStored = items.get(path);
-      if (!lastModifiedActual.equals(lastModifiedStored)) {
-        items.put(path, lastModifiedActual);
-        updateConsumer.forEach(it -> it.accept(path));
+  private void updateModified(Node node, Path path, BasicFileAttributes attrs) {
+    long modified = attrs.lastModifiedTime().toMillis();
+    if (node.getModified() != modified) {
+      node.setModified(modified);
+      (node.isDirectory() ? directoryUpdateConsumers : fileUpdateConsumers)
+          .forEach(it -> it.accept(path));
+    }
+  }
+
+  /** Updates nodes of the directory entries and removes nodes of the entries which are gone. */
+  private void updateEntries(Node node, Path dir) throws IOException {
+    Set<String> present = new HashSet<>();
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+      for (Path entry : entries) {
+        BasicFileAttributes attrs = readAttributes(entry);
+        if (attrs != null) {
+          present.add(entry.getFileName().toString());
+          update(node, entry, attrs, true);
+        }
+      }
+    } catch (NoSuchFileException | NotDirectoryException e) {
+      LOG.debug("Directory '{}' is removed while walking it", dir);
+      return;
+    } catch (IOException e) {
+      // keep the known entries, otherwise consumers would be notified about their removal
+      LOG.warn("Can't read entries of directory '{}'. {}", dir, e.getMessage());
+      return;
+    }
+    for (Node child : new ArrayList<>(node.getChildren())) {
+      if (!present.contains(child.getName())) {
+        remove(node, dir.resolve(child.getName()));
+      }
+    }
+  }
+
+  /** Removes node of the item with all its children and fires delete consumers. */
+  private void remove(Node parentNode, Path path) {
+    Node node = parentNode.removeChild(path.getFileName().toString());
+    if (node != null) {
+      fireDeleted(node, path);
+    }
+  }
+
+  private void fireDeleted(Node node, Path path) {
+    if (node.isDirectory()) {
+      for (Node child : node.getChildren()) {
+        fireDeleted(child, path.resolve(child.getName()));
       }
+      unwatch(node, path);
+      directoryDeleteConsumers.forEach(it -> it.accept(path));
     } else {
-      items.put(path, lastModifiedActual);
-      createConsumer.forEach(it -> it.accept(path));
+      fileDeleteConsumers.forEach(it -> it.accept(path));
+    }
+  }
+
+  private void watch(Node node, Path dir) {
+    if (!watching) {
+      return;
+    }
+    if (maxWatchedDirectories > 0 && watchedDirectories >= maxWatchedDirectories) {
+      watchLimitExceeded = true;
+      return;
+    }
+    fileWatcherService.register(dir);
+    node.setWatched(true);
+    watchedDirectories++;
+  }
+
+  private void unwatch(Node node, Path dir) {
+    if (node.isWatched()) {
+      fileWatcherService.unRegister(dir);
+      node.setWatched(false);
+      watchedDirectories--;
+    }
+  }
+
+  /**
+   * Releases watches of all the directories, from now on the tree is walked periodically as if the
+   * walker wasn't event driven.
+   */
+  private void fallBackToPolling() {
+    LOG.warn(
+        "Tree of '{}' has more than {} directories, falling back to periodical walks instead of "
+            + "watching them. Consider raising che.fs.tree_walker.max_watched_directories and "
+            + "fs.inotify.max_user_watches",
+        snapshot.getRoot(),
+        maxWatchedDirectories);
+    unwatchAll(snapshot.getRootNode(), snapshot.getRoot());
+    watching = false;
+    outdatedDirectories.clear();
+  }
+
+  private void unwatchAll(Node node, Path dir) {
+    unwatch(node, dir);
+    for (Node child : node.getChildren()) {
+      unwatchAll(child, dir.resolve(child.getName()));
+    }
+  }
+
+  private static boolean isExcluded(Set<PathMatcher> excludes, Path path) {
+    for (PathMatcher matcher : excludes) {
+      if (matcher.matches(path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static class Event {
+    final Path path;
+    final WatchEvent.Kind<?> kind;
+
+    Event(Path path, WatchEvent.Kind<?> kind) {
+      this.path = path;
+      this.kind = kind;
+    }
+  }
+
+  /** Returns attributes of the item or {@code null} if it doesn't exist. */
+  private static BasicFileAttributes readAttributes(Path path) throws IOException {
+    try {
+      return Files.readAttributes(path, BasicFileAttributes.class, NOFOLLOW_LINKS);
+    } catch (NoSuchFileException e) {
+      return null;
     }
   }
 }
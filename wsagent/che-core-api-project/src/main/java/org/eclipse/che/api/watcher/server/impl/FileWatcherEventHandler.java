@@ -12,27 +12,52 @@ package org.eclipse.che.api.watcher.server.impl;
 
 import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static java.nio.file.Files.isDirectory;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.eclipse.che.api.watcher.server.impl.FileWatcherUtils.toInternalPath;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.WatchEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import org.eclipse.che.api.watcher.server.FileWatcherManager;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Dispatches file watcher events to the registered operations.
+ *
+ * <p>Events are not dispatched immediately, they are collected for a short delay and coalesced
+ * per item: repeated modifications are reduced to one, modification after creation is dropped and
+ * creation followed by deletion cancels out. When an editor saves a file or a tool like git or npm
+ * touches lots of files, operations receive only the final changes. When the number of changed
+ * entries of a directory in one batch exceeds the burst threshold, operations registered for the
+ * directory receive a single modify event of the directory itself instead of the event of each
+ * entry, operations registered for the entries still receive their events.
+ */
 @Singleton
 public class FileWatcherEventHandler {
   private static final Logger LOG = LoggerFactory.getLogger(FileWatcherManager.class);
@@ -40,12 +65,49 @@ public class FileWatcherEventHandler {
   private final AtomicInteger idCounter = new AtomicInteger();
 
   private final Map<Path, Set<FileWatcherOperation>> operations = new ConcurrentHashMap<>();
+  private final Set<BiConsumer<Path, WatchEvent.Kind<?>>> listeners = newConcurrentHashSet();
+
+  /** Directory -> changed entry -> coalesced kinds of its events. */
+  private final Map<Path, Map<Path, List<WatchEvent.Kind<?>>>> pending = new LinkedHashMap<>();
 
   private final File root;
+  private final long batchDelayMs;
+  private final int burstThreshold;
+  private final ScheduledExecutorService executor;
 
+  private boolean flushScheduled;
+
+  /**
+   * @param batchDelayMs time to collect events before they are dispatched, if not positive then
+   *     events are dispatched immediately
+   * @param burstThreshold number of changed entries of a directory in one batch after which
+   *     operations of the directory receive a single modify event, if not positive then events of
+   *     each entry are always dispatched
+   */
   @Inject
-  public FileWatcherEventHandler(@Named("che.user.workspaces.storage") File root) {
+  public FileWatcherEventHandler(
+      @Named("che.user.workspaces.storage") File root,
+      @Named("che.fs.watcher.event_batch_delay_ms") long batchDelayMs,
+      @Named("che.fs.watcher.event_burst_threshold") int burstThreshold) {
     this.root = root;
+    this.batchDelayMs = batchDelayMs;
+    this.burstThreshold = burstThreshold;
+    this.executor =
+        batchDelayMs > 0
+            ? newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                    .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                    .setNameFormat(FileWatcherEventHandler.class.getSimpleName())
+                    .setDaemon(true)
+                    .build())
+            : null;
+  }
+
+  @PreDestroy
+  void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
   }
 
   /**
@@ -73,6 +135,17 @@ public class FileWatcherEventHandler {
     return id;
   }
 
+  /**
+   * Adds listener which is notified about all the events of all the watched directories regardless
+   * of the registered operations. When events of a directory are lost listener is notified with
+   * {@link java.nio.file.StandardWatchEventKinds#OVERFLOW} event and path of the directory.
+   *
+   * @param listener consumer of event path and kind
+   */
+  void addListener(BiConsumer<Path, WatchEvent.Kind<?>> listener) {
+    listeners.add(listener);
+  }
+
   /**
    * Cancels registration of operations identified by parameter. Identifier is unique and generated
    * during registration phase. If there left no operation sets registered for a path it is also
@@ -109,9 +182,74 @@ public class FileWatcherEventHandler {
    * @param kind kind of event (e.g. created, modified, removed)
    */
   void handle(Path path, WatchEvent.Kind<?> kind) {
-    Path dir = path.getParent();
+    if (executor == null) {
+      dispatch(path.getParent(), path, kind, true);
+      return;
+    }
+    synchronized (pending) {
+      Map<Path, List<WatchEvent.Kind<?>>> entries =
+          pending.computeIfAbsent(path.getParent(), it -> new LinkedHashMap<>());
+      List<WatchEvent.Kind<?>> kinds = entries.computeIfAbsent(path, it -> new ArrayList<>(2));
+      coalesce(kinds, kind);
+      if (kinds.isEmpty()) {
+        entries.remove(path);
+      }
+      if (!flushScheduled) {
+        flushScheduled = true;
+        executor.schedule(this::flush, batchDelayMs, MILLISECONDS);
+      }
+    }
+  }
+
+  /** Adds event kind to the kinds of the previous events of the same item. */
+  private static void coalesce(List<WatchEvent.Kind<?>> kinds, WatchEvent.Kind<?> kind) {
+    while (!kinds.isEmpty()) {
+      WatchEvent.Kind<?> last = kinds.get(kinds.size() - 1);
+      if (kind == ENTRY_MODIFY && (last == ENTRY_CREATE || last == ENTRY_MODIFY)) {
+        return;
+      }
+      if (kind == ENTRY_DELETE && last == ENTRY_CREATE) {
+        kinds.remove(kinds.size() - 1);
+        return;
+      }
+      if (kind == ENTRY_DELETE && last == ENTRY_MODIFY) {
+        kinds.remove(kinds.size() - 1);
+        continue;
+      }
+      break;
+    }
+    kinds.add(kind);
+  }
+
+  private void flush() {
+    Map<Path, Map<Path, List<WatchEvent.Kind<?>>>> batch;
+    synchronized (pending) {
+      batch = new LinkedHashMap<>(pending);
+      pending.clear();
+      flushScheduled = false;
+    }
+    for (Entry<Path, Map<Path, List<WatchEvent.Kind<?>>>> dirEntries : batch.entrySet()) {
+      Path dir = dirEntries.getKey();
+      Map<Path, List<WatchEvent.Kind<?>>> entries = dirEntries.getValue();
+      boolean burst = burstThreshold > 0 && entries.size() > burstThreshold;
+      if (burst) {
+        LOG.debug("Collapsing {} events of directory '{}'", entries.size(), dir);
+        dispatch(dir.getParent(), dir, ENTRY_MODIFY, false);
+      }
+      entries.forEach((path, kinds) -> kinds.forEach(kind -> dispatch(dir, path, kind, !burst)));
+    }
+  }
+
+  /**
+   * Passes event to the listeners and the operations registered for the item and, if {@code
+   * includeDirOperations} is set, to the operations registered for the directory of the item.
+   */
+  private void dispatch(
+      Path dir, Path path, WatchEvent.Kind<?> kind, boolean includeDirOperations) {
+    notifyListeners(path, kind);
+
     String internalPath = toInternalPath(root.toPath(), path);
-    Set<FileWatcherOperation> dirOperations = operations.get(dir);
+    Set<FileWatcherOperation> dirOperations = includeDirOperations ? operations.get(dir) : null;
     Set<FileWatcherOperation> itemOperations = operations.get(path);
 
     if (dirOperations != null) {
@@ -132,4 +270,23 @@ public class FileWatcherEventHandler {
           .forEach(it -> it.accept(internalPath));
     }
   }
+
+  /**
+   * Handles loss of events of a watched directory, e.g. when too many events happen at once.
+   *
+   * @param dir directory which events are lost
+   */
+  void handleOverflow(Path dir) {
+    notifyListeners(dir, OVERFLOW);
+  }
+
+  private void notifyListeners(Path path, WatchEvent.Kind<?> kind) {
+    for (BiConsumer<Path, WatchEvent.Kind<?>> listener : listeners) {
+      try {
+        listener.accept(path, kind);
+      } catch (RuntimeException e) {
+        LOG.error("Error while handling file watcher event", e);
+      }
+    }
+  }
 }
@@ -10,8 +10,13 @@
  */
 package org.eclipse.che.api.watcher.server.impl;
 
+import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static java.lang.Thread.currentThread;
+import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
 import static java.nio.file.Files.exists;
+import static java.nio.file.Files.isDirectory;
+import static java.nio.file.Files.walkFileTree;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
@@ -23,21 +28,24 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchEvent.Kind;
 import java.nio.file.WatchEvent.Modifier;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.function.Predicate;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
@@ -62,7 +70,10 @@ public class FileWatcherService {
   private final AtomicBoolean running = new AtomicBoolean();
 
   private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+  private final Map<Path, WatchKey> watchKeys = new ConcurrentHashMap<>();
   private final Map<Path, Integer> registrations = new ConcurrentHashMap<>();
+  private final Set<Path> recursiveRoots = newConcurrentHashSet();
+  private final Set<Path> recursivelyRegistered = newConcurrentHashSet();
 
   private final FileWatcherExcludePatternsRegistry excludePatternsRegistry;
   private final FileWatcherEventHandler handler;
@@ -182,20 +193,21 @@ public class FileWatcherService {
       return;
     }
     LOG.debug("Registering directory '{}'", dir);
-    if (keys.values().contains(dir)) {
-      int previous = registrations.get(dir);
-      LOG.debug(
-          "Directory is already being watched, increasing watch counter, previous value: {}",
-          previous);
-      registrations.put(dir, previous + 1);
-    } else {
+    synchronized (keys) {
+      Integer previous = registrations.get(dir);
+      if (previous != null) {
+        LOG.debug(
+            "Directory is already being watched, increasing watch counter, previous value: {}",
+            previous);
+        registrations.put(dir, previous + 1);
+        return;
+      }
       try {
         LOG.debug("Starting watching directory '{}'", dir);
-        synchronized (keys) {
-          WatchKey watchKey = dir.register(service, eventKinds, eventModifiers);
-          keys.put(watchKey, dir);
-          registrations.put(dir, 1);
-        }
+        WatchKey watchKey = dir.register(service, eventKinds, eventModifiers);
+        keys.put(watchKey, dir);
+        watchKeys.put(dir, watchKey);
+        registrations.put(dir, 1);
       } catch (IOException e) {
         LOG.error("Can't register dir {} in file watch service", dir, e);
       }
@@ -216,36 +228,133 @@ public class FileWatcherService {
   void unRegister(Path dir) {
     LOG.debug("Canceling directory '{}' registration", dir);
 
-    Predicate<Entry<WatchKey, Path>> equalsDir = it -> it.getValue().equals(dir);
+    synchronized (keys) {
+      if (!exists(dir)) {
+        LOG.debug("Trying to unregister directory '{}' while it does not exist", dir);
 
-    if (!exists(dir)) {
-      LOG.debug("Trying to unregister directory '{}' while it does not exist", dir);
+        registrations.remove(dir);
+        cancel(dir);
+        return;
+      }
 
-      registrations.remove(dir);
+      Integer previous = registrations.get(dir);
+      if (previous == null) {
+        LOG.debug("Trying to unregister directory '{}' while it is not registered", dir);
+        return;
+      }
 
-      keys.entrySet().stream().filter(equalsDir).map(Entry::getKey).forEach(WatchKey::cancel);
-      keys.entrySet().removeIf(equalsDir);
+      if (previous == 1) {
+        LOG.debug("Stopping watching directory '{}'", dir);
+        registrations.remove(dir);
+        cancel(dir);
+      } else {
+        LOG.debug(
+            "Directory is being watched by someone else, decreasing watch counter, "
+                + "previous value: {}",
+            previous);
+        registrations.put(dir, previous - 1);
+      }
+    }
+  }
 
-      return;
+  /**
+   * Registers a directory and all its subdirectories except the excluded ones. The subtree is walked
+   * once, each directory is registered before its entries are listed, so subdirectories created
+   * meanwhile are not missed. Subdirectories created later are registered automatically, when
+   * events of a directory from the subtree are lost the directory is walked again to register
+   * subdirectories created meanwhile. Directory which belongs to several registered subtrees has a
+   * single registration made by this method.
+   *
+   * @param dir root directory of the subtree
+   */
+  public void registerRecursively(Path dir) {
+    LOG.debug("Registering directory '{}' recursively", dir);
+    recursiveRoots.add(dir);
+    registerSubtree(dir);
+  }
+
+  /**
+   * Cancels registration of the subtree made by {@link #registerRecursively(Path)}. Registrations of
+   * all the directories of the subtree are cancelled at once, except the directories which belong
+   * to another registered subtree. Registrations made by {@link #register(Path)} for directories of
+   * the subtree are not affected.
+   *
+   * @param dir root directory of the subtree
+   */
+  public void unRegisterRecursively(Path dir) {
+    LOG.debug("Canceling recursive registration of directory '{}'", dir);
+    synchronized (keys) {
+      recursiveRoots.remove(dir);
+      for (Iterator<Path> it = recursivelyRegistered.iterator(); it.hasNext(); ) {
+        Path registered = it.next();
+        if (registered.startsWith(dir) && !isInRecursiveSubtree(registered)) {
+          it.remove();
+          unRegister(registered);
+        }
+      }
     }
+  }
 
-    if (!registrations.containsKey(dir)) {
-      LOG.debug("Trying to unregister directory '{}' while it is not registered", dir);
-      return;
+  /**
+   * Checks whether the directory is watched. Directory which is removed is not watched anymore even
+   * if it is created again under the same name, it has to be registered again.
+   *
+   * @param dir directory
+   * @return {@code true} if the directory is registered and its watch key is valid
+   */
+  public boolean isWatched(Path dir) {
+    WatchKey watchKey = watchKeys.get(dir);
+    return watchKey != null && watchKey.isValid();
+  }
+
+  /** Returns number of watched directories. */
+  int getWatchedDirectoriesCount() {
+    return watchKeys.size();
+  }
+
+  private void registerSubtree(Path dir) {
+    try {
+      walkFileTree(
+          dir,
+          new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attrs) {
+              if (excludePatternsRegistry.isExcluded(subDir)) {
+                return SKIP_SUBTREE;
+              }
+              synchronized (keys) {
+                if (isInRecursiveSubtree(subDir) && recursivelyRegistered.add(subDir)) {
+                  register(subDir);
+                }
+              }
+              return CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+              LOG.debug("Can't walk '{}'. {}", file, e.getMessage());
+              return CONTINUE;
+            }
+          });
+    } catch (IOException e) {
+      LOG.error("Can't register subtree of dir {} in file watch service", dir, e);
     }
+  }
+
+  private boolean isInRecursiveSubtree(Path path) {
+    for (Path root : recursiveRoots) {
+      if (path.startsWith(root)) {
+        return true;
+      }
+    }
+    return false;
+  }
 
-    int previous = registrations.get(dir);
-    if (previous == 1) {
-      LOG.debug("Stopping watching directory '{}'", dir);
-      registrations.remove(dir);
-
-      keys.entrySet().stream().filter(equalsDir).map(Entry::getKey).forEach(WatchKey::cancel);
-      keys.entrySet().removeIf(equalsDir);
-    } else {
-      LOG.debug(
-          "Directory is being watched by someone else, decreasing watch counter, previous value: {}",
-          previous);
-      registrations.put(dir, previous - 1);
+  private void cancel(Path dir) {
+    WatchKey watchKey = watchKeys.remove(dir);
+    if (watchKey != null) {
+      watchKey.cancel();
+      keys.remove(watchKey);
     }
   }
 
@@ -281,7 +390,11 @@ public class FileWatcherService {
           Kind<?> kind = event.kind();
 
           if (kind == OVERFLOW) {
-            LOG.warn("Detected file system events overflowing");
+            LOG.warn("Detected file system events overflowing in '{}'", dir);
+            if (isInRecursiveSubtree(dir)) {
+              registerSubtree(dir);
+            }
+            handler.handleOverflow(dir);
             continue;
           }
 
@@ -294,6 +407,10 @@ public class FileWatcherService {
             continue;
           }
 
+          if (kind == ENTRY_CREATE && isInRecursiveSubtree(path) && isDirectory(path)) {
+            registerSubtree(path);
+          }
+
           handler.handle(path, kind);
         }
 
@@ -311,10 +428,14 @@ public class FileWatcherService {
 
   private void resetAndRemove(WatchKey watchKey, Path dir) {
     if (!watchKey.reset()) {
-      if (dir != null) {
-        registrations.remove(dir);
+      synchronized (keys) {
+        if (dir != null) {
+          registrations.remove(dir);
+          watchKeys.remove(dir, watchKey);
+          recursivelyRegistered.remove(dir);
+        }
+        keys.remove(watchKey);
       }
-      keys.remove(watchKey);
     }
   }
 }
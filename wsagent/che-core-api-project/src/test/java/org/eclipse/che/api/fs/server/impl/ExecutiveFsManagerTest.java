@@ -14,6 +14,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -193,6 +194,15 @@ public class ExecutiveFsManagerTest {
     verify(zipArchiver).zip(FS_PATH);
   }
 
+  @Test
+  public void shouldZipArchiverZipToOutputOnZip() throws Exception {
+    OutputStream output = new ByteArrayOutputStream();
+
+    executiveFsManager.zip(WS_PATH, output);
+
+    verify(zipArchiver).zip(FS_PATH, output);
+  }
+
   @Test
   public void shouldZipArchiverUnzipOnUnzip() throws Exception {
     executiveFsManager.unzip(WS_PATH, INPUT_STREAM, false, false, false);
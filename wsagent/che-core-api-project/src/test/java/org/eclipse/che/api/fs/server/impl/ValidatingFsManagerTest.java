@@ -13,6 +13,7 @@ package org.eclipse.che.api.fs.server.impl;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -212,6 +213,23 @@ public class ValidatingFsManagerTest {
     validatingFsManager.zip(WS_PATH);
   }
 
+  @Test
+  public void shouldCallSuspendingFsManagerOnZipToOutput() throws Exception {
+    when(fsOperations.exists(FS_PATH)).thenReturn(true);
+    OutputStream output = new ByteArrayOutputStream();
+
+    validatingFsManager.zip(WS_PATH, output);
+
+    verify(executiveFsManager).zip(WS_PATH, output);
+  }
+
+  @Test(expectedExceptions = NotFoundException.class)
+  public void shouldThrowNotFoundExceptionOnZipToOutput() throws Exception {
+    when(fsOperations.exists(FS_PATH)).thenReturn(false);
+
+    validatingFsManager.zip(WS_PATH, new ByteArrayOutputStream());
+  }
+
   @Test
   public void shouldCallSuspendingFsManagerOnUnzip() throws Exception {
     when(fsOperations.exists(FS_PATH)).thenReturn(true);
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.fs.server.impl;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import com.google.common.io.Files;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.che.api.core.ServerException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link ZipArchiver} */
+public class ZipArchiverTest {
+
+  private final ZipArchiver zipArchiver = new ZipArchiver(9, "zip, JAR");
+
+  private File rootDir;
+
+  @BeforeMethod
+  public void setUp() {
+    rootDir = Files.createTempDir();
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(rootDir);
+  }
+
+  @Test
+  public void shouldZipItemWithEntriesRelativeToItsParent() throws Exception {
+    Path project = createProject();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    zipArchiver.zip(project, output);
+
+    Map<String, ZipEntry> entries = readEntries(output.toByteArray());
+    assertEquals(
+        entries.keySet(),
+        newHashSet("project/", "project/src/", "project/src/A.java", "project/lib.jar"));
+  }
+
+  @Test
+  public void shouldStoreAlreadyCompressedFilesWithoutCompression() throws Exception {
+    Path project = createProject();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    zipArchiver.zip(project, output);
+
+    Map<String, ZipEntry> entries = readEntries(output.toByteArray());
+    ZipEntry jar = entries.get("project/lib.jar");
+    ZipEntry source = entries.get("project/src/A.java");
+    assertTrue(jar.getCompressedSize() >= jar.getSize());
+    assertTrue(source.getCompressedSize() < source.getSize());
+  }
+
+  @Test
+  public void shouldUnzipArchiveCreatedByZip() throws Exception {
+    Path project = createProject();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    zipArchiver.zip(project, output);
+    Path target = rootDir.toPath().resolve("target");
+
+    zipArchiver.unzip(target, new ByteArrayInputStream(output.toByteArray()), true, true, true);
+
+    assertEquals(
+        FileUtils.readFileToString(target.resolve("src/A.java").toFile(), UTF_8),
+        FileUtils.readFileToString(project.resolve("src/A.java").toFile(), UTF_8));
+    assertTrue(target.resolve("lib.jar").toFile().isFile());
+  }
+
+  @Test
+  public void shouldUnzipEntriesWithoutEntriesOfTheirDirectories() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (ZipOutputStream zos = new ZipOutputStream(output)) {
+      zos.putNextEntry(new ZipEntry("a/b/c.txt"));
+      zos.write("text".getBytes(UTF_8));
+      zos.closeEntry();
+    }
+    Path target = rootDir.toPath().resolve("target");
+
+    zipArchiver.unzip(target, new ByteArrayInputStream(output.toByteArray()), false, true, false);
+
+    assertEquals(FileUtils.readFileToString(target.resolve("a/b/c.txt").toFile(), UTF_8), "text");
+  }
+
+  @Test(expectedExceptions = ServerException.class)
+  public void shouldNotUnzipEntriesOutsideOfTheTargetDirectory() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (ZipOutputStream zos = new ZipOutputStream(output)) {
+      zos.putNextEntry(new ZipEntry("../evil.txt"));
+      zos.closeEntry();
+    }
+    Path target = rootDir.toPath().resolve("target");
+
+    try {
+      zipArchiver.unzip(target, new ByteArrayInputStream(output.toByteArray()), false, true, false);
+    } finally {
+      assertFalse(rootDir.toPath().resolve("evil.txt").toFile().exists());
+    }
+  }
+
+  private Path createProject() throws IOException {
+    Path project = rootDir.toPath().resolve("project");
+    StringBuilder source = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      source.append("class A { int field").append(i).append("; }\n");
+    }
+    FileUtils.write(project.resolve("src/A.java").toFile(), source, UTF_8);
+    FileUtils.write(project.resolve("lib.jar").toFile(), source, UTF_8);
+    return project;
+  }
+
+  private static Map<String, ZipEntry> readEntries(byte[] archive) throws IOException {
+    Map<String, ZipEntry> entries = new HashMap<>();
+    try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive))) {
+      for (ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
+        // sizes of a streamed entry are known only after it is read
+        while (zis.read(new byte[1024]) != -1) {}
+        entries.put(entry.getName(), entry);
+      }
+    }
+    return entries;
+  }
+}
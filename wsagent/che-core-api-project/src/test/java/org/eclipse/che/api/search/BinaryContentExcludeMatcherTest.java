@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search;
+
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.eclipse.che.api.search.server.excludes.BinaryContentExcludeMatcher;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class BinaryContentExcludeMatcherTest {
+
+  private Path root;
+  private BinaryContentExcludeMatcher matcher = new BinaryContentExcludeMatcher();
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    root = Files.createTempDirectory("binary-matcher");
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    IoUtil.deleteRecursive(root.toFile());
+  }
+
+  @Test
+  public void shouldNotMatchTextFile() throws Exception {
+    assertFalse(matcher.matches(write("a.txt", "to be or not to be".getBytes(UTF_8))));
+  }
+
+  @Test
+  public void shouldNotMatchEmptyFile() throws Exception {
+    assertFalse(matcher.matches(write("empty.txt", new byte[0])));
+  }
+
+  @Test
+  public void shouldMatchFileWithZeroBytes() throws Exception {
+    assertTrue(matcher.matches(write("a.class", new byte[] {(byte) 0xCA, (byte) 0xFE, 0, 0})));
+  }
+
+  @Test
+  public void shouldNotMatchZeroBytesAfterSniffedPrefix() throws Exception {
+    byte[] content = new byte[10_000];
+    Arrays.fill(content, (byte) 'a');
+    content[9_000] = 0;
+
+    assertFalse(matcher.matches(write("a.txt", content)));
+  }
+
+  @Test
+  public void shouldNotMatchUtf16TextWithByteOrderMark() throws Exception {
+    byte[] text = "to be".getBytes(UTF_16LE);
+    byte[] content = new byte[text.length + 2];
+    content[0] = (byte) 0xFF;
+    content[1] = (byte) 0xFE;
+    System.arraycopy(text, 0, content, 2, text.length);
+
+    assertFalse(matcher.matches(write("utf16.txt", content)));
+  }
+
+  @Test
+  public void shouldNotMatchDirectory() throws Exception {
+    assertFalse(matcher.matches(root));
+  }
+
+  private Path write(String name, byte[] content) throws IOException {
+    return Files.write(root.resolve(name), content);
+  }
+}
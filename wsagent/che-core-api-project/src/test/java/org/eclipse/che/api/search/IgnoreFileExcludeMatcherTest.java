@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.eclipse.che.api.search.server.excludes.IgnoreFileExcludeMatcher;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class IgnoreFileExcludeMatcherTest {
+
+  private Path root;
+  private IgnoreFileExcludeMatcher matcher;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    root = Files.createTempDirectory("ignore-matcher");
+    matcher = new IgnoreFileExcludeMatcher(root.toFile(), ".gitignore,.cheignore");
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    IoUtil.deleteRecursive(root.toFile());
+  }
+
+  @Test
+  public void shouldMatchFilesByNameAtAnyLevel() throws Exception {
+    write("project/.gitignore", "# comment\n*.min.js\n");
+
+    assertTrue(matcher.matches(file("project/app.min.js")));
+    assertTrue(matcher.matches(file("project/src/lib/app.min.js")));
+    assertFalse(matcher.matches(file("project/app.js")));
+    assertFalse(matcher.matches(file("other/app.min.js")));
+  }
+
+  @Test
+  public void shouldMatchFilesInsideIgnoredDirectory() throws Exception {
+    write("project/.gitignore", "node_modules/\n/target\n");
+
+    assertTrue(matcher.matches(file("project/node_modules/lib/index.js")));
+    assertTrue(matcher.matches(file("project/web/node_modules/index.js")));
+    assertTrue(matcher.matches(file("project/target/classes/A.class")));
+    assertFalse(matcher.matches(file("project/module/target/A.class")));
+    assertFalse(matcher.matches(file("project/lib/node_modules")));
+  }
+
+  @Test
+  public void shouldNotMatchNegatedPattern() throws Exception {
+    write("project/.gitignore", "*.log\n!important.log\n");
+
+    assertTrue(matcher.matches(file("project/debug.log")));
+    assertFalse(matcher.matches(file("project/important.log")));
+  }
+
+  @Test
+  public void shouldMatchDoubleAsteriskPatterns() throws Exception {
+    write("project/.gitignore", "**/generated/**\ndocs/**/*.html\n");
+
+    assertTrue(matcher.matches(file("project/src/generated/A.java")));
+    assertTrue(matcher.matches(file("project/generated/B.java")));
+    assertTrue(matcher.matches(file("project/docs/index.html")));
+    assertTrue(matcher.matches(file("project/docs/api/a/b.html")));
+    assertFalse(matcher.matches(file("project/src/docs/index.html")));
+  }
+
+  @Test
+  public void shouldApplyRulesOfDeeperDirectoryFirst() throws Exception {
+    write(".gitignore", "*.txt\n");
+    write("project/.gitignore", "!notes.txt\n");
+
+    assertTrue(matcher.matches(file("project/readme.txt")));
+    assertFalse(matcher.matches(file("project/notes.txt")));
+  }
+
+  @Test
+  public void shouldOverrideGitIgnoreRulesWithCheIgnore() throws Exception {
+    write("project/.gitignore", "dist/\n");
+    write("project/.cheignore", "!dist/\n*.csv\n");
+
+    assertFalse(matcher.matches(file("project/dist/bundle.js")));
+    assertTrue(matcher.matches(file("project/data.csv")));
+  }
+
+  @Test
+  public void shouldNotMatchWhenIgnoreFilesAreDisabled() throws Exception {
+    write("project/.gitignore", "*\n");
+    matcher = new IgnoreFileExcludeMatcher(root.toFile(), "");
+
+    assertFalse(matcher.matches(file("project/a.txt")));
+  }
+
+  private Path file(String relativePath) throws IOException {
+    Path file = root.resolve(relativePath);
+    if (!Files.exists(file)) {
+      Files.createDirectories(file.getParent());
+      Files.createFile(file);
+    }
+    return file;
+  }
+
+  private void write(String relativePath, String content) throws IOException {
+    Path file = root.resolve(relativePath);
+    Files.createDirectories(file.getParent());
+    Files.write(file, content.getBytes(UTF_8));
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.apache.lucene.analysis.core.LowerCaseFilterFactory;
+import org.apache.lucene.analysis.core.WhitespaceTokenizerFactory;
+import org.apache.lucene.analysis.custom.CustomAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.FSDirectory;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.commons.lang.IoUtil;
+
+/**
+ * Manual benchmark of {@link IndexingPipeline}, generates a file tree, indexes it and reports
+ * throughput and peak heap usage. It is not executed as part of the build, run it with:
+ *
+ * <pre>
+ * java -cp ... -Dfiles=200000 -Dthreads=4 -DqueueSize=1000 -DbatchSize=5000 \
+ *     org.eclipse.che.api.search.server.impl.IndexingPipelineBenchmark
+ * </pre>
+ *
+ * Setting {@code threads} to 1 approximates the sequential indexing.
+ */
+public class IndexingPipelineBenchmark {
+
+  private static final String[] WORDS = {
+    "public", "class", "return", "import", "static", "final", "void", "int", "String", "new",
+    "if", "else", "for", "while", "try", "catch", "throw", "private", "protected", "package"
+  };
+
+  public static void main(String[] args) throws Exception {
+    int files = Integer.getInteger("files", 20_000);
+    int filesPerDir = Integer.getInteger("filesPerDir", 50);
+    int threads = Integer.getInteger("threads", 0);
+    int queueSize = Integer.getInteger("queueSize", 1000);
+    int batchSize = Integer.getInteger("batchSize", 5000);
+
+    Path root = Files.createTempDirectory("indexing-benchmark-tree");
+    Path index = Files.createTempDirectory("indexing-benchmark-index");
+    IndexingPipeline pipeline = new IndexingPipeline(threads, queueSize, batchSize);
+    try {
+      generateTree(root, files, filesPerDir);
+      System.gc();
+      resetPeakHeapUsage();
+
+      try (IndexWriter writer =
+          new IndexWriter(
+              FSDirectory.open(index),
+              new IndexWriterConfig(
+                  CustomAnalyzer.builder()
+                      .withTokenizer(WhitespaceTokenizerFactory.class)
+                      .addTokenFilter(LowerCaseFilterFactory.class)
+                      .build()))) {
+        long start = System.nanoTime();
+        long indexed =
+            pipeline.run(root, file -> true, file -> index(writer, file), writer::commit);
+        writer.commit();
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        System.out.printf(
+            "Indexed %d files in %d ms: %d files/s, peak heap %d MB%n",
+            indexed,
+            elapsedMillis,
+            indexed * 1000 / elapsedMillis,
+            peakHeapUsage() / (1024 * 1024));
+      }
+    } finally {
+      pipeline.shutdown();
+      IoUtil.deleteRecursive(root.toFile());
+      IoUtil.deleteRecursive(index.toFile());
+    }
+  }
+
+  private static void index(IndexWriter writer, Path file) throws ServerException {
+    try {
+      Document doc = new Document();
+      doc.add(new StringField("path", file.toString(), Field.Store.YES));
+      doc.add(
+          new TextField("text", new String(Files.readAllBytes(file), UTF_8), Field.Store.YES));
+      writer.updateDocument(new Term("path", file.toString()), doc);
+    } catch (IOException x) {
+      throw new ServerException(x.getMessage(), x);
+    }
+  }
+
+  private static void generateTree(Path root, int files, int filesPerDir) throws IOException {
+    Random random = new Random(files);
+    Path dir = root;
+    for (int i = 0; i < files; i++) {
+      if (i % filesPerDir == 0) {
+        dir = Files.createDirectories(root.resolve("d" + (i / filesPerDir % 100)).resolve("s" + i));
+      }
+      StringBuilder content = new StringBuilder();
+      int lines = 20 + random.nextInt(200);
+      for (int l = 0; l < lines; l++) {
+        for (int w = 0; w < 8; w++) {
+          content.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(1000));
+          content.append(' ');
+        }
+        content.append('\n');
+      }
+      Files.write(dir.resolve("File" + i + ".java"), content.toString().getBytes(UTF_8));
+    }
+  }
+
+  private static void resetPeakHeapUsage() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  private static long peakHeapUsage() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link IndexingPipeline}. */
+public class IndexingPipelineTest {
+
+  private Path root;
+  private IndexingPipeline pipeline;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    root = Files.createTempDirectory("indexing-pipeline");
+    pipeline = new IndexingPipeline(3, 2, 10);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    pipeline.shutdown();
+    IoUtil.deleteRecursive(root.toFile());
+  }
+
+  @Test
+  public void indexesAllAcceptedFiles() throws Exception {
+    Set<Path> expected = createTree(5, 4);
+    Set<Path> indexed = ConcurrentHashMap.newKeySet();
+    AtomicInteger commits = new AtomicInteger();
+
+    long count = pipeline.run(root, file -> true, indexed::add, commits::incrementAndGet);
+
+    assertEquals(count, expected.size());
+    assertEquals(indexed, expected);
+    assertEquals(commits.get(), expected.size() / 10);
+  }
+
+  @Test
+  public void skipsFilesRejectedByFilter() throws Exception {
+    createTree(3, 3);
+    Set<Path> indexed = ConcurrentHashMap.newKeySet();
+
+    long count =
+        pipeline.run(
+            root, file -> file.getFileName().toString().startsWith("0"), indexed::add, () -> {});
+
+    assertEquals(count, indexed.size());
+    assertTrue(indexed.stream().allMatch(file -> file.getFileName().toString().startsWith("0")));
+  }
+
+  @Test
+  public void continuesIndexingWhenFileCanNotBeIndexed() throws Exception {
+    Set<Path> expected = createTree(2, 5);
+    Set<Path> indexed = ConcurrentHashMap.newKeySet();
+
+    long count =
+        pipeline.run(
+            root,
+            file -> true,
+            file -> {
+              if (file.getFileName().toString().equals("0.txt")) {
+                throw new ServerException("can't read");
+              }
+              indexed.add(file);
+            },
+            () -> {});
+
+    assertEquals(count, expected.size());
+    assertEquals(indexed.size(), expected.size() - 2);
+  }
+
+  @Test(timeOut = 30_000)
+  public void completesOverlappingRuns() throws Exception {
+    Set<Path> expected = createTree(20, 5);
+    // single slot queue makes walkers wait for indexing threads
+    pipeline.shutdown();
+    pipeline = new IndexingPipeline(2, 1, 10);
+    Set<Path> indexed1 = ConcurrentHashMap.newKeySet();
+    Set<Path> indexed2 = ConcurrentHashMap.newKeySet();
+    CountDownLatch firstRunStarted = new CountDownLatch(1);
+
+    // the first run walks slowly, so the second one starts while the first is walking
+    CompletableFuture<Long> run1 =
+        CompletableFuture.supplyAsync(
+            () ->
+                runQuietly(
+                    file -> {
+                      firstRunStarted.countDown();
+                      sleepQuietly();
+                      return true;
+                    },
+                    indexed1::add));
+    assertTrue(firstRunStarted.await(10, SECONDS));
+    // runs share threads, so the second run starts walking when the first one is finished
+    AtomicBoolean overlapped = new AtomicBoolean();
+    CompletableFuture<Long> run2 =
+        CompletableFuture.supplyAsync(
+            () ->
+                runQuietly(
+                    file -> {
+                      if (indexed1.size() < expected.size()) {
+                        overlapped.set(true);
+                      }
+                      return true;
+                    },
+                    indexed2::add));
+
+    assertEquals(run1.get(20, SECONDS).longValue(), expected.size());
+    assertEquals(run2.get(20, SECONDS).longValue(), expected.size());
+    assertEquals(indexed1, expected);
+    assertEquals(indexed2, expected);
+    assertFalse(overlapped.get());
+  }
+
+  @Test(expectedExceptions = ServerException.class)
+  public void failsWhenCommitFails() throws Exception {
+    createTree(5, 5);
+
+    pipeline.run(
+        root,
+        file -> true,
+        file -> {},
+        () -> {
+          throw new IOException("commit failed");
+        });
+  }
+
+  private long runQuietly(Predicate<Path> filter, IndexingPipeline.FileIndexer indexer) {
+    try {
+      return pipeline.run(root, filter, indexer, () -> {});
+    } catch (ServerException x) {
+      throw new IllegalStateException(x);
+    }
+  }
+
+  private static void sleepQuietly() {
+    try {
+      Thread.sleep(10);
+    } catch (InterruptedException x) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private Set<Path> createTree(int dirs, int filesPerDir) throws IOException {
+    Set<Path> files = new HashSet<>();
+    for (int d = 0; d < dirs; d++) {
+      Path dir = Files.createDirectories(root.resolve("dir" + d).resolve("sub" + d));
+      for (int f = 0; f < filesPerDir; f++) {
+        files.add(Files.write(dir.resolve(f + ".txt"), ("content " + f).getBytes()));
+      }
+    }
+    return files;
+  }
+}
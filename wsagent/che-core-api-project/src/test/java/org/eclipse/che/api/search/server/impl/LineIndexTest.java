@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static org.testng.Assert.assertEquals;
+
+import org.apache.lucene.util.BytesRef;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IRegion;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/** Tests for {@link LineIndex}. */
+public class LineIndexTest {
+
+  @DataProvider
+  public Object[][] texts() {
+    return new Object[][] {
+      {""},
+      {"single line"},
+      {"first\nsecond\nthird"},
+      {"windows\r\nline\r\nendings\r\n"},
+      {"old\rmac\rendings"},
+      {"\n\n\r\n\r\rmixed\n\r"},
+      {"trailing new line\n"}
+    };
+  }
+
+  @Test(dataProvider = "texts")
+  public void resolvesLinesTheSameWayAsDocument(String text) throws Exception {
+    Document document = new Document(text);
+    LineIndex lineIndex = LineIndex.of(text);
+
+    assertEquals(lineIndex.getLineCount(), document.getNumberOfLines());
+    for (int offset = 0; offset <= text.length(); offset++) {
+      int line = document.getLineOfOffset(offset);
+      IRegion region = document.getLineInformation(line);
+
+      assertEquals(lineIndex.getLineOfOffset(offset), line, "offset " + offset);
+      assertEquals(
+          lineIndex.getLine(text, line), document.get(region.getOffset(), region.getLength()));
+    }
+  }
+
+  @Test(dataProvider = "texts")
+  public void restoresEncodedIndex(String text) throws Exception {
+    LineIndex lineIndex = LineIndex.of(text);
+
+    LineIndex decoded = LineIndex.decode(new BytesRef(lineIndex.encode()));
+
+    assertEquals(decoded.getLineCount(), lineIndex.getLineCount());
+    for (int offset = 0; offset <= text.length(); offset++) {
+      assertEquals(decoded.getLineOfOffset(offset), lineIndex.getLineOfOffset(offset));
+    }
+  }
+
+  @Test
+  public void encodesLargeOffsets() throws Exception {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      text.append(i % 7 == 0 ? new String(new char[70_000]) : "line").append('\n');
+    }
+    LineIndex lineIndex = LineIndex.of(text);
+
+    LineIndex decoded = LineIndex.decode(new BytesRef(lineIndex.encode()));
+
+    assertEquals(decoded.getLineOfOffset(text.length() - 1), 999);
+    assertEquals(decoded.getLineOfOffset(70_001), 1);
+  }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.FSDirectory;
+import org.eclipse.che.api.fs.server.PathTransformer;
+import org.eclipse.che.api.search.server.SearchResult;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for synchronization of the persistent index of {@link LuceneSearcher} and for paging
+ * through its search results.
+ */
+public class LuceneSearcherTest {
+
+  private static final long READY_TIMEOUT_MS = 10_000;
+
+  private Path root;
+  private File indexDirectory;
+  private PathTransformer pathTransformer;
+  private Set<PathMatcher> excludePatterns;
+  private List<LuceneSearcher> searchers;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    root = Files.createTempDirectory("projects");
+    indexDirectory = Files.createTempDirectory("index").toFile();
+    pathTransformer = mock(PathTransformer.class);
+    when(pathTransformer.transform(any(Path.class)))
+        .thenAnswer(invocation -> "/" + root.relativize(invocation.getArgument(0)));
+    excludePatterns = emptySet();
+    searchers = new ArrayList<>();
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    searchers.forEach(LuceneSearcher::terminate);
+    delete(root);
+    delete(indexDirectory.toPath());
+  }
+
+  @Test
+  public void shouldReuseIndexOfUnchangedFilesOnRestart() throws Exception {
+    Path file = write("project/a.txt", "alpha");
+    restart();
+
+    // same size and modification time, so the file is considered unchanged
+    FileTime lastModified = Files.getLastModifiedTime(file);
+    write("project/a.txt", "omega");
+    Files.setLastModifiedTime(file, lastModified);
+    LuceneSearcher searcher = restart();
+
+    assertEquals(find(searcher, "alpha"), singletonList("/project/a.txt"));
+    assertEquals(find(searcher, "omega"), emptyList());
+  }
+
+  @Test
+  public void shouldReindexFilesChangedWhileStopped() throws Exception {
+    write("project/a.txt", "alpha");
+    write("project/b.txt", "beta");
+    restart();
+
+    write("project/a.txt", "alpha gamma");
+    LuceneSearcher searcher = restart();
+
+    assertEquals(find(searcher, "gamma"), singletonList("/project/a.txt"));
+    assertEquals(find(searcher, "beta"), singletonList("/project/b.txt"));
+  }
+
+  @Test
+  public void shouldReindexFilesTouchedWithSameSizeOnlyWhenContentDiffers() throws Exception {
+    Path file = write("project/a.txt", "alpha");
+    restart();
+
+    write("project/a.txt", "omega");
+    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+    LuceneSearcher searcher = restart();
+
+    assertEquals(find(searcher, "omega"), singletonList("/project/a.txt"));
+    assertEquals(find(searcher, "alpha"), emptyList());
+  }
+
+  @Test
+  public void shouldRemoveFilesDeletedWhileStopped() throws Exception {
+    Path file = write("project/a.txt", "alpha");
+    write("project/b.txt", "alpha");
+    restart();
+
+    Files.delete(file);
+    LuceneSearcher searcher = restart();
+
+    assertEquals(find(searcher, "alpha"), singletonList("/project/b.txt"));
+  }
+
+  @Test
+  public void shouldIndexFilesAddedWhileStopped() throws Exception {
+    write("project/a.txt", "alpha");
+    restart();
+
+    write("project/b.txt", "alpha");
+    LuceneSearcher searcher = restart();
+
+    assertEquals(find(searcher, "alpha").size(), 2);
+  }
+
+  @Test
+  public void shouldRebuildCorruptIndex() throws Exception {
+    write("project/a.txt", "alpha");
+    restart();
+
+    File[] indexFiles = indexDirectory.listFiles();
+    assertTrue(indexFiles != null && indexFiles.length > 0);
+    for (File indexFile : indexFiles) {
+      Files.write(indexFile.toPath(), "corrupt".getBytes(UTF_8));
+    }
+    LuceneSearcher searcher = restart();
+
+    assertEquals(find(searcher, "alpha"), singletonList("/project/a.txt"));
+  }
+
+  @Test
+  public void shouldRebuildMissingIndex() throws Exception {
+    write("project/a.txt", "alpha");
+    restart();
+
+    delete(indexDirectory.toPath());
+    LuceneSearcher searcher = restart();
+
+    assertEquals(find(searcher, "alpha"), singletonList("/project/a.txt"));
+  }
+
+  @Test
+  public void shouldReindexDocumentsWithoutFingerprints() throws Exception {
+    write("project/a.txt", "alpha");
+    try (IndexWriter writer =
+        new IndexWriter(
+            FSDirectory.open(indexDirectory.toPath()),
+            new IndexWriterConfig(new StandardAnalyzer()))) {
+      Document doc = new Document();
+      doc.add(new StringField("path", "/project/a.txt", Field.Store.YES));
+      doc.add(new TextField("name", "a.txt", Field.Store.YES));
+      doc.add(new TextField("text", "stale", Field.Store.YES));
+      writer.addDocument(doc);
+    }
+
+    LuceneSearcher searcher = restart();
+
+    assertEquals(find(searcher, "alpha"), singletonList("/project/a.txt"));
+    assertEquals(find(searcher, "stale"), emptyList());
+  }
+
+  @Test
+  public void shouldCountFilesExcludedBySynchronizationOnly() throws Exception {
+    excludePatterns = singleton(new BinaryFileMatcher());
+    Path binary = write("project/a.bin", "bin");
+    write("project/a.txt", "alpha");
+    restart();
+    LuceneSearcher searcher = restart();
+
+    searcher.update(binary);
+    searcher.add(root.resolve("project"));
+
+    assertEquals(searcher.getExcludedFiles(), singletonMap("BinaryFileMatcher", 1L));
+    assertEquals(searcher.getExcludedBytes(), 3);
+  }
+
+  @Test
+  public void shouldPageThroughAllResults() throws Exception {
+    List<String> expected = writeFiles(5, "alpha");
+    LuceneSearcher searcher = restart();
+
+    SearchResult page = searcher.search(new QueryExpression().setText("alpha").setMaxItems(2));
+    List<String> found = new ArrayList<>(page.getFilePaths());
+    int pages = 1;
+    while (page.getNextPageQueryExpression().isPresent()) {
+      page = searcher.search(page.getNextPageQueryExpression().get());
+      found.addAll(page.getFilePaths());
+      pages++;
+    }
+
+    assertEquals(pages, 3);
+    assertEquals(sorted(found), expected);
+  }
+
+  @Test
+  public void shouldReadAllPagesFromTheSameViewOfIndex() throws Exception {
+    List<String> expected = writeFiles(4, "alpha");
+    LuceneSearcher searcher = restart();
+    SearchResult firstPage = searcher.search(new QueryExpression().setText("alpha").setMaxItems(2));
+
+    searcher.add(write("project/new.txt", "alpha"));
+    assertEquals(find(searcher, "alpha").size(), 5);
+
+    List<String> found = new ArrayList<>(firstPage.getFilePaths());
+    found.addAll(readRestOfPages(searcher, firstPage));
+    assertEquals(sorted(found), expected);
+  }
+
+  @Test
+  public void shouldContinuePagingWhenLeaseIsExpired() throws Exception {
+    List<String> expected = writeFiles(4, "alpha");
+    LuceneSearcher searcher = restart();
+    SearchResult firstPage = searcher.search(new QueryExpression().setText("alpha").setMaxItems(2));
+
+    List<String> found = new ArrayList<>(firstPage.getFilePaths());
+    found.addAll(readRestOfPages(searcher, expireLease(firstPage)));
+
+    assertEquals(sorted(found), expected);
+  }
+
+  @Test
+  public void shouldSkipRetrievedResultsWhenLeaseIsExpiredAndIndexIsChanged() throws Exception {
+    List<String> expected = writeFiles(4, "alpha");
+    LuceneSearcher searcher = restart();
+    SearchResult firstPage = searcher.search(new QueryExpression().setText("alpha").setMaxItems(2));
+
+    searcher.add(write("project/new.txt", "alpha"));
+    expected.add("/project/new.txt");
+    List<String> found = new ArrayList<>(firstPage.getFilePaths());
+    found.addAll(readRestOfPages(searcher, expireLease(firstPage)));
+
+    assertEquals(sorted(found), expected);
+  }
+
+  /** Replaces the lease of the next page with the lease which doesn't exist anymore. */
+  private static SearchResult expireLease(SearchResult page) {
+    QueryExpression next = page.getNextPageQueryExpression().get();
+    SearchCursor cursor = SearchCursor.fromToken(next.getContinuationToken());
+    SearchCursor expired =
+        new SearchCursor(
+            cursor.getLeaseId() + 1000,
+            cursor.getReaderVersion(),
+            cursor.getAfter(),
+            cursor.getSkipCount());
+    next.setContinuationToken(expired.toToken());
+    return page;
+  }
+
+  /** Reads all the pages which follow the given one. */
+  private static List<String> readRestOfPages(LuceneSearcher searcher, SearchResult page)
+      throws Exception {
+    List<String> found = new ArrayList<>();
+    assertTrue(page.getNextPageQueryExpression().isPresent());
+    while (page.getNextPageQueryExpression().isPresent()) {
+      page = searcher.search(page.getNextPageQueryExpression().get());
+      assertFalse(page.getFilePaths().isEmpty());
+      found.addAll(page.getFilePaths());
+    }
+    return found;
+  }
+
+  /** Writes files with the same content and returns their sorted paths. */
+  private List<String> writeFiles(int count, String content) throws Exception {
+    List<String> paths = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      write("project/" + i + ".txt", content);
+      paths.add("/project/" + i + ".txt");
+    }
+    return sorted(paths);
+  }
+
+  private static List<String> sorted(List<String> paths) {
+    List<String> sorted = new ArrayList<>(paths);
+    sorted.sort(null);
+    return sorted;
+  }
+
+  /** Stops the previously started searcher and starts a new one over the same index. */
+  private LuceneSearcher restart() throws Exception {
+    if (!searchers.isEmpty()) {
+      searchers.remove(searchers.size() - 1).terminate();
+    }
+    LuceneSearcher searcher =
+        new LuceneSearcher(
+            excludePatterns, indexDirectory, true, 2, 100, 10, root.toFile(), pathTransformer);
+    searchers.add(searcher);
+    searcher.initialize();
+    long deadline = System.currentTimeMillis() + READY_TIMEOUT_MS;
+    while (!searcher.isIndexReady()) {
+      assertTrue(System.currentTimeMillis() < deadline, "Index is not synchronized in time");
+      Thread.sleep(10);
+    }
+    return searcher;
+  }
+
+  private List<String> find(LuceneSearcher searcher, String text) throws Exception {
+    return searcher.search(new QueryExpression().setText(text)).getFilePaths();
+  }
+
+  private Path write(String relativePath, String content) throws Exception {
+    Path file = root.resolve(relativePath);
+    Files.createDirectories(file.getParent());
+    return Files.write(file, content.getBytes(UTF_8));
+  }
+
+  private static class BinaryFileMatcher implements PathMatcher {
+    @Override
+    public boolean matches(Path path) {
+      return path.toString().endsWith(".bin");
+    }
+  }
+
+  private static void delete(Path path) throws Exception {
+    if (Files.exists(path)) {
+      Files.walk(path)
+          .sorted((first, second) -> second.compareTo(first))
+          .forEach(it -> it.toFile().delete());
+    }
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import org.apache.lucene.search.ScoreDoc;
+import org.testng.annotations.Test;
+
+/** Tests for {@link SearchCursor}. */
+public class SearchCursorTest {
+
+  @Test
+  public void restoresCursorFromToken() throws Exception {
+    SearchCursor cursor = new SearchCursor(7, 123456789L, new ScoreDoc(42, 0.125F), 20);
+
+    SearchCursor restored = SearchCursor.fromToken(cursor.toToken());
+
+    assertEquals(restored.getLeaseId(), 7);
+    assertEquals(restored.getReaderVersion(), 123456789L);
+    assertEquals(restored.getAfter().doc, 42);
+    assertEquals(restored.getAfter().score, 0.125F);
+    assertEquals(restored.getSkipCount(), 20);
+  }
+
+  @Test
+  public void returnsNullForMalformedToken() throws Exception {
+    assertNull(SearchCursor.fromToken("not a token"));
+    assertNull(SearchCursor.fromToken(""));
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.search.server.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.RAMDirectory;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link SearcherLeases}. */
+public class SearcherLeasesTest {
+
+  private DirectoryReader reader;
+  private IndexSearcher searcher;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    RAMDirectory directory = new RAMDirectory();
+    try (IndexWriter writer =
+        new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+      Document doc = new Document();
+      doc.add(new StringField("path", "/project/a.txt", Field.Store.YES));
+      writer.addDocument(doc);
+    }
+    reader = DirectoryReader.open(directory);
+    searcher = new IndexSearcher(reader);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    reader.close();
+  }
+
+  @Test
+  public void acquiresLeasedSearcher() throws Exception {
+    SearcherLeases leases = new SearcherLeases(60_000, 10);
+
+    long leaseId = leases.lease(searcher);
+
+    assertSame(leases.acquire(leaseId), searcher);
+    // reference of the caller, of the lease and of the acquired searcher
+    assertEquals(reader.getRefCount(), 3);
+  }
+
+  @Test
+  public void releasesReaderWhenLeaseIsReleased() throws Exception {
+    SearcherLeases leases = new SearcherLeases(60_000, 10);
+    long leaseId = leases.lease(searcher);
+
+    leases.release(leaseId);
+
+    assertNull(leases.acquire(leaseId));
+    assertEquals(reader.getRefCount(), 1);
+  }
+
+  @Test
+  public void doesNotAcquireSearcherOfExpiredLease() throws Exception {
+    SearcherLeases leases = new SearcherLeases(1, 10);
+    long leaseId = leases.lease(searcher);
+
+    Thread.sleep(10);
+
+    assertNull(leases.acquire(leaseId));
+    assertEquals(reader.getRefCount(), 1);
+  }
+
+  @Test
+  public void prolongsLeaseWhenSearcherIsAcquired() throws Exception {
+    SearcherLeases leases = new SearcherLeases(500, 10);
+    long leaseId = leases.lease(searcher);
+
+    for (int i = 0; i < 5; i++) {
+      Thread.sleep(200);
+      assertSame(leases.acquire(leaseId), searcher);
+      reader.decRef();
+    }
+  }
+
+  @Test
+  public void releasesLeaseWhichExpiresFirstWhenLimitIsExceeded() throws Exception {
+    SearcherLeases leases = new SearcherLeases(60_000, 2);
+    long first = leases.lease(searcher);
+    long second = leases.lease(searcher);
+    Thread.sleep(10);
+    leases.acquire(first);
+    reader.decRef();
+
+    long third = leases.lease(searcher);
+
+    assertNull(leases.acquire(second));
+    assertSame(leases.acquire(first), searcher);
+    assertSame(leases.acquire(third), searcher);
+  }
+
+  @Test
+  public void releasesAllLeases() throws Exception {
+    SearcherLeases leases = new SearcherLeases(60_000, 10);
+    leases.lease(searcher);
+    leases.lease(searcher);
+
+    leases.releaseAll();
+
+    assertEquals(reader.getRefCount(), 1);
+  }
+}
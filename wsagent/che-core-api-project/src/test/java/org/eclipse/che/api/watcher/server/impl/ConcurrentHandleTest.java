@@ -47,7 +47,7 @@ public class ConcurrentHandleTest {
   @Before
   public void setUp() throws Exception {
     root = rootFolder.getRoot().toPath();
-    handler = new FileWatcherEventHandler(rootFolder.getRoot());
+    handler = new FileWatcherEventHandler(rootFolder.getRoot(), 0, 0);
   }
 
   @Test
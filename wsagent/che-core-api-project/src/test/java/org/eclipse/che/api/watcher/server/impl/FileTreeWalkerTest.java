@@ -12,8 +12,15 @@ package org.eclipse.che.api.watcher.server.impl;
 
 import static java.io.File.createTempFile;
 import static java.lang.Thread.sleep;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.commons.io.FileUtils.write;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.File;
@@ -21,6 +28,7 @@ import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import org.junit.After;
 import org.junit.Before;
@@ -62,19 +70,12 @@ public class FileTreeWalkerTest {
 
   @Mock Consumer<Path> directoryDeleteConsumerMock;
 
+  @Mock FileWatcherService fileWatcherService;
+  @Mock FileWatcherEventHandler fileWatcherEventHandler;
+
   @Before
   public void setUp() throws Exception {
-    fileTreeWalker =
-        new FileTreeWalker(
-            rootFolder.getRoot(),
-            directoryUpdateConsumers,
-            directoryCreateConsumers,
-            directoryDeleteConsumers,
-            directoryExcludes,
-            fileUpdateConsumers,
-            fileCreateConsumers,
-            fileDeleteConsumers,
-            fileExcludes);
+    fileTreeWalker = createFileTreeWalker(false);
   }
 
   @After
@@ -190,4 +191,205 @@ public class FileTreeWalkerTest {
     fileTreeWalker.walk();
     verify(directoryCreatedConsumerMock, never()).accept(file.toPath());
   }
+
+  @Test
+  public void shouldNotRunFileCreatedConsumerOnWalkInEventDrivenMode() throws Exception {
+    fileTreeWalker = createFileTreeWalker(true);
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    fileTreeWalker.walk();
+
+    File file = rootFolder.newFile(TEST_FILE_NAME);
+    fileTreeWalker.walk();
+
+    verify(fileCreatedConsumerMock, never()).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldRegisterDirectoriesInEventDrivenMode() throws Exception {
+    fileTreeWalker = createFileTreeWalker(true);
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+
+    fileTreeWalker.walk();
+
+    verify(fileWatcherService).register(rootFolder.getRoot().toPath());
+    verify(fileWatcherService).register(folder.toPath());
+  }
+
+  @Test
+  public void shouldRunFileCreatedConsumerOnEvent() throws Exception {
+    fileTreeWalker = createFileTreeWalker(true);
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    directoryUpdateConsumers.add(directoryUpdateConsumerMock);
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    sleep(FS_LATENCY_DELAY);
+    fileTreeWalker.walk();
+
+    File file = createTempFile(TEST_FILE_NAME, "", folder);
+    fileTreeWalker.handle(file.toPath(), ENTRY_CREATE);
+
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+    verify(directoryUpdateConsumerMock).accept(folder.toPath());
+  }
+
+  @Test
+  public void shouldRunFileUpdateConsumerOnEvent() throws Exception {
+    fileTreeWalker = createFileTreeWalker(true);
+    fileUpdateConsumers.add(fileUpdateConsumerMock);
+    File file = rootFolder.newFile(TEST_FILE_NAME);
+    sleep(FS_LATENCY_DELAY);
+    fileTreeWalker.walk();
+
+    write(file, TEST_FILE_CONTENT);
+    fileTreeWalker.handle(file.toPath(), ENTRY_MODIFY);
+
+    verify(fileUpdateConsumerMock).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldWalkCreatedDirectoryOnEvent() throws Exception {
+    fileTreeWalker = createFileTreeWalker(true);
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    directoryCreateConsumers.add(directoryCreatedConsumerMock);
+    fileTreeWalker.walk();
+
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    File file = createTempFile(TEST_FILE_NAME, "", folder);
+    fileTreeWalker.handle(folder.toPath(), ENTRY_CREATE);
+
+    verify(directoryCreatedConsumerMock).accept(folder.toPath());
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+    verify(fileWatcherService).register(folder.toPath());
+  }
+
+  @Test
+  public void shouldRunDeleteConsumersForDirectoryContentOnEvent() throws Exception {
+    fileTreeWalker = createFileTreeWalker(true);
+    fileDeleteConsumers.add(fileDeleteConsumerMock);
+    directoryDeleteConsumers.add(directoryDeleteConsumerMock);
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    File file = createTempFile(TEST_FILE_NAME, "", folder);
+    fileTreeWalker.walk();
+
+    file.delete();
+    folder.delete();
+    fileTreeWalker.handle(folder.toPath(), ENTRY_DELETE);
+
+    verify(fileDeleteConsumerMock).accept(file.toPath());
+    verify(directoryDeleteConsumerMock).accept(folder.toPath());
+    verify(fileWatcherService).unRegister(folder.toPath());
+  }
+
+  @Test
+  public void shouldWalkDirectoryAgainOnOverflow() throws Exception {
+    fileTreeWalker = createFileTreeWalker(true);
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    fileTreeWalker.walk();
+
+    File file = createTempFile(TEST_FILE_NAME, "", folder);
+    fileTreeWalker.handle(folder.toPath(), OVERFLOW);
+    verify(fileCreatedConsumerMock, never()).accept(file.toPath());
+
+    fileTreeWalker.walk();
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldWalkDirectoryCreatedAgainUnderTheSameName() throws Exception {
+    fileTreeWalker = createFileTreeWalker(true);
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    fileTreeWalker.walk();
+
+    // the new directory exists while the old one is removed, so it can't reuse its inode
+    File newFolder = rootFolder.newFolder(TEST_FOLDER_NAME + "-new");
+    File file = createTempFile(TEST_FILE_NAME, "", newFolder);
+    folder.delete();
+    newFolder.renameTo(folder);
+    fileTreeWalker.handle(folder.toPath(), ENTRY_CREATE);
+
+    verify(fileWatcherService).unRegister(folder.toPath());
+    verify(fileWatcherService, times(2)).register(folder.toPath());
+    verify(fileCreatedConsumerMock).accept(folder.toPath().resolve(file.getName()));
+  }
+
+  @Test
+  public void shouldWalkDirectoryAgainWhenItsWatchIsNotValid() throws Exception {
+    fileTreeWalker = createFileTreeWalker(true);
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    fileTreeWalker.walk();
+
+    File file = createTempFile(TEST_FILE_NAME, "", folder);
+    fileTreeWalker.handle(folder.toPath(), ENTRY_MODIFY);
+
+    verify(fileWatcherService, times(2)).register(folder.toPath());
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldNotBlockEventsWhileWalking() throws Exception {
+    fileTreeWalker = createFileTreeWalker(true);
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    File file = new File(folder, TEST_FILE_NAME);
+    directoryCreateConsumers.add(
+        dir -> {
+          if (dir.equals(folder.toPath())) {
+            // file watcher thread reports a file created while the walk is in progress
+            CompletableFuture.runAsync(
+                    () -> {
+                      try {
+                        write(file, TEST_FILE_CONTENT);
+                      } catch (Exception e) {
+                        throw new RuntimeException(e);
+                      }
+                      fileTreeWalker.handle(file.toPath(), ENTRY_CREATE);
+                    })
+                .join();
+          }
+        });
+
+    CompletableFuture.runAsync(fileTreeWalker::walk).get(10, SECONDS);
+
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldFallBackToPollingWhenWatchLimitIsExceeded() throws Exception {
+    fileTreeWalker = createFileTreeWalker(true, 2);
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    rootFolder.newFolder(TEST_FOLDER_NAME + "-other");
+    fileTreeWalker.walk();
+
+    verify(fileWatcherService, times(2)).register(any());
+    verify(fileWatcherService, times(2)).unRegister(any());
+
+    File file = createTempFile(TEST_FILE_NAME, "", folder);
+    fileTreeWalker.walk();
+
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+  }
+
+  private FileTreeWalker createFileTreeWalker(boolean eventDriven) {
+    return createFileTreeWalker(eventDriven, 0);
+  }
+
+  private FileTreeWalker createFileTreeWalker(boolean eventDriven, int maxWatchedDirectories) {
+    return new FileTreeWalker(
+        rootFolder.getRoot(),
+        directoryUpdateConsumers,
+        directoryCreateConsumers,
+        directoryDeleteConsumers,
+        directoryExcludes,
+        fileUpdateConsumers,
+        fileCreateConsumers,
+        fileDeleteConsumers,
+        fileExcludes,
+        fileWatcherService,
+        fileWatcherEventHandler,
+        eventDriven,
+        maxWatchedDirectories);
+  }
 }
@@ -14,12 +14,15 @@ import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 import static org.eclipse.che.api.watcher.server.impl.FileWatcherUtils.toInternalPath;
+import static org.mockito.Mockito.after;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.nio.file.Path;
 import java.util.function.Consumer;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -36,6 +39,7 @@ public class FileWatcherEventHandlerTest {
   @Rule public TemporaryFolder rootFolder = new TemporaryFolder();
 
   FileWatcherEventHandler handler;
+  FileWatcherEventHandler batchingHandler;
 
   @Mock Consumer<String> create;
   @Mock Consumer<String> modify;
@@ -47,7 +51,13 @@ public class FileWatcherEventHandlerTest {
   public void setUp() throws Exception {
     root = rootFolder.getRoot().toPath();
 
-    handler = new FileWatcherEventHandler(rootFolder.getRoot());
+    handler = new FileWatcherEventHandler(rootFolder.getRoot(), 0, 0);
+    batchingHandler = new FileWatcherEventHandler(rootFolder.getRoot(), 50, 2);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    batchingHandler.stop();
   }
 
   @Test
@@ -125,4 +135,58 @@ public class FileWatcherEventHandlerTest {
 
     verify(create).accept(toInternalPath(root, path));
   }
+
+  @Test
+  public void shouldCoalesceModifyAfterCreate() throws Exception {
+    Path path = root.resolve(PROJECT_FILE);
+    batchingHandler.register(path, create, modify, delete);
+
+    batchingHandler.handle(path, ENTRY_CREATE);
+    batchingHandler.handle(path, ENTRY_MODIFY);
+    batchingHandler.handle(path, ENTRY_MODIFY);
+
+    verify(create, timeout(1_000)).accept(toInternalPath(root, path));
+    verify(modify, after(200).never()).accept(toInternalPath(root, path));
+  }
+
+  @Test
+  public void shouldDropCreateFollowedByDelete() throws Exception {
+    Path path = root.resolve(PROJECT_FILE);
+    batchingHandler.register(path, create, modify, delete);
+
+    batchingHandler.handle(path, ENTRY_CREATE);
+    batchingHandler.handle(path, ENTRY_MODIFY);
+    batchingHandler.handle(path, ENTRY_DELETE);
+
+    verify(create, after(200).never()).accept(toInternalPath(root, path));
+    verify(modify, never()).accept(toInternalPath(root, path));
+    verify(delete, never()).accept(toInternalPath(root, path));
+  }
+
+  @Test
+  public void shouldKeepDeleteAndCreateInOrder() throws Exception {
+    Path path = root.resolve(PROJECT_FILE);
+    batchingHandler.register(path, create, modify, delete);
+
+    batchingHandler.handle(path, ENTRY_MODIFY);
+    batchingHandler.handle(path, ENTRY_DELETE);
+    batchingHandler.handle(path, ENTRY_CREATE);
+
+    verify(create, timeout(1_000)).accept(toInternalPath(root, path));
+    verify(delete).accept(toInternalPath(root, path));
+    verify(modify, never()).accept(toInternalPath(root, path));
+  }
+
+  @Test
+  public void shouldCollapseBurstOfDirectoryIntoModifyOfDirectory() throws Exception {
+    Path dir = root.resolve("project");
+    batchingHandler.register(dir, create, modify, delete);
+
+    batchingHandler.handle(dir.resolve("one"), ENTRY_CREATE);
+    batchingHandler.handle(dir.resolve("two"), ENTRY_CREATE);
+    batchingHandler.handle(dir.resolve("three"), ENTRY_CREATE);
+
+    verify(modify, timeout(1_000)).accept(toInternalPath(root, dir));
+    verify(create, never()).accept(toInternalPath(root, dir.resolve("one")));
+  }
 }
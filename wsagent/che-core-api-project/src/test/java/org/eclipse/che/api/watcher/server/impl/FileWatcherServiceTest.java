@@ -10,11 +10,16 @@
  */
 package org.eclipse.che.api.watcher.server.impl;
 
+import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.createDirectory;
+import static java.nio.file.Files.createFile;
+import static java.nio.file.Files.delete;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 import static org.apache.commons.io.FileUtils.write;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.after;
@@ -27,8 +32,9 @@ import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.nio.file.WatchService;
-import org.junit.AfterClass;
-import org.junit.BeforeClass;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -53,7 +59,7 @@ public class FileWatcherServiceTest {
 
   public FileWatcherServiceTest() throws IOException {}
 
-  @BeforeClass
+  @Before
   public void setUp() throws Exception {
     service = new FileWatcherService(fileWatcherExcludePatternsRegistry, handler, watchService);
 
@@ -73,7 +79,7 @@ public class FileWatcherServiceTest {
     verify(handler, timeout(TIMEOUT_VALUE)).handle(path, ENTRY_CREATE);
   }
 
-  @AfterClass
+  @After
   public void tearDown() throws Exception {
     service.stop();
 
@@ -251,4 +257,104 @@ public class FileWatcherServiceTest {
     createDirectory(path.resolve(FILE_NAME));
     verify(handler, after(TIMEOUT_VALUE).never()).handle(path, ENTRY_MODIFY);
   }
+
+  @Test
+  public void shouldWatchNestedFoldersOfRecursivelyRegisteredFolder() throws Exception {
+    Path root = rootFolder.getRoot().toPath();
+    Path nested = createDirectories(root.resolve("a").resolve("b").resolve("c"));
+
+    service.registerRecursively(root);
+
+    assertTrue(service.isWatched(root.resolve("a")));
+    assertTrue(service.isWatched(root.resolve("a").resolve("b")));
+    assertTrue(service.isWatched(nested));
+    assertEquals(4, service.getWatchedDirectoriesCount());
+    Path path = createFile(nested.resolve(FILE_NAME));
+    verify(handler, timeout(TIMEOUT_VALUE)).handle(path, ENTRY_CREATE);
+  }
+
+  @Test
+  public void shouldWatchNestedFoldersCreatedInRecursivelyRegisteredFolder() throws Exception {
+    Path root = rootFolder.getRoot().toPath();
+    service.registerRecursively(root);
+
+    Path nested = createDirectories(root.resolve("a").resolve("b").resolve("c"));
+
+    waitUntil(() -> service.isWatched(nested));
+    assertTrue(service.isWatched(root.resolve("a").resolve("b")));
+    Path path = createFile(nested.resolve(FILE_NAME));
+    verify(handler, timeout(TIMEOUT_VALUE)).handle(path, ENTRY_CREATE);
+  }
+
+  @Test
+  public void shouldStopWatchingDeletedNestedFoldersOfRecursivelyRegisteredFolder()
+      throws Exception {
+    Path root = rootFolder.getRoot().toPath();
+    Path parent = createDirectory(root.resolve("a"));
+    Path nested = createDirectory(parent.resolve("b"));
+    service.registerRecursively(root);
+
+    delete(nested);
+    delete(parent);
+
+    waitUntil(() -> service.getWatchedDirectoriesCount() == 1);
+    assertFalse(service.isWatched(parent));
+    assertFalse(service.isWatched(nested));
+    assertTrue(service.isWatched(root));
+  }
+
+  @Test
+  public void shouldNotWatchNestedFoldersAfterRecursiveUnRegister() throws Exception {
+    Path root = rootFolder.getRoot().toPath();
+    Path nested = createDirectories(root.resolve("a").resolve("b"));
+    service.registerRecursively(root);
+
+    service.unRegisterRecursively(root);
+
+    assertEquals(0, service.getWatchedDirectoriesCount());
+    Path path = createFile(nested.resolve(FILE_NAME));
+    verify(handler, after(TIMEOUT_VALUE).never()).handle(path, ENTRY_CREATE);
+  }
+
+  @Test
+  public void shouldWatchFolderOfSeveralRecursivelyRegisteredFoldersUntilLastUnRegister()
+      throws Exception {
+    Path root = rootFolder.getRoot().toPath();
+    Path parent = createDirectory(root.resolve("a"));
+    Path nested = createDirectory(parent.resolve("b"));
+    service.registerRecursively(root);
+    service.registerRecursively(parent);
+
+    service.unRegisterRecursively(parent);
+
+    assertTrue(service.isWatched(parent));
+    assertTrue(service.isWatched(nested));
+    assertEquals(3, service.getWatchedDirectoriesCount());
+
+    service.unRegisterRecursively(root);
+
+    assertEquals(0, service.getWatchedDirectoriesCount());
+  }
+
+  @Test
+  public void shouldKeepRegistrationOfNestedFolderAfterRecursiveUnRegister() throws Exception {
+    Path root = rootFolder.getRoot().toPath();
+    Path nested = createDirectory(root.resolve(FOLDER_NAME));
+    service.register(nested);
+    service.registerRecursively(root);
+
+    service.unRegisterRecursively(root);
+
+    assertFalse(service.isWatched(root));
+    assertTrue(service.isWatched(nested));
+  }
+
+  private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+    for (long deadline = System.currentTimeMillis() + TIMEOUT_VALUE; !condition.getAsBoolean(); ) {
+      if (System.currentTimeMillis() > deadline) {
+        fail("Condition is not met in " + TIMEOUT_VALUE + " ms");
+      }
+      Thread.sleep(50);
+    }
+  }
 }
@@ -304,6 +304,7 @@ class JGitConnection implements GitConnection {
   private Git git;
   private JGitConfigImpl config;
   private LineConsumerFactory lineConsumerFactory;
+  private boolean closed;
 
   private final CredentialsLoader credentialsLoader;
   private final SshKeyProvider sshKeyProvider;
@@ -1969,7 +1970,11 @@ class JGitConnection implements GitConnection {
 
   @Override
   public void close() {
-    repository.close();
+    // repository may be shared by several connections, so its reference is released only once
+    if (!closed) {
+      closed = true;
+      repository.close();
+    }
   }
 
   @Override
@@ -11,11 +11,24 @@
  */
 package org.eclipse.che.git.impl.jgit;
 
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
@@ -31,32 +44,54 @@ import org.eclipse.jgit.internal.storage.file.FileRepository;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.transport.UserAgent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * JGit implementation for GitConnectionFactory
  *
+ * <p>Opened repositories are cached by their working trees, so connections to the same repository
+ * share the parsed config, refs and list of pack files instead of reading them again for each
+ * connection. Cached repository is reference counted, each connection holds a reference which is
+ * released when the connection is closed, and the cache holds one more reference until the
+ * repository is evicted. Repository is evicted when it isn't used for a while, when the cache is
+ * full or when its {@code .git} directory is removed or replaced, e.g. by a new clone.
+ *
  * @author Tareq Sharafy (tareq.sha@gmail.com)
  */
+@Singleton
 public class JGitConnectionFactory extends GitConnectionFactory {
 
+  private static final Logger LOG = LoggerFactory.getLogger(JGitConnectionFactory.class);
+
   private static final String USER_AGENT = "git/2.1.0";
 
   private final CredentialsLoader credentialsLoader;
   private final SshKeyProvider sshKeyProvider;
   private final EventService eventService;
   private final GitUserResolver userResolver;
+  private final Cache<File, CachedRepository> repositories;
 
   @Inject
   public JGitConnectionFactory(
       CredentialsLoader credentialsLoader,
       SshKeyProvider sshKeyProvider,
       EventService eventService,
-      GitUserResolver userResolver)
+      GitUserResolver userResolver,
+      @Named("che.git.repository_cache.max_size") long cacheMaxSize,
+      @Named("che.git.repository_cache.expire_after_access_min") long cacheExpireMin)
       throws GitException {
     this.credentialsLoader = credentialsLoader;
     this.sshKeyProvider = sshKeyProvider;
     this.eventService = eventService;
     this.userResolver = userResolver;
+    this.repositories =
+        CacheBuilder.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterAccess(cacheExpireMin, MINUTES)
+            .recordStats()
+            .removalListener(this::onRemoval)
+            .build();
 
     UserAgent.set(USER_AGENT);
     // Install the all-trusting trust manager
@@ -87,13 +122,93 @@ public class JGitConnectionFactory extends GitConnectionFactory {
   @Override
   public JGitConnection getConnection(File workDir, LineConsumerFactory outputPublisherFactory)
       throws GitException {
-    Repository gitRepo = createRepository(workDir);
+    Repository gitRepo = openRepository(workDir);
     JGitConnection conn =
         new JGitConnection(gitRepo, credentialsLoader, sshKeyProvider, eventService, userResolver);
     conn.setOutputLineConsumerFactory(outputPublisherFactory);
     return conn;
   }
 
+  /** Returns statistics of the repositories cache. */
+  @VisibleForTesting
+  CacheStats getCacheStats() {
+    return repositories.stats();
+  }
+
+  @PreDestroy
+  void closeRepositories() {
+    repositories.invalidateAll();
+  }
+
+  /**
+   * Returns repository of the given working tree with a reference acquired for the caller.
+   * Repository which doesn't exist yet, e.g. the one which is going to be cloned or initialized, is
+   * not cached.
+   */
+  private synchronized Repository openRepository(File workDir) throws GitException {
+    File key = workDir.toPath().toAbsolutePath().normalize().toFile();
+    Object gitDirKey = readFileKey(new File(key, Constants.DOT_GIT));
+    if (gitDirKey == null) {
+      repositories.invalidate(key);
+      return createRepository(workDir);
+    }
+    // peeks through the map view, so that only the lookup below is recorded in the statistics
+    CachedRepository cached = repositories.asMap().get(key);
+    if (cached != null && !cached.gitDirKey.equals(gitDirKey)) {
+      repositories.invalidate(key);
+    }
+    try {
+      cached =
+          repositories.get(key, () -> new CachedRepository(createRepository(workDir), gitDirKey));
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof GitException
+          ? (GitException) cause
+          : new GitException(cause.getMessage(), cause);
+    }
+    // released by the connection when it is closed
+    cached.repository.incrementOpen();
+    return cached.repository;
+  }
+
+  private void onRemoval(RemovalNotification<File, CachedRepository> notification) {
+    // releases the reference of the cache, repository is closed when all the connections
+    // which use it are closed
+    notification.getValue().repository.close();
+    if (LOG.isDebugEnabled()) {
+      CacheStats stats = repositories.stats();
+      LOG.debug(
+          "Git repository '{}' evicted, cause '{}'. Cached repositories: {}, hit rate: {}",
+          notification.getKey(),
+          notification.getCause(),
+          repositories.size(),
+          stats.hitRate());
+    }
+  }
+
+  /**
+   * Returns key which identifies the given directory on the file system, so a directory which is
+   * removed and created again is distinguished from the original one, or {@code null} if there is
+   * no such directory.
+   *
+   * <p>Only the file key (device and inode) is used, creation time is not reliable as it falls back
+   * to the modification time on some platforms, which changes on each {@code index.lock}. File
+   * systems without file keys can't tell a replaced directory, the path itself is used then.
+   */
+  private static Object readFileKey(File dir) {
+    try {
+      BasicFileAttributes attributes =
+          Files.readAttributes(dir.toPath(), BasicFileAttributes.class);
+      if (!attributes.isDirectory()) {
+        return null;
+      }
+      Object fileKey = attributes.fileKey();
+      return fileKey != null ? fileKey : dir;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
   private static Repository createRepository(File workDir) throws GitException {
     try {
       return new FileRepository(new File(workDir, Constants.DOT_GIT));
@@ -106,4 +221,15 @@ public class JGitConnectionFactory extends GitConnectionFactory {
   public CredentialsLoader getCredentialsLoader() {
     return credentialsLoader;
   }
+
+  private static class CachedRepository {
+
+    final Repository repository;
+    final Object gitDirKey;
+
+    CachedRepository(Repository repository, Object gitDirKey) {
+      this.repository = repository;
+      this.gitDirKey = gitDirKey;
+    }
+  }
 }
@@ -36,7 +36,9 @@ public class GitConnectionFactoryProvider {
             mock(CredentialsLoader.class),
             mock(SshKeyProvider.class),
             mock(EventService.class),
-            resolver)
+            resolver,
+            100,
+            10)
       }
     };
   }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.git.impl.jgit;
+
+import static org.testng.Assert.assertEquals;
+
+import com.google.common.cache.CacheStats;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.git.CredentialsLoader;
+import org.eclipse.che.api.git.GitUserResolver;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.plugin.ssh.key.script.SshKeyProvider;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for the repositories cache of {@link JGitConnectionFactory}. */
+@Listeners(MockitoTestNGListener.class)
+public class JGitConnectionFactoryTest {
+
+  @Mock private CredentialsLoader credentialsLoader;
+  @Mock private SshKeyProvider sshKeyProvider;
+  @Mock private EventService eventService;
+  @Mock private GitUserResolver userResolver;
+
+  private File root;
+  private JGitConnectionFactory factory;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    root = Files.createTempDirectory("git-repositories").toFile();
+    factory =
+        new JGitConnectionFactory(
+            credentialsLoader, sshKeyProvider, eventService, userResolver, 2, 10);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    factory.closeRepositories();
+    IoUtil.deleteRecursive(root);
+  }
+
+  @Test
+  public void shouldReuseCachedRepository() throws Exception {
+    File workDir = initRepository("repo");
+
+    factory.getConnection(workDir).close();
+    factory.getConnection(workDir).close();
+
+    CacheStats stats = factory.getCacheStats();
+    assertEquals(stats.missCount(), 1);
+    assertEquals(stats.hitCount(), 1);
+  }
+
+  @Test
+  public void shouldReuseCachedRepositoryWhenGitDirectoryIsModified() throws Exception {
+    File workDir = initRepository("repo");
+    File gitDir = new File(workDir, Constants.DOT_GIT);
+    factory.getConnection(workDir).close();
+
+    // e.g. index.lock is created and removed on each change of the index
+    Files.setLastModifiedTime(gitDir.toPath(), FileTime.fromMillis(0));
+    new File(gitDir, "index.lock").createNewFile();
+    new File(gitDir, "index.lock").delete();
+    factory.getConnection(workDir).close();
+
+    assertEquals(factory.getCacheStats().hitCount(), 1);
+  }
+
+  @Test
+  public void shouldOpenRepositoryAgainWhenGitDirectoryIsReplaced() throws Exception {
+    File workDir = initRepository("repo");
+    factory.getConnection(workDir).close();
+
+    // the old directory is kept so the new one can't reuse its inode
+    new File(workDir, Constants.DOT_GIT).renameTo(new File(workDir, "old.git"));
+    initRepository("repo");
+    factory.getConnection(workDir).close();
+
+    CacheStats stats = factory.getCacheStats();
+    assertEquals(stats.missCount(), 2);
+    assertEquals(stats.hitCount(), 0);
+    assertEquals(stats.evictionCount(), 0);
+  }
+
+  @Test
+  public void shouldNotCacheRepositoryWhichDoesNotExistYet() throws Exception {
+    File workDir = new File(root, "repo");
+    workDir.mkdirs();
+
+    factory.getConnection(workDir).close();
+
+    assertEquals(factory.getCacheStats().requestCount(), 0);
+  }
+
+  @Test
+  public void shouldEvictRepositoryWhenCacheIsFull() throws Exception {
+    File first = initRepository("first");
+    File second = initRepository("second");
+    File third = initRepository("third");
+
+    factory.getConnection(first).close();
+    factory.getConnection(second).close();
+    factory.getConnection(third).close();
+    factory.getConnection(first).close();
+
+    CacheStats stats = factory.getCacheStats();
+    assertEquals(stats.missCount(), 4);
+    assertEquals(stats.evictionCount(), 2);
+  }
+
+  private File initRepository(String name) throws Exception {
+    File workDir = new File(root, name);
+    Git.init().setDirectory(workDir).call().close();
+    return workDir;
+  }
+}
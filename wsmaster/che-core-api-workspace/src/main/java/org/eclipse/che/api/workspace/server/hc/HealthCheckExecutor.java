@@ -0,0 +1,517 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.server.hc;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes checks of workspace servers for readiness checks and liveness probes.
+ *
+ * <p>All the checks share a single scheduler thread which is used for periodic checks and for
+ * checks timeouts. Plain HTTP and TCP checks are non-blocking, they use asynchronous socket
+ * channels served by a couple of threads, so number of threads doesn't depend on the number of
+ * checked servers. HTTPS checks, HTTP checks of servers reached through a proxy selected by the
+ * default {@link ProxySelector} (e.g. configured with {@code http.proxyHost} and {@code
+ * http.nonProxyHosts}) and checks which can only be performed by blocking calls are executed in a
+ * bounded pool of size {@code che.workspace.probe_pool_size}.
+ *
+ * <p>Results of the checks are passed to callbacks, e.g. probe results consumers which publish
+ * events, in a separate small pool, see {@link #executeCallback(Runnable)}, so callbacks never
+ * block the threads which perform the checks.
+ *
+ * <p>Latency and failures of checks are counted per type of server, e.g. {@code wsagent/http}, see
+ * {@link #getStats()}.
+ */
+@Singleton
+public class HealthCheckExecutor {
+  private static final Logger LOG = LoggerFactory.getLogger(HealthCheckExecutor.class);
+
+  private static final int IO_THREADS = 2;
+  private static final int CALLBACK_THREADS = 2;
+  private static final int STATUS_LINE_MAX_LENGTH = 1024;
+  private static final long STATS_LOG_PERIOD_MIN = 5;
+
+  private final ScheduledThreadPoolExecutor scheduler;
+  private final ThreadPoolExecutor blockingExecutor;
+  private final ThreadPoolExecutor callbackExecutor;
+  private final AsynchronousChannelGroup channelGroup;
+  private final ProxySelector proxySelector;
+  private final Map<String, CheckStats> stats;
+
+  @Inject
+  public HealthCheckExecutor(@Named("che.workspace.probe_pool_size") int blockingPoolSize)
+      throws IOException {
+    this(blockingPoolSize, ProxySelector.getDefault());
+  }
+
+  HealthCheckExecutor(int blockingPoolSize, ProxySelector proxySelector) throws IOException {
+    this.proxySelector = proxySelector;
+    scheduler =
+        new ScheduledThreadPoolExecutor(
+            1,
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("ServerChecksScheduler-%s")
+                .build());
+    scheduler.setRemoveOnCancelPolicy(true);
+    blockingExecutor =
+        new ThreadPoolExecutor(
+            blockingPoolSize,
+            blockingPoolSize,
+            1,
+            MINUTES,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ServerChecks-%s").build());
+    blockingExecutor.allowCoreThreadTimeOut(true);
+    callbackExecutor =
+        new ThreadPoolExecutor(
+            CALLBACK_THREADS,
+            CALLBACK_THREADS,
+            1,
+            MINUTES,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("ServerCheckCallbacks-%s")
+                .build());
+    callbackExecutor.allowCoreThreadTimeOut(true);
+    channelGroup =
+        AsynchronousChannelGroup.withFixedThreadPool(
+            IO_THREADS,
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ServerChecksIO-%s").build());
+    stats = new ConcurrentHashMap<>();
+    scheduler.scheduleWithFixedDelay(
+        this::logStats, STATS_LOG_PERIOD_MIN, STATS_LOG_PERIOD_MIN, MINUTES);
+  }
+
+  /** Schedules the task for execution in the shared scheduler thread, task must not block. */
+  public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+    return scheduler.schedule(task, delay, unit);
+  }
+
+  /**
+   * Executes the callback of a check outside of the threads which perform the checks, as callbacks
+   * may block, e.g. on publishing of events. Callbacks are executed by a couple of threads, so
+   * callbacks which must not overlap have to be chained by the caller.
+   */
+  public void executeCallback(Runnable callback) {
+    callbackExecutor.execute(callback);
+  }
+
+  /**
+   * Sends HTTP GET request to the given URL and completes with the response code.
+   *
+   * @param serverType type of checked server, used for statistics
+   * @param url URL to check
+   * @param headers headers of the request
+   * @param timeoutMs time limit of the whole request
+   * @return future which completes with the response code or exceptionally if connection fails
+   *     or the request times out
+   */
+  public CompletableFuture<Integer> checkHttp(
+      String serverType, URL url, Map<String, String> headers, long timeoutMs) {
+    long start = System.nanoTime();
+    CompletableFuture<Integer> result;
+    Proxy proxy = selectProxy(url);
+    if ("http".equalsIgnoreCase(url.getProtocol()) && proxy.type() == Proxy.Type.DIRECT) {
+      result = new CompletableFuture<>();
+      sendHttpRequest(url, headers, result);
+    } else {
+      result = supplyBlocking(() -> blockingHttpCheck(url, proxy, headers, timeoutMs));
+    }
+    withTimeout(result, timeoutMs);
+    result.whenComplete((code, error) -> record(serverType, start, error == null));
+    return result;
+  }
+
+  /**
+   * Opens TCP connection to the given address.
+   *
+   * @param serverType type of checked server, used for statistics
+   * @return future which completes when connection is established or exceptionally if connection
+   *     fails or times out
+   */
+  public CompletableFuture<Void> checkTcp(
+      String serverType, String host, int port, long timeoutMs) {
+    long start = System.nanoTime();
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    connect(host, port, result)
+        .whenComplete(
+            (channel, error) -> {
+              closeQuietly(channel);
+              if (error != null) {
+                result.completeExceptionally(error);
+              } else {
+                result.complete(null);
+              }
+            });
+    withTimeout(result, timeoutMs);
+    result.whenComplete((ignored, error) -> record(serverType, start, error == null));
+    return result;
+  }
+
+  /**
+   * Executes blocking check in the bounded pool of this executor.
+   *
+   * @param serverType type of checked server, used for statistics
+   * @param check check which returns true if server is available
+   * @param onTimeout called when the check doesn't finish in time, e.g. to interrupt the check
+   * @param timeoutMs time limit of the check
+   * @return future which completes with result of the check or with false if the check fails or
+   *     times out
+   */
+  public CompletableFuture<Boolean> checkBlocking(
+      String serverType, Supplier<Boolean> check, Runnable onTimeout, long timeoutMs) {
+    long start = System.nanoTime();
+    CompletableFuture<Boolean> result = supplyBlocking(check);
+    withTimeout(result, timeoutMs)
+        .whenComplete(
+            (available, error) -> {
+              if (error instanceof TimeoutException) {
+                onTimeout.run();
+              }
+            });
+    return result.handle(
+        (available, error) -> {
+          boolean success = error == null && available;
+          record(serverType, start, success);
+          return success;
+        });
+  }
+
+  /** Returns snapshot of the checks statistics by types of servers. */
+  public Map<String, CheckStats> getStats() {
+    Map<String, CheckStats> snapshot = new TreeMap<>();
+    stats.forEach((serverType, serverStats) -> snapshot.put(serverType, serverStats.copy()));
+    return snapshot;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+    blockingExecutor.shutdownNow();
+    callbackExecutor.shutdownNow();
+    channelGroup.shutdown();
+  }
+
+  private void record(String serverType, long startNanos, boolean success) {
+    stats
+        .computeIfAbsent(serverType, type -> new CheckStats())
+        .record(System.nanoTime() - startNanos, success);
+  }
+
+  private void logStats() {
+    if (LOG.isDebugEnabled()) {
+      getStats().forEach((serverType, serverStats) -> LOG.debug("{}: {}", serverType, serverStats));
+    }
+  }
+
+  private <T> CompletableFuture<T> supplyBlocking(Supplier<T> supplier) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    try {
+      blockingExecutor.execute(
+          () -> {
+            try {
+              result.complete(supplier.get());
+            } catch (RuntimeException e) {
+              result.completeExceptionally(e);
+            }
+          });
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
+  /** Completes the future exceptionally if it is not completed in time. */
+  private <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, long timeoutMs) {
+    ScheduledFuture<?> timeout =
+        scheduler.schedule(
+            () -> future.completeExceptionally(new TimeoutException()), timeoutMs, MILLISECONDS);
+    future.whenComplete((result, error) -> timeout.cancel(false));
+    return future;
+  }
+
+  /** Returns proxy which should be used to connect to the given URL. */
+  private Proxy selectProxy(URL url) {
+    if (proxySelector == null) {
+      return Proxy.NO_PROXY;
+    }
+    try {
+      List<Proxy> proxies = proxySelector.select(url.toURI());
+      return proxies == null || proxies.isEmpty() ? Proxy.NO_PROXY : proxies.get(0);
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return Proxy.NO_PROXY;
+    }
+  }
+
+  private Integer blockingHttpCheck(
+      URL url, Proxy proxy, Map<String, String> headers, long timeoutMs) {
+    HttpURLConnection connection = null;
+    try {
+      connection = (HttpURLConnection) url.openConnection(proxy);
+      connection.setConnectTimeout((int) timeoutMs);
+      connection.setReadTimeout((int) timeoutMs);
+      for (Map.Entry<String, String> header : headers.entrySet()) {
+        connection.setRequestProperty(header.getKey(), header.getValue());
+      }
+      return connection.getResponseCode();
+    } catch (IOException e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    } finally {
+      if (connection != null) {
+        connection.disconnect();
+      }
+    }
+  }
+
+  private void sendHttpRequest(
+      URL url, Map<String, String> headers, CompletableFuture<Integer> result) {
+    int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+    StringBuilder request = new StringBuilder();
+    request
+        .append("GET ")
+        .append(url.getFile().isEmpty() ? "/" : url.getFile())
+        .append(" HTTP/1.1\r\n")
+        .append("Host: ")
+        .append(url.getHost())
+        .append(url.getPort() != -1 ? ":" + url.getPort() : "")
+        .append("\r\n");
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      request.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+    }
+    if (!headers.containsKey("Connection")) {
+      request.append("Connection: close\r\n");
+    }
+    request.append("\r\n");
+    ByteBuffer requestBuffer = ByteBuffer.wrap(request.toString().getBytes(ISO_8859_1));
+
+    connect(url.getHost(), port, result)
+        .thenAccept(
+            channel -> {
+              result.whenComplete((code, error) -> closeQuietly(channel));
+              write(channel, requestBuffer, result);
+            });
+  }
+
+  /** Resolves the address in the pool, as resolution may block, and connects to it. */
+  private CompletableFuture<AsynchronousSocketChannel> connect(
+      String host, int port, CompletableFuture<?> result) {
+    CompletableFuture<AsynchronousSocketChannel> connected = new CompletableFuture<>();
+    supplyBlocking(() -> new InetSocketAddress(host, port))
+        .whenComplete(
+            (address, error) -> {
+              if (error != null) {
+                connected.completeExceptionally(error);
+                return;
+              }
+              if (address.isUnresolved()) {
+                connected.completeExceptionally(new IOException("Can't resolve host " + host));
+                return;
+              }
+              AsynchronousSocketChannel channel;
+              try {
+                channel = AsynchronousSocketChannel.open(channelGroup);
+              } catch (IOException e) {
+                connected.completeExceptionally(e);
+                return;
+              }
+              // close the channel if the check is completed meanwhile, e.g. timed out
+              result.whenComplete((ignored, resultError) -> closeQuietly(channel));
+              channel.connect(
+                  address,
+                  null,
+                  new CompletionHandler<Void, Void>() {
+                    @Override
+                    public void completed(Void ignored, Void attachment) {
+                      connected.complete(channel);
+                    }
+
+                    @Override
+                    public void failed(Throwable e, Void attachment) {
+                      closeQuietly(channel);
+                      connected.completeExceptionally(e);
+                    }
+                  });
+            });
+    connected.whenComplete(
+        (channel, error) -> {
+          if (error != null) {
+            result.completeExceptionally(error);
+          }
+        });
+    return connected;
+  }
+
+  private void write(
+      AsynchronousSocketChannel channel, ByteBuffer request, CompletableFuture<Integer> result) {
+    channel.write(
+        request,
+        null,
+        new CompletionHandler<Integer, Void>() {
+          @Override
+          public void completed(Integer written, Void attachment) {
+            if (request.hasRemaining()) {
+              channel.write(request, null, this);
+            } else {
+              readStatusLine(channel, ByteBuffer.allocate(STATUS_LINE_MAX_LENGTH), result);
+            }
+          }
+
+          @Override
+          public void failed(Throwable e, Void attachment) {
+            result.completeExceptionally(e);
+          }
+        });
+  }
+
+  private void readStatusLine(
+      AsynchronousSocketChannel channel, ByteBuffer response, CompletableFuture<Integer> result) {
+    channel.read(
+        response,
+        null,
+        new CompletionHandler<Integer, Void>() {
+          @Override
+          public void completed(Integer read, Void attachment) {
+            String received = new String(response.array(), 0, response.position(), ISO_8859_1);
+            int lineEnd = received.indexOf("\r\n");
+            if (lineEnd != -1) {
+              try {
+                result.complete(parseStatusCode(received.substring(0, lineEnd)));
+              } catch (IOException e) {
+                result.completeExceptionally(e);
+              }
+            } else if (read == -1 || !response.hasRemaining()) {
+              result.completeExceptionally(new IOException("Invalid HTTP response"));
+            } else {
+              channel.read(response, null, this);
+            }
+          }
+
+          @Override
+          public void failed(Throwable e, Void attachment) {
+            result.completeExceptionally(e);
+          }
+        });
+  }
+
+  /** Parses status code from HTTP status line, e.g. {@code HTTP/1.1 200 OK}. */
+  static int parseStatusCode(String statusLine) throws IOException {
+    String[] parts = statusLine.split(" ", 3);
+    if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+      throw new IOException("Invalid HTTP status line: " + statusLine);
+    }
+    try {
+      return Integer.parseInt(parts[1]);
+    } catch (NumberFormatException e) {
+      throw new IOException("Invalid HTTP status line: " + statusLine);
+    }
+  }
+
+  private static void closeQuietly(AsynchronousSocketChannel channel) {
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException ignored) {
+      }
+    }
+  }
+
+  /** Statistics of checks of servers of the same type. */
+  public static class CheckStats {
+    private long checks;
+    private long failures;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+
+    private synchronized void record(long latencyNanos, boolean success) {
+      checks++;
+      if (!success) {
+        failures++;
+      }
+      totalLatencyNanos += latencyNanos;
+      maxLatencyNanos = Math.max(maxLatencyNanos, latencyNanos);
+    }
+
+    private synchronized CheckStats copy() {
+      CheckStats copy = new CheckStats();
+      copy.checks = checks;
+      copy.failures = failures;
+      copy.totalLatencyNanos = totalLatencyNanos;
+      copy.maxLatencyNanos = maxLatencyNanos;
+      return copy;
+    }
+
+    /** Returns number of performed checks. */
+    public long getChecks() {
+      return checks;
+    }
+
+    /** Returns number of failed checks including timed out ones. */
+    public long getFailures() {
+      return failures;
+    }
+
+    public long getAverageLatencyMillis() {
+      return checks == 0 ? 0 : NANOSECONDS.toMillis(totalLatencyNanos / checks);
+    }
+
+    public long getMaxLatencyMillis() {
+      return NANOSECONDS.toMillis(maxLatencyNanos);
+    }
+
+    @Override
+    public String toString() {
+      return "checks="
+          + checks
+          + ", failures="
+          + failures
+          + ", avgLatencyMs="
+          + getAverageLatencyMillis()
+          + ", maxLatencyMs="
+          + getMaxLatencyMillis();
+    }
+  }
+}
@@ -14,18 +14,27 @@ import com.google.common.annotations.VisibleForTesting;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.Timer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Server checker that uses http connection response code as a criteria of availability of a server.
  * If response code is not less than 200 and less than 400 server is treated as available.
  *
+ * <p>Periodic checks are performed by non-blocking requests of {@link HealthCheckExecutor}.
+ *
  * @author Alexander Garagatyi
  */
 public class HttpConnectionServerChecker extends ServerChecker {
   private static final String CONNECTION_HEADER = "Connection";
   private static final String CONNECTION_CLOSE = "close";
+  private static final Map<String, String> HEADERS =
+      Collections.singletonMap(CONNECTION_HEADER, CONNECTION_CLOSE);
+  // TODO consider how much time we should use as a limit
+  private static final long TIMEOUT_MS = TimeUnit.SECONDS.toMillis(3);
+
   private final URL url;
 
   public HttpConnectionServerChecker(
@@ -35,8 +44,8 @@ public class HttpConnectionServerChecker extends ServerChecker {
       long period,
       long timeout,
       TimeUnit timeUnit,
-      Timer timer) {
-    super(machineName, serverRef, period, timeout, timeUnit, timer);
+      HealthCheckExecutor executor) {
+    super(machineName, serverRef, period, timeout, timeUnit, executor);
     this.url = url;
   }
 
@@ -45,9 +54,8 @@ public class HttpConnectionServerChecker extends ServerChecker {
     HttpURLConnection httpURLConnection = null;
     try {
       httpURLConnection = createConnection(url);
-      // TODO consider how much time we should use as a limit
-      httpURLConnection.setConnectTimeout((int) TimeUnit.SECONDS.toMillis(3));
-      httpURLConnection.setReadTimeout((int) TimeUnit.SECONDS.toMillis(3));
+      httpURLConnection.setConnectTimeout((int) TIMEOUT_MS);
+      httpURLConnection.setReadTimeout((int) TIMEOUT_MS);
       httpURLConnection.setRequestProperty(CONNECTION_HEADER, CONNECTION_CLOSE);
       return isConnectionSuccessful(httpURLConnection);
     } catch (IOException e) {
@@ -59,15 +67,25 @@ public class HttpConnectionServerChecker extends ServerChecker {
     }
   }
 
+  @Override
+  protected CompletableFuture<Boolean> isAvailableAsync() {
+    return getExecutor()
+        .checkHttp(getServerRef(), url, HEADERS, TIMEOUT_MS)
+        .handle((responseCode, error) -> error == null && isSuccessful(responseCode));
+  }
+
   boolean isConnectionSuccessful(HttpURLConnection conn) {
     try {
-      int responseCode = conn.getResponseCode();
-      return responseCode >= 200 && responseCode < 400;
+      return isSuccessful(conn.getResponseCode());
     } catch (IOException e) {
       return false;
     }
   }
 
+  boolean isSuccessful(int responseCode) {
+    return responseCode >= 200 && responseCode < 400;
+  }
+
   @VisibleForTesting
   HttpURLConnection createConnection(URL url) throws IOException {
     return (HttpURLConnection) url.openConnection();
@@ -10,9 +10,8 @@
  */
 package org.eclipse.che.api.workspace.server.hc;
 
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -21,15 +20,25 @@ import org.eclipse.che.api.workspace.server.spi.InfrastructureException;
 /**
  * Checks availability of a server.
  *
+ * <p>Checks are scheduled in the shared {@link HealthCheckExecutor}. Delay between unsuccessful
+ * checks grows exponentially from {@link #INITIAL_DELAY_MS} up to the configured period, so
+ * servers which start quickly are detected soon while slow servers are not polled too often.
+ *
  * @author Alexander Garagatyi
  */
 public abstract class ServerChecker {
+  static final long INITIAL_DELAY_MS = 250;
+
   private final String machineName;
   private final String serverRef;
   private final long period;
   private final long deadLine;
   private final CompletableFuture<String> reportFuture;
-  private final Timer timer;
+  private final HealthCheckExecutor executor;
+
+  private long delay;
+  private volatile boolean stopped;
+  private volatile ScheduledFuture<?> scheduledCheck;
 
   /**
    * Creates server checker instance.
@@ -40,6 +49,7 @@ public abstract class ServerChecker {
    * @param timeout max time allowed for the server availability checks to last before server is
    *     treated unavailable, measured in {@code timeUnit}
    * @param timeUnit measurement unit for {@code period} and {@code timeout} parameters
+   * @param executor executor of the checks
    */
   protected ServerChecker(
       String machineName,
@@ -47,11 +57,12 @@ public abstract class ServerChecker {
       long period,
       long timeout,
       TimeUnit timeUnit,
-      Timer timer) {
+      HealthCheckExecutor executor) {
     this.machineName = machineName;
     this.serverRef = serverRef;
-    this.timer = timer;
+    this.executor = executor;
     this.period = TimeUnit.MILLISECONDS.convert(period, timeUnit);
+    this.delay = Math.min(INITIAL_DELAY_MS, this.period);
     this.reportFuture = new CompletableFuture<>();
     this.deadLine = System.currentTimeMillis() + TimeUnit.MILLISECONDS.convert(timeout, timeUnit);
   }
@@ -61,7 +72,16 @@ public abstract class ServerChecker {
    * checking times out.
    */
   public void start() {
-    timer.schedule(new ServerCheckingTask(), 0);
+    scheduledCheck = executor.schedule(this::check, 0, TimeUnit.MILLISECONDS);
+  }
+
+  /** Stops server availability checking, report future is not completed after that. */
+  public void stop() {
+    stopped = true;
+    ScheduledFuture<?> check = scheduledCheck;
+    if (check != null) {
+      check.cancel(false);
+    }
   }
 
   /**
@@ -83,6 +103,28 @@ public abstract class ServerChecker {
    */
   public abstract boolean isAvailable();
 
+  /**
+   * Checks server availability asynchronously. By default blocking {@link #isAvailable()} is
+   * called in the pool of {@link HealthCheckExecutor}, implementations which can check the server
+   * without blocking should override this method.
+   *
+   * @return future which completes with true if server is available, false otherwise
+   */
+  protected CompletableFuture<Boolean> isAvailableAsync() {
+    return executor.checkBlocking(
+        serverRef, this::isAvailable, () -> {}, Math.max(period, INITIAL_DELAY_MS));
+  }
+
+  /** Returns executor of the checks. */
+  protected HealthCheckExecutor getExecutor() {
+    return executor;
+  }
+
+  /** Returns reference of the checked server. */
+  protected String getServerRef() {
+    return serverRef;
+  }
+
   /**
    * Returns {@code CompletableFuture} that will be completed when server become available or
    * unavailable. When server become available completable future returns server reference.
@@ -101,19 +143,25 @@ public abstract class ServerChecker {
     return System.currentTimeMillis() > deadLine;
   }
 
-  private class ServerCheckingTask extends TimerTask {
-    @Override
-    public void run() {
-      if (isTimedOut()) {
-        reportFuture.completeExceptionally(
-            new InfrastructureException(
-                String.format(
-                    "Server '%s' in machine '%s' not available.", serverRef, machineName)));
-      } else if (isAvailable()) {
-        reportFuture.complete(serverRef);
-      } else {
-        timer.schedule(new ServerCheckingTask(), period);
-      }
+  private void check() {
+    if (stopped) {
+      return;
+    }
+    if (isTimedOut()) {
+      reportFuture.completeExceptionally(
+          new InfrastructureException(
+              String.format("Server '%s' in machine '%s' not available.", serverRef, machineName)));
+      return;
     }
+    isAvailableAsync()
+        .whenComplete(
+            (available, error) -> {
+              if (error == null && available) {
+                reportFuture.complete(serverRef);
+              } else if (!stopped) {
+                scheduledCheck = executor.schedule(this::check, delay, TimeUnit.MILLISECONDS);
+                delay = Math.min(delay * 2, period);
+              }
+            });
   }
 }
@@ -18,7 +18,6 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -49,8 +48,8 @@ public class ServersChecker {
   private final String machineName;
   private final Map<String, ? extends Server> servers;
   private final MachineTokenProvider machineTokenProvider;
+  private final HealthCheckExecutor executor;
 
-  private Timer timer;
   private long resultTimeoutSeconds;
   private CompletableFuture result;
 
@@ -65,12 +64,13 @@ public class ServersChecker {
       @Assisted RuntimeIdentity runtimeIdentity,
       @Assisted String machineName,
       @Assisted Map<String, ? extends Server> servers,
-      MachineTokenProvider machineTokenProvider) {
+      MachineTokenProvider machineTokenProvider,
+      HealthCheckExecutor executor) {
     this.runtimeIdentity = runtimeIdentity;
     this.machineName = machineName;
     this.servers = servers;
-    this.timer = new Timer("ServersChecker", true);
     this.machineTokenProvider = machineTokenProvider;
+    this.executor = executor;
   }
 
   /**
@@ -83,7 +83,6 @@ public class ServersChecker {
    * @throws InfrastructureException if check of a server failed due to an error
    */
   public void startAsync(Consumer<String> serverReadinessHandler) throws InfrastructureException {
-    timer = new Timer("ServersChecker", true);
     List<ServerChecker> serverCheckers = getServerCheckers();
     // should be completed with an exception if a server considered unavailable
     CompletableFuture<Void> firstNonAvailable = new CompletableFuture<>();
@@ -98,7 +97,7 @@ public class ServersChecker {
                         .exceptionally(
                             e -> {
                               // cleanup checkers tasks
-                              timer.cancel();
+                              serverCheckers.forEach(ServerChecker::stop);
                               firstNonAvailable.completeExceptionally(e);
                               return null;
                             }))
@@ -195,10 +194,10 @@ public class ServersChecker {
     // workaround needed because terminal server doesn't have endpoint to check it readiness
     if ("terminal".equals(serverRef)) {
       return new TerminalHttpConnectionServerChecker(
-          url, machineName, serverRef, 3, 180, TimeUnit.SECONDS, timer);
+          url, machineName, serverRef, 3, 180, TimeUnit.SECONDS, executor);
     }
     // TODO do not hardcode timeouts, use server conf instead
     return new HttpConnectionServerChecker(
-        url, machineName, serverRef, 3, 180, TimeUnit.SECONDS, timer);
+        url, machineName, serverRef, 3, 180, TimeUnit.SECONDS, executor);
   }
 }
@@ -10,10 +10,7 @@
  */
 package org.eclipse.che.api.workspace.server.hc;
 
-import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.Timer;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -31,17 +28,12 @@ class TerminalHttpConnectionServerChecker extends HttpConnectionServerChecker {
       long period,
       long timeout,
       TimeUnit timeUnit,
-      Timer timer) {
-    super(url, machineName, serverRef, period, timeout, timeUnit, timer);
+      HealthCheckExecutor executor) {
+    super(url, machineName, serverRef, period, timeout, timeUnit, executor);
   }
 
   @Override
-  boolean isConnectionSuccessful(HttpURLConnection conn) {
-    try {
-      int responseCode = conn.getResponseCode();
-      return responseCode == 404;
-    } catch (IOException e) {
-      return false;
-    }
+  boolean isSuccessful(int responseCode) {
+    return responseCode == 404;
   }
 }
@@ -15,6 +15,8 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.eclipse.che.api.workspace.server.hc.HealthCheckExecutor;
 
 /**
  * Probes a HTTP(s) URL for a response with code >=200 and <400
@@ -65,6 +67,14 @@ public class HttpProbe extends Probe {
     }
   }
 
+  @Override
+  CompletableFuture<Boolean> probeAsync(
+      HealthCheckExecutor executor, String serverName, long timeoutMs) {
+    return executor
+        .checkHttp(serverName, url, headers, timeoutMs)
+        .handle((responseCode, error) -> error == null && isSuccessful(responseCode));
+  }
+
   /**
    * More effectively cancels the probe than cancellation inherited from {@link Probe}.
    *
@@ -72,15 +82,20 @@ public class HttpProbe extends Probe {
    */
   @Override
   public void cancel() {
-    httpURLConnection.disconnect();
+    if (httpURLConnection != null) {
+      httpURLConnection.disconnect();
+    }
   }
 
   private boolean isConnectionSuccessful(HttpURLConnection conn) {
     try {
-      int responseCode = conn.getResponseCode();
-      return responseCode >= 200 && responseCode < 400;
+      return isSuccessful(conn.getResponseCode());
     } catch (IOException e) {
       return false;
     }
   }
+
+  private static boolean isSuccessful(int responseCode) {
+    return responseCode >= 200 && responseCode < 400;
+  }
 }
@@ -10,6 +10,9 @@
  */
 package org.eclipse.che.api.workspace.server.hc.probe;
 
+import java.util.concurrent.CompletableFuture;
+import org.eclipse.che.api.workspace.server.hc.HealthCheckExecutor;
+
 /**
  * One-time probe for a server. Should not be used directly but rather by a probe scheduling
  * framework.
@@ -40,6 +43,21 @@ public abstract class Probe {
     }
   }
 
+  /**
+   * Checks {@link Probe} using the given executor. By default blocking {@link #probe()} is
+   * executed in the bounded pool of the executor and {@link #cancel()} is called on timeout,
+   * probes which can be checked without blocking may override this method.
+   *
+   * @param executor executor of the checks
+   * @param serverName name of the probed server, used for statistics
+   * @param timeoutMs time limit of the probe
+   * @return future which completes with true if probe finishes successfully, false otherwise
+   */
+  CompletableFuture<Boolean> probeAsync(
+      HealthCheckExecutor executor, String serverName, long timeoutMs) {
+    return executor.checkBlocking(serverName, this::probe, this::cancel, timeoutMs);
+  }
+
   /**
    * Returns {@code true} if probe finishes successfully, {@code false} otherwise. Must return false
    * when probe is interrupted even if interruption is not respected by probe implementation.
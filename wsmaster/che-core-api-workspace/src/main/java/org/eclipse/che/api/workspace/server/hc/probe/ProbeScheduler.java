@@ -10,49 +10,43 @@
  */
 package org.eclipse.che.api.workspace.server.hc.probe;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import javax.inject.Inject;
-import javax.inject.Named;
 import javax.inject.Singleton;
+import org.eclipse.che.api.workspace.server.hc.HealthCheckExecutor;
 import org.eclipse.che.api.workspace.server.hc.probe.ProbeResult.ProbeStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Schedules workspace servers probes checks asynchronously.
+ * Schedules workspace servers probes checks asynchronously. Probes share the scheduler thread and
+ * the pools of {@link HealthCheckExecutor} with the servers readiness checks, so the number of
+ * threads doesn't depend on the number of running workspaces. Probe results are passed to the
+ * consumers by the callback threads of the executor, see {@link
+ * HealthCheckExecutor#executeCallback(Runnable)}.
  *
  * @author Alexander Garagatyi
  */
 @Singleton
 public class ProbeScheduler {
-  private final ScheduledThreadPoolExecutor probesExecutor;
-  /**
-   * Use single thread for a scheduling of tasks interruption by timeout. Single thread can be used
-   * since it is supposed that interruption is a very quick call. Separate thread is needed to
-   * prevent a situation when executor is full of jobs and current ones are hanging but we need to
-   * time them out.
-   */
-  private final Timer timeouts;
-  /** Mapping of workspaceId to a list of futures with probes of a workspace. */
-  private final Map<String, List<ScheduledFuture>> probesFutures;
+  private static final Logger LOG = LoggerFactory.getLogger(ProbeScheduler.class);
+
+  private final HealthCheckExecutor executor;
+  /** Mapping of workspaceId to a list of tasks with probes of a workspace. */
+  private final Map<String, List<Task>> probesTasks;
 
   @Inject
-  public ProbeScheduler(@Named("che.workspace.probe_pool_size") int probeSchedulerPoolSize) {
-    probesExecutor =
-        new ScheduledThreadPoolExecutor(
-            probeSchedulerPoolSize,
-            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ServerProbes-%s").build());
-    timeouts = new Timer("ServerProbesTimeouts", true);
-    probesFutures = new ConcurrentHashMap<>();
+  public ProbeScheduler(HealthCheckExecutor executor) {
+    this.executor = executor;
+    probesTasks = new ConcurrentHashMap<>();
   }
 
   /**
@@ -66,7 +60,7 @@ public class ProbeScheduler {
    *     probe execution results
    */
   public void schedule(WorkspaceProbes probes, Consumer<ProbeResult> probeResultConsumer) {
-    probesFutures.putIfAbsent(probes.getWorkspaceId(), new ArrayList<>());
+    probesTasks.putIfAbsent(probes.getWorkspaceId(), new ArrayList<>());
     probes
         .getProbes()
         .forEach(
@@ -78,48 +72,38 @@ public class ProbeScheduler {
    * specified ID.
    */
   public void cancel(String workspaceId) {
-    List<ScheduledFuture> tasks = probesFutures.remove(workspaceId);
+    List<Task> tasks = probesTasks.remove(workspaceId);
     if (tasks == null) {
       return;
     }
 
-    tasks.forEach(task -> task.cancel(true));
+    tasks.forEach(Task::cancel);
   }
 
   private void schedule(
       String workspaceId, ProbeFactory probeFactory, Consumer<ProbeResult> probeResultConsumer) {
-    ProbeConfig probeConfig = probeFactory.getProbeConfig();
     Task task = new Task(probeFactory, probeResultConsumer);
-    // scheduleWithFixedDelay is used in favor of scheduleAtFixedRate because in case of big amount
-    // of scheduled probes start time of tasks may shift and this may lead to a situation when
-    // another probeConfig is needed immediately after the previous one is finished which doesn't
-    // seem a good thing
-    ScheduledFuture scheduledFuture =
-        probesExecutor.scheduleWithFixedDelay(
-            task,
-            probeConfig.getInitialDelaySeconds(),
-            probeConfig.getPeriodSeconds(),
-            TimeUnit.SECONDS);
-
-    List<ScheduledFuture> workspaceProbes =
-        probesFutures.computeIfPresent(
+    List<Task> workspaceProbes =
+        probesTasks.computeIfPresent(
             workspaceId,
-            (OldKey, scheduledFutures) -> {
-              if (scheduledFutures == null) {
-                scheduledFutures = new ArrayList<>();
-              }
-              scheduledFutures.add(scheduledFuture);
-              return scheduledFutures;
+            (OldKey, tasks) -> {
+              tasks.add(task);
+              return tasks;
             });
     // check whether workspace probes were cancelled concurrently which led to removal of the value
     // in the map
     if (workspaceProbes == null) {
-      scheduledFuture.cancel(true);
       task.cancel();
+      return;
     }
+    task.scheduleNext(probeFactory.getProbeConfig().getInitialDelaySeconds());
   }
 
-  private class Task implements Runnable {
+  /**
+   * Periodic check of a probe. Next check is scheduled with the probe period after the previous
+   * one is finished, so checks of the same probe never overlap.
+   */
+  private class Task {
     private final ProbeFactory probeFactory;
     private final Consumer<ProbeResult> probeResultConsumer;
     private final ProbeConfig probeConfig;
@@ -127,6 +111,9 @@ public class ProbeScheduler {
     private int failures = 0;
     private int successes = 0;
     private AtomicBoolean cancelled = new AtomicBoolean(false);
+    private volatile ScheduledFuture<?> scheduledCheck;
+    /** Delivery of the last result, results of the probe are delivered one after another. */
+    private CompletableFuture<Void> lastDelivery = CompletableFuture.completedFuture(null);
 
     public Task(ProbeFactory probeFactory, Consumer<ProbeResult> probeResultConsumer) {
       this.probeFactory = probeFactory;
@@ -134,34 +121,46 @@ public class ProbeScheduler {
       this.probeResultConsumer = probeResultConsumer;
     }
 
-    @Override
-    public void run() {
+    void scheduleNext(long delaySeconds) {
+      if (cancelled.get()) {
+        return;
+      }
+      scheduledCheck = executor.schedule(this::run, delaySeconds, TimeUnit.SECONDS);
+      // cancellation may happen while the check is being scheduled
+      if (cancelled.get()) {
+        scheduledCheck.cancel(false);
+      }
+    }
+
+    private void run() {
       if (cancelled.get()) {
         return;
       }
-      Probe probe = probeFactory.get();
-      timeouts.schedule(
-          new TimeoutProbeTask(probe), TimeUnit.SECONDS.toMillis(probeConfig.getTimeoutSeconds()));
-      boolean success = probe.probe();
+      probeFactory
+          .get()
+          .probeAsync(
+              executor,
+              probeFactory.getServerName(),
+              TimeUnit.SECONDS.toMillis(probeConfig.getTimeoutSeconds()))
+          .whenComplete(
+              (success, error) -> {
+                try {
+                  onResult(error == null && success);
+                } finally {
+                  scheduleNext(probeConfig.getPeriodSeconds());
+                }
+              });
+    }
+
+    private void onResult(boolean success) {
       if (success) {
         // current success increases successes count and clears failures count
         successes++;
         failures = 0;
 
         if (successes >= probeConfig.getSuccessThreshold()) {
-          // TODO make them completable futures? Then we should ensure that
-          // consecutive calls won't use executors thread time but rather use common thread
-          // pool to perform processing of passed probe result
-          if (cancelled.get()) {
-            return;
-          }
           // Health check satisfies probeConfig health conditions
-          probeResultConsumer.accept(
-              new ProbeResult(
-                  probeFactory.getWorkspaceId(),
-                  probeFactory.getMachineName(),
-                  probeFactory.getServerName(),
-                  ProbeStatus.PASSED));
+          deliver(ProbeStatus.PASSED);
         }
       } else {
         // current failure increases failures count and clears successes count
@@ -169,35 +168,54 @@ public class ProbeScheduler {
         successes = 0;
 
         if (failures >= probeConfig.getFailureThreshold()) {
-          if (cancelled.get()) {
-            return;
-          }
           // Health check satisfies probeConfig failure conditions
-          probeResultConsumer.accept(
-              new ProbeResult(
-                  probeFactory.getWorkspaceId(),
-                  probeFactory.getMachineName(),
-                  probeFactory.getServerName(),
-                  ProbeStatus.FAILED));
+          deliver(ProbeStatus.FAILED);
         }
       }
     }
 
-    public void cancel() {
-      cancelled.set(true);
-    }
-  }
-
-  private class TimeoutProbeTask extends TimerTask {
-    private final Probe probe;
-
-    public TimeoutProbeTask(Probe probe) {
-      this.probe = probe;
+    /**
+     * Passes the result to the consumer in a callback thread of the executor. Results are completed
+     * in the IO threads or the scheduler thread of the executor, while consumers publish events
+     * synchronously, so calling them here would delay checks of all the workspaces. Deliveries are
+     * chained, so the consumer gets results of the probe in the order of the checks.
+     */
+    private void deliver(ProbeStatus status) {
+      if (cancelled.get()) {
+        return;
+      }
+      ProbeResult result =
+          new ProbeResult(
+              probeFactory.getWorkspaceId(),
+              probeFactory.getMachineName(),
+              probeFactory.getServerName(),
+              status);
+      lastDelivery =
+          lastDelivery.thenRunAsync(
+              () -> {
+                if (cancelled.get()) {
+                  return;
+                }
+                try {
+                  probeResultConsumer.accept(result);
+                } catch (RuntimeException e) {
+                  LOG.error(
+                      "Probe result of server '{}' of workspace '{}' can't be processed: {}",
+                      result.getServerName(),
+                      result.getWorkspaceId(),
+                      e.getMessage(),
+                      e);
+                }
+              },
+              executor::executeCallback);
     }
 
-    @Override
-    public void run() {
-      probe.cancel();
+    void cancel() {
+      cancelled.set(true);
+      ScheduledFuture<?> check = scheduledCheck;
+      if (check != null) {
+        check.cancel(false);
+      }
     }
   }
 }
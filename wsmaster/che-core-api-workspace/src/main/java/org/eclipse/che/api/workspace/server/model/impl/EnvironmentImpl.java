@@ -28,6 +28,8 @@ import javax.persistence.Table;
 import org.eclipse.che.api.core.model.workspace.config.Environment;
 import org.eclipse.che.api.core.model.workspace.config.MachineConfig;
 import org.eclipse.che.api.core.model.workspace.config.Recipe;
+import org.eclipse.persistence.annotations.BatchFetch;
+import org.eclipse.persistence.annotations.BatchFetchType;
 
 /**
  * Data object for {@link Environment}.
@@ -46,6 +48,7 @@ public class EnvironmentImpl implements Environment {
   @Embedded private RecipeImpl recipe;
 
   @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+  @BatchFetch(BatchFetchType.IN)
   @JoinColumn(name = "machines_id")
   @MapKeyColumn(name = "machines_key")
   private Map<String, MachineConfigImpl> machines;
@@ -31,6 +31,8 @@ import javax.persistence.Table;
 import org.eclipse.che.api.core.model.workspace.config.MachineConfig;
 import org.eclipse.che.api.core.model.workspace.config.ServerConfig;
 import org.eclipse.che.api.core.model.workspace.config.Volume;
+import org.eclipse.persistence.annotations.BatchFetch;
+import org.eclipse.persistence.annotations.BatchFetchType;
 
 /** @author Alexander Garagatyi */
 @Entity(name = "ExternalMachine")
@@ -43,6 +45,7 @@ public class MachineConfigImpl implements MachineConfig {
   private Long id;
 
   @ElementCollection(fetch = FetchType.EAGER)
+  @BatchFetch(BatchFetchType.IN)
   @CollectionTable(
     name = "externalmachine_installers",
     joinColumns = @JoinColumn(name = "externalmachine_id")
@@ -51,6 +54,7 @@ public class MachineConfigImpl implements MachineConfig {
   private List<String> installers;
 
   @ElementCollection(fetch = FetchType.EAGER)
+  @BatchFetch(BatchFetchType.IN)
   @CollectionTable(
     name = "externalmachine_attributes",
     joinColumns = @JoinColumn(name = "externalmachine_id")
@@ -60,6 +64,7 @@ public class MachineConfigImpl implements MachineConfig {
   private Map<String, String> attributes;
 
   @ElementCollection(fetch = FetchType.EAGER)
+  @BatchFetch(BatchFetchType.IN)
   @CollectionTable(
     name = "externalmachine_env",
     joinColumns = @JoinColumn(name = "externalmachine_id")
@@ -69,11 +74,13 @@ public class MachineConfigImpl implements MachineConfig {
   private Map<String, String> env;
 
   @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+  @BatchFetch(BatchFetchType.IN)
   @JoinColumn(name = "servers_id")
   @MapKeyColumn(name = "servers_key")
   private Map<String, ServerConfigImpl> servers;
 
   @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+  @BatchFetch(BatchFetchType.IN)
   @JoinColumn(name = "machine_id")
   @MapKeyColumn(name = "name")
   private Map<String, VolumeImpl> volumes;
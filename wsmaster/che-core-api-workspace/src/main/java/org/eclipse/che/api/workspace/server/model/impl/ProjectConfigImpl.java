@@ -41,6 +41,8 @@ import javax.persistence.Transient;
 import org.eclipse.che.api.core.model.workspace.config.ProjectConfig;
 import org.eclipse.che.api.core.model.workspace.config.SourceStorage;
 import org.eclipse.che.api.workspace.shared.ProjectProblemImpl;
+import org.eclipse.persistence.annotations.BatchFetch;
+import org.eclipse.persistence.annotations.BatchFetchType;
 
 /**
  * Data object for {@link ProjectConfig}.
@@ -70,10 +72,12 @@ public class ProjectConfigImpl implements ProjectConfig {
   private String description;
 
   @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
+  @BatchFetch(BatchFetchType.IN)
   @JoinColumn(name = "source_id")
   private SourceStorageImpl source;
 
   @ElementCollection(fetch = FetchType.EAGER)
+  @BatchFetch(BatchFetchType.IN)
   @CollectionTable(
     name = "projectconfig_mixins",
     joinColumns = @JoinColumn(name = "projectconfig_id")
@@ -82,6 +86,7 @@ public class ProjectConfigImpl implements ProjectConfig {
   private List<String> mixins;
 
   @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+  @BatchFetch(BatchFetchType.IN)
   @JoinColumn(name = "dbattributes_id")
   @MapKey(name = "name")
   private Map<String, Attribute> dbAttributes;
@@ -304,6 +309,7 @@ public class ProjectConfigImpl implements ProjectConfig {
     private String name;
 
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchFetch(BatchFetchType.IN)
     @CollectionTable(
       name = "projectattribute_values",
       joinColumns = @JoinColumn(name = "projectattribute_id")
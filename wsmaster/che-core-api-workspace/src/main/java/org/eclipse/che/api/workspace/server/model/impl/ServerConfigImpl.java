@@ -24,6 +24,8 @@ import javax.persistence.JoinColumn;
 import javax.persistence.MapKeyColumn;
 import javax.persistence.Table;
 import org.eclipse.che.api.core.model.workspace.config.ServerConfig;
+import org.eclipse.persistence.annotations.BatchFetch;
+import org.eclipse.persistence.annotations.BatchFetchType;
 
 /** @author Alexander Garagatyi */
 @Entity(name = "ServerConf")
@@ -45,6 +47,7 @@ public class ServerConfigImpl implements ServerConfig {
   private String path;
 
   @ElementCollection(fetch = FetchType.EAGER)
+  @BatchFetch(BatchFetchType.IN)
   @CollectionTable(
     name = "serverconf_attributes",
     joinColumns = @JoinColumn(name = "serverconf_id")
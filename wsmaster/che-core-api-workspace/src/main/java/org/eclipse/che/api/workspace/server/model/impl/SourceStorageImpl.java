@@ -24,6 +24,8 @@ import javax.persistence.JoinColumn;
 import javax.persistence.MapKeyColumn;
 import javax.persistence.Table;
 import org.eclipse.che.api.core.model.workspace.config.SourceStorage;
+import org.eclipse.persistence.annotations.BatchFetch;
+import org.eclipse.persistence.annotations.BatchFetchType;
 
 /**
  * Data object for {@link SourceStorage}.
@@ -46,6 +48,7 @@ public class SourceStorageImpl implements SourceStorage {
   private String location;
 
   @ElementCollection(fetch = FetchType.EAGER)
+  @BatchFetch(BatchFetchType.IN)
   @CollectionTable(
     name = "sourcestorage_parameters",
     joinColumns = @JoinColumn(name = "sourcestorage_id")
@@ -38,6 +38,8 @@ import org.eclipse.che.api.core.model.workspace.Workspace;
 import org.eclipse.che.api.core.model.workspace.WorkspaceConfig;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.commons.lang.NameGenerator;
+import org.eclipse.persistence.annotations.BatchFetch;
+import org.eclipse.persistence.annotations.BatchFetchType;
 import org.eclipse.persistence.descriptors.DescriptorEvent;
 import org.eclipse.persistence.descriptors.DescriptorEventAdapter;
 
@@ -91,10 +93,12 @@ public class WorkspaceImpl implements Workspace {
   private String name;
 
   @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
+  @BatchFetch(BatchFetchType.IN)
   @JoinColumn(name = "config_id")
   private WorkspaceConfigImpl config;
 
   @ElementCollection(fetch = FetchType.EAGER)
+  @BatchFetch(BatchFetchType.IN)
   @CollectionTable(name = "workspace_attributes", joinColumns = @JoinColumn(name = "workspace_id"))
   @MapKeyColumn(name = "attributes_key")
   @Column(name = "attributes")
@@ -104,6 +108,7 @@ public class WorkspaceImpl implements Workspace {
   private boolean isTemporary;
 
   @ManyToOne
+  @BatchFetch(BatchFetchType.IN)
   @JoinColumn(name = "accountid", nullable = false)
   private AccountImpl account;
 
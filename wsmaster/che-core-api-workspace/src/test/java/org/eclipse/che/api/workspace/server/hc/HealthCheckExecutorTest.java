@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.server.hc;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link HealthCheckExecutor}. */
+public class HealthCheckExecutorTest {
+
+  private static final long TIMEOUT_MS = 1000;
+
+  private HealthCheckExecutor executor;
+  private HttpServer httpServer;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    executor = new HealthCheckExecutor(2);
+    httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    httpServer.createContext(
+        "/ok",
+        exchange -> {
+          exchange.sendResponseHeaders(200, -1);
+          exchange.close();
+        });
+    httpServer.createContext(
+        "/missing",
+        exchange -> {
+          exchange.sendResponseHeaders(404, -1);
+          exchange.close();
+        });
+    httpServer.start();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    httpServer.stop(0);
+    executor.shutdown();
+  }
+
+  @Test(timeOut = 5000)
+  public void shouldReturnResponseCodeOfHttpCheck() throws Exception {
+    assertEquals(
+        executor.checkHttp("test", url("/ok"), headers(), TIMEOUT_MS).get().intValue(), 200);
+    assertEquals(
+        executor.checkHttp("test", url("/missing"), headers(), TIMEOUT_MS).get().intValue(), 404);
+  }
+
+  @Test(timeOut = 5000)
+  public void shouldFailHttpCheckIfConnectionIsRefused() throws Exception {
+    URL url = new URL("http", "localhost", freePort(), "/ok");
+
+    try {
+      executor.checkHttp("test", url, headers(), TIMEOUT_MS).get();
+      fail("Check is expected to fail");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IOException, e.getCause().toString());
+    }
+  }
+
+  @Test(timeOut = 5000)
+  public void shouldFailHttpCheckIfServerDoesNotRespondInTime() throws Exception {
+    try (ServerSocket silentServer = new ServerSocket(0)) {
+      URL url = new URL("http", "localhost", silentServer.getLocalPort(), "/");
+
+      try {
+        executor.checkHttp("test", url, headers(), 100).get();
+        fail("Check is expected to time out");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof TimeoutException, e.getCause().toString());
+      }
+    }
+  }
+
+  @Test(timeOut = 5000)
+  public void shouldCheckTcpConnection() throws Exception {
+    try (ServerSocket server = new ServerSocket(0)) {
+      executor.checkTcp("test", "localhost", server.getLocalPort(), TIMEOUT_MS).get();
+    }
+
+    try {
+      executor.checkTcp("test", "localhost", freePort(), TIMEOUT_MS).get();
+      fail("Check is expected to fail");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IOException, e.getCause().toString());
+    }
+  }
+
+  @Test(timeOut = 5000)
+  public void shouldCallTimeoutHandlerWhenBlockingCheckTimesOut() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch timedOut = new CountDownLatch(1);
+
+    boolean available =
+        executor
+            .checkBlocking(
+                "test",
+                () -> {
+                  try {
+                    return release.await(5, TimeUnit.SECONDS);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return true;
+                  }
+                },
+                timedOut::countDown,
+                100)
+            .get();
+
+    assertFalse(available);
+    assertTrue(timedOut.await(1, TimeUnit.SECONDS));
+    release.countDown();
+  }
+
+  @Test(timeOut = 5000)
+  public void shouldCollectStatisticsPerServerType() throws Exception {
+    executor.checkHttp("wsagent", url("/ok"), headers(), TIMEOUT_MS).get();
+    executor.checkBlocking("terminal", () -> true, () -> {}, TIMEOUT_MS).get();
+    executor.checkBlocking("terminal", () -> false, () -> {}, TIMEOUT_MS).get();
+
+    Map<String, HealthCheckExecutor.CheckStats> stats = executor.getStats();
+
+    assertEquals(stats.size(), 2);
+    assertEquals(stats.get("wsagent").getChecks(), 1);
+    assertEquals(stats.get("wsagent").getFailures(), 0);
+    assertEquals(stats.get("terminal").getChecks(), 2);
+    assertEquals(stats.get("terminal").getFailures(), 1);
+  }
+
+  @Test(timeOut = 5000)
+  public void shouldCheckHttpServerThroughSelectedProxy() throws Exception {
+    executor.shutdown();
+    // the test server acts as a proxy, it receives requests with absolute URIs
+    InetSocketAddress proxyAddress =
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), httpServer.getAddress().getPort());
+    executor = new HealthCheckExecutor(2, proxySelector(new Proxy(Proxy.Type.HTTP, proxyAddress)));
+    URL url = new URL("http", "server.behind.proxy.invalid", 8080, "/ok");
+
+    assertEquals(executor.checkHttp("test", url, headers(), TIMEOUT_MS).get().intValue(), 200);
+  }
+
+  @Test(timeOut = 5000)
+  public void shouldExecuteCallbacksOutsideOfCheckThreads() throws Exception {
+    CountDownLatch executed = new CountDownLatch(1);
+    String[] callbackThread = new String[1];
+
+    executor
+        .checkHttp("test", url("/ok"), headers(), TIMEOUT_MS)
+        .thenRunAsync(
+            () -> {
+              callbackThread[0] = Thread.currentThread().getName();
+              executed.countDown();
+            },
+            executor::executeCallback);
+
+    assertTrue(executed.await(1, TimeUnit.SECONDS));
+    assertTrue(callbackThread[0].startsWith("ServerCheckCallbacks-"), callbackThread[0]);
+  }
+
+  @Test
+  public void shouldParseStatusCode() throws Exception {
+    assertEquals(HealthCheckExecutor.parseStatusCode("HTTP/1.1 302 Found"), 302);
+    assertEquals(HealthCheckExecutor.parseStatusCode("HTTP/1.0 200"), 200);
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void shouldFailToParseMalformedStatusLine() throws Exception {
+    HealthCheckExecutor.parseStatusCode("garbage");
+  }
+
+  private URL url(String path) throws Exception {
+    return new URL("http", "localhost", httpServer.getAddress().getPort(), path);
+  }
+
+  private static Map<String, String> headers() {
+    return Collections.singletonMap("Connection", "close");
+  }
+
+  private static ProxySelector proxySelector(Proxy proxy) {
+    return new ProxySelector() {
+      @Override
+      public List<Proxy> select(URI uri) {
+        return Collections.singletonList(proxy);
+      }
+
+      @Override
+      public void connectFailed(URI uri, SocketAddress address, IOException e) {}
+    };
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
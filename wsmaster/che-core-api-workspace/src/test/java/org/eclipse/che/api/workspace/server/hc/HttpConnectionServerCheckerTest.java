@@ -22,7 +22,6 @@ import static org.testng.Assert.assertTrue;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.Timer;
 import java.util.concurrent.TimeUnit;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
@@ -38,7 +37,7 @@ public class HttpConnectionServerCheckerTest {
   private String SERVER_REF = "ref1";
   private URL SERVER_URL;
 
-  @Mock private Timer timer;
+  @Mock private HealthCheckExecutor executor;
   @Mock private HttpURLConnection conn;
 
   private HttpConnectionServerChecker checker;
@@ -50,7 +49,7 @@ public class HttpConnectionServerCheckerTest {
     checker =
         spy(
             new HttpConnectionServerChecker(
-                SERVER_URL, MACHINE_NAME, SERVER_REF, 1, 10, TimeUnit.SECONDS, timer));
+                SERVER_URL, MACHINE_NAME, SERVER_REF, 1, 10, TimeUnit.SECONDS, executor));
 
     doReturn(conn).when(checker).createConnection(nullable(URL.class));
     when(conn.getResponseCode()).thenReturn(200);
@@ -21,7 +21,6 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
-import java.util.Timer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -37,21 +36,21 @@ public class ServerCheckerTest {
   private static final long PERIOD_MS = 10;
   private static final long TIMEOUT_MS = 500;
 
-  private Timer timer;
+  private HealthCheckExecutor executor;
   private TestServerChecker checker;
 
   @BeforeMethod
   public void setUp() throws Exception {
-    timer = new Timer(true);
+    executor = new HealthCheckExecutor(2);
     checker =
         spy(
             new TestServerChecker(
-                MACHINE_NAME, SERVER_REF, PERIOD_MS, TIMEOUT_MS, TimeUnit.MILLISECONDS, timer));
+                MACHINE_NAME, SERVER_REF, PERIOD_MS, TIMEOUT_MS, TimeUnit.MILLISECONDS, executor));
   }
 
   @AfterMethod
   public void tearDown() throws Exception {
-    timer.cancel();
+    executor.shutdown();
   }
 
   @Test(timeOut = TIMEOUT_MS)
@@ -80,7 +79,12 @@ public class ServerCheckerTest {
     checker =
         spy(
             new TestServerChecker(
-                MACHINE_NAME, SERVER_REF, PERIOD_MS, PERIOD_MS * 2, TimeUnit.MILLISECONDS, timer));
+                MACHINE_NAME,
+                SERVER_REF,
+                PERIOD_MS,
+                PERIOD_MS * 2,
+                TimeUnit.MILLISECONDS,
+                executor));
 
     // ensure server not available before start
     when(checker.isAvailable()).thenReturn(false);
@@ -110,8 +114,8 @@ public class ServerCheckerTest {
         long period,
         long timeout,
         TimeUnit timeUnit,
-        Timer timer) {
-      super(machineName, serverRef, period, timeout, timeUnit, timer);
+        HealthCheckExecutor executor) {
+      super(machineName, serverRef, period, timeout, timeUnit, executor);
     }
 
     @Override
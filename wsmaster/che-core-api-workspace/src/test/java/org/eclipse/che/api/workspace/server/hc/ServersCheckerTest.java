@@ -54,6 +54,7 @@ public class ServersCheckerTest {
   @Mock private MachineTokenProvider machineTokenProvider;
   @Mock private HttpConnectionServerChecker connectionChecker;
   @Mock private RuntimeIdentity runtimeIdentity;
+  @Mock private HealthCheckExecutor executor;
   private Map<String, ServerImpl> servers;
 
   private CompletableFuture<String> compFuture;
@@ -74,7 +75,10 @@ public class ServersCheckerTest {
 
     when(runtimeIdentity.getWorkspaceId()).thenReturn(WORKSPACE_ID);
 
-    checker = spy(new ServersChecker(runtimeIdentity, MACHINE_NAME, servers, machineTokenProvider));
+    checker =
+        spy(
+            new ServersChecker(
+                runtimeIdentity, MACHINE_NAME, servers, machineTokenProvider, executor));
     when(checker.doCreateChecker(any(URL.class), anyString())).thenReturn(connectionChecker);
     when(machineTokenProvider.getToken(anyString())).thenReturn(MACHINE_TOKEN);
   }
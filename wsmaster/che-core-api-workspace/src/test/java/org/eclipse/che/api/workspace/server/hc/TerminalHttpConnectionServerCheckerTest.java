@@ -16,7 +16,6 @@ import static org.testng.Assert.assertTrue;
 
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.Timer;
 import java.util.concurrent.TimeUnit;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
@@ -30,7 +29,7 @@ public class TerminalHttpConnectionServerCheckerTest {
   private String MACHINE_NAME = "mach1";
   private String SERVER_REF = "ref1";
 
-  @Mock private Timer timer;
+  @Mock private HealthCheckExecutor executor;
   @Mock private HttpURLConnection conn;
 
   private TerminalHttpConnectionServerChecker checker;
@@ -39,7 +38,13 @@ public class TerminalHttpConnectionServerCheckerTest {
   public void setUp() throws Exception {
     checker =
         new TerminalHttpConnectionServerChecker(
-            new URL("http://localhost"), MACHINE_NAME, SERVER_REF, 1, 10, TimeUnit.SECONDS, timer);
+            new URL("http://localhost"),
+            MACHINE_NAME,
+            SERVER_REF,
+            1,
+            10,
+            TimeUnit.SECONDS,
+            executor);
   }
 
   @Test
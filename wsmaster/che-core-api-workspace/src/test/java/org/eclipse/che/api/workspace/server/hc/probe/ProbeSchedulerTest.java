@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2012-2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.server.hc.probe;
+
+import static java.util.Collections.singletonList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.che.api.workspace.server.hc.HealthCheckExecutor;
+import org.eclipse.che.api.workspace.server.hc.probe.ProbeResult.ProbeStatus;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link ProbeScheduler}. */
+public class ProbeSchedulerTest {
+  private static final String WORKSPACE_ID = "wsId";
+
+  private HealthCheckExecutor executor;
+  private ProbeScheduler scheduler;
+  private AtomicInteger checks;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    executor = new HealthCheckExecutor(2);
+    scheduler = new ProbeScheduler(executor);
+    checks = new AtomicInteger();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    scheduler.cancel(WORKSPACE_ID);
+    executor.shutdown();
+  }
+
+  @Test(timeOut = 5000)
+  public void shouldPassProbeResultsToConsumerInCallbackThread() throws Exception {
+    CountDownLatch consumed = new CountDownLatch(1);
+    List<String> consumerThreads = new CopyOnWriteArrayList<>();
+
+    scheduler.schedule(
+        probes(),
+        result -> {
+          consumerThreads.add(Thread.currentThread().getName());
+          consumed.countDown();
+        });
+
+    assertTrue(consumed.await(3, TimeUnit.SECONDS));
+    assertTrue(
+        consumerThreads.get(0).startsWith("ServerCheckCallbacks-"), consumerThreads.get(0));
+  }
+
+  @Test(timeOut = 10_000)
+  public void shouldCheckProbesWhileConsumerIsBlocked() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    List<ProbeResult> results = new CopyOnWriteArrayList<>();
+
+    scheduler.schedule(
+        probes(),
+        result -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          results.add(result);
+        });
+
+    while (checks.get() < 2) {
+      TimeUnit.MILLISECONDS.sleep(50);
+    }
+    assertTrue(results.isEmpty());
+    release.countDown();
+    while (results.size() < 2) {
+      TimeUnit.MILLISECONDS.sleep(50);
+    }
+    assertEquals(results.get(0).getStatus(), ProbeStatus.PASSED);
+    assertEquals(results.get(1).getStatus(), ProbeStatus.PASSED);
+  }
+
+  private WorkspaceProbes probes() {
+    ProbeConfig config = new ProbeConfig(1, 1, 1, 1, 0) {};
+    return new WorkspaceProbes(
+        WORKSPACE_ID,
+        singletonList(
+            new ProbeFactory(WORKSPACE_ID, "machine", "server", config) {
+              @Override
+              public Probe get() {
+                return new Probe() {
+                  @Override
+                  protected boolean doProbe() {
+                    checks.incrementAndGet();
+                    return true;
+                  }
+                };
+              }
+            }));
+  }
+}
@@ -20,6 +20,8 @@ import java.util.ArrayList;
 import java.util.List;
 import javax.persistence.EntityManager;
 import org.eclipse.che.account.spi.AccountImpl;
+import org.eclipse.che.api.core.Page;
+import org.eclipse.che.api.workspace.server.jpa.WorkspaceTckModule.SqlStatementsCounter;
 import org.eclipse.che.api.workspace.server.model.impl.ProjectConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
@@ -144,6 +146,70 @@ public class JpaWorkspaceDaoTest {
     assertEquals(result.getConfig().getProjects().get(0).getAttributes().size(), 3);
   }
 
+  @Test
+  public void shouldNotIncreaseNumberOfStatementsWithNumberOfWorkspacesInNamespacePage()
+      throws Exception {
+    final AccountImpl account = new AccountImpl("accountId", "namespace", "test");
+    persist(account);
+    persistWorkspaces(account, 0, 2);
+    final long twoWorkspacesStatements =
+        countStatements(() -> workspaceDao.getByNamespace("namespace", 30, 0));
+
+    persistWorkspaces(account, 2, 8);
+    final long eightWorkspacesStatements =
+        countStatements(() -> workspaceDao.getByNamespace("namespace", 30, 0));
+
+    assertEquals(eightWorkspacesStatements, twoWorkspacesStatements);
+  }
+
+  @Test
+  public void shouldNotIncreaseNumberOfStatementsWithNumberOfWorkspacesInPage() throws Exception {
+    final AccountImpl account = new AccountImpl("accountId", "namespace", "test");
+    persist(account);
+    persistWorkspaces(account, 0, 2);
+    final long twoWorkspacesStatements =
+        countStatements(() -> workspaceDao.getWorkspaces(false, 30, 0));
+
+    persistWorkspaces(account, 2, 8);
+    final long eightWorkspacesStatements =
+        countStatements(() -> workspaceDao.getWorkspaces(false, 30, 0));
+
+    assertEquals(eightWorkspacesStatements, twoWorkspacesStatements);
+  }
+
+  private void persistWorkspaces(AccountImpl account, int from, int to) {
+    for (int i = from; i < to; i++) {
+      final WorkspaceImpl workspace = createWorkspace("id" + i, account, "name" + i);
+      workspace.getConfig().getProjects().forEach(ProjectConfigImpl::prePersistAttributes);
+      persist(workspace);
+    }
+  }
+
+  private void persist(Object entity) {
+    manager.getTransaction().begin();
+    manager.persist(entity);
+    manager.getTransaction().commit();
+    manager.clear();
+  }
+
+  /**
+   * Returns the number of SQL statements executed while loading the page, the shared cache is
+   * evicted before so the whole workspace graph is read from the database.
+   */
+  private long countStatements(PageLoader loader) throws Exception {
+    manager.getEntityManagerFactory().getCache().evictAll();
+    SqlStatementsCounter.reset();
+    final Page<WorkspaceImpl> page = loader.load();
+    final long count = SqlStatementsCounter.count();
+    // check that the whole page is loaded and the result is not empty
+    assertEquals(page.getItemsCount(), page.getTotalItemsCount());
+    return count;
+  }
+
+  private interface PageLoader {
+    Page<WorkspaceImpl> load() throws Exception;
+  }
+
   private long asLong(String query) {
     return manager.createQuery(query, Long.class).getSingleResult();
   }
@@ -12,6 +12,7 @@ package org.eclipse.che.api.workspace.server.jpa;
 
 import com.google.inject.TypeLiteral;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
 import org.eclipse.che.account.spi.AccountImpl;
 import org.eclipse.che.api.workspace.server.model.impl.CommandImpl;
 import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
@@ -38,6 +39,9 @@ import org.eclipse.che.core.db.DBInitializer;
 import org.eclipse.che.core.db.h2.jpa.eclipselink.H2ExceptionHandler;
 import org.eclipse.che.core.db.schema.SchemaInitializer;
 import org.eclipse.che.core.db.schema.impl.flyway.FlywaySchemaInitializer;
+import org.eclipse.persistence.config.PersistenceUnitProperties;
+import org.eclipse.persistence.sessions.SessionEvent;
+import org.eclipse.persistence.sessions.SessionEventAdapter;
 import org.h2.Driver;
 
 /** @author Yevhenii Voevodin */
@@ -67,6 +71,9 @@ public class WorkspaceTckModule extends TckModule {
             .addEntityClass(
                 "org.eclipse.che.api.workspace.server.model.impl.ProjectConfigImpl$Attribute")
             .setExceptionHandler(H2ExceptionHandler.class)
+            .setProperty(
+                PersistenceUnitProperties.SESSION_EVENT_LISTENER_CLASS,
+                SqlStatementsCounter.class.getName())
             .build());
     bind(DBInitializer.class).asEagerSingleton();
     bind(SchemaInitializer.class)
@@ -82,6 +89,26 @@ public class WorkspaceTckModule extends TckModule {
     bind(StackDao.class).to(JpaStackDao.class);
   }
 
+  /** Counts SQL statements executed by the persistence unit. */
+  public static class SqlStatementsCounter extends SessionEventAdapter {
+
+    private static final AtomicLong COUNT = new AtomicLong();
+
+    /** Returns the number of statements executed since the last {@link #reset()}. */
+    public static long count() {
+      return COUNT.get();
+    }
+
+    public static void reset() {
+      COUNT.set(0);
+    }
+
+    @Override
+    public void preExecuteCall(SessionEvent event) {
+      COUNT.incrementAndGet();
+    }
+  }
+
   private static class WorkspaceRepository extends JpaTckRepository<WorkspaceImpl> {
     public WorkspaceRepository() {
       super(WorkspaceImpl.class);